@@ -1,30 +1,22 @@
 package net.rsmogura.picoson;
 
-import net.rsmogura.picoson.abi.Names;
-
-import java.lang.ref.SoftReference;
-import java.lang.ref.WeakReference;
-import java.lang.reflect.Field;
-import java.util.concurrent.ConcurrentHashMap;
+import net.rsmogura.picoson.abi.JsonSupportRegistry;
 
 public class Json {
-  //XXX Can create memory leak, as both class and json support do not use weak references
-  private static final ConcurrentHashMap<Class<?>, JsonSupport<?>> classToSupport
-    = new ConcurrentHashMap<>();
 
+  /**
+   * Returns support of JSON class. Registries generated for JSON modules are consulted first.
+   * Support of class, which doesn't belong to any module, is registered by initializer of JSON
+   * class, and held in {@link ClassValue}, so lookup doesn't use reflection, and doesn't prevent
+   * class from being unloaded.
+   *
+   * @throws IllegalArgumentException if class is not a JSON class
+   */
   public static <T> JsonSupport<T> jsonSupport(Class<T> clazz) {
-    return (JsonSupport<T>) classToSupport.computeIfAbsent(clazz, Json::findJsonSupportOrThrow);
-  }
-
-  private static <T> JsonSupport<T> findJsonSupportOrThrow(Class<T> clazz) {
-    try {
-      Field jsonSupportHolder = clazz.getDeclaredField(Names.SUPPORT_CLASS_HOLDER);
-      jsonSupportHolder.setAccessible(true);
-      return (JsonSupport<T>) jsonSupportHolder.get(null);
-    } catch (NoSuchFieldException e) {
-      throw new RuntimeException(e);
-    } catch (IllegalAccessException e) {
-      throw new RuntimeException(e);
+    final JsonSupport<T> moduleSupport = JsonSupportRegistry.lookupModules(clazz);
+    if (moduleSupport != null) {
+      return moduleSupport;
     }
+    return JsonSupportRegistry.lookup(clazz);
   }
 }
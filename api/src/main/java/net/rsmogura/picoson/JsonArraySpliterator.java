@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator reading elements of JSON array one by one, as they are consumed, so array of any
+ * size can be processed in constant memory. The array is started by first advance; if value is
+ * null, there are no elements. The array is ended when last element is consumed, and reader is
+ * positioned after it, but it's not closed.
+ * <br />
+ * Elements are read sequentially; split batches elements read so far, as
+ * {@link Spliterators.AbstractSpliterator} does, so elements can be processed by parallel
+ * stream.
+ *
+ * @see JsonSupport#stream(JsonReader)
+ */
+final class JsonArraySpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+  private static final int NOT_STARTED = 0;
+  private static final int IN_ARRAY = 1;
+  private static final int FINISHED = 2;
+
+  private final JsonSupport<T> support;
+  private final JsonReader in;
+  private int state = NOT_STARTED;
+
+  JsonArraySpliterator(JsonSupport<T> support, JsonReader in) {
+    super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+    this.support = support;
+    this.in = in;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    if (state == NOT_STARTED) {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        state = FINISHED;
+        return false;
+      }
+      in.beginArray();
+      state = IN_ARRAY;
+    }
+    if (state == FINISHED) {
+      return false;
+    }
+
+    if (!in.hasNext()) {
+      in.endArray();
+      state = FINISHED;
+      return false;
+    }
+    if (in.peek() == JsonToken.NULL) {
+      throw new JsonReadException("Null element of array at " + in.getPath());
+    }
+    action.accept(support.read(in));
+    return true;
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator reading top level values of JSON Lines one by one, as they are consumed. Reader is
+ * switched to {@link JsonReader#setJsonLines(boolean) JSON Lines} mode, so all values are read
+ * by single reader, from the same buffer, until end of input. Reader is not closed.
+ *
+ * @see JsonSupport#streamLines(JsonReader)
+ */
+final class JsonLinesSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+  private final JsonSupport<T> support;
+  private final JsonReader in;
+
+  JsonLinesSpliterator(JsonSupport<T> support, JsonReader in) {
+    super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+    this.support = support;
+    this.in = in;
+    in.setJsonLines(true);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    final JsonToken token = in.peek();
+    if (token == JsonToken.END_DOCUMENT) {
+      return false;
+    }
+    if (token == JsonToken.NULL) {
+      throw new JsonReadException("Null value of JSON Lines at " + in.getPath());
+    }
+    action.accept(support.read(in));
+    return true;
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Thread local pool of readers and writers. Setting up reader or writer (allocating its buffers
+ * and stacks) can cost as much as reading or writing small message, so pooled instances are
+ * reset with new input or output, and reused.
+ * <br />
+ * Every thread keeps at most one reader and one writer of each kind (characters and UTF-8).
+ * Instance is taken from pool by <code>acquire</code> method, and has to be given back by
+ * {@link #release(JsonReader)} or {@link #release(JsonWriter)}, typically in
+ * <code>finally</code> block. If pooled instance is in use (i.e. by nested read), new instance
+ * is created.
+ * <pre>
+ *   final JsonReader reader = JsonPool.acquireReader(bytes);
+ *   try {
+ *     return support.read(reader);
+ *   } finally {
+ *     JsonPool.release(reader);
+ *   }
+ * </pre>
+ * Pooled readers don't track path (see {@link JsonReader#setTrackPath(boolean)}), so error
+ * messages contain only nesting, like <code>$.*[*]</code>. Tracking can be switched on by
+ * system property <code>picoson.reader.trackPath</code> when debugging malformed input.
+ */
+public final class JsonPool {
+  private static final ThreadLocal<Pooled> POOLED = ThreadLocal.withInitial(Pooled::new);
+
+  private JsonPool() {
+  }
+
+  /** Acquires reader of JSON from {@code in}. */
+  public static JsonReader acquireReader(Reader in) {
+    final Pooled pooled = POOLED.get();
+    final JsonReader reader = pooled.reader;
+    if (reader == null) {
+      return newReader(new JsonReader(in));
+    }
+    pooled.reader = null;
+    return reader.reset(in);
+  }
+
+  /** Acquires reader of UTF-8 encoded JSON from {@code in}. */
+  public static JsonReader acquireReader(InputStream in) {
+    final JsonReader reader = takeUtf8Reader();
+    return reader != null ? reader.reset(in) : newReader(new JsonReader(in));
+  }
+
+  /** Acquires reader of UTF-8 encoded JSON in given array. */
+  public static JsonReader acquireReader(byte[] in) {
+    return acquireReader(in, 0, in.length);
+  }
+
+  /** Acquires reader of UTF-8 encoded JSON in given range of array. */
+  public static JsonReader acquireReader(byte[] in, int offset, int length) {
+    final JsonReader reader = takeUtf8Reader();
+    return reader != null
+        ? reader.reset(in, offset, length) : newReader(new JsonReader(in, offset, length));
+  }
+
+  /** Acquires reader of UTF-8 encoded JSON in remaining bytes of given buffer. */
+  public static JsonReader acquireReader(ByteBuffer in) {
+    final JsonReader reader = takeUtf8Reader();
+    return reader != null ? reader.reset(in) : newReader(new JsonReader(in));
+  }
+
+  /**
+   * Gives reader back to pool. Reader releases reference to its input, and it can't be used
+   * after this call. The input is not closed.
+   */
+  public static void release(JsonReader reader) {
+    reader.detach();
+    reader.setLenient(false);
+    reader.setTrackPath(JsonReader.TRACK_PATH);
+    reader.setJsonLines(false);
+    reader.setStringCache(null);
+    final Pooled pooled = POOLED.get();
+    if (reader.isUtf8()) {
+      pooled.utf8Reader = reader;
+    } else {
+      pooled.reader = reader;
+    }
+  }
+
+  /** Acquires writer of JSON to {@code out}. */
+  public static JsonWriter acquireWriter(Writer out) {
+    final Pooled pooled = POOLED.get();
+    final JsonWriter writer = pooled.writer;
+    if (writer == null) {
+      return new JsonWriter(out);
+    }
+    pooled.writer = null;
+    return writer.reset(out);
+  }
+
+  /** Acquires writer of UTF-8 encoded JSON to {@code out}. */
+  public static JsonWriter acquireWriter(OutputStream out) {
+    final JsonWriter writer = takeUtf8Writer();
+    return writer != null ? writer.reset(out) : new JsonWriter(out);
+  }
+
+  /** Acquires writer of UTF-8 encoded JSON to channel. */
+  public static JsonWriter acquireWriter(WritableByteChannel out) {
+    final JsonWriter writer = takeUtf8Writer();
+    return writer != null ? writer.reset(out) : new JsonWriter(out);
+  }
+
+  /** Acquires writer putting UTF-8 encoded JSON into given buffer. */
+  public static JsonWriter acquireWriter(ByteBuffer out) {
+    final JsonWriter writer = takeUtf8Writer();
+    return writer != null ? writer.reset(out) : new JsonWriter(out);
+  }
+
+  /**
+   * Gives writer back to pool. Writer releases reference to its output, and it can't be used
+   * after this call. Data not flushed are discarded, so writer should be flushed before it's
+   * released.
+   */
+  public static void release(JsonWriter writer) {
+    writer.detach();
+    writer.setJsonLines(false);
+    final Pooled pooled = POOLED.get();
+    if (writer.isUtf8()) {
+      pooled.utf8Writer = writer;
+    } else {
+      pooled.writer = writer;
+    }
+  }
+
+  private static JsonReader newReader(JsonReader reader) {
+    reader.setTrackPath(JsonReader.TRACK_PATH);
+    return reader;
+  }
+
+  private static JsonReader takeUtf8Reader() {
+    final Pooled pooled = POOLED.get();
+    final JsonReader reader = pooled.utf8Reader;
+    pooled.utf8Reader = null;
+    return reader;
+  }
+
+  private static JsonWriter takeUtf8Writer() {
+    final Pooled pooled = POOLED.get();
+    final JsonWriter writer = pooled.utf8Writer;
+    pooled.utf8Writer = null;
+    return writer;
+  }
+
+  /** Instances pooled by single thread, null if not pooled or in use. */
+  private static final class Pooled {
+    JsonReader reader;
+    JsonReader utf8Reader;
+    JsonWriter writer;
+    JsonWriter utf8Writer;
+  }
+}
@@ -16,13 +16,34 @@
 package net.rsmogura.picoson;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import net.rsmogura.picoson.abi.JsonNameTable;
+import net.rsmogura.picoson.gson.AbstractJsonReader;
+import net.rsmogura.picoson.gson.MappedJsonReader;
+import net.rsmogura.picoson.gson.Utf8JsonReader;
 
 /**
  * Responsible for reading JSON data in sequential way.
+ * <br />
+ * Path reported by {@link #getPath()} and in error messages is tracked for values read by
+ * methods of this class. Values read by generated code (through {@link JsonSupport}) are read
+ * without tracking path inside them, so error message reports path to the value, and
+ * wildcards inside it, like <code>$.items[3].*.*</code>. Tracking inside generated reads is
+ * opted in by {@link #setTrackPath(boolean) setTrackPath(true)}, or for all readers by system
+ * property <code>picoson.reader.trackPath</code>, when debugging malformed input.
  */
 public class JsonReader {
-  private final net.rsmogura.picoson.gson.JsonReader gsonReader;
+  /** Path tracking inside generated reads, system property <code>picoson.reader.trackPath</code>. */
+  static final boolean TRACK_PATH = Boolean.getBoolean("picoson.reader.trackPath");
+
+  private AbstractJsonReader gsonReader;
+
+  private boolean trackGeneratedPath = TRACK_PATH;
+
+  private StringCache stringCache;
 
   public void setLenient(boolean lenient) {
     gsonReader.setLenient(lenient);
@@ -32,7 +53,47 @@ public class JsonReader {
     return gsonReader.isLenient();
   }
 
-  protected JsonReader(net.rsmogura.picoson.gson.JsonReader gsonReader) {
+  /**
+   * Configures if this reader tracks names and indices of path reported by {@link #getPath()},
+   * including values read by generated code.
+   *
+   * @see AbstractJsonReader#setTrackPath(boolean)
+   */
+  public void setTrackPath(boolean trackPath) {
+    gsonReader.setTrackPath(trackPath);
+    trackGeneratedPath = trackPath;
+  }
+
+  public boolean isTrackPath() {
+    return gsonReader.isTrackPath();
+  }
+
+  /**
+   * Configures if this reader reads multiple top level values (JSON Lines).
+   *
+   * @see AbstractJsonReader#setJsonLines(boolean)
+   */
+  public void setJsonLines(boolean jsonLines) {
+    gsonReader.setJsonLines(jsonLines);
+  }
+
+  public boolean isJsonLines() {
+    return gsonReader.isJsonLines();
+  }
+
+  /**
+   * Sets cache of strings used by {@link #nextString()} and {@link #nextCachedString()}, or
+   * null to create every string. The cache is kept when reader is reset.
+   */
+  public void setStringCache(StringCache stringCache) {
+    this.stringCache = stringCache;
+  }
+
+  public StringCache getStringCache() {
+    return stringCache;
+  }
+
+  protected JsonReader(AbstractJsonReader gsonReader) {
     this.gsonReader = gsonReader;
   }
 
@@ -42,6 +103,161 @@ public class JsonReader {
     gsonReader = new net.rsmogura.picoson.gson.JsonReader(in);
   }
 
+  /**
+   * Creates reader of UTF-8 encoded JSON, decoding bytes directly, without
+   * {@link java.io.InputStreamReader}.
+   */
+  public JsonReader(InputStream in) {
+    gsonReader = new Utf8JsonReader(in);
+  }
+
+  /** Creates reader of UTF-8 encoded JSON in given array. */
+  public JsonReader(byte[] in) {
+    gsonReader = new Utf8JsonReader(in);
+  }
+
+  /** Creates reader of UTF-8 encoded JSON in given range of array. */
+  public JsonReader(byte[] in, int offset, int length) {
+    gsonReader = new Utf8JsonReader(in, offset, length);
+  }
+
+  /**
+   * Creates reader of UTF-8 encoded JSON in remaining bytes of given buffer. The position of
+   * buffer is not changed.
+   */
+  public JsonReader(ByteBuffer in) {
+    gsonReader = new Utf8JsonReader(in);
+  }
+
+  /**
+   * Creates reader of UTF-8 encoded JSON in given file, from current position of channel. The
+   * file is mapped in memory in windows, and lexed directly in mapping, so large files are read
+   * without system call nor copying for every buffer. Channel is closed when reader is closed.
+   *
+   * @see MappedJsonReader#reset(FileChannel, int)
+   */
+  public JsonReader(FileChannel in) {
+    try {
+      gsonReader = new MappedJsonReader(in);
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
+  /**
+   * Resets this reader to read new JSON from {@code in}. If this reader reads characters, its
+   * buffers are reused, so resetting doesn't allocate. The previous input is not closed.
+   */
+  public JsonReader reset(Reader in) {
+    if (gsonReader instanceof net.rsmogura.picoson.gson.JsonReader) {
+      ((net.rsmogura.picoson.gson.JsonReader) gsonReader).reset(in);
+    } else {
+      replaceReader(new net.rsmogura.picoson.gson.JsonReader(in));
+    }
+    return this;
+  }
+
+  /**
+   * Resets this reader to read new UTF-8 encoded JSON from {@code in}. If this reader reads
+   * UTF-8, its buffers are reused. The previous input is not closed.
+   */
+  public JsonReader reset(InputStream in) {
+    if (isUtf8()) {
+      ((Utf8JsonReader) gsonReader).reset(in);
+    } else {
+      replaceReader(new Utf8JsonReader(in));
+    }
+    return this;
+  }
+
+  /** Resets this reader to read new UTF-8 encoded JSON in given array. */
+  public JsonReader reset(byte[] in) {
+    return reset(in, 0, in.length);
+  }
+
+  /** Resets this reader to read new UTF-8 encoded JSON in given range of array. */
+  public JsonReader reset(byte[] in, int offset, int length) {
+    if (isUtf8()) {
+      ((Utf8JsonReader) gsonReader).reset(in, offset, length);
+    } else {
+      replaceReader(new Utf8JsonReader(in, offset, length));
+    }
+    return this;
+  }
+
+  /** Resets this reader to read new UTF-8 encoded JSON in remaining bytes of given buffer. */
+  public JsonReader reset(ByteBuffer in) {
+    if (isUtf8()) {
+      ((Utf8JsonReader) gsonReader).reset(in);
+    } else {
+      replaceReader(new Utf8JsonReader(in));
+    }
+    return this;
+  }
+
+  /**
+   * Resets this reader to read UTF-8 encoded JSON in given file, from current position of
+   * channel. The previous input is not closed.
+   *
+   * @see #JsonReader(FileChannel)
+   */
+  public JsonReader reset(FileChannel in) {
+    try {
+      if (gsonReader instanceof MappedJsonReader) {
+        ((MappedJsonReader) gsonReader).reset(in);
+      } else {
+        replaceReader(new MappedJsonReader(in));
+      }
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+    return this;
+  }
+
+  /**
+   * Continues reading array begun before input of this reader.
+   *
+   * @see AbstractJsonReader#continueArray()
+   */
+  void continueArray() {
+    gsonReader.continueArray();
+  }
+
+  /** Checks if this reader reads UTF-8 encoded bytes. */
+  boolean isUtf8() {
+    return gsonReader instanceof Utf8JsonReader;
+  }
+
+  /**
+   * Releases references to input, so pooled reader doesn't keep it reachable.
+   *
+   * @see AbstractJsonReader#detach()
+   */
+  void detach() {
+    gsonReader.detach();
+  }
+
+  /**
+   * Suspends tracking of path for value read by generated code, unless it's opted in.
+   *
+   * @see AbstractJsonReader#suspendPath()
+   */
+  int suspendPath() {
+    return trackGeneratedPath ? -1 : gsonReader.suspendPath();
+  }
+
+  /** @see AbstractJsonReader#resumePath(int, boolean) */
+  void resumePath(int depth, boolean valueRead) {
+    gsonReader.resumePath(depth, valueRead);
+  }
+
+  private void replaceReader(AbstractJsonReader newReader) {
+    newReader.setLenient(gsonReader.isLenient());
+    newReader.setTrackPath(gsonReader.isTrackPath());
+    newReader.setJsonLines(gsonReader.isJsonLines());
+    gsonReader = newReader;
+  }
+
   public void beginArray() {
     try {
       gsonReader.beginArray();
@@ -98,6 +314,49 @@ public class JsonReader {
     }
   }
 
+  /**
+   * Reads next property name without allocating string, and returns its hash
+   * computed with {@link net.rsmogura.picoson.abi.PicosonAbiUtils#hashChars(char[], int, int)}.
+   * Generated readers switch on this hash, and settle collisions with
+   * {@link #isName(String)}.
+   */
+  public int nextNameHash() {
+    try {
+      return gsonReader.nextNameHash();
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
+  /**
+   * Reads next property name and finds it in given table (typically
+   * {@link net.rsmogura.picoson.abi.JsonObjectDescriptor#getNameTable()}), without allocating
+   * string.
+   *
+   * @return index of matched property, or {@link JsonNameTable#NOT_FOUND}
+   */
+  public int nextNameIndex(JsonNameTable nameTable) {
+    try {
+      return gsonReader.nextNameIndex(nameTable);
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
+  /**
+   * Checks if name read by {@link #nextNameHash()} is equal to given one.
+   */
+  public boolean isName(String name) {
+    return gsonReader.isName(name);
+  }
+
+  /**
+   * Returns name read by {@link #nextNameHash()}. Allocates new string on every call.
+   */
+  public String currentName() {
+    return gsonReader.currentName();
+  }
+
   /**
    * @return string or {@code null} if value is set to {@code null} in JSON
    */
@@ -108,6 +367,8 @@ public class JsonReader {
       if (gsonReader.peek() == JsonToken.NULL) {
         gsonReader.nextNull();
         return null;
+      } else if (stringCache != null) {
+        return gsonReader.nextString(stringCache);
       } else {
         return gsonReader.nextString();
       }
@@ -116,6 +377,41 @@ public class JsonReader {
     }
   }
 
+  /**
+   * Reads string value, like {@link #nextString()}, taking it from cache set on this reader,
+   * or from {@link StringCache#shared() shared cache}. Used for properties marked as
+   * {@link net.rsmogura.picoson.annotations.JsonProperty#cached() cached}.
+   */
+  public String nextCachedString() {
+    try {
+      if (gsonReader.peek() == JsonToken.NULL) {
+        gsonReader.nextNull();
+        return null;
+      } else {
+        final StringCache cache = stringCache;
+        return gsonReader.nextString(cache != null ? cache : StringCache.shared());
+      }
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
+  /**
+   * Reads string value, like {@link #nextString()}, but without creating a string. Returned
+   * view is reused, and it's valid only until the next token is read, so it should be compared
+   * or parsed in place, and copied by {@link CharSequence#toString()} only if it has to be kept.
+   *
+   * @return view of string value, or null if value is null
+   * @see AbstractJsonReader#nextStringView()
+   */
+  public CharSequence nextStringView() {
+    try {
+      return gsonReader.nextStringView();
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
   public boolean nextBoolean() {
     try {
       return gsonReader.nextBoolean();
@@ -148,11 +444,8 @@ public class JsonReader {
   }
 
   public float nextFloat() {
-    // TODO Move support to Gson
     try {
-      // TODO Better create nextFloat in gsonReader
-      // Checking for overflow in case of double -> float is not so easy
-      return (float) gsonReader.nextDouble();
+      return gsonReader.nextFloat();
     } catch (IOException e) {
       throw new JsonReadException(e);
     }
@@ -300,6 +593,126 @@ public class JsonReader {
     }
   }
 
+  /**
+   * @return bytes decoded from Base64 string or {@code null} if value is set to {@code null} in JSON
+   */
+  public byte[] nextBase64() {
+    try {
+      if (gsonReader.peek() == JsonToken.NULL) {
+        gsonReader.nextNull();
+        return null;
+      }
+      return gsonReader.nextBase64();
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
+  /**
+   * @return array of ints or {@code null} if value is set to {@code null} in JSON
+   */
+  public int[] nextIntArray() {
+    try {
+      if (gsonReader.peek() == JsonToken.NULL) {
+        gsonReader.nextNull();
+        return null;
+      }
+      return gsonReader.nextIntArray();
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
+  /**
+   * @return array of longs or {@code null} if value is set to {@code null} in JSON
+   */
+  public long[] nextLongArray() {
+    try {
+      if (gsonReader.peek() == JsonToken.NULL) {
+        gsonReader.nextNull();
+        return null;
+      }
+      return gsonReader.nextLongArray();
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
+  /**
+   * @return array of shorts or {@code null} if value is set to {@code null} in JSON
+   */
+  public short[] nextShortArray() {
+    try {
+      if (gsonReader.peek() == JsonToken.NULL) {
+        gsonReader.nextNull();
+        return null;
+      }
+      return gsonReader.nextShortArray();
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
+  /**
+   * @return array of bytes (JSON array of numbers) or {@code null} if value is set to {@code null} in JSON
+   */
+  public byte[] nextByteArray() {
+    try {
+      if (gsonReader.peek() == JsonToken.NULL) {
+        gsonReader.nextNull();
+        return null;
+      }
+      return gsonReader.nextByteArray();
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
+  /**
+   * @return array of doubles or {@code null} if value is set to {@code null} in JSON
+   */
+  public double[] nextDoubleArray() {
+    try {
+      if (gsonReader.peek() == JsonToken.NULL) {
+        gsonReader.nextNull();
+        return null;
+      }
+      return gsonReader.nextDoubleArray();
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
+  /**
+   * @return array of floats or {@code null} if value is set to {@code null} in JSON
+   */
+  public float[] nextFloatArray() {
+    try {
+      if (gsonReader.peek() == JsonToken.NULL) {
+        gsonReader.nextNull();
+        return null;
+      }
+      return gsonReader.nextFloatArray();
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
+  /**
+   * @return array of booleans or {@code null} if value is set to {@code null} in JSON
+   */
+  public boolean[] nextBooleanArray() {
+    try {
+      if (gsonReader.peek() == JsonToken.NULL) {
+        gsonReader.nextNull();
+        return null;
+      }
+      return gsonReader.nextBooleanArray();
+    } catch (IOException e) {
+      throw new JsonReadException(e);
+    }
+  }
+
   public void close() {
     try {
       gsonReader.close();
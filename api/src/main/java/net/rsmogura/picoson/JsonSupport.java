@@ -15,8 +15,18 @@
 
 package net.rsmogura.picoson;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class JsonSupport<T> {
   //TODO Fill up JavaDoc
@@ -27,14 +37,63 @@ public abstract class JsonSupport<T> {
    */
   protected abstract T readI(JsonReader in);
 
+  /**
+   * Implementation of read into existing instance - typically generated by
+   * annotation processor or class transformer. Default implementation reads
+   * new instance.
+   */
+  protected T readIntoI(T target, JsonReader in) {
+    return readI(in);
+  }
+
   /**
    * Implementation of write - typically generated by annotation processor or
    * class transformer.
    */
   protected abstract void writeI(T src, JsonWriter out);
 
+  /**
+   * Reads value. Path inside value isn't tracked, unless reader opted in, see
+   * {@link JsonReader#setTrackPath(boolean)}.
+   */
   public T read(JsonReader in) {
-    return readI(in);
+    final int pathDepth = in.suspendPath();
+    boolean read = false;
+    try {
+      final T result = readI(in);
+      read = true;
+      return result;
+    } finally {
+      in.resumePath(pathDepth, read);
+    }
+  }
+
+  /**
+   * Reads JSON into existing instance, and returns it. Properties present in JSON are
+   * read into target, nested objects and collections already present in target are reused
+   * and refilled. Properties missing in JSON are reset to values set by no-argument constructor
+   * (field initializers), taken from single instance created once per class, so target has
+   * same values as if read by {@link #read(JsonReader)}. Initial values other than primitives,
+   * boxed primitives, strings and enums can't be shared, so if such property is missing, and
+   * its initial value isn't null, new instance is created to take the value from. This way
+   * single instance can be reused to read many values, without allocating new objects.
+   *
+   * @param target instance to read into, if null new instance is read
+   * @return target, or new instance if target is null
+   */
+  public T readInto(T target, JsonReader in) {
+    if (target == null) {
+      return read(in);
+    }
+    final int pathDepth = in.suspendPath();
+    boolean read = false;
+    try {
+      final T result = readIntoI(target, in);
+      read = true;
+      return result;
+    } finally {
+      in.resumePath(pathDepth, read);
+    }
   }
 
   public void write(T src, JsonWriter out) {
@@ -65,6 +124,110 @@ public abstract class JsonSupport<T> {
     return collection;
   }
 
+  /**
+   * Reads JSON array from UTF-8 encoded bytes in parallel, using common pool.
+   *
+   * @see #readCollectionParallel(ByteBuffer, ForkJoinPool)
+   */
+  public List<T> readCollectionParallel(byte[] json) {
+    return readCollectionParallel(ByteBuffer.wrap(json), ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Reads large JSON array from remaining UTF-8 encoded bytes of buffer in parallel. The array
+   * is pre-scanned to find boundaries of elements, and split into chunks, which are read by
+   * separate readers in tasks on given pool. Elements are returned in order of array. If value
+   * is null, returned list is empty. Position of buffer is not changed.
+   * <br />
+   * Whole input has to be in memory (it can be memory mapped file), and has to contain only
+   * the array. Reading small arrays in parallel is not worth it - array smaller than
+   * 64 KB is read by calling thread.
+   */
+  public List<T> readCollectionParallel(ByteBuffer json, ForkJoinPool pool) {
+    return new ParallelArrayReader<>(this, json, pool.getParallelism()).read(pool);
+  }
+
+  /**
+   * Returns stream of elements of JSON array, which are read one by one, when stream is
+   * consumed. This way array of any size can be processed in constant memory, and processing
+   * starts before whole array is read. The stream is {@link Spliterator#ORDERED ordered}, and
+   * elements are {@link Spliterator#NONNULL not null} (null element causes
+   * {@link JsonReadException}). If value is null, stream is empty. Reader is not closed when
+   * stream is closed.
+   */
+  public Stream<T> stream(JsonReader in) {
+    return StreamSupport.stream(spliterator(in), false);
+  }
+
+  /**
+   * Returns iterator over elements of JSON array, which are read one by one, like
+   * {@link #stream(JsonReader)}.
+   */
+  public Iterator<T> iterator(JsonReader in) {
+    return Spliterators.iterator(spliterator(in));
+  }
+
+  /**
+   * Returns spliterator reading elements of JSON array, used by {@link #stream(JsonReader)}
+   * and {@link #iterator(JsonReader)}.
+   */
+  public Spliterator<T> spliterator(JsonReader in) {
+    return new JsonArraySpliterator<>(this, in);
+  }
+
+  /**
+   * Returns stream of top level values of <a href="https://jsonlines.org/">JSON Lines</a>
+   * (NDJSON), which are read one by one, when stream is consumed. Reader is switched to
+   * {@link JsonReader#setJsonLines(boolean) JSON Lines} mode, and all values are read by it,
+   * without creating reader per line. The stream is {@link Spliterator#ORDERED ordered}, and
+   * values are {@link Spliterator#NONNULL not null} (null value causes
+   * {@link JsonReadException}). Reader is not closed when stream is closed.
+   */
+  public Stream<T> streamLines(JsonReader in) {
+    return StreamSupport.stream(new JsonLinesSpliterator<>(this, in), false);
+  }
+
+  /**
+   * Reads JSON Lines from UTF-8 encoded bytes in parallel, using common pool.
+   *
+   * @see #readLinesParallel(ByteBuffer, ForkJoinPool)
+   */
+  public List<T> readLinesParallel(byte[] json) {
+    return readLinesParallel(ByteBuffer.wrap(json), ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Reads JSON Lines from remaining UTF-8 encoded bytes of buffer in parallel. The input is
+   * split into chunks at new lines, which are read by separate readers in tasks on given pool.
+   * Values are returned in order of lines. Position of buffer is not changed. Input smaller
+   * than 64 KB is read by calling thread.
+   */
+  public List<T> readLinesParallel(ByteBuffer json, ForkJoinPool pool) {
+    return new ParallelLinesReader<>(this, json, pool.getParallelism()).read(pool);
+  }
+
+  /**
+   * Writes value as next line of JSON Lines. Writer is switched to
+   * {@link JsonWriter#setJsonLines(boolean) JSON Lines} mode, so values written by subsequent
+   * calls are separated by new lines, and writer doesn't have to be reset between them.
+   */
+  public void writeLine(T src, JsonWriter out) {
+    out.setJsonLines(true);
+    write(src, out);
+  }
+
+  /**
+   * Writes values as lines of JSON Lines.
+   *
+   * @see #writeLine(Object, JsonWriter)
+   */
+  public void writeLines(JsonWriter out, Iterable<? extends T> values) {
+    out.setJsonLines(true);
+    for (T value : values) {
+      write(value, out);
+    }
+  }
+
   /**
    * Writes collection of elements into writer.
    */
@@ -79,4 +242,37 @@ public abstract class JsonSupport<T> {
     }
     out.endArray();
   }
+
+  /**
+   * Writes collection as JSON array of UTF-8 encoded bytes to channel in parallel, using common
+   * pool.
+   *
+   * @see #writeCollectionParallel(GatheringByteChannel, Collection, ForkJoinPool)
+   */
+  public <C extends Collection<T>> void writeCollectionParallel(GatheringByteChannel out,
+      C collection) {
+    writeCollectionParallel(out, collection, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Writes large collection as JSON array of UTF-8 encoded bytes to channel in parallel. The
+   * collection is split into slices, which are written by separate writers into byte buffers,
+   * in tasks on given pool. Buffers are written to channel in order, by gathering writes. The
+   * channel is not closed. If collection is null, nothing is written.
+   * <br />
+   * Elements are written with default options of writer (no indent). Collection, which is not
+   * random access list, is copied to list first. Collection smaller than 256 elements is
+   * written by calling thread.
+   */
+  public <C extends Collection<T>> void writeCollectionParallel(GatheringByteChannel out,
+      C collection, ForkJoinPool pool) {
+    if (collection == null) {
+      return;
+    }
+    try {
+      new ParallelArrayWriter<>(this, collection, pool.getParallelism()).write(out, pool);
+    } catch (IOException e) {
+      throw new JsonWriteException(e);
+    }
+  }
 }
@@ -16,15 +16,21 @@
 package net.rsmogura.picoson;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import net.rsmogura.picoson.abi.JsonPropertyDescriptor;
+import net.rsmogura.picoson.gson.AbstractJsonWriter;
+import net.rsmogura.picoson.gson.Utf8JsonWriter;
 
 /**
  * Provides low-level support for writing JSON.
  */
 public class JsonWriter implements AutoCloseable {
-  private final net.rsmogura.picoson.gson.JsonWriter jsonWriter;
+  private AbstractJsonWriter jsonWriter;
 
-  protected JsonWriter(net.rsmogura.picoson.gson.JsonWriter jsonWriter) {
+  protected JsonWriter(AbstractJsonWriter jsonWriter) {
     this.jsonWriter = jsonWriter;
   }
 
@@ -32,6 +38,109 @@ public class JsonWriter implements AutoCloseable {
     this.jsonWriter = new net.rsmogura.picoson.gson.JsonWriter(writer);
   }
 
+  /**
+   * Creates writer encoding JSON to UTF-8 directly, without {@link java.io.OutputStreamWriter}.
+   * Output is buffered, so writer has to be flushed or closed after writing.
+   */
+  public JsonWriter(OutputStream out) {
+    this.jsonWriter = new Utf8JsonWriter(out);
+  }
+
+  /**
+   * Creates writer of UTF-8 encoded JSON to channel. Output is buffered, so writer has to be
+   * flushed or closed after writing.
+   */
+  public JsonWriter(WritableByteChannel out) {
+    this.jsonWriter = new Utf8JsonWriter(out);
+  }
+
+  /**
+   * Creates writer putting UTF-8 encoded JSON into given buffer. Output is buffered, so writer
+   * has to be flushed or closed after writing.
+   */
+  public JsonWriter(ByteBuffer out) {
+    this.jsonWriter = new Utf8JsonWriter(out);
+  }
+
+  /**
+   * Resets this writer to write new JSON document to {@code writer}. If this writer writes
+   * characters, its buffers are reused. The previous output is neither flushed nor closed.
+   */
+  public JsonWriter reset(Writer writer) {
+    if (jsonWriter instanceof net.rsmogura.picoson.gson.JsonWriter) {
+      ((net.rsmogura.picoson.gson.JsonWriter) jsonWriter).reset(writer);
+    } else {
+      replaceWriter(new net.rsmogura.picoson.gson.JsonWriter(writer));
+    }
+    return this;
+  }
+
+  /**
+   * Resets this writer to write new UTF-8 encoded JSON document to {@code out}. If this writer
+   * writes UTF-8, its buffer is reused. Data not flushed are discarded.
+   */
+  public JsonWriter reset(OutputStream out) {
+    if (isUtf8()) {
+      ((Utf8JsonWriter) jsonWriter).reset(out);
+    } else {
+      replaceWriter(new Utf8JsonWriter(out));
+    }
+    return this;
+  }
+
+  /** Resets this writer to write new UTF-8 encoded JSON document to channel. */
+  public JsonWriter reset(WritableByteChannel out) {
+    if (isUtf8()) {
+      ((Utf8JsonWriter) jsonWriter).reset(out);
+    } else {
+      replaceWriter(new Utf8JsonWriter(out));
+    }
+    return this;
+  }
+
+  /** Resets this writer to put new UTF-8 encoded JSON document into given buffer. */
+  public JsonWriter reset(ByteBuffer out) {
+    if (isUtf8()) {
+      ((Utf8JsonWriter) jsonWriter).reset(out);
+    } else {
+      replaceWriter(new Utf8JsonWriter(out));
+    }
+    return this;
+  }
+
+  /**
+   * Configures if this writer writes multiple top level values, each on separate line
+   * (JSON Lines). The setting is kept when writer is reset.
+   *
+   * @see AbstractJsonWriter#setJsonLines(boolean)
+   */
+  public void setJsonLines(boolean jsonLines) {
+    jsonWriter.setJsonLines(jsonLines);
+  }
+
+  public boolean isJsonLines() {
+    return jsonWriter.isJsonLines();
+  }
+
+  /** Checks if this writer writes UTF-8 encoded bytes. */
+  boolean isUtf8() {
+    return jsonWriter instanceof Utf8JsonWriter;
+  }
+
+  /**
+   * Releases references to output, so pooled writer doesn't keep it reachable.
+   *
+   * @see AbstractJsonWriter#detach()
+   */
+  void detach() {
+    jsonWriter.detach();
+  }
+
+  private void replaceWriter(AbstractJsonWriter newWriter) {
+    newWriter.setJsonLines(jsonWriter.isJsonLines());
+    jsonWriter = newWriter;
+  }
+
   public JsonWriter beginArray() {
     try {
       jsonWriter.beginArray();
@@ -41,6 +150,16 @@ public class JsonWriter implements AutoCloseable {
     }
   }
 
+  /**
+   * Continues writing array begun before output of this writer.
+   *
+   * @see AbstractJsonWriter#continueArray()
+   */
+  JsonWriter continueArray() {
+    jsonWriter.continueArray();
+    return this;
+  }
+
   public JsonWriter endArray() {
     try {
       jsonWriter.endArray();
@@ -77,6 +196,18 @@ public class JsonWriter implements AutoCloseable {
     }
   }
 
+  /**
+   * Writes name of property, using name fragment pre-encoded in descriptor.
+   */
+  public JsonWriter name(JsonPropertyDescriptor descriptor) {
+    try {
+      jsonWriter.name(descriptor);
+      return this;
+    } catch (IOException e) {
+      throw new JsonWriteException(e);
+    }
+  }
+
   public JsonWriter value(String value) {
     try {
       jsonWriter.value(value);
@@ -88,7 +219,7 @@ public class JsonWriter implements AutoCloseable {
 
   public JsonWriter jsonValue(String value) {
     try {
-      jsonWriter.value(value);
+      jsonWriter.jsonValue(value);
       return this;
     } catch (IOException e) {
       throw new JsonWriteException(e);
@@ -131,6 +262,36 @@ public class JsonWriter implements AutoCloseable {
     }
   }
 
+  public JsonWriter value(int value) {
+    try {
+      jsonWriter.value(value);
+      return this;
+    } catch (IOException e) {
+      throw new JsonWriteException(e);
+    }
+  }
+
+  public JsonWriter value(float value) {
+    try {
+      jsonWriter.value(value);
+      return this;
+    } catch (IOException e) {
+      throw new JsonWriteException(e);
+    }
+  }
+
+  /**
+   * Writes bytes as Base64 encoded string, or null if value is null.
+   */
+  public JsonWriter base64Value(byte[] value) {
+    try {
+      jsonWriter.base64Value(value);
+      return this;
+    } catch (IOException e) {
+      throw new JsonWriteException(e);
+    }
+  }
+
   public JsonWriter value(long value) {
     try {
       jsonWriter.value(value);
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads large top level JSON array in parallel. Fast pre-scan of UTF-8 bytes finds boundaries of
+ * elements (commas at depth 1, outside of strings), and splits array into chunks of elements.
+ * Each chunk is read by separate reader, in pool's task submitted as soon as chunk is found,
+ * which {@link JsonReader#continueArray() continues} the array, and reads known number of
+ * elements. Results are merged in order.
+ * <br />
+ * Pre-scan checks only structure of array itself - elements are checked by readers. If input is
+ * not an array (e.g. it's null), it's read sequentially.
+ *
+ * @see JsonSupport#readCollectionParallel(ByteBuffer, ForkJoinPool)
+ */
+final class ParallelArrayReader<T> {
+  /** Minimal size of chunk, smaller chunks are not worth of task. */
+  static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+  /** Size of block of bytes copied by scan. */
+  private static final int SCAN_BLOCK_SIZE = 8 * 1024;
+
+  /** Number of chunks per thread of pool, more chunks balance load better. */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  /** Bytes starting string, or changing depth. */
+  private static final boolean[] NESTING = new boolean[256];
+
+  static {
+    for (char c : "\"{}[]".toCharArray()) {
+      NESTING[c] = true;
+    }
+  }
+
+  private final JsonSupport<T> support;
+  private final ByteBuffer json;
+  private final int chunkSize;
+
+  private ForkJoinPool pool;
+
+  /** Tasks reading chunks found by scan, in order. */
+  private final List<ForkJoinTask<Object[]>> tasks = new ArrayList<>();
+  private int elementsCount;
+
+  /** Last chunk, read by calling thread. */
+  private int lastStart;
+  private int lastEnd;
+  private int lastElements;
+
+  ParallelArrayReader(JsonSupport<T> support, ByteBuffer json, int parallelism) {
+    this.support = support;
+    this.json = json;
+    this.chunkSize = Math.max(json.remaining() / (parallelism * CHUNKS_PER_THREAD), MIN_CHUNK_SIZE);
+  }
+
+  /**
+   * Reads array. Chunks are submitted to pool as soon as they are found, so scan overlaps with
+   * reading, and last chunk is read by calling thread, instead of waiting.
+   */
+  List<T> read(ForkJoinPool pool) {
+    this.pool = pool;
+    try {
+      if (!scan()) {
+        final JsonReader in = JsonPool.acquireReader(json.duplicate());
+        try {
+          return support.readCollection(in, new ArrayList<>());
+        } finally {
+          JsonPool.release(in);
+        }
+      }
+
+      final Object[] last = readChunk(lastStart, lastEnd, lastElements);
+      final ArrayList<T> result = new ArrayList<>(elementsCount);
+      for (ForkJoinTask<Object[]> task : tasks) {
+        addAll(result, task.join());
+      }
+      addAll(result, last);
+      return result;
+    } catch (RuntimeException | Error e) {
+      for (ForkJoinTask<Object[]> task : tasks) {
+        task.cancel(false);
+      }
+      throw e;
+    }
+  }
+
+  private void addAll(ArrayList<T> result, Object[] elements) {
+    for (Object element : elements) {
+      result.add((T) element);
+    }
+  }
+
+  private void submitChunk(int start, int end, int count) {
+    tasks.add(pool.submit(() -> readChunk(start, end, count)));
+    elementsCount += count;
+  }
+
+  private void setLastChunk(int start, int end, int count) {
+    lastStart = start;
+    lastEnd = end;
+    lastElements = count;
+    elementsCount += count;
+  }
+
+  private Object[] readChunk(int start, int end, int count) {
+    final Object[] elements = new Object[count];
+    if (count == 0) {
+      return elements;
+    }
+
+    final ByteBuffer bytes = json.duplicate();
+    ((Buffer) bytes).limit(end);
+    ((Buffer) bytes).position(start);
+    final JsonReader in = JsonPool.acquireReader(bytes);
+    try {
+      in.continueArray();
+      for (int i = 0; i < count; i++) {
+        elements[i] = support.read(in);
+      }
+    } finally {
+      JsonPool.release(in);
+    }
+    return elements;
+  }
+
+  /**
+   * Scans array, and splits it into chunks. Bytes are copied in blocks to local array, so scan
+   * is fast for both heap and direct (or mapped) buffers.
+   *
+   * @return false if input is not an array
+   */
+  private boolean scan() {
+    final int limit = json.limit();
+    int i = skipWhitespace(json.position(), limit);
+    if (limit - i >= 3 && json.get(i) == (byte) 0xEF && json.get(i + 1) == (byte) 0xBB
+        && json.get(i + 2) == (byte) 0xBF) {
+      i = skipWhitespace(i + 3, limit);
+    }
+    if (i == limit || json.get(i) != '[') {
+      return false;
+    }
+
+    int chunkStart = ++i;
+    int chunkElements = 0;
+    final int first = skipWhitespace(i, limit);
+    if (first < limit && json.get(first) == ']') {
+      checkEnd(first + 1, limit);
+      return true;
+    }
+
+    final ByteBuffer bytes = json.duplicate();
+    ((Buffer) bytes).position(i);
+    final byte[] block = new byte[SCAN_BLOCK_SIZE];
+    int depth = 1;
+    boolean inString = false;
+    boolean escaped = false;
+    boolean inLiteral = false;
+    boolean valueEnded = false;
+    for (int base = i; base < limit; base += block.length) {
+      final int length = Math.min(block.length, limit - base);
+      bytes.get(block, 0, length);
+
+      for (int j = 0; j < length; j++) {
+        if (inString) {
+          if (escaped) {
+            escaped = false;
+            continue;
+          }
+          byte b = 0;
+          while (j < length && (b = block[j]) != '"' && b != '\\') {
+            j++;
+          }
+          if (j == length) {
+            break;
+          }
+          if (b == '\\') {
+            escaped = true;
+          } else {
+            inString = false;
+            valueEnded = depth == 1;
+          }
+          continue;
+        }
+
+        if (depth > 1) {
+          // Inside of element only strings and nesting matter
+          while (j < length && !NESTING[block[j] & 0xFF]) {
+            j++;
+          }
+          if (j == length) {
+            break;
+          }
+        }
+
+        final byte b = block[j];
+        switch (b) {
+          case '"':
+          case '{':
+          case '[':
+            if (depth == 1 && (valueEnded || inLiteral)) {
+              throw unexpected(base + j);
+            }
+            if (b == '"') {
+              inString = true;
+            } else {
+              depth++;
+            }
+            break;
+          case '}':
+          case ']':
+            if (--depth == 1) {
+              valueEnded = true;
+            } else if (depth == 0) {
+              if (b != ']') {
+                throw new MalformedJsonException("Expected ']' at offset " + (base + j));
+              }
+              setLastChunk(chunkStart, base + j, chunkElements + 1);
+              checkEnd(base + j + 1, limit);
+              return true;
+            }
+            break;
+          case ',':
+            if (depth == 1) {
+              inLiteral = false;
+              valueEnded = false;
+              chunkElements++;
+              if (base + j - chunkStart >= chunkSize) {
+                submitChunk(chunkStart, base + j, chunkElements);
+                chunkStart = base + j + 1;
+                chunkElements = 0;
+              }
+            }
+            break;
+          case ' ':
+          case '\t':
+          case '\n':
+          case '\r':
+            if (inLiteral) {
+              inLiteral = false;
+              valueEnded = true;
+            }
+            break;
+          default:
+            if (depth == 1) {
+              if (valueEnded) {
+                throw unexpected(base + j);
+              }
+              inLiteral = true;
+            }
+        }
+      }
+    }
+    throw new MalformedJsonException("Unterminated array");
+  }
+
+  private void checkEnd(int i, int limit) {
+    final int end = skipWhitespace(i, limit);
+    if (end != limit) {
+      throw new MalformedJsonException("Unexpected data after array at offset " + end);
+    }
+  }
+
+  private MalformedJsonException unexpected(int i) {
+    return new MalformedJsonException("Expected ',' between elements of array at offset " + i);
+  }
+
+  private int skipWhitespace(int i, int limit) {
+    while (i < limit) {
+      final byte b = json.get(i);
+      if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+        break;
+      }
+      i++;
+    }
+    return i;
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Writes large collection as JSON array in parallel. The collection is split into slices, and
+ * each slice is written by separate writer, in pool's task, into its own byte buffers; writer
+ * {@link JsonWriter#continueArray() continues} the array, so elements are separated by commas.
+ * The slices are stitched together with commas and brackets, and written to channel in order,
+ * by gathering writes of all slices finished so far - so writing output overlaps with writing
+ * of next slices.
+ *
+ * @see JsonSupport#writeCollectionParallel(GatheringByteChannel, Collection, ForkJoinPool)
+ */
+final class ParallelArrayWriter<T> {
+  /** Minimal number of elements in slice, smaller slices are not worth of task. */
+  static final int MIN_SLICE_ELEMENTS = 256;
+
+  /** Number of slices per thread of pool, more slices balance load better. */
+  private static final int SLICES_PER_THREAD = 4;
+
+  /** Size of block of output of slice. */
+  private static final int BLOCK_SIZE = 64 * 1024;
+
+  private static final byte[] EMPTY_ARRAY = {'[', ']'};
+
+  private final JsonSupport<T> support;
+  private final List<T> elements;
+  private final int sliceSize;
+
+  ParallelArrayWriter(JsonSupport<T> support, Collection<T> collection, int parallelism) {
+    this.support = support;
+    this.elements = collection instanceof List && collection instanceof RandomAccess
+        ? (List<T>) collection : new ArrayList<>(collection);
+    final int slices = parallelism * SLICES_PER_THREAD;
+    this.sliceSize = Math.max((elements.size() + slices - 1) / slices, MIN_SLICE_ELEMENTS);
+  }
+
+  void write(GatheringByteChannel out, ForkJoinPool pool) throws IOException {
+    final int size = elements.size();
+    if (size == 0) {
+      writeFully(out, new ByteBuffer[] {ByteBuffer.wrap(EMPTY_ARRAY)});
+      return;
+    }
+    if (size <= sliceSize) {
+      writeFully(out, writeSlice(0, size).toArray(new ByteBuffer[0]));
+      return;
+    }
+
+    final List<ForkJoinTask<List<ByteBuffer>>> tasks = new ArrayList<>();
+    try {
+      for (int start = 0; start < size; start += sliceSize) {
+        final int from = start;
+        final int to = Math.min(start + sliceSize, size);
+        tasks.add(pool.submit(() -> writeSlice(from, to)));
+      }
+
+      final List<ByteBuffer> buffers = new ArrayList<>();
+      for (int i = 0; i < tasks.size(); ) {
+        do {
+          buffers.addAll(tasks.get(i).join());
+          tasks.set(i++, null);
+        } while (i < tasks.size() && tasks.get(i).isDone());
+        writeFully(out, buffers.toArray(new ByteBuffer[0]));
+        // Written slices can be collected
+        buffers.clear();
+      }
+    } catch (IOException | RuntimeException | Error e) {
+      for (ForkJoinTask<List<ByteBuffer>> task : tasks) {
+        if (task != null) {
+          task.cancel(false);
+        }
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Writes elements of slice, preceded by bracket or comma, and followed by bracket if it's
+   * last slice.
+   */
+  private List<ByteBuffer> writeSlice(int from, int to) {
+    final SliceOutput out = new SliceOutput();
+    out.write(from == 0 ? '[' : ',');
+    final JsonWriter writer = JsonPool.acquireWriter(out);
+    try {
+      writer.continueArray();
+      for (int i = from; i < to; i++) {
+        support.write(elements.get(i), writer);
+      }
+      writer.flush();
+    } finally {
+      JsonPool.release(writer);
+    }
+    if (to == elements.size()) {
+      out.write(']');
+    }
+    return out.finish();
+  }
+
+  private static void writeFully(GatheringByteChannel out, ByteBuffer[] buffers)
+      throws IOException {
+    long remaining = 0;
+    for (ByteBuffer buffer : buffers) {
+      remaining += buffer.remaining();
+    }
+    int offset = 0;
+    while (remaining > 0) {
+      while (!buffers[offset].hasRemaining()) {
+        offset++;
+      }
+      remaining -= out.write(buffers, offset, buffers.length - offset);
+    }
+  }
+
+  /**
+   * Output of slice, kept in blocks of fixed size. Unlike growing single array, blocks are
+   * never copied, and are given to gathering write as they are.
+   */
+  private static final class SliceOutput extends OutputStream {
+    private final List<ByteBuffer> blocks = new ArrayList<>();
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int count;
+
+    @Override
+    public void write(int b) {
+      if (count == block.length) {
+        nextBlock();
+      }
+      block[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      while (len > 0) {
+        if (count == block.length) {
+          nextBlock();
+        }
+        final int length = Math.min(len, block.length - count);
+        System.arraycopy(b, off, block, count, length);
+        count += length;
+        off += length;
+        len -= length;
+      }
+    }
+
+    private void nextBlock() {
+      blocks.add(ByteBuffer.wrap(block, 0, count));
+      block = new byte[BLOCK_SIZE];
+      count = 0;
+    }
+
+    List<ByteBuffer> finish() {
+      blocks.add(ByteBuffer.wrap(block, 0, count));
+      return blocks;
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads JSON Lines in parallel. Input is split into chunks at new lines - JSON Lines can't
+ * contain raw new line inside of value - so finding boundary requires only looking for first
+ * new line after desired size of chunk, and whole input doesn't have to be scanned. Each chunk
+ * is read by separate reader, in {@link JsonReader#setJsonLines(boolean) JSON Lines} mode, in
+ * pool's task, and last chunk is read by calling thread. Values are returned in order.
+ *
+ * @see JsonSupport#readLinesParallel(ByteBuffer, ForkJoinPool)
+ */
+final class ParallelLinesReader<T> {
+  /** Minimal size of chunk, smaller chunks are not worth of task. */
+  static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+  /** Number of chunks per thread of pool, more chunks balance load better. */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private final JsonSupport<T> support;
+  private final ByteBuffer json;
+  private final int chunkSize;
+
+  ParallelLinesReader(JsonSupport<T> support, ByteBuffer json, int parallelism) {
+    this.support = support;
+    this.json = json;
+    this.chunkSize = Math.max(json.remaining() / (parallelism * CHUNKS_PER_THREAD), MIN_CHUNK_SIZE);
+  }
+
+  List<T> read(ForkJoinPool pool) {
+    final List<ForkJoinTask<List<T>>> tasks = new ArrayList<>();
+    try {
+      final int limit = json.limit();
+      int start = json.position();
+      int end = nextLine(start, limit);
+      while (end < limit) {
+        final int from = start;
+        final int to = end;
+        tasks.add(pool.submit(() -> readChunk(from, to)));
+        start = end;
+        end = nextLine(start, limit);
+      }
+
+      final List<T> last = readChunk(start, limit);
+      int size = last.size();
+      for (ForkJoinTask<List<T>> task : tasks) {
+        size += task.join().size();
+      }
+      final ArrayList<T> result = new ArrayList<>(size);
+      for (ForkJoinTask<List<T>> task : tasks) {
+        result.addAll(task.join());
+      }
+      result.addAll(last);
+      return result;
+    } catch (RuntimeException | Error e) {
+      for (ForkJoinTask<List<T>> task : tasks) {
+        task.cancel(false);
+      }
+      throw e;
+    }
+  }
+
+  /** Returns end of chunk starting at given position - after first new line past its size. */
+  private int nextLine(int start, int limit) {
+    if (limit - start <= chunkSize) {
+      return limit;
+    }
+    for (int i = start + chunkSize - 1; i < limit; i++) {
+      if (json.get(i) == '\n') {
+        return i + 1;
+      }
+    }
+    return limit;
+  }
+
+  private List<T> readChunk(int start, int end) {
+    final ByteBuffer bytes = json.duplicate();
+    ((Buffer) bytes).limit(end);
+    ((Buffer) bytes).position(start);
+    final JsonReader in = JsonPool.acquireReader(bytes);
+    try {
+      final List<T> values = new ArrayList<>();
+      new JsonLinesSpliterator<>(support, in).forEachRemaining(values::add);
+      return values;
+    } finally {
+      JsonPool.release(in);
+    }
+  }
+}
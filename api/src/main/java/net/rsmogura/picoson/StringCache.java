@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson;
+
+import net.rsmogura.picoson.abi.PicosonAbiUtils;
+
+/**
+ * Bounded cache of strings read by {@link JsonReader}, which deduplicates repeated values, like
+ * types, statuses, or country codes. The cache is consulted with characters of value, before
+ * string is created, so repeated values are not allocated, and all occurrences share one
+ * instance.
+ * <br />
+ * Cache is a table of fixed size, indexed by hash of characters; string is found if it has same
+ * length and characters. On miss, the entry is replaced using second chance (clock) policy -
+ * entry used since last miss is kept once, so single occurrences of other values don't evict
+ * frequent ones. Strings longer than maximum length are not cached.
+ * <br />
+ * Cache can be shared between readers and threads. It's not synchronized, but entries are
+ * immutable strings, so race can only cause a miss or replace of entry.
+ *
+ * @see JsonReader#setStringCache(StringCache)
+ * @see net.rsmogura.picoson.annotations.JsonProperty#cached()
+ */
+public final class StringCache {
+  /** Default number of entries. */
+  public static final int DEFAULT_SIZE = 1024;
+
+  /** Default maximum length of cached strings. */
+  public static final int DEFAULT_MAX_LENGTH = 32;
+
+  private static final StringCache SHARED = new StringCache();
+
+  private final String[] entries;
+
+  /** Marks entries used since last miss, which get second chance before being replaced. */
+  private final boolean[] used;
+
+  private final int mask;
+
+  private final int maxLength;
+
+  /** Creates cache of {@link #DEFAULT_SIZE} entries, of {@link #DEFAULT_MAX_LENGTH} chars. */
+  public StringCache() {
+    this(DEFAULT_SIZE, DEFAULT_MAX_LENGTH);
+  }
+
+  /**
+   * Creates cache.
+   *
+   * @param size number of entries, rounded up to power of 2
+   * @param maxLength maximum length of cached strings
+   */
+  public StringCache(int size, int maxLength) {
+    if (size <= 0 || size > 1 << 30) {
+      throw new IllegalArgumentException("Invalid size " + size);
+    }
+    final int tableSize = Integer.highestOneBit(size - 1) << 1;
+    this.entries = new String[Math.max(tableSize, 1)];
+    this.used = new boolean[entries.length];
+    this.mask = entries.length - 1;
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * Returns cache shared by readers without own cache, used for properties marked as
+   * {@link net.rsmogura.picoson.annotations.JsonProperty#cached() cached}.
+   */
+  public static StringCache shared() {
+    return SHARED;
+  }
+
+  /**
+   * Returns string with given characters, from cache if possible, otherwise new one, which
+   * may be added to cache.
+   */
+  public String get(char[] chars, int offset, int length) {
+    if (length > maxLength) {
+      return new String(chars, offset, length);
+    }
+
+    int hash = PicosonAbiUtils.hashChars(chars, offset, length);
+    final int index = (hash ^ (hash >>> 16)) & mask;
+    final String entry = entries[index];
+    if (entry != null && equals(entry, chars, offset, length)) {
+      // Hits on hot entries only read, so threads sharing cache don't invalidate its cache lines
+      if (!used[index]) {
+        used[index] = true;
+      }
+      return entry;
+    }
+
+    final String result = new String(chars, offset, length);
+    if (entry != null && used[index]) {
+      // Give entry second chance
+      used[index] = false;
+    } else {
+      entries[index] = result;
+    }
+    return result;
+  }
+
+  /** Removes all entries. */
+  public void clear() {
+    for (int i = 0; i < entries.length; i++) {
+      entries[i] = null;
+      used[i] = false;
+    }
+  }
+
+  private static boolean equals(String entry, char[] chars, int offset, int length) {
+    if (entry.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (entry.charAt(i) != chars[offset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
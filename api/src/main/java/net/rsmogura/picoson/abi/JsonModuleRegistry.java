@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.abi;
+
+import net.rsmogura.picoson.JsonSupport;
+
+/**
+ * Registry of JSON classes reachable from single {@link net.rsmogura.picoson.annotations.JsonModule}.
+ * Implementation is generated by annotation processor for every module, and registered as
+ * service, so {@link JsonSupportRegistry} can find it with {@link java.util.ServiceLoader}.
+ * <br />
+ * This interface is part of ABI.
+ */
+public interface JsonModuleRegistry {
+
+  /**
+   * Returns support of JSON class, if class belongs to module. Class is initialized if needed.
+   *
+   * @return support of class, or null if class doesn't belong to module
+   */
+  JsonSupport<?> lookup(Class<?> jsonClass);
+}
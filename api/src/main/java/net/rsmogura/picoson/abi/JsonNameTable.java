@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.abi;
+
+/**
+ * Precomputed table of property names, used to match name read from JSON
+ * stream to property without creating a string. The match returns index
+ * of property in {@link JsonObjectDescriptor#getProperties()}.
+ * <br />
+ * The table is an open addressing hash table, keyed by
+ * {@link PicosonAbiUtils#hashChars(char[], int, int)}, so the hash calculated
+ * by reader can be used directly.
+ */
+public final class JsonNameTable {
+  /** Returned when name is not in the table. */
+  public static final int NOT_FOUND = -1;
+
+  private final int mask;
+  private final int[] hashes;
+  private final char[][] names;
+  private final int[] indices;
+  private final String[] strings;
+
+  /**
+   * Creates table for names, the index of name is its position in given array.
+   */
+  public JsonNameTable(String[] names) {
+    int capacity = Integer.highestOneBit(Math.max(names.length, 1) * 2 - 1) << 1;
+    this.mask = capacity - 1;
+    this.hashes = new int[capacity];
+    this.names = new char[capacity][];
+    this.indices = new int[capacity];
+    this.strings = names.clone();
+
+    for (int i = 0; i < names.length; i++) {
+      final char[] name = names[i].toCharArray();
+      final int hash = PicosonAbiUtils.hashChars(name, 0, name.length);
+      int slot = hash & mask;
+      while (this.names[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      this.hashes[slot] = hash;
+      this.names[slot] = name;
+      this.indices[slot] = i;
+    }
+  }
+
+  /**
+   * Creates table matching names of properties of given descriptor.
+   */
+  public static JsonNameTable forProperties(JsonPropertyDescriptor[] properties) {
+    final String[] names = new String[properties.length];
+    for (int i = 0; i < properties.length; i++) {
+      names[i] = properties[i].getJsonPropertyName();
+    }
+    return new JsonNameTable(names);
+  }
+
+  /** Returns name at given index. */
+  public String name(int index) {
+    return strings[index];
+  }
+
+  /**
+   * Finds index of name.
+   *
+   * @param hash the hash of characters, as computed by
+   *     {@link PicosonAbiUtils#hashChars(char[], int, int)}
+   * @return the index of name or {@link #NOT_FOUND}
+   */
+  public int indexOf(char[] chars, int offset, int length, int hash) {
+    final char[][] names = this.names;
+    int slot = hash & mask;
+    char[] candidate;
+    while ((candidate = names[slot]) != null) {
+      if (hashes[slot] == hash && equals(candidate, chars, offset, length)) {
+        return indices[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * Finds index of name.
+   *
+   * @return the index of name or {@link #NOT_FOUND}
+   */
+  public int indexOf(char[] chars, int offset, int length) {
+    return indexOf(chars, offset, length, PicosonAbiUtils.hashChars(chars, offset, length));
+  }
+
+  private static boolean equals(char[] name, char[] chars, int offset, int length) {
+    if (name.length != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (name[i] != chars[offset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
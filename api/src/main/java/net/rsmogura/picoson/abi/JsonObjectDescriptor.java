@@ -39,6 +39,12 @@ public final class JsonObjectDescriptor {
 
   private final JsonPropertyDescriptor[] properties;
 
+  /**
+   * Names of {@link #properties}, used to match property without creating string,
+   * see {@link net.rsmogura.picoson.JsonReader#nextNameIndex(JsonNameTable)}.
+   */
+  private final JsonNameTable nameTable;
+
   public JsonObjectDescriptor(Class<?> jsonClass,
       JsonObjectDescriptor superDescriptor,
       Map<String, JsonPropertyDescriptor> jsonProperties,
@@ -54,5 +60,6 @@ public final class JsonObjectDescriptor {
     // additional 5-10%
     final JsonPropertyDescriptor[] descriptors = new JsonPropertyDescriptor[jsonProperties.size()];
     this.properties = new ArrayList<>(jsonProperties.values()).toArray(descriptors);
+    this.nameTable = JsonNameTable.forProperties(this.properties);
   }
 }
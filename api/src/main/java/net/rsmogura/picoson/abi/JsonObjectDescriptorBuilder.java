@@ -17,6 +17,7 @@ package net.rsmogura.picoson.abi;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
@@ -50,7 +51,8 @@ public class JsonObjectDescriptorBuilder {
       throw new PicosonClassException("The JSON class is not defined");
     }
 
-    HashMap<String, JsonPropertyDescriptor> jsonProperties = new HashMap<>();
+    // Keep order of properties, so descriptors loop writes them in declaration order
+    HashMap<String, JsonPropertyDescriptor> jsonProperties = new LinkedHashMap<>();
     HashMap<String, JsonPropertyDescriptor> internalProperties = new HashMap<>();
 
     properties.forEach(property -> {
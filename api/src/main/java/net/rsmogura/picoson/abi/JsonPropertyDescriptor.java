@@ -15,7 +15,9 @@
 
 package net.rsmogura.picoson.abi;
 
+import java.nio.charset.StandardCharsets;
 import lombok.Value ;
+import net.rsmogura.picoson.gson.AbstractJsonWriter;
 
 @Value
 public class JsonPropertyDescriptor {
@@ -28,6 +30,15 @@ public class JsonPropertyDescriptor {
   private final int writePropertyIndex;
   private final Class<?> writerClass;
 
+  /**
+   * Name ready to be written by JSON writer - quoted, escaped and followed by name separator,
+   * like <code>"name":</code>.
+   */
+  private final char[] nameFragmentChars;
+
+  /** The {@link #nameFragmentChars} encoded in UTF-8. */
+  private final byte[] nameFragmentBytes;
+
   public JsonPropertyDescriptor(String jsonPropertyName, String internalPropertyName,
       int readPropertyIndex, Class<?> readerClass, int writePropertyIndex,
       Class<?> writerClass) {
@@ -37,5 +48,13 @@ public class JsonPropertyDescriptor {
     this.readerClass = readerClass;
     this.writePropertyIndex = writePropertyIndex;
     this.writerClass = writerClass;
+
+    if (jsonPropertyName != null) {
+      this.nameFragmentChars = AbstractJsonWriter.nameFragment(jsonPropertyName);
+      this.nameFragmentBytes = new String(nameFragmentChars).getBytes(StandardCharsets.UTF_8);
+    } else {
+      this.nameFragmentChars = null;
+      this.nameFragmentBytes = null;
+    }
   }
 }
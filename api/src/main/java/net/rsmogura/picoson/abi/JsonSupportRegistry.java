@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.abi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import net.rsmogura.picoson.JsonSupport;
+
+/**
+ * Registry of {@link JsonSupport} instances of JSON classes. Initializer of every JSON class
+ * registers its support by {@link #register(Class, JsonSupport)}, so support can be obtained
+ * without reflective access to generated members.
+ * <br />
+ * Supports are kept in {@link ClassValue}, which stores them along with the class, so registry
+ * doesn't prevent class (and its class loader) from being unloaded.
+ * <br />
+ * Registries of JSON modules ({@link JsonModuleRegistry}) are loaded once, by
+ * {@link ServiceLoader}, and can be consulted by {@link #lookupModules(Class)}.
+ */
+public final class JsonSupportRegistry {
+  private static final ClassValue<SupportHolder> SUPPORTS = new ClassValue<SupportHolder>() {
+    @Override
+    protected SupportHolder computeValue(Class<?> type) {
+      return new SupportHolder();
+    }
+  };
+
+  private JsonSupportRegistry() {
+  }
+
+  /**
+   * Registers support of JSON class. Called by initializer of JSON class, this method is part
+   * of ABI.
+   */
+  public static <T> void register(Class<T> jsonClass, JsonSupport<T> support) {
+    SUPPORTS.get(jsonClass).support = support;
+  }
+
+  /**
+   * Returns support of JSON class, initializing class if needed.
+   *
+   * @throws IllegalArgumentException if class is not a JSON class
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> JsonSupport<T> lookup(Class<T> jsonClass) {
+    final SupportHolder holder = SUPPORTS.get(jsonClass);
+    final JsonSupport<?> support = holder.support;
+    if (support != null) {
+      return (JsonSupport<T>) support;
+    }
+    return (JsonSupport<T>) initialize(jsonClass, holder);
+  }
+
+  /**
+   * Returns support of JSON class from registries of JSON modules.
+   *
+   * @return support of class, or null if class doesn't belong to any module
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> JsonSupport<T> lookupModules(Class<T> jsonClass) {
+    for (JsonModuleRegistry module : ModulesHolder.MODULES) {
+      final JsonSupport<?> support = module.lookup(jsonClass);
+      if (support != null) {
+        return (JsonSupport<T>) support;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Initializes class, so its initializer registers support. Class is initialized by
+   * {@link Class#forName(String, boolean, ClassLoader)}, which waits if class is being
+   * initialized by other thread.
+   */
+  private static JsonSupport<?> initialize(Class<?> jsonClass, SupportHolder holder) {
+    try {
+      Class.forName(jsonClass.getName(), true, jsonClass.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      throw new IllegalArgumentException("Can't initialize class " + jsonClass.getName(), e);
+    }
+
+    final JsonSupport<?> support = holder.support;
+    if (support == null) {
+      throw new IllegalArgumentException("Class " + jsonClass.getName()
+          + " is not JSON class, it has to be annotated with @Json and processed by Picoson");
+    }
+    return support;
+  }
+
+  /** Lazily loads registries of JSON modules, when first needed. */
+  private static final class ModulesHolder {
+    static final JsonModuleRegistry[] MODULES = loadModules();
+
+    private static JsonModuleRegistry[] loadModules() {
+      final List<JsonModuleRegistry> modules = new ArrayList<>();
+      for (JsonModuleRegistry module : ServiceLoader.load(JsonModuleRegistry.class,
+          JsonSupportRegistry.class.getClassLoader())) {
+        modules.add(module);
+      }
+      return modules.toArray(new JsonModuleRegistry[0]);
+    }
+  }
+
+  /** Holds support of single class, set when class is initialized. */
+  private static final class SupportHolder {
+    volatile JsonSupport<?> support;
+  }
+}
@@ -33,6 +33,13 @@ public final class Names {
    */
   public static final String GENERATED_DESERIALIZE_METHOD_NAME = "jsonRead";
 
+  /**
+   * The name of method used to read JSON into existing instance. This method is public,
+   * and it can be used from user-code, to reuse instances in place of creating new ones.
+   * This method is optional.
+   */
+  public static final String GENERATED_DESERIALIZE_INTO_METHOD_NAME = "jsonReadInto";
+
   /**
    * The name of internal, synthetic deserialize method. This is a static method
    * and it's typically responsible for setting up class instance and fields.
@@ -94,6 +101,16 @@ public final class Names {
    */
   public static final String DESCRIPTOR_HOLDER = "#jsonDesc";
 
+  /**
+   * Static synthetic method returning instance created by no-argument constructor, which holds
+   * default values of properties. The instance is created on first call, and kept in
+   * {@link #DEFAULTS_HOLDER}. Used by read into existing instance, to reset missing properties.
+   */
+  public static final String DEFAULTS_GETTER = "#jsonDefaults";
+
+  /** Field holding instance returned by {@link #DEFAULTS_GETTER}. */
+  public static final String DEFAULTS_HOLDER = "#jsonDefaultsInst";
+
   /**
    * Postfix for support class. The support class consist the name of
    * JSON (model) class and this postfix.
@@ -102,6 +119,15 @@ public final class Names {
    */
   public static final String SUPPORT_CLASS_POSTFIX = "#JsonSupport";
 
+  /**
+   * Postfix for module registry class. The registry class consist the name of
+   * module class and this postfix. Registry is loaded by {@link java.util.ServiceLoader},
+   * so postfix has to be valid part of Java identifier.
+   * <br />
+   * ABI: pending decision
+   */
+  public static final String MODULE_REGISTRY_POSTFIX = "$JsonRegistry";
+
   /**
    * The name of internal synthetic filed to hold single instance
    * of {@link net.rsmogura.picoson.JsonSupport} class.
@@ -117,6 +143,12 @@ public final class Names {
    */
   public static final String SUPPORT_CLASS_READ_IMPL = "readI";
 
+  /**
+   * The name of read into existing instance method implemented by Picoson.
+   * @see #SUPPORT_CLASS_READ_IMPL
+   */
+  public static final String SUPPORT_CLASS_READ_INTO_IMPL = "readIntoI";
+
   /**
    * The name of write method implemented by Picoson, to
    * provide user-space ↔️ Picoson internals bridge.
@@ -15,6 +15,14 @@
 
 package net.rsmogura.picoson.abi;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.rsmogura.picoson.JsonReadException;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonToken;
+
 /**
  * The utils used in Picoson core. Calls to this methods are compiled into classes,
  * and to maintain backward compatibility, it's signature, nor behaviour should not change,
@@ -22,12 +30,123 @@ package net.rsmogura.picoson.abi;
  */
 public class PicosonAbiUtils {
 
+  /** FNV-1a offset basis. */
+  private static final int HASH_OFFSET_BASIS = 0x811c9dc5;
+
+  /** FNV-1a prime. */
+  private static final int HASH_PRIME = 0x01000193;
+
   /**
    * Hashing function for String. The hashes can be compiled into code, so this method should
    * not change.
+   * <br />
+   * This is 32-bit FNV-1a computed over UTF-16 characters, and always gives same result
+   * as {@link #hashChars(char[], int, int)} for the same characters.
    */
   public static int hashString(String stringToHash) {
-    return 0;
+    int hash = HASH_OFFSET_BASIS;
+    for (int i = 0, length = stringToHash.length(); i < length; i++) {
+      hash = (hash ^ stringToHash.charAt(i)) * HASH_PRIME;
+    }
+    return hash;
+  }
+
+  /**
+   * Hashing function for characters. The hashes can be compiled into code, so this method
+   * should not change.
+   *
+   * @see #hashString(String)
+   */
+  public static int hashChars(char[] chars, int offset, int length) {
+    int hash = HASH_OFFSET_BASIS;
+    for (int i = offset, end = offset + length; i < end; i++) {
+      hash = (hash ^ chars[i]) * HASH_PRIME;
+    }
+    return hash;
+  }
+
+  /**
+   * Creates exception thrown by generated readers, when property read by
+   * {@link JsonReader#nextNameHash()} is not declared in class.
+   */
+  public static JsonReadException unknownProperty(Class<?> jsonClass, JsonReader reader) {
+    return new JsonReadException("Unknown property " + reader.currentName()
+        + " for class " + jsonClass.getName());
+  }
+
+  /**
+   * Reads value of unknown property, (name of which is read by
+   * {@link JsonReader#nextNameHash()}), into map. Used by generated readers of classes
+   * collecting unknown properties.
+   *
+   * @param unknownProperties map where to put value, if {@code null} new map is created
+   * @return map with property value
+   */
+  public static Map<String, Object> collectUnknownProperty(Map<String, Object> unknownProperties,
+      JsonReader reader) {
+    // Get name before reading value, as it can change
+    final String name = reader.currentName();
+    if (unknownProperties == null) {
+      unknownProperties = new LinkedHashMap<>();
+    }
+    unknownProperties.put(name, readValue(reader));
+    return unknownProperties;
+  }
+
+  /**
+   * Reads any JSON value as {@code Map}, {@code List}, {@code String}, {@code Long},
+   * {@code Double}, {@code Boolean}, or {@code null}.
+   */
+  public static Object readValue(JsonReader reader) {
+    final JsonToken token = reader.peek();
+    switch (token) {
+      case BEGIN_OBJECT:
+        final Map<String, Object> object = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.peek() != JsonToken.END_OBJECT) {
+          final String name = reader.nextName();
+          object.put(name, readValue(reader));
+        }
+        reader.endObject();
+        return object;
+      case BEGIN_ARRAY:
+        final List<Object> array = new ArrayList<>();
+        reader.beginArray();
+        while (reader.peek() != JsonToken.END_ARRAY) {
+          array.add(readValue(reader));
+        }
+        reader.endArray();
+        return array;
+      case STRING:
+        return reader.nextString();
+      case NUMBER:
+        return parseNumber(reader.nextString());
+      case BOOLEAN:
+        return reader.nextBoolean();
+      case NULL:
+        reader.nextNull();
+        return null;
+      default:
+        throw new JsonReadException("Unexpected " + token + " at " + reader.getPath());
+    }
+  }
+
+  /** Parses number as long if it's integer in range, otherwise as double. */
+  private static Number parseNumber(String number) {
+    boolean integer = true;
+    for (int i = 0; i < number.length() && integer; i++) {
+      final char c = number.charAt(i);
+      integer = c != '.' && c != 'e' && c != 'E';
+    }
+
+    if (integer) {
+      try {
+        return Long.parseLong(number);
+      } catch (NumberFormatException e) {
+        // Out of long range, read as double
+      }
+    }
+    return Double.parseDouble(number);
   }
 
   public static boolean isEmpty(String string) {
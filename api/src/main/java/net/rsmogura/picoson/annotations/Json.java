@@ -21,4 +21,53 @@ package net.rsmogura.picoson.annotations;
  * and writer (serialization) methods.
  */
 public @interface Json {
+
+  /**
+   * Selects how serialization method is generated.
+   */
+  WriteMode writeMode() default WriteMode.UNROLLED;
+
+  /**
+   * Selects what generated reader does with properties not declared in class.
+   */
+  UnknownProperties unknownProperties() default UnknownProperties.IGNORE;
+
+  /**
+   * Modes of generating serialization method (<code>#jsonWrite</code>).
+   */
+  enum WriteMode {
+    /**
+     * Every property is written by straight-line code, with constant names
+     * and direct field access, in declaration order.
+     */
+    UNROLLED,
+
+    /**
+     * Properties are written in loop over object descriptor, which calls
+     * property writer (<code>#jsonWriteProp</code>) for every property.
+     */
+    DESCRIPTORS
+  }
+
+  /**
+   * Handling of unknown properties by deserialization method (<code>jsonRead</code>).
+   */
+  enum UnknownProperties {
+    /**
+     * Value of unknown property is skipped, including nested objects and arrays,
+     * without materializing it.
+     */
+    IGNORE,
+
+    /**
+     * Reading fails with {@link net.rsmogura.picoson.JsonReadException}.
+     */
+    FAIL,
+
+    /**
+     * Value of unknown property is read into map held by field annotated with
+     * {@link JsonUnknownProperties}.
+     */
+    COLLECT
+  }
 }
@@ -23,4 +23,38 @@ public @interface JsonProperty {
    * like {@code @JsonProperty}
    */
   String value() default "";
+
+  /**
+   * Expected number of elements of collection property. If set, list read
+   * into <code>ArrayList</code> is created with this capacity, so it's not
+   * grown (copied) while elements are added.
+   */
+  int expectedSize() default -1;
+
+  /**
+   * If true, <code>byte[]</code> property is written and read as Base64 encoded
+   * string, otherwise it's an array of numbers.
+   */
+  boolean base64() default false;
+
+  /**
+   * Name of method of this class, taking single {@link CharSequence} argument, which receives
+   * value of string property, in place of storing it in field. The method gets reused view of
+   * characters of value (or null), valid only during the call, so reading value doesn't
+   * allocate. It's useful for values which are only checked, like IDs used to filter
+   * messages. The field isn't assigned by reader.
+   *
+   * @see net.rsmogura.picoson.JsonReader#nextStringView()
+   */
+  String viewHandler() default "";
+
+  /**
+   * If true, values of <code>String</code> property (or collection of strings) are read through
+   * {@link net.rsmogura.picoson.StringCache}, so repeated values, like types or statuses, are
+   * not allocated, and occurrences share one instance. Cache set on reader is used, or shared
+   * cache if reader has none.
+   *
+   * @see net.rsmogura.picoson.JsonReader#nextCachedString()
+   */
+  boolean cached() default false;
 }
@@ -0,0 +1,32 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * Marks field collecting properties not declared in class, used when class is annotated with
+ * {@code @Json(unknownProperties = UnknownProperties.COLLECT)}.
+ * <br />
+ * The field has to be of type {@code java.util.Map<String, Object>}; if it's null, new map is
+ * created when first unknown property is read. Values are read as {@code Map}, {@code List},
+ * {@code String}, {@code Long}, {@code Double}, {@code Boolean}, or {@code null}. Marked field
+ * is not JSON property itself, and it's not written.
+ */
+@Target(ElementType.FIELD)
+public @interface JsonUnknownProperties {
+}
@@ -0,0 +1,998 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+// CHECKSTYLE.OFF
+package net.rsmogura.picoson.gson;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+import net.rsmogura.picoson.JsonToken;
+import net.rsmogura.picoson.MalformedJsonException;
+import net.rsmogura.picoson.StringCache;
+import net.rsmogura.picoson.abi.JsonNameTable;
+import net.rsmogura.picoson.abi.PicosonAbiUtils;
+
+/**
+ * Base of JSON tokenizers. Holds parsing state which doesn't depend on input
+ * encoding - peeked token, nesting stack, path, position, and name read by
+ * {@link #nextNameHash()}. Subclasses read input and implement lexing: {@link JsonReader}
+ * reads characters, and {@link Utf8JsonReader} reads UTF-8 encoded bytes.
+ *
+ * @see JsonReader
+ */
+public abstract class AbstractJsonReader implements Closeable {
+  static final long MIN_INCOMPLETE_INTEGER = Long.MIN_VALUE / 10;
+
+  static final int PEEKED_NONE = 0;
+  static final int PEEKED_BEGIN_OBJECT = 1;
+  static final int PEEKED_END_OBJECT = 2;
+  static final int PEEKED_BEGIN_ARRAY = 3;
+  static final int PEEKED_END_ARRAY = 4;
+  static final int PEEKED_TRUE = 5;
+  static final int PEEKED_FALSE = 6;
+  static final int PEEKED_NULL = 7;
+  static final int PEEKED_SINGLE_QUOTED = 8;
+  static final int PEEKED_DOUBLE_QUOTED = 9;
+  static final int PEEKED_UNQUOTED = 10;
+  /** When this is returned, the string value is stored in peekedString. */
+  static final int PEEKED_BUFFERED = 11;
+
+  static final int PEEKED_SINGLE_QUOTED_NAME = 12;
+  static final int PEEKED_DOUBLE_QUOTED_NAME = 13;
+  static final int PEEKED_UNQUOTED_NAME = 14;
+  /** When this is returned, the integer value is stored in peekedLong. */
+  static final int PEEKED_LONG = 15;
+
+  static final int PEEKED_NUMBER = 16;
+  static final int PEEKED_EOF = 17;
+
+  /* State machine when parsing numbers */
+  static final int NUMBER_CHAR_NONE = 0;
+  static final int NUMBER_CHAR_SIGN = 1;
+  static final int NUMBER_CHAR_DIGIT = 2;
+  static final int NUMBER_CHAR_DECIMAL = 3;
+  static final int NUMBER_CHAR_FRACTION_DIGIT = 4;
+  static final int NUMBER_CHAR_EXP_E = 5;
+  static final int NUMBER_CHAR_EXP_SIGN = 6;
+  static final int NUMBER_CHAR_EXP_DIGIT = 7;
+
+  /** True to accept non-spec compliant JSON */
+  boolean lenient = false;
+
+  /** True to read multiple top level values (JSON Lines) */
+  boolean jsonLines = false;
+
+  /** Position of next character (or byte) to read in buffer of subclass. */
+  int pos = 0;
+  /** End of data in buffer of subclass. */
+  int limit = 0;
+
+  int lineNumber = 0;
+  int lineStart = 0;
+
+  int peeked = PEEKED_NONE;
+
+  /**
+   * A peeked value that was composed entirely of digits with an optional leading dash. Positive
+   * values may not have a leading 0.
+   */
+  long peekedLong;
+
+  /**
+   * The number of characters in a peeked number literal. Increment 'pos' by this after reading a
+   * number.
+   */
+  int peekedNumberLength;
+
+  /**
+   * A peeked string that should be parsed on the next double, long or string. This is populated
+   * before a numeric value is parsed and used if that parsing fails.
+   */
+  String peekedString;
+
+  /*
+   * The nesting stack. Using a manual array rather than an ArrayList saves 20%.
+   */
+  int[] stack = new int[32];
+  int stackSize = 0;
+
+  {
+    stack[stackSize++] = JsonScope.EMPTY_DOCUMENT;
+  }
+
+  /*
+   * The path members. It corresponds directly to stack: At indices where the
+   * stack contains an object (EMPTY_OBJECT, DANGLING_NAME or NONEMPTY_OBJECT),
+   * pathNames contains the name at this scope. Where it contains an array
+   * (EMPTY_ARRAY, NONEMPTY_ARRAY) pathIndices contains the current index in
+   * that array. Otherwise the value is undefined, and we take advantage of that
+   * by incrementing pathIndices when doing so isn't useful.
+   */
+  String[] pathNames = new String[32];
+  int[] pathIndices = new int[32];
+
+  /*
+   * If false, path members are not maintained, and path reported by getPath() (and in error
+   * messages) has wildcards in place of names and indices.
+   */
+  boolean trackPath = true;
+
+  /*
+   * Stack size when tracking was suspended by suspendPath(). Path members below it are valid,
+   * and reported by getPath(), while deeper levels are reported with wildcards.
+   */
+  int knownPathDepth;
+
+  /*
+   * Characters of the name read by nextNameHash() or nextNameIndex(). Points
+   * directly into buffer of subclass, if possible, otherwise to nameBuffer.
+   * The nameBuffer array is reused between names, so matching names doesn't
+   * allocate.
+   */
+  char[] nameChars;
+  int nameOffset;
+  int nameLength;
+  char[] nameBuffer = new char[32];
+
+  /*
+   * Stack level, which name was read by nextNameHash() or nextNameIndex(), but isn't set in
+   * pathNames yet, or -1. Known names are set from the string passed to isName(), or from name
+   * table; the string is created from nameChars only for unknown names, when value is skipped
+   * or currentName() is called.
+   */
+  int pendingNameLevel = -1;
+
+  /*
+   * Characters of the string value read by nextStringView(), like nameChars. Points directly
+   * into buffer of subclass, if possible, otherwise to valueBuffer, which is created when
+   * first needed.
+   */
+  char[] valueChars;
+  int valueOffset;
+  int valueLength;
+  char[] valueBuffer;
+  private CharsView stringView;
+
+  /*
+   * Buffers reused for reading arrays of primitives, created when first needed. Array is read
+   * into buffer, which grows as required, and trimmed copy is returned. Buffers longer than
+   * MAX_RETAINED_BUFFER_LENGTH are dropped after read, so single large array doesn't stay
+   * reachable from (pooled) reader.
+   */
+  private static final int MAX_RETAINED_BUFFER_LENGTH = 64 * 1024;
+  private int[] intBuffer;
+  private long[] longBuffer;
+  private double[] doubleBuffer;
+  private float[] floatBuffer;
+  private boolean[] booleanBuffer;
+
+  /** Decoder of Base64 values, created when first needed. */
+  private Base64.Decoder base64Decoder;
+
+  /**
+   * Configure this parser to be liberal in what it accepts. By default, this parser is strict and
+   * only accepts JSON as specified by <a href="http://www.ietf.org/rfc/rfc4627.txt">RFC 4627</a>.
+   * Setting the parser to lenient causes it to ignore the following syntax errors:
+   *
+   * <ul>
+   *   <li>Streams that start with the <a href="#nonexecuteprefix">non-execute prefix</a>, <code>
+   *       ")]}'\n"</code>.
+   *   <li>Streams that include multiple top-level values. With strict parsing, each stream must
+   *       contain exactly one top-level value.
+   *   <li>Top-level values of any type. With strict parsing, the top-level value must be an object
+   *       or an array.
+   *   <li>Numbers may be {@link Double#isNaN() NaNs} or {@link Double#isInfinite() infinities}.
+   *   <li>End of line comments starting with {@code //} or {@code #} and ending with a newline
+   *       character.
+   *   <li>C-style comments starting with {@code /*} and ending with {@code *}{@code /}. Such
+   *       comments may not be nested.
+   *   <li>Names that are unquoted or {@code 'single quoted'}.
+   *   <li>Strings that are unquoted or {@code 'single quoted'}.
+   *   <li>Array elements separated by {@code ;} instead of {@code ,}.
+   *   <li>Unnecessary array separators. These are interpreted as if null was the omitted value.
+   *   <li>Names and values separated by {@code =} or {@code =>} instead of {@code :}.
+   *   <li>Name/value pairs separated by {@code ;} instead of {@code ,}.
+   * </ul>
+   */
+  public final void setLenient(boolean lenient) {
+    this.lenient = lenient;
+  }
+
+  /** Returns true if this parser is liberal in what it accepts. */
+  public final boolean isLenient() {
+    return lenient;
+  }
+
+  /**
+   * Configures this reader to read <a href="https://jsonlines.org/">JSON Lines</a> (also known
+   * as NDJSON): stream of top level values, one per line. Strict reader accepts only single top
+   * level value, while reader of JSON Lines reads next values from the same buffer, until
+   * {@link JsonToken#END_DOCUMENT} is peeked. Values have to be separated by new line
+   * ({@code \n}, optionally preceded by {@code \r}); blank lines are skipped. Other syntax is
+   * checked as usual.
+   */
+  public final void setJsonLines(boolean jsonLines) {
+    this.jsonLines = jsonLines;
+  }
+
+  /** Returns true if this reader reads multiple top level values. */
+  public final boolean isJsonLines() {
+    return jsonLines;
+  }
+
+  /**
+   * Configures if this reader tracks path to current value. Path is used only by
+   * {@link #getPath()} and in error messages, so tracking can be switched off to save
+   * bookkeeping on every name and value. Path of reader not tracking it, is built from nesting
+   * of objects and arrays, with wildcards in place of names and indices, like
+   * <code>$.*[*]</code>. By default path is tracked. It should be set before reading starts.
+   */
+  public final void setTrackPath(boolean trackPath) {
+    this.trackPath = trackPath;
+    this.pendingNameLevel = -1;
+    this.knownPathDepth = 0;
+  }
+
+  /** Returns true if this reader tracks path to current value. */
+  public final boolean isTrackPath() {
+    return trackPath;
+  }
+
+  /**
+   * Suspends tracking of path while single value is read, i.e. by generated code. Path to the
+   * value stays in {@link #getPath()}, and path inside it is reported with wildcards.
+   *
+   * @return depth to pass to {@link #resumePath(int, boolean)}, or -1 if path isn't tracked
+   */
+  public final int suspendPath() {
+    if (!trackPath) {
+      return -1;
+    }
+    pathNameFromChars();
+    trackPath = false;
+    knownPathDepth = stackSize;
+    return stackSize;
+  }
+
+  /**
+   * Resumes tracking of path suspended by {@link #suspendPath()}.
+   *
+   * @param depth the value returned by {@link #suspendPath()}
+   * @param valueRead true if whole value was read, so path has to move past it
+   */
+  public final void resumePath(int depth, boolean valueRead) {
+    if (depth < 0) {
+      return;
+    }
+    trackPath = true;
+    knownPathDepth = 0;
+    if (valueRead) {
+      advancePath();
+    }
+  }
+
+  /**
+   * Consumes the next token from the JSON stream and asserts that it is the beginning of a new
+   * array.
+   */
+  public void beginArray() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    if (p == PEEKED_BEGIN_ARRAY) {
+      push(JsonScope.EMPTY_ARRAY);
+      if (trackPath) {
+        pathIndices[stackSize - 1] = 0;
+      }
+      peeked = PEEKED_NONE;
+    } else {
+      throw new IllegalStateException("Expected BEGIN_ARRAY but was " + peek() + locationString());
+    }
+  }
+
+  /**
+   * Continues reading array, which was begun before input of this reader, as if
+   * {@link #beginArray()} was called: the input has to start at element of array. This way
+   * large array can be read in parts, by many readers; the part is read by reading known
+   * number of elements. It has to be called before anything else is read.
+   */
+  public void continueArray() {
+    if (peeked != PEEKED_NONE || stackSize != 1 || stack[0] != JsonScope.EMPTY_DOCUMENT) {
+      throw new IllegalStateException("Array can be continued only at start of input");
+    }
+    stack[0] = JsonScope.NONEMPTY_DOCUMENT;
+    push(JsonScope.EMPTY_ARRAY);
+    if (trackPath) {
+      pathIndices[stackSize - 1] = 0;
+    }
+  }
+
+  /**
+   * Consumes the next token from the JSON stream and asserts that it is the end of the current
+   * array.
+   */
+  public void endArray() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    if (p == PEEKED_END_ARRAY) {
+      stackSize--;
+      advancePath();
+      peeked = PEEKED_NONE;
+    } else {
+      throw new IllegalStateException("Expected END_ARRAY but was " + peek() + locationString());
+    }
+  }
+
+  /**
+   * Consumes the next token from the JSON stream and asserts that it is the beginning of a new
+   * object.
+   */
+  public void beginObject() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    if (p == PEEKED_BEGIN_OBJECT) {
+      push(JsonScope.EMPTY_OBJECT);
+      peeked = PEEKED_NONE;
+    } else {
+      throw new IllegalStateException("Expected BEGIN_OBJECT but was " + peek() + locationString());
+    }
+  }
+
+  /**
+   * Consumes the next token from the JSON stream and asserts that it is the end of the current
+   * object.
+   */
+  public void endObject() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    if (p == PEEKED_END_OBJECT) {
+      stackSize--;
+      if (trackPath) {
+        pathNames[stackSize] = null; // Free the last path name so that it can be garbage collected!
+        pathIndices[stackSize - 1]++;
+        pendingNameLevel = -1;
+      }
+      peeked = PEEKED_NONE;
+    } else {
+      throw new IllegalStateException("Expected END_OBJECT but was " + peek() + locationString());
+    }
+  }
+
+  /** Returns true if the current array or object has another element. */
+  public boolean hasNext() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    return p != PEEKED_END_OBJECT && p != PEEKED_END_ARRAY;
+  }
+
+  /** Returns the type of the next token without consuming it. */
+  public JsonToken peek() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+
+    switch (p) {
+      case PEEKED_BEGIN_OBJECT:
+        return JsonToken.BEGIN_OBJECT;
+      case PEEKED_END_OBJECT:
+        return JsonToken.END_OBJECT;
+      case PEEKED_BEGIN_ARRAY:
+        return JsonToken.BEGIN_ARRAY;
+      case PEEKED_END_ARRAY:
+        return JsonToken.END_ARRAY;
+      case PEEKED_SINGLE_QUOTED_NAME:
+      case PEEKED_DOUBLE_QUOTED_NAME:
+      case PEEKED_UNQUOTED_NAME:
+        return JsonToken.NAME;
+      case PEEKED_TRUE:
+      case PEEKED_FALSE:
+        return JsonToken.BOOLEAN;
+      case PEEKED_NULL:
+        return JsonToken.NULL;
+      case PEEKED_SINGLE_QUOTED:
+      case PEEKED_DOUBLE_QUOTED:
+      case PEEKED_UNQUOTED:
+      case PEEKED_BUFFERED:
+        return JsonToken.STRING;
+      case PEEKED_LONG:
+      case PEEKED_NUMBER:
+        return JsonToken.NUMBER;
+      case PEEKED_EOF:
+        return JsonToken.END_DOCUMENT;
+      default:
+        throw new AssertionError();
+    }
+  }
+
+  /** Reads next token, stores it in {@link #peeked} and returns it. */
+  abstract int doPeek() throws IOException;
+
+  /**
+   * Returns the next token, a {@link JsonToken#NAME property name}, and consumes it.
+   *
+   * @throws java.io.IOException if the next token in the stream is not a property name.
+   */
+  public abstract String nextName() throws IOException;
+
+  /**
+   * Consumes the next token, a {@link JsonToken#NAME property name}, without creating a string,
+   * and returns its {@link PicosonAbiUtils#hashChars(char[], int, int) hash}. The name can be
+   * compared with {@link #isName(String)} until the next token is read.
+   *
+   * <p>If path is tracked, {@link #getPath()} reports the string matched by
+   * {@link #isName(String)}. Only if name isn't matched, the string is created from read
+   * characters, when the value is skipped or {@link #currentName()} is called.
+   *
+   * @throws java.io.IOException if the next token in the stream is not a property name.
+   */
+  public int nextNameHash() throws IOException {
+    readName();
+    return PicosonAbiUtils.hashChars(nameChars, nameOffset, nameLength);
+  }
+
+  /**
+   * Consumes the next token, a {@link JsonToken#NAME property name}, and finds it in given
+   * table, without creating a string. The name is compared directly with characters in read
+   * buffer, if possible.
+   *
+   * <p>If path is tracked, {@link #getPath()} reports the name from the table. Only if name isn't
+   * found, the string is created from read characters.
+   *
+   * @return index of name in the table, or {@link JsonNameTable#NOT_FOUND}
+   * @throws java.io.IOException if the next token in the stream is not a property name.
+   */
+  public int nextNameIndex(JsonNameTable nameTable) throws IOException {
+    readName();
+    final int index = nameTable.indexOf(nameChars, nameOffset, nameLength);
+    if (pendingNameLevel >= 0) {
+      if (index == JsonNameTable.NOT_FOUND) {
+        pathNameFromChars();
+      } else {
+        pathNames[pendingNameLevel] = nameTable.name(index);
+        pendingNameLevel = -1;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Checks if name read by last call to {@link #nextNameHash()} or
+   * {@link #nextNameIndex(JsonNameTable)} is equal to given name. If it is, and path is tracked,
+   * the given string is used as name in path.
+   */
+  public boolean isName(String name) {
+    final int length = nameLength;
+    if (name.length() != length) {
+      return false;
+    }
+    final char[] chars = nameChars;
+    final int offset = nameOffset;
+    for (int i = 0; i < length; i++) {
+      if (chars[offset + i] != name.charAt(i)) {
+        return false;
+      }
+    }
+    if (pendingNameLevel == stackSize - 1) {
+      pathNames[pendingNameLevel] = name;
+      pendingNameLevel = -1;
+    }
+    return true;
+  }
+
+  /**
+   * Returns name read by last call to {@link #nextNameHash()} or
+   * {@link #nextNameIndex(JsonNameTable)}. This method allocates new string, and should be used
+   * only when name is not expected, i.e. to report an error.
+   */
+  public String currentName() {
+    final String name = new String(nameChars, nameOffset, nameLength);
+    if (pendingNameLevel == stackSize - 1) {
+      pathNames[pendingNameLevel] = name;
+      pendingNameLevel = -1;
+    }
+    return name;
+  }
+
+  /**
+   * Consumes the next name, and points {@link #nameChars}, {@link #nameOffset} and
+   * {@link #nameLength} to its characters.
+   */
+  abstract void readName() throws IOException;
+
+  /**
+   * Returns the {@link JsonToken#STRING string} value of the next token, consuming it. If the next
+   * token is a number, this method will return its string form.
+   *
+   * @throws IllegalStateException if the next token is not a string or if this reader is closed.
+   */
+  public abstract String nextString() throws IOException;
+
+  /**
+   * Consumes the next token, a {@link JsonToken#STRING string} or null, and returns view of its
+   * characters, without creating a string. The view is reused, and it's valid only until the
+   * next token is read; it can be compared, i.e. with {@link String#contentEquals(CharSequence)},
+   * or copied by {@link CharSequence#toString()}. If the next token is a number, the view holds
+   * its string form.
+   *
+   * @return view of string value, or null if value is null
+   * @throws IllegalStateException if the next token is not a string, number or null
+   */
+  public CharSequence nextStringView() throws IOException {
+    if (peek() == JsonToken.NULL) {
+      nextNull();
+      return null;
+    }
+    readString();
+    CharsView view = stringView;
+    if (view == null) {
+      view = stringView = new CharsView();
+    }
+    return view.set(valueChars, valueOffset, valueLength);
+  }
+
+  /**
+   * Returns the {@link JsonToken#STRING string} value of the next token, like
+   * {@link #nextString()}, but the string is taken from given cache if possible, so repeated
+   * values are not allocated.
+   *
+   * @throws IllegalStateException if the next token is not a string or if this reader is closed.
+   */
+  public String nextString(StringCache cache) throws IOException {
+    readString();
+    return cache.get(valueChars, valueOffset, valueLength);
+  }
+
+  /**
+   * Consumes the next string value, and points {@link #valueChars}, {@link #valueOffset} and
+   * {@link #valueLength} to its characters.
+   */
+  abstract void readString() throws IOException;
+
+  /** Points value to characters of given string, copied to {@link #valueBuffer}. */
+  final void setValue(String value) {
+    final int length = value.length();
+    char[] chars = valueBuffer;
+    if (chars == null || length > chars.length) {
+      chars = valueBuffer = new char[Math.max(length, 32)];
+    }
+    value.getChars(0, length, chars, 0);
+    valueChars = chars;
+    valueOffset = 0;
+    valueLength = length;
+  }
+
+  /**
+   * Returns the {@link JsonToken#BOOLEAN boolean} value of the next token, consuming it.
+   *
+   * @throws IllegalStateException if the next token is not a boolean or if this reader is closed.
+   */
+  public boolean nextBoolean() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    if (p == PEEKED_TRUE) {
+      peeked = PEEKED_NONE;
+      advancePath();
+      return true;
+    } else if (p == PEEKED_FALSE) {
+      peeked = PEEKED_NONE;
+      advancePath();
+      return false;
+    }
+    throw new IllegalStateException("Expected a boolean but was " + peek() + locationString());
+  }
+
+  /**
+   * Consumes the next token from the JSON stream and asserts that it is a literal null.
+   *
+   * @throws IllegalStateException if the next token is not null or if this reader is closed.
+   */
+  public void nextNull() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    if (p == PEEKED_NULL) {
+      peeked = PEEKED_NONE;
+      advancePath();
+    } else {
+      throw new IllegalStateException("Expected null but was " + peek() + locationString());
+    }
+  }
+
+  /**
+   * Returns the {@link JsonToken#NUMBER double} value of the next token, consuming it. If the next
+   * token is a string, this method will attempt to parse it as a double using {@link
+   * Double#parseDouble(String)}.
+   *
+   * @throws IllegalStateException if the next token is not a literal value.
+   * @throws NumberFormatException if the next literal value cannot be parsed as a double, or is
+   *     non-finite.
+   */
+  public abstract double nextDouble() throws IOException;
+
+  /**
+   * Returns the {@link JsonToken#NUMBER float} value of the next token, consuming it. Value is
+   * rounded to float once, it's not parsed as double and then narrowed. If the next token is a
+   * string, this method will attempt to parse it as a float using {@link
+   * Float#parseFloat(String)}.
+   *
+   * @throws IllegalStateException if the next token is not a literal value.
+   * @throws NumberFormatException if the next literal value cannot be parsed as a float, or is
+   *     non-finite.
+   */
+  public abstract float nextFloat() throws IOException;
+
+  /**
+   * Returns the {@link JsonToken#NUMBER long} value of the next token, consuming it. If the next
+   * token is a string, this method will attempt to parse it as a long. If the next token's numeric
+   * value cannot be exactly represented by a Java {@code long}, this method throws.
+   *
+   * @throws IllegalStateException if the next token is not a literal value.
+   * @throws NumberFormatException if the next literal value cannot be parsed as a number, or
+   *     exactly represented as a long.
+   */
+  public abstract long nextLong() throws IOException;
+
+  /**
+   * Returns the {@link JsonToken#NUMBER int} value of the next token, consuming it. If the next
+   * token is a string, this method will attempt to parse it as an int. If the next token's numeric
+   * value cannot be exactly represented by a Java {@code int}, this method throws.
+   *
+   * @throws IllegalStateException if the next token is not a literal value.
+   * @throws NumberFormatException if the next literal value cannot be parsed as a number, or
+   *     exactly represented as an int.
+   */
+  public abstract int nextInt() throws IOException;
+
+  /**
+   * Returns the {@link JsonToken#STRING string} value of the next token, decoded from Base64,
+   * consuming it. Value is decoded directly from input buffer, without creating string.
+   *
+   * @throws IllegalStateException if the next token is not a string or if this reader is closed.
+   * @throws MalformedJsonException if value is not valid Base64.
+   */
+  public abstract byte[] nextBase64() throws IOException;
+
+  /**
+   * Returns next array of numbers as {@code int[]}, consuming it. Values are not boxed.
+   *
+   * @throws IllegalStateException if the next token is not an array or if this reader is closed.
+   * @throws NumberFormatException if element can't be represented as an int.
+   */
+  public int[] nextIntArray() throws IOException {
+    int[] values = intBuffer != null ? intBuffer : new int[16];
+    int length = 0;
+    beginArray();
+    while (hasNext()) {
+      if (length == values.length) {
+        values = Arrays.copyOf(values, length * 2);
+      }
+      values[length++] = nextInt();
+    }
+    endArray();
+    intBuffer = values.length <= MAX_RETAINED_BUFFER_LENGTH ? values : null;
+    return Arrays.copyOf(values, length);
+  }
+
+  /**
+   * Returns next array of numbers as {@code short[]}, consuming it. Values are not boxed.
+   *
+   * @throws IllegalStateException if the next token is not an array or if this reader is closed.
+   * @throws NumberFormatException if element can't be represented as a short.
+   */
+  public short[] nextShortArray() throws IOException {
+    final int[] values = nextIntArray();
+    final short[] result = new short[values.length];
+    for (int i = 0; i < values.length; i++) {
+      final short value = (short) values[i];
+      if (value != values[i]) {
+        throw new NumberFormatException("Expected a short but was " + values[i] + locationString());
+      }
+      result[i] = value;
+    }
+    return result;
+  }
+
+  /**
+   * Returns next array of numbers as {@code byte[]}, consuming it. Values are not boxed.
+   *
+   * @throws IllegalStateException if the next token is not an array or if this reader is closed.
+   * @throws NumberFormatException if element can't be represented as a byte.
+   */
+  public byte[] nextByteArray() throws IOException {
+    final int[] values = nextIntArray();
+    final byte[] result = new byte[values.length];
+    for (int i = 0; i < values.length; i++) {
+      final byte value = (byte) values[i];
+      if (value != values[i]) {
+        throw new NumberFormatException("Expected a byte but was " + values[i] + locationString());
+      }
+      result[i] = value;
+    }
+    return result;
+  }
+
+  /**
+   * Returns next array of numbers as {@code long[]}, consuming it. Values are not boxed.
+   *
+   * @throws IllegalStateException if the next token is not an array or if this reader is closed.
+   * @throws NumberFormatException if element can't be represented as a long.
+   */
+  public long[] nextLongArray() throws IOException {
+    long[] values = longBuffer != null ? longBuffer : new long[16];
+    int length = 0;
+    beginArray();
+    while (hasNext()) {
+      if (length == values.length) {
+        values = Arrays.copyOf(values, length * 2);
+      }
+      values[length++] = nextLong();
+    }
+    endArray();
+    longBuffer = values.length <= MAX_RETAINED_BUFFER_LENGTH ? values : null;
+    return Arrays.copyOf(values, length);
+  }
+
+  /**
+   * Returns next array of numbers as {@code double[]}, consuming it. Values are not boxed.
+   *
+   * @throws IllegalStateException if the next token is not an array or if this reader is closed.
+   * @throws NumberFormatException if element can't be parsed as a double, or is non-finite.
+   */
+  public double[] nextDoubleArray() throws IOException {
+    double[] values = doubleBuffer != null ? doubleBuffer : new double[16];
+    int length = 0;
+    beginArray();
+    while (hasNext()) {
+      if (length == values.length) {
+        values = Arrays.copyOf(values, length * 2);
+      }
+      values[length++] = nextDouble();
+    }
+    endArray();
+    doubleBuffer = values.length <= MAX_RETAINED_BUFFER_LENGTH ? values : null;
+    return Arrays.copyOf(values, length);
+  }
+
+  /**
+   * Returns next array of numbers as {@code float[]}, consuming it. Values are not boxed.
+   *
+   * @throws IllegalStateException if the next token is not an array or if this reader is closed.
+   * @throws NumberFormatException if element can't be parsed as a float, or is non-finite.
+   */
+  public float[] nextFloatArray() throws IOException {
+    float[] values = floatBuffer != null ? floatBuffer : new float[16];
+    int length = 0;
+    beginArray();
+    while (hasNext()) {
+      if (length == values.length) {
+        values = Arrays.copyOf(values, length * 2);
+      }
+      values[length++] = nextFloat();
+    }
+    endArray();
+    floatBuffer = values.length <= MAX_RETAINED_BUFFER_LENGTH ? values : null;
+    return Arrays.copyOf(values, length);
+  }
+
+  /**
+   * Returns next array of booleans as {@code boolean[]}, consuming it. Values are not boxed.
+   *
+   * @throws IllegalStateException if the next token is not an array or if this reader is closed.
+   */
+  public boolean[] nextBooleanArray() throws IOException {
+    boolean[] values = booleanBuffer != null ? booleanBuffer : new boolean[16];
+    int length = 0;
+    beginArray();
+    while (hasNext()) {
+      if (length == values.length) {
+        values = Arrays.copyOf(values, length * 2);
+      }
+      values[length++] = nextBoolean();
+    }
+    endArray();
+    booleanBuffer = values.length <= MAX_RETAINED_BUFFER_LENGTH ? values : null;
+    return Arrays.copyOf(values, length);
+  }
+
+  /** Returns Base64 decoder, reused by this reader. */
+  Base64.Decoder base64Decoder() {
+    if (base64Decoder == null) {
+      base64Decoder = new Base64.Decoder();
+    }
+    return base64Decoder;
+  }
+
+  /** Decodes Base64 value, which was read as string. */
+  byte[] decodeBase64(String value) throws IOException {
+    final Base64.Decoder decoder = base64Decoder();
+    for (int i = 0; i < value.length(); i++) {
+      if (!decoder.decode(value.charAt(i))) {
+        decoder.finish();
+        throw syntaxError("Invalid Base64 value");
+      }
+    }
+    return finishBase64(decoder);
+  }
+
+  /** Completes decoding of Base64 value, checking if it's not truncated. */
+  byte[] finishBase64(Base64.Decoder decoder) throws IOException {
+    final byte[] result = decoder.finish();
+    if (result == null) {
+      throw syntaxError("Invalid Base64 value");
+    }
+    return result;
+  }
+
+  /**
+   * Skips the next value recursively. If it is an object or array, all nested elements are skipped.
+   * This method is intended for use when the JSON token stream contains unrecognized or unhandled
+   * values.
+   */
+  public abstract void skipValue() throws IOException;
+
+  /**
+   * Resets state of parsing, so reader can read new input. Buffers and configuration (like
+   * lenient mode) are kept, so reset reader doesn't allocate.
+   */
+  void resetState() {
+    pos = 0;
+    limit = 0;
+    lineNumber = 0;
+    lineStart = 0;
+    peeked = PEEKED_NONE;
+    peekedString = null;
+    stackSize = 0;
+    stack[stackSize++] = JsonScope.EMPTY_DOCUMENT;
+    Arrays.fill(pathNames, null);
+    pendingNameLevel = -1;
+    knownPathDepth = 0;
+    pathIndices[0] = 0;
+    nameChars = null;
+    nameLength = 0;
+    valueChars = null;
+    valueLength = 0;
+  }
+
+  /**
+   * Releases references to input, so reader kept for reuse doesn't keep input reachable.
+   * Reader can't be used until it's reset with new input.
+   */
+  public abstract void detach();
+
+  /** Moves path to next element of current array, if path is tracked. */
+  final void advancePath() {
+    if (trackPath) {
+      pathIndices[stackSize - 1]++;
+    }
+  }
+
+  /** Sets name of current property in path, if path is tracked. */
+  final void pathName(String name) {
+    if (trackPath) {
+      pathNames[stackSize - 1] = name;
+      pendingNameLevel = -1;
+    }
+  }
+
+  /**
+   * Marks name read by readName() as pending in path, if path is tracked. The name is set in path
+   * by {@link #isName(String)}, or by {@link #pathNameFromChars()} if it's unknown.
+   */
+  final void pathNamePending() {
+    if (trackPath) {
+      pathNames[stackSize - 1] = null;
+      pendingNameLevel = stackSize - 1;
+    }
+  }
+
+  /**
+   * Sets name of current property in path to the pending name read by readName(). The string is
+   * created only in this case, i.e. for name which wasn't matched, before its value is skipped.
+   */
+  final void pathNameFromChars() {
+    if (pendingNameLevel == stackSize - 1) {
+      pathNames[pendingNameLevel] = new String(nameChars, nameOffset, nameLength);
+      pendingNameLevel = -1;
+    }
+  }
+
+  void push(int newTop) {
+    if (stackSize == stack.length) {
+      int newLength = stackSize * 2;
+      stack = Arrays.copyOf(stack, newLength);
+      pathIndices = Arrays.copyOf(pathIndices, newLength);
+      pathNames = Arrays.copyOf(pathNames, newLength);
+    }
+    stack[stackSize++] = newTop;
+  }
+
+  void checkLenient() throws IOException {
+    if (!lenient) {
+      throw syntaxError("Use JsonReader.setLenient(true) to accept malformed JSON");
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + locationString();
+  }
+
+  String locationString() {
+    int line = lineNumber + 1;
+    int column = pos - lineStart + 1;
+    return " at line " + line + " column " + column + " path " + getPath();
+  }
+
+  /**
+   * Returns a <a href="http://goessner.net/articles/JsonPath/">JsonPath</a> to the current location
+   * in the JSON value.
+   */
+  public String getPath() {
+    StringBuilder result = new StringBuilder().append('$');
+    final int known = trackPath ? stackSize : knownPathDepth;
+    for (int i = 0, size = stackSize; i < size; i++) {
+      switch (stack[i]) {
+        case JsonScope.EMPTY_ARRAY:
+        case JsonScope.NONEMPTY_ARRAY:
+          if (i < known) {
+            result.append('[').append(pathIndices[i]).append(']');
+          } else {
+            result.append("[*]");
+          }
+          break;
+
+        case JsonScope.EMPTY_OBJECT:
+        case JsonScope.DANGLING_NAME:
+        case JsonScope.NONEMPTY_OBJECT:
+          result.append('.');
+          if (i >= known) {
+            result.append('*');
+          } else if (pathNames[i] != null) {
+            result.append(pathNames[i]);
+          }
+          break;
+
+        case JsonScope.NONEMPTY_DOCUMENT:
+        case JsonScope.EMPTY_DOCUMENT:
+        case JsonScope.CLOSED:
+          break;
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * Throws a new IO exception with the given message and a context snippet with this reader's
+   * content.
+   */
+  IOException syntaxError(String message) throws IOException {
+    throw new MalformedJsonException(message + locationString());
+  }
+}
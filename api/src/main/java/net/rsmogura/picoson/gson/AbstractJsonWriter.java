@@ -0,0 +1,721 @@
+/*
+ * Copyright (C) 2010 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.gson;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import net.rsmogura.picoson.abi.JsonPropertyDescriptor;
+
+import static net.rsmogura.picoson.gson.JsonScope.DANGLING_NAME;
+import static net.rsmogura.picoson.gson.JsonScope.DANGLING_NAME_FRAGMENT;
+import static net.rsmogura.picoson.gson.JsonScope.EMPTY_ARRAY;
+import static net.rsmogura.picoson.gson.JsonScope.EMPTY_DOCUMENT;
+import static net.rsmogura.picoson.gson.JsonScope.EMPTY_OBJECT;
+import static net.rsmogura.picoson.gson.JsonScope.NONEMPTY_ARRAY;
+import static net.rsmogura.picoson.gson.JsonScope.NONEMPTY_DOCUMENT;
+import static net.rsmogura.picoson.gson.JsonScope.NONEMPTY_OBJECT;
+
+/**
+ * Base of JSON writers. Holds writing state which doesn't depend on output encoding - nesting
+ * stack, deferred name and formatting options. Subclasses write the output: {@link JsonWriter}
+ * writes characters, and {@link Utf8JsonWriter} writes UTF-8 encoded bytes.
+ *
+ * @see JsonWriter
+ */
+public abstract class AbstractJsonWriter implements Closeable, Flushable {
+
+
+  /*
+   * From RFC 7159, "All Unicode characters may be placed within the
+   * quotation marks except for the characters that must be escaped:
+   * quotation mark, reverse solidus, and the control characters
+   * (U+0000 through U+001F)."
+   *
+   * We also escape '\u2028' and '\u2029', which JavaScript interprets as
+   * newline characters. This prevents eval() from failing with a syntax
+   * error. http://code.google.com/p/google-gson/issues/detail?id=341
+   */
+  static final String[] REPLACEMENT_CHARS;
+  static final String[] HTML_SAFE_REPLACEMENT_CHARS;
+  static {
+    REPLACEMENT_CHARS = new String[128];
+    for (int i = 0; i <= 0x1f; i++) {
+      REPLACEMENT_CHARS[i] = String.format("\\u%04x", (int) i);
+    }
+    REPLACEMENT_CHARS['"'] = "\\\"";
+    REPLACEMENT_CHARS['\\'] = "\\\\";
+    REPLACEMENT_CHARS['\t'] = "\\t";
+    REPLACEMENT_CHARS['\b'] = "\\b";
+    REPLACEMENT_CHARS['\n'] = "\\n";
+    REPLACEMENT_CHARS['\r'] = "\\r";
+    REPLACEMENT_CHARS['\f'] = "\\f";
+    HTML_SAFE_REPLACEMENT_CHARS = REPLACEMENT_CHARS.clone();
+    HTML_SAFE_REPLACEMENT_CHARS['<'] = "\\u003c";
+    HTML_SAFE_REPLACEMENT_CHARS['>'] = "\\u003e";
+    HTML_SAFE_REPLACEMENT_CHARS['&'] = "\\u0026";
+    HTML_SAFE_REPLACEMENT_CHARS['='] = "\\u003d";
+    HTML_SAFE_REPLACEMENT_CHARS['\''] = "\\u0027";
+  }
+
+  private int[] stack = new int[32];
+  private int stackSize = 0;
+  {
+    push(EMPTY_DOCUMENT);
+  }
+
+  /**
+   * A string containing a full set of spaces for a single level of
+   * indentation, or null for no pretty printing.
+   */
+  private String indent;
+
+  /**
+   * The name/value separator; either ":" or ": ".
+   */
+  private String separator = ":";
+
+  private boolean lenient;
+
+  private boolean jsonLines;
+
+  boolean htmlSafe;
+
+  private String deferredName;
+
+  /**
+   * Descriptor of {@link #deferredName}, if name can be written as pre-encoded fragment
+   * of descriptor.
+   */
+  private JsonPropertyDescriptor deferredDescriptor;
+
+  private boolean serializeNulls = true;
+
+  /**
+   * Sets the indentation string to be repeated for each level of indentation
+   * in the encoded document. If {@code indent.isEmpty()} the encoded document
+   * will be compact. Otherwise the encoded document will be more
+   * human-readable.
+   *
+   * @param indent a string containing only whitespace.
+   */
+  public final void setIndent(String indent) {
+    if (indent.length() == 0) {
+      this.indent = null;
+      this.separator = ":";
+    } else {
+      this.indent = indent;
+      this.separator = ": ";
+    }
+  }
+
+  /**
+   * Configure this writer to relax its syntax rules. By default, this writer
+   * only emits well-formed JSON as specified by <a
+   * href="http://www.ietf.org/rfc/rfc7159.txt">RFC 7159</a>. Setting the writer
+   * to lenient permits the following:
+   * <ul>
+   *   <li>Top-level values of any type. With strict writing, the top-level
+   *       value must be an object or an array.
+   *   <li>Numbers may be {@link Double#isNaN() NaNs} or {@link
+   *       Double#isInfinite() infinities}.
+   * </ul>
+   */
+  public final void setLenient(boolean lenient) {
+    this.lenient = lenient;
+  }
+
+  /**
+   * Returns true if this writer has relaxed syntax rules.
+   */
+  public boolean isLenient() {
+    return lenient;
+  }
+
+  /**
+   * Configure this writer to write <a href="https://jsonlines.org/">JSON Lines</a> (also known
+   * as NDJSON): multiple top level values, each on separate line. The state of writer is kept
+   * between values, so each value is written as next element of stream, preceded by new line
+   * if it's not the first one. Indent must not be set, as it would split values into many lines.
+   */
+  public final void setJsonLines(boolean jsonLines) {
+    this.jsonLines = jsonLines;
+  }
+
+  /**
+   * Returns true if this writer writes multiple top level values, each on separate line.
+   */
+  public final boolean isJsonLines() {
+    return jsonLines;
+  }
+
+  /**
+   * Configure this writer to emit JSON that's safe for direct inclusion in HTML
+   * and XML documents. This escapes the HTML characters {@code <}, {@code >},
+   * {@code &} and {@code =} before writing them to the stream. Without this
+   * setting, your XML/HTML encoder should replace these characters with the
+   * corresponding escape sequences.
+   */
+  public final void setHtmlSafe(boolean htmlSafe) {
+    this.htmlSafe = htmlSafe;
+  }
+
+  /**
+   * Returns true if this writer writes JSON that's safe for inclusion in HTML
+   * and XML documents.
+   */
+  public final boolean isHtmlSafe() {
+    return htmlSafe;
+  }
+
+  /**
+   * Sets whether object members are serialized when their value is null.
+   * This has no impact on array elements. The default is true.
+   */
+  public final void setSerializeNulls(boolean serializeNulls) {
+    this.serializeNulls = serializeNulls;
+  }
+
+  /**
+   * Returns true if object members are serialized when their value is null.
+   * This has no impact on array elements. The default is true.
+   */
+  public final boolean getSerializeNulls() {
+    return serializeNulls;
+  }
+
+  /**
+   * Begins encoding a new array. Each call to this method must be paired with
+   * a call to {@link #endArray}.
+   *
+   * @return this writer.
+   */
+  public AbstractJsonWriter beginArray() throws IOException {
+    writeDeferredName();
+    return open(EMPTY_ARRAY, '[');
+  }
+
+  /**
+   * Continues writing array, which was begun before output of this writer, as if
+   * {@link #beginArray()} was called, but without writing bracket. This way large array can be
+   * written in parts, by many writers; each part is flushed without ending the array, and
+   * following part starts with comma. It has to be called before anything else is written.
+   *
+   * @return this writer.
+   */
+  public AbstractJsonWriter continueArray() {
+    if (stackSize != 1 || stack[0] != EMPTY_DOCUMENT || deferredName != null) {
+      throw new IllegalStateException("Array can be continued only at start of output");
+    }
+    stack[0] = NONEMPTY_DOCUMENT;
+    push(EMPTY_ARRAY);
+    return this;
+  }
+
+  /**
+   * Ends encoding the current array.
+   *
+   * @return this writer.
+   */
+  public AbstractJsonWriter endArray() throws IOException {
+    return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+  }
+
+  /**
+   * Begins encoding a new object. Each call to this method must be paired
+   * with a call to {@link #endObject}.
+   *
+   * @return this writer.
+   */
+  public AbstractJsonWriter beginObject() throws IOException {
+    writeDeferredName();
+    return open(EMPTY_OBJECT, '{');
+  }
+
+  /**
+   * Ends encoding the current object.
+   *
+   * @return this writer.
+   */
+  public AbstractJsonWriter endObject() throws IOException {
+    return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+  }
+
+  /**
+   * Enters a new scope by appending any necessary whitespace and the given
+   * bracket.
+   */
+  private AbstractJsonWriter open(int empty, char openBracket) throws IOException {
+    beforeValue();
+    push(empty);
+    write(openBracket);
+    return this;
+  }
+
+  /**
+   * Closes the current scope by appending any necessary whitespace and the
+   * given bracket.
+   */
+  private AbstractJsonWriter close(int empty, int nonempty, char closeBracket)
+      throws IOException {
+    int context = peek();
+    if (context != nonempty && context != empty) {
+      throw new IllegalStateException("Nesting problem.");
+    }
+    if (deferredName != null) {
+      throw new IllegalStateException("Dangling name: " + deferredName);
+    }
+
+    stackSize--;
+    if (context == nonempty) {
+      newline();
+    }
+    write(closeBracket);
+    return this;
+  }
+
+  /**
+   * Resets state of writing, so writer can write new document. Buffers and configuration (like
+   * indent) are kept, so reset writer doesn't allocate.
+   */
+  void resetState() {
+    stackSize = 0;
+    push(EMPTY_DOCUMENT);
+    deferredName = null;
+    deferredDescriptor = null;
+  }
+
+  /**
+   * Releases references to output, so writer kept for reuse doesn't keep output reachable.
+   * Data not flushed are discarded. Writer can't be used until it's reset with new output.
+   */
+  public abstract void detach();
+
+  private void push(int newTop) {
+    if (stackSize == stack.length) {
+      stack = Arrays.copyOf(stack, stackSize * 2);
+    }
+    stack[stackSize++] = newTop;
+  }
+
+  /**
+   * Returns the value on the top of the stack.
+   */
+  private int peek() {
+    if (stackSize == 0) {
+      throw new IllegalStateException("JsonWriter is closed.");
+    }
+    return stack[stackSize - 1];
+  }
+
+  /**
+   * Replace the value on the top of the stack with the given value.
+   */
+  private void replaceTop(int topOfStack) {
+    stack[stackSize - 1] = topOfStack;
+  }
+
+  /**
+   * Encodes the property name.
+   *
+   * @param name the name of the forthcoming value. May not be null.
+   * @return this writer.
+   */
+  public AbstractJsonWriter name(String name) throws IOException {
+    if (name == null) {
+      throw new NullPointerException("name == null");
+    }
+    if (deferredName != null) {
+      throw new IllegalStateException();
+    }
+    if (stackSize == 0) {
+      throw new IllegalStateException("JsonWriter is closed.");
+    }
+    deferredName = name;
+    return this;
+  }
+
+  /**
+   * Encodes the property name, using pre-encoded name fragment of descriptor (see
+   * {@link #nameFragment(String)}). The fragment contains name separator, so it's used
+   * only if writer is not indenting and is not HTML safe, otherwise name is encoded
+   * like with {@link #name(String)}.
+   *
+   * @param descriptor the descriptor of the forthcoming value. May not be null.
+   * @return this writer.
+   */
+  public AbstractJsonWriter name(JsonPropertyDescriptor descriptor) throws IOException {
+    name(descriptor.getJsonPropertyName());
+    if (indent == null && !htmlSafe) {
+      deferredDescriptor = descriptor;
+    }
+    return this;
+  }
+
+  private void writeDeferredName() throws IOException {
+    if (deferredName != null) {
+      beforeName();
+      if (deferredDescriptor != null) {
+        nameFragment(deferredDescriptor);
+        replaceTop(DANGLING_NAME_FRAGMENT);
+        deferredDescriptor = null;
+      } else {
+        string(deferredName);
+      }
+      deferredName = null;
+    }
+  }
+
+  /**
+   * Encodes {@code value}.
+   *
+   * @param value the literal string value, or null to encode a null literal.
+   * @return this writer.
+   */
+  public AbstractJsonWriter value(String value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    writeDeferredName();
+    beforeValue();
+    string(value);
+    return this;
+  }
+
+  /**
+   * Writes {@code value} directly to the writer without quoting or
+   * escaping.
+   *
+   * @param value the literal string value, or null to encode a null literal.
+   * @return this writer.
+   */
+  public AbstractJsonWriter jsonValue(String value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    writeDeferredName();
+    beforeValue();
+    write(value);
+    return this;
+  }
+
+  /**
+   * Encodes {@code null}.
+   *
+   * @return this writer.
+   */
+  public AbstractJsonWriter nullValue() throws IOException {
+    if (deferredName != null) {
+      if (serializeNulls) {
+        writeDeferredName();
+      } else {
+        deferredName = null;
+        deferredDescriptor = null;
+        return this; // skip the name and the value
+      }
+    }
+    beforeValue();
+    write("null");
+    return this;
+  }
+
+  /**
+   * Encodes {@code value}.
+   *
+   * @return this writer.
+   */
+  public AbstractJsonWriter value(boolean value) throws IOException {
+    writeDeferredName();
+    beforeValue();
+    write(value ? "true" : "false");
+    return this;
+  }
+
+  /**
+   * Encodes {@code value}.
+   *
+   * @return this writer.
+   */
+  public AbstractJsonWriter value(Boolean value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    writeDeferredName();
+    beforeValue();
+    write(value ? "true" : "false");
+    return this;
+  }
+
+  /**
+   * Encodes {@code value}.
+   *
+   * @param value a finite value. May not be {@link Double#isNaN() NaNs} or
+   *     {@link Double#isInfinite() infinities}.
+   * @return this writer.
+   */
+  public AbstractJsonWriter value(double value) throws IOException {
+    writeDeferredName();
+    if (!lenient && (Double.isNaN(value) || Double.isInfinite(value))) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    beforeValue();
+    number(value);
+    return this;
+  }
+
+  /**
+   * Encodes {@code value}, using the shortest decimal which reads back to
+   * same {@code float}.
+   *
+   * @param value a finite value. May not be {@link Float#isNaN() NaNs} or
+   *     {@link Float#isInfinite() infinities}.
+   * @return this writer.
+   */
+  public AbstractJsonWriter value(float value) throws IOException {
+    writeDeferredName();
+    if (!lenient && (Float.isNaN(value) || Float.isInfinite(value))) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    beforeValue();
+    number(value);
+    return this;
+  }
+
+  /**
+   * Encodes {@code value}.
+   *
+   * @return this writer.
+   */
+  public AbstractJsonWriter value(long value) throws IOException {
+    writeDeferredName();
+    beforeValue();
+    number(value);
+    return this;
+  }
+
+  /**
+   * Encodes {@code value}.
+   *
+   * @return this writer.
+   */
+  public AbstractJsonWriter value(int value) throws IOException {
+    writeDeferredName();
+    beforeValue();
+    number(value);
+    return this;
+  }
+
+  /**
+   * Encodes {@code value} as Base64 string. Bytes are encoded directly to output.
+   *
+   * @param value bytes to encode, or null to encode a null literal.
+   * @return this writer.
+   */
+  public AbstractJsonWriter base64Value(byte[] value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    writeDeferredName();
+    beforeValue();
+    base64(value);
+    return this;
+  }
+
+  /**
+   * Encodes {@code value}.
+   *
+   * @param value a finite value. May not be {@link Double#isNaN() NaNs} or
+   *     {@link Double#isInfinite() infinities}.
+   * @return this writer.
+   */
+  public AbstractJsonWriter value(Number value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    if (value instanceof Double) {
+      return value(value.doubleValue());
+    }
+    if (value instanceof Float) {
+      return value(value.floatValue());
+    }
+
+    writeDeferredName();
+    if (value instanceof Integer || value instanceof Long
+        || value instanceof Short || value instanceof Byte) {
+      beforeValue();
+      number(value.longValue());
+      return this;
+    }
+    String string = value.toString();
+    if (!lenient
+        && (string.equals("-Infinity") || string.equals("Infinity") || string.equals("NaN"))) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    beforeValue();
+    write(string);
+    return this;
+  }
+
+  /**
+   * Ensures all buffered data is written to the underlying {@link Writer}
+   * and flushes that writer.
+   */
+  public void flush() throws IOException {
+    if (stackSize == 0) {
+      throw new IllegalStateException("JsonWriter is closed.");
+    }
+    flushOut();
+  }
+
+  /**
+   * Flushes and closes this writer and the underlying {@link Writer}.
+   *
+   * @throws IOException if the JSON document is incomplete.
+   */
+  public void close() throws IOException {
+    closeOut();
+
+    int size = stackSize;
+    if (size > 1 || size == 1 && stack[size - 1] != NONEMPTY_DOCUMENT) {
+      throw new IOException("Incomplete document");
+    }
+    stackSize = 0;
+  }
+
+  private void newline() throws IOException {
+    if (indent == null) {
+      return;
+    }
+
+    write('\n');
+    for (int i = 1, size = stackSize; i < size; i++) {
+      write(indent);
+    }
+  }
+
+  /**
+   * Inserts any necessary separators and whitespace before a name. Also
+   * adjusts the stack to expect the name's value.
+   */
+  private void beforeName() throws IOException {
+    int context = peek();
+    if (context == NONEMPTY_OBJECT) { // first in object
+      write(',');
+    } else if (context != EMPTY_OBJECT) { // not in an object!
+      throw new IllegalStateException("Nesting problem.");
+    }
+    newline();
+    replaceTop(DANGLING_NAME);
+  }
+
+  /**
+   * Inserts any necessary separators and whitespace before a literal value,
+   * inline array, or inline object. Also adjusts the stack to expect either a
+   * closing bracket or another element.
+   */
+  @SuppressWarnings("fallthrough")
+  private void beforeValue() throws IOException {
+    switch (peek()) {
+      case NONEMPTY_DOCUMENT:
+        if (jsonLines) {
+          write('\n');
+          break;
+        }
+        if (!lenient) {
+          throw new IllegalStateException(
+              "JSON must have only one top-level value.");
+        }
+        // fall-through
+      case EMPTY_DOCUMENT: // first in document
+        replaceTop(NONEMPTY_DOCUMENT);
+        break;
+
+      case EMPTY_ARRAY: // first in array
+        replaceTop(NONEMPTY_ARRAY);
+        newline();
+        break;
+
+      case NONEMPTY_ARRAY: // another in array
+        write(',');
+        newline();
+        break;
+
+      case DANGLING_NAME: // value for name
+        write(separator);
+        replaceTop(NONEMPTY_OBJECT);
+        break;
+
+      case DANGLING_NAME_FRAGMENT: // value for name, separator already written
+        replaceTop(NONEMPTY_OBJECT);
+        break;
+
+      default:
+        throw new IllegalStateException("Nesting problem.");
+    }
+  }
+
+  /** Writes ASCII character. */
+  abstract void write(char c) throws IOException;
+
+  /** Writes string as is, without quoting nor escaping. */
+  abstract void write(String value) throws IOException;
+
+  /** Writes quoted and escaped string. */
+  abstract void string(String value) throws IOException;
+
+  /** Writes decimal digits of {@code value}, see {@link Digits}. */
+  abstract void number(long value) throws IOException;
+
+  /** Writes shortest decimal of {@code value}, see {@link Schubfach}. */
+  abstract void number(double value) throws IOException;
+
+  /** Writes shortest decimal of {@code value}, see {@link Schubfach}. */
+  abstract void number(float value) throws IOException;
+
+  /** Writes pre-encoded name fragment of property descriptor. */
+  abstract void nameFragment(JsonPropertyDescriptor descriptor) throws IOException;
+
+  /** Writes Base64 encoded {@code value}, as quoted string. */
+  abstract void base64(byte[] value) throws IOException;
+
+  /** Flushes underlying output. */
+  abstract void flushOut() throws IOException;
+
+  /** Closes underlying output. */
+  abstract void closeOut() throws IOException;
+
+  /**
+   * Encodes property name as a fragment which can be written as is - quoted and escaped
+   * name followed by name separator, like <code>"name":</code>.
+   *
+   * @see JsonPropertyDescriptor#getNameFragmentChars()
+   */
+  public static char[] nameFragment(String name) {
+    final StringWriter out = new StringWriter(name.length() + 3);
+    try {
+      final JsonWriter writer = new JsonWriter(out);
+      writer.string(name);
+      writer.write(':');
+    } catch (IOException e) {
+      // StringWriter doesn't throw
+      throw new IllegalStateException(e);
+    }
+    return out.toString().toCharArray();
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+// CHECKSTYLE.OFF
+package net.rsmogura.picoson.gson;
+
+import java.util.Arrays;
+
+/**
+ * Base64 encoding (RFC 4648 standard alphabet, with padding) of binary values. Values are
+ * encoded directly into writer's buffer and decoded directly from reader's buffer, so no
+ * intermediate strings are created.
+ */
+final class Base64 {
+  private static final byte[] ALPHABET =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes();
+
+  /** Values of Base64 characters, or -1 for characters outside alphabet. */
+  private static final int[] VALUES = new int[128];
+  static {
+    Arrays.fill(VALUES, -1);
+    for (int i = 0; i < ALPHABET.length; i++) {
+      VALUES[ALPHABET[i]] = i;
+    }
+  }
+
+  private Base64() {
+  }
+
+  /** Returns length of encoded {@code length} bytes, including padding. */
+  static int encodedLength(int length) {
+    return (length + 2) / 3 * 4;
+  }
+
+  /**
+   * Encodes {@code length} bytes of {@code src} from {@code offset}, into {@code dst} from
+   * {@code pos}. Unless this is the last chunk of value, length has to be multiple of 3.
+   *
+   * @return position in {@code dst} after encoded bytes
+   */
+  static int encode(byte[] src, int offset, int length, byte[] dst, int pos) {
+    final int end = offset + length;
+    final int fullEnd = offset + length / 3 * 3;
+    int i = offset;
+    while (i < fullEnd) {
+      final int bits = (src[i++] & 0xff) << 16 | (src[i++] & 0xff) << 8 | (src[i++] & 0xff);
+      dst[pos++] = ALPHABET[bits >>> 18];
+      dst[pos++] = ALPHABET[(bits >>> 12) & 0x3f];
+      dst[pos++] = ALPHABET[(bits >>> 6) & 0x3f];
+      dst[pos++] = ALPHABET[bits & 0x3f];
+    }
+
+    if (i < end) {
+      final int bits = (src[i++] & 0xff) << 16 | (i < end ? (src[i] & 0xff) << 8 : 0);
+      dst[pos++] = ALPHABET[bits >>> 18];
+      dst[pos++] = ALPHABET[(bits >>> 12) & 0x3f];
+      dst[pos++] = i < end ? ALPHABET[(bits >>> 6) & 0x3f] : (byte) '=';
+      dst[pos++] = '=';
+    }
+    return pos;
+  }
+
+  /**
+   * Encodes {@code length} bytes of {@code src} from {@code offset}, into {@code dst} from
+   * {@code pos}. Unless this is the last chunk of value, length has to be multiple of 3.
+   *
+   * @return position in {@code dst} after encoded characters
+   */
+  static int encode(byte[] src, int offset, int length, char[] dst, int pos) {
+    final int end = offset + length;
+    final int fullEnd = offset + length / 3 * 3;
+    int i = offset;
+    while (i < fullEnd) {
+      final int bits = (src[i++] & 0xff) << 16 | (src[i++] & 0xff) << 8 | (src[i++] & 0xff);
+      dst[pos++] = (char) ALPHABET[bits >>> 18];
+      dst[pos++] = (char) ALPHABET[(bits >>> 12) & 0x3f];
+      dst[pos++] = (char) ALPHABET[(bits >>> 6) & 0x3f];
+      dst[pos++] = (char) ALPHABET[bits & 0x3f];
+    }
+
+    if (i < end) {
+      final int bits = (src[i++] & 0xff) << 16 | (i < end ? (src[i] & 0xff) << 8 : 0);
+      dst[pos++] = (char) ALPHABET[bits >>> 18];
+      dst[pos++] = (char) ALPHABET[(bits >>> 12) & 0x3f];
+      dst[pos++] = i < end ? (char) ALPHABET[(bits >>> 6) & 0x3f] : '=';
+      dst[pos++] = '=';
+    }
+    return pos;
+  }
+
+  /**
+   * Decodes Base64 characters, fed one by one, into growable buffer. Padding is optional,
+   * but if present it has to complete the last quantum. Decoder is reset by {@link #finish()},
+   * and can be reused for next value.
+   */
+  static final class Decoder {
+    private byte[] out = new byte[64];
+    private int length;
+
+    /** Bits of current quantum. */
+    private int bits;
+
+    /** Number of characters of current quantum. */
+    private int count;
+
+    /** Number of padding characters read. */
+    private int padding;
+
+    /**
+     * Decodes next character.
+     *
+     * @return false if character is not valid at this position
+     */
+    boolean decode(int c) {
+      final int value = c >= 0 && c < 128 ? VALUES[c] : -1;
+      if (value >= 0 && padding == 0) {
+        bits = bits << 6 | value;
+        if (++count == 4) {
+          ensureCapacity(3);
+          out[length++] = (byte) (bits >>> 16);
+          out[length++] = (byte) (bits >>> 8);
+          out[length++] = (byte) bits;
+          bits = 0;
+          count = 0;
+        }
+        return true;
+      } else if (c == '=' && count >= 2 && count + padding < 4) {
+        padding++;
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Completes decoding.
+     *
+     * @return decoded bytes, or null if value is truncated
+     */
+    byte[] finish() {
+      final boolean valid = count != 1 && (padding == 0 || count + padding == 4);
+      byte[] result = null;
+      if (valid) {
+        if (count == 2) {
+          ensureCapacity(1);
+          out[length++] = (byte) (bits >>> 4);
+        } else if (count == 3) {
+          ensureCapacity(2);
+          out[length++] = (byte) (bits >>> 10);
+          out[length++] = (byte) (bits >>> 2);
+        }
+        result = Arrays.copyOf(out, length);
+      }
+      length = 0;
+      bits = 0;
+      count = 0;
+      padding = 0;
+      return result;
+    }
+
+    private void ensureCapacity(int required) {
+      if (out.length - length < required) {
+        out = Arrays.copyOf(out, out.length * 2);
+      }
+    }
+  }
+}
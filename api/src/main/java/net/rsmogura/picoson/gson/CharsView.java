@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.gson;
+
+/**
+ * Reusable view of characters of string value, returned by
+ * {@link AbstractJsonReader#nextStringView()}. The view points directly into buffer of reader,
+ * so it's valid only until the next token is read. Use {@link #toString()} to keep the value.
+ */
+final class CharsView implements CharSequence {
+  private char[] chars;
+  private int offset;
+  private int length;
+
+  /** Points this view to given characters. */
+  CharsView set(char[] chars, int offset, int length) {
+    this.chars = chars;
+    this.offset = offset;
+    this.length = length;
+    return this;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= length) {
+      throw new StringIndexOutOfBoundsException(index);
+    }
+    return chars[offset + index];
+  }
+
+  /** Returns copy of given range of characters, which stays valid after next token is read. */
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    if (start < 0 || end > length || start > end) {
+      throw new StringIndexOutOfBoundsException("start " + start + ", end " + end
+          + ", length " + length);
+    }
+    return new String(chars, offset + start, end - start);
+  }
+
+  @Override
+  public String toString() {
+    return new String(chars, offset, length);
+  }
+}
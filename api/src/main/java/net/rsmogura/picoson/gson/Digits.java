@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+// CHECKSTYLE.OFF
+package net.rsmogura.picoson.gson;
+
+/**
+ * Formats integral numbers to decimal digits, without creating strings. Digits are produced
+ * two at a time, using lookup table of all pairs of digits.
+ */
+final class Digits {
+  /** Length of the longest formatted {@code long}, {@link Long#MIN_VALUE}. */
+  static final int MAX_LONG_LENGTH = 20;
+
+  /** Pairs of digits, from "00" to "99". */
+  private static final byte[] DIGIT_PAIRS = new byte[200];
+  static {
+    for (int i = 0; i < 100; i++) {
+      DIGIT_PAIRS[2 * i] = (byte) ('0' + i / 10);
+      DIGIT_PAIRS[2 * i + 1] = (byte) ('0' + i % 10);
+    }
+  }
+
+  private Digits() {
+  }
+
+  /**
+   * Returns number of characters required to format {@code value}, including minus sign.
+   */
+  static int length(long value) {
+    int sign = 0;
+    // Negative values are used, so Long.MIN_VALUE doesn't need special case
+    if (value < 0) {
+      sign = 1;
+    } else {
+      value = -value;
+    }
+    long limit = -10;
+    for (int i = 1; i < 19; i++) {
+      if (value > limit) {
+        return i + sign;
+      }
+      limit *= 10;
+    }
+    return 19 + sign;
+  }
+
+  /**
+   * Formats {@code value} into {@code buffer}, so last digit is stored at {@code end - 1}.
+   * The caller has to ensure there's {@link #length(long)} bytes before {@code end}.
+   */
+  static void format(long value, byte[] buffer, int end) {
+    final boolean negative = value < 0;
+    if (!negative) {
+      value = -value;
+    }
+
+    int pos = end;
+    // Use long arithmetic only while value doesn't fit into int
+    while (value <= Integer.MIN_VALUE) {
+      final long quotient = value / 100;
+      final int pair = (int) (quotient * 100 - value);
+      value = quotient;
+      buffer[--pos] = DIGIT_PAIRS[2 * pair + 1];
+      buffer[--pos] = DIGIT_PAIRS[2 * pair];
+    }
+
+    int intValue = (int) value;
+    while (intValue <= -100) {
+      final int quotient = intValue / 100;
+      final int pair = quotient * 100 - intValue;
+      intValue = quotient;
+      buffer[--pos] = DIGIT_PAIRS[2 * pair + 1];
+      buffer[--pos] = DIGIT_PAIRS[2 * pair];
+    }
+
+    if (intValue <= -10) {
+      final int pair = -intValue;
+      buffer[--pos] = DIGIT_PAIRS[2 * pair + 1];
+      buffer[--pos] = DIGIT_PAIRS[2 * pair];
+    } else {
+      buffer[--pos] = (byte) ('0' - intValue);
+    }
+
+    if (negative) {
+      buffer[--pos] = '-';
+    }
+  }
+
+  /**
+   * Formats {@code value} into {@code buffer}, same as {@link #format(long, byte[], int)}.
+   */
+  static void format(long value, char[] buffer, int end) {
+    final boolean negative = value < 0;
+    if (!negative) {
+      value = -value;
+    }
+
+    int pos = end;
+    while (value <= Integer.MIN_VALUE) {
+      final long quotient = value / 100;
+      final int pair = (int) (quotient * 100 - value);
+      value = quotient;
+      buffer[--pos] = (char) DIGIT_PAIRS[2 * pair + 1];
+      buffer[--pos] = (char) DIGIT_PAIRS[2 * pair];
+    }
+
+    int intValue = (int) value;
+    while (intValue <= -100) {
+      final int quotient = intValue / 100;
+      final int pair = quotient * 100 - intValue;
+      intValue = quotient;
+      buffer[--pos] = (char) DIGIT_PAIRS[2 * pair + 1];
+      buffer[--pos] = (char) DIGIT_PAIRS[2 * pair];
+    }
+
+    if (intValue <= -10) {
+      final int pair = -intValue;
+      buffer[--pos] = (char) DIGIT_PAIRS[2 * pair + 1];
+      buffer[--pos] = (char) DIGIT_PAIRS[2 * pair];
+    } else {
+      buffer[--pos] = (char) ('0' - intValue);
+    }
+
+    if (negative) {
+      buffer[--pos] = '-';
+    }
+  }
+}
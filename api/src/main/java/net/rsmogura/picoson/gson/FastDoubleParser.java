@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+// CHECKSTYLE.OFF
+package net.rsmogura.picoson.gson;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses JSON numbers to {@code double} or {@code float} directly from reader's buffer, without
+ * creating strings. Uses Clinger's fast path for small values, and Eisel-Lemire algorithm (Daniel
+ * Lemire, "Number Parsing at a Gigabyte per Second") for others. In rare cases which the
+ * algorithm can't decide (too many digits, subnormals, halfway ambiguities), number is parsed
+ * exactly by {@link Double#parseDouble(String)} or {@link Float#parseFloat(String)}.
+ * <br />
+ * Input has to be valid JSON number, as validated by {@code peekNumber} of readers.
+ */
+final class FastDoubleParser {
+  /** Maximal number of significant digits kept in 64 bits mantissa. */
+  private static final int MAX_DIGITS = 19;
+
+  /** Minimal exponent of {@link #POWERS_OF_TEN}. */
+  private static final int MIN_EXP10 = -348;
+
+  /** Maximal exponent of {@link #POWERS_OF_TEN}. */
+  private static final int MAX_EXP10 = 347;
+
+  /**
+   * The most significant 128 bits of each power of ten, rounded down. Stored as higher 64
+   * bits, followed by lower 64 bits.
+   */
+  private static final long[] POWERS_OF_TEN = new long[(MAX_EXP10 - MIN_EXP10 + 1) * 2];
+
+  static {
+    for (int q = MIN_EXP10; q <= MAX_EXP10; q++) {
+      final BigInteger bits;
+      if (q >= 0) {
+        final BigInteger pow10 = BigInteger.TEN.pow(q);
+        final int shift = pow10.bitLength() - 128;
+        bits = shift >= 0 ? pow10.shiftRight(shift) : pow10.shiftLeft(-shift);
+      } else {
+        final BigInteger pow10 = BigInteger.TEN.pow(-q);
+        bits = BigInteger.ONE.shiftLeft(127 + pow10.bitLength()).divide(pow10);
+      }
+      POWERS_OF_TEN[(q - MIN_EXP10) * 2] = bits.shiftRight(64).longValue();
+      POWERS_OF_TEN[(q - MIN_EXP10) * 2 + 1] = bits.longValue();
+    }
+  }
+
+  /** Powers of ten exactly representable as double. */
+  private static final double[] DOUBLE_POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /** Powers of ten exactly representable as float. */
+  private static final float[] FLOAT_POWERS_OF_TEN = {
+      1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+  };
+
+  private FastDoubleParser() {
+  }
+
+  /**
+   * Parses number from {@code chars}, from {@code offset} to {@code offset + length}.
+   *
+   * @param asFloat if true, the result is rounded to {@code float}
+   */
+  static double parse(char[] chars, int offset, int length, boolean asFloat) {
+    final int end = offset + length;
+    int i = offset;
+    final boolean negative = chars[i] == '-';
+    if (negative) {
+      i++;
+    }
+
+    long mantissa = 0;
+    int digits = 0;
+    int exp10 = 0;
+    boolean fraction = false;
+    boolean truncated = false;
+    for (; i < end; i++) {
+      final char c = chars[i];
+      if (c >= '0' && c <= '9') {
+        if (digits < MAX_DIGITS) {
+          mantissa = mantissa * 10 + (c - '0');
+          if (mantissa != 0) {
+            digits++;
+          }
+          if (fraction) {
+            exp10--;
+          }
+        } else {
+          truncated |= c != '0';
+          if (!fraction) {
+            exp10++;
+          }
+        }
+      } else if (c == '.') {
+        fraction = true;
+      } else {
+        break;
+      }
+    }
+
+    if (i < end) {
+      // Exponent, after 'e' or 'E'
+      i++;
+      final boolean negativeExponent = chars[i] == '-';
+      if (negativeExponent || chars[i] == '+') {
+        i++;
+      }
+      int exponent = 0;
+      for (; i < end; i++) {
+        if (exponent < 100_000) {
+          exponent = exponent * 10 + (chars[i] - '0');
+        }
+      }
+      exp10 += negativeExponent ? -exponent : exponent;
+    }
+
+    final double result = toDouble(negative, mantissa, exp10, truncated, asFloat);
+    if (result == result) {
+      return result;
+    }
+    final String string = new String(chars, offset, length);
+    return asFloat ? Float.parseFloat(string) : Double.parseDouble(string);
+  }
+
+  /**
+   * Parses number from {@code bytes}, from {@code offset} to {@code offset + length}.
+   *
+   * @param asFloat if true, the result is rounded to {@code float}
+   */
+  static double parse(byte[] bytes, int offset, int length, boolean asFloat) {
+    final int end = offset + length;
+    int i = offset;
+    final boolean negative = bytes[i] == '-';
+    if (negative) {
+      i++;
+    }
+
+    long mantissa = 0;
+    int digits = 0;
+    int exp10 = 0;
+    boolean fraction = false;
+    boolean truncated = false;
+    for (; i < end; i++) {
+      final byte c = bytes[i];
+      if (c >= '0' && c <= '9') {
+        if (digits < MAX_DIGITS) {
+          mantissa = mantissa * 10 + (c - '0');
+          if (mantissa != 0) {
+            digits++;
+          }
+          if (fraction) {
+            exp10--;
+          }
+        } else {
+          truncated |= c != '0';
+          if (!fraction) {
+            exp10++;
+          }
+        }
+      } else if (c == '.') {
+        fraction = true;
+      } else {
+        break;
+      }
+    }
+
+    if (i < end) {
+      i++;
+      final boolean negativeExponent = bytes[i] == '-';
+      if (negativeExponent || bytes[i] == '+') {
+        i++;
+      }
+      int exponent = 0;
+      for (; i < end; i++) {
+        if (exponent < 100_000) {
+          exponent = exponent * 10 + (bytes[i] - '0');
+        }
+      }
+      exp10 += negativeExponent ? -exponent : exponent;
+    }
+
+    final double result = toDouble(negative, mantissa, exp10, truncated, asFloat);
+    if (result == result) {
+      return result;
+    }
+    final String string = new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    return asFloat ? Float.parseFloat(string) : Double.parseDouble(string);
+  }
+
+  /**
+   * Converts decimal {@code mantissa * 10^exp10} to double (or float). If {@code truncated},
+   * there were more non zero digits after the mantissa.
+   *
+   * @return the value, or NaN if it can't be converted without exact parsing
+   */
+  static double toDouble(boolean negative, long mantissa, int exp10, boolean truncated,
+      boolean asFloat) {
+    if (mantissa == 0) {
+      return negative ? -0.0 : 0.0;
+    }
+
+    if (!truncated) {
+      // Clinger's fast path - both mantissa and power of ten are exact, so only one rounding
+      if (asFloat) {
+        if (mantissa >= 0 && mantissa <= 1 << 24 && -10 <= exp10 && exp10 <= 10) {
+          float value = mantissa;
+          value = exp10 < 0 ? value / FLOAT_POWERS_OF_TEN[-exp10]
+              : value * FLOAT_POWERS_OF_TEN[exp10];
+          return negative ? -value : value;
+        }
+      } else if (mantissa >= 0 && mantissa <= 1L << 53 && -22 <= exp10 && exp10 <= 22) {
+        double value = mantissa;
+        value = exp10 < 0 ? value / DOUBLE_POWERS_OF_TEN[-exp10]
+            : value * DOUBLE_POWERS_OF_TEN[exp10];
+        return negative ? -value : value;
+      }
+      return eiselLemire(negative, mantissa, exp10, asFloat);
+    }
+
+    // Value is between mantissa and mantissa + 1, if both are rounded to same value it's result
+    final double lower = eiselLemire(negative, mantissa, exp10, asFloat);
+    if (lower == eiselLemire(negative, mantissa + 1, exp10, asFloat)) {
+      return lower;
+    }
+    return Double.NaN;
+  }
+
+  /**
+   * Eisel-Lemire conversion of {@code mantissa * 10^exp10}, where mantissa is unsigned.
+   *
+   * @return the value, or NaN if the algorithm can't decide rounding, or the value is subnormal,
+   *     or out of range
+   */
+  private static double eiselLemire(boolean negative, long mantissa, int exp10, boolean asFloat) {
+    if (exp10 < MIN_EXP10 || exp10 > MAX_EXP10) {
+      return Double.NaN;
+    }
+    final int mantissaBits = asFloat ? 23 : 52;
+    final int exponentBias = asFloat ? 127 : 1023;
+    // Bits of product below 1 + mantissaBits + 1 (rounding) highest bits
+    final int lowBits = 64 - mantissaBits - 3;
+    final long lowMask = (1L << lowBits) - 1;
+
+    // Normalization
+    final int clz = Long.numberOfLeadingZeros(mantissa);
+    final long man = mantissa << clz;
+    long retExp2 = ((217706L * exp10) >> 16) + 64 + exponentBias - clz;
+
+    // Multiplication
+    final int index = (exp10 - MIN_EXP10) * 2;
+    long xHi = unsignedMultiplyHigh(man, POWERS_OF_TEN[index]);
+    long xLo = man * POWERS_OF_TEN[index];
+
+    // Wider approximation, if product could be affected by lower bits of power of ten
+    if ((xHi & lowMask) == lowMask && Long.compareUnsigned(xLo + man, man) < 0) {
+      final long yHi = unsignedMultiplyHigh(man, POWERS_OF_TEN[index + 1]);
+      final long yLo = man * POWERS_OF_TEN[index + 1];
+      long mergedHi = xHi;
+      final long mergedLo = xLo + yHi;
+      if (Long.compareUnsigned(mergedLo, xLo) < 0) {
+        mergedHi++;
+      }
+      if ((mergedHi & lowMask) == lowMask && mergedLo + 1 == 0
+          && Long.compareUnsigned(yLo + man, man) < 0) {
+        return Double.NaN;
+      }
+      xHi = mergedHi;
+      xLo = mergedLo;
+    }
+
+    // Shifting to mantissaBits + 2 bits
+    final int msb = (int) (xHi >>> 63);
+    long retMantissa = xHi >>> (msb + lowBits);
+    retExp2 -= 1 ^ msb;
+
+    // Halfway ambiguity
+    if (xLo == 0 && (xHi & lowMask) == 0 && (retMantissa & 3) == 1) {
+      return Double.NaN;
+    }
+
+    // Round to mantissaBits + 1 bits
+    retMantissa += retMantissa & 1;
+    retMantissa >>>= 1;
+    if (retMantissa >>> (mantissaBits + 1) > 0) {
+      retMantissa >>>= 1;
+      retExp2++;
+    }
+
+    // Subnormal or infinity
+    final long maxExp2 = (1L << (asFloat ? 8 : 11)) - 1;
+    if (retExp2 <= 0 || retExp2 >= maxExp2) {
+      return Double.NaN;
+    }
+
+    final long fractionMask = (1L << mantissaBits) - 1;
+    if (asFloat) {
+      final int bits = (int) (retExp2 << mantissaBits | retMantissa & fractionMask);
+      final float value = Float.intBitsToFloat(bits);
+      return negative ? -value : value;
+    }
+    final double value = Double.longBitsToDouble(retExp2 << mantissaBits
+        | retMantissa & fractionMask);
+    return negative ? -value : value;
+  }
+
+  /** Higher 64 bits of unsigned 128 bits product. */
+  private static long unsignedMultiplyHigh(long x, long y) {
+    final long x1 = x >>> 32;
+    final long x2 = x & 0xFFFFFFFFL;
+    final long y1 = y >>> 32;
+    final long y2 = y & 0xFFFFFFFFL;
+    final long z2 = x2 * y2;
+    final long t = x1 * y2 + (z2 >>> 32);
+    final long z1 = (t & 0xFFFFFFFFL) + x2 * y1;
+    return x1 * y1 + (t >>> 32) + (z1 >>> 32);
+  }
+}
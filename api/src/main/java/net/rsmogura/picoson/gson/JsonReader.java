@@ -17,7 +17,6 @@
 
 package net.rsmogura.picoson.gson;
 
-import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.Reader;
@@ -196,47 +195,9 @@ import net.rsmogura.picoson.MalformedJsonException;
  * @author Jesse Wilson
  * @since 1.6
  */
-public class JsonReader implements Closeable {
-  private static final long MIN_INCOMPLETE_INTEGER = Long.MIN_VALUE / 10;
-
-  private static final int PEEKED_NONE = 0;
-  private static final int PEEKED_BEGIN_OBJECT = 1;
-  private static final int PEEKED_END_OBJECT = 2;
-  private static final int PEEKED_BEGIN_ARRAY = 3;
-  private static final int PEEKED_END_ARRAY = 4;
-  private static final int PEEKED_TRUE = 5;
-  private static final int PEEKED_FALSE = 6;
-  private static final int PEEKED_NULL = 7;
-  private static final int PEEKED_SINGLE_QUOTED = 8;
-  private static final int PEEKED_DOUBLE_QUOTED = 9;
-  private static final int PEEKED_UNQUOTED = 10;
-  /** When this is returned, the string value is stored in peekedString. */
-  private static final int PEEKED_BUFFERED = 11;
-
-  private static final int PEEKED_SINGLE_QUOTED_NAME = 12;
-  private static final int PEEKED_DOUBLE_QUOTED_NAME = 13;
-  private static final int PEEKED_UNQUOTED_NAME = 14;
-  /** When this is returned, the integer value is stored in peekedLong. */
-  private static final int PEEKED_LONG = 15;
-
-  private static final int PEEKED_NUMBER = 16;
-  private static final int PEEKED_EOF = 17;
-
-  /* State machine when parsing numbers */
-  private static final int NUMBER_CHAR_NONE = 0;
-  private static final int NUMBER_CHAR_SIGN = 1;
-  private static final int NUMBER_CHAR_DIGIT = 2;
-  private static final int NUMBER_CHAR_DECIMAL = 3;
-  private static final int NUMBER_CHAR_FRACTION_DIGIT = 4;
-  private static final int NUMBER_CHAR_EXP_E = 5;
-  private static final int NUMBER_CHAR_EXP_SIGN = 6;
-  private static final int NUMBER_CHAR_EXP_DIGIT = 7;
-
+public class JsonReader extends AbstractJsonReader {
   /** The input JSON. */
-  private final Reader in;
-
-  /** True to accept non-spec compliant JSON */
-  private boolean lenient = false;
+  private Reader in;
 
   /**
    * Use a manual buffer to easily read and unread upcoming characters, and also so we can create
@@ -245,52 +206,8 @@ public class JsonReader implements Closeable {
    */
   private final char[] buffer = new char[1024];
 
-  private int pos = 0;
-  private int limit = 0;
-
-  private int lineNumber = 0;
-  private int lineStart = 0;
-
-  int peeked = PEEKED_NONE;
-
-  /**
-   * A peeked value that was composed entirely of digits with an optional leading dash. Positive
-   * values may not have a leading 0.
-   */
-  private long peekedLong;
-
-  /**
-   * The number of characters in a peeked number literal. Increment 'pos' by this after reading a
-   * number.
-   */
-  private int peekedNumberLength;
-
-  /**
-   * A peeked string that should be parsed on the next double, long or string. This is populated
-   * before a numeric value is parsed and used if that parsing fails.
-   */
-  private String peekedString;
-
-  /*
-   * The nesting stack. Using a manual array rather than an ArrayList saves 20%.
-   */
-  private int[] stack = new int[32];
-  private int stackSize = 0;
-
-  {
-    stack[stackSize++] = JsonScope.EMPTY_DOCUMENT;
-  }
-
-  /*
-   * The path members. It corresponds directly to stack: At indices where the
-   * stack contains an object (EMPTY_OBJECT, DANGLING_NAME or NONEMPTY_OBJECT),
-   * pathNames contains the name at this scope. Where it contains an array
-   * (EMPTY_ARRAY, NONEMPTY_ARRAY) pathIndices contains the current index in
-   * that array. Otherwise the value is undefined, and we take advantage of that
-   * by incrementing pathIndices when doing so isn't useful.
-   */
-  private String[] pathNames = new String[32];
-  private int[] pathIndices = new int[32];
+  /** Number of chars copied by last call to {@link #copyQuotedValue(char, char[])}. */
+  private int copiedLength;
 
   /** Creates a new instance that reads a JSON-encoded stream from {@code in}. */
   public JsonReader(Reader in) {
@@ -301,158 +218,22 @@ public class JsonReader implements Closeable {
   }
 
   /**
-   * Configure this parser to be liberal in what it accepts. By default, this parser is strict and
-   * only accepts JSON as specified by <a href="http://www.ietf.org/rfc/rfc4627.txt">RFC 4627</a>.
-   * Setting the parser to lenient causes it to ignore the following syntax errors:
-   *
-   * <ul>
-   *   <li>Streams that start with the <a href="#nonexecuteprefix">non-execute prefix</a>, <code>
-   *       ")]}'\n"</code>.
-   *   <li>Streams that include multiple top-level values. With strict parsing, each stream must
-   *       contain exactly one top-level value.
-   *   <li>Top-level values of any type. With strict parsing, the top-level value must be an object
-   *       or an array.
-   *   <li>Numbers may be {@link Double#isNaN() NaNs} or {@link Double#isInfinite() infinities}.
-   *   <li>End of line comments starting with {@code //} or {@code #} and ending with a newline
-   *       character.
-   *   <li>C-style comments starting with {@code /*} and ending with {@code *}{@code /}. Such
-   *       comments may not be nested.
-   *   <li>Names that are unquoted or {@code 'single quoted'}.
-   *   <li>Strings that are unquoted or {@code 'single quoted'}.
-   *   <li>Array elements separated by {@code ;} instead of {@code ,}.
-   *   <li>Unnecessary array separators. These are interpreted as if null was the omitted value.
-   *   <li>Names and values separated by {@code =} or {@code =>} instead of {@code :}.
-   *   <li>Name/value pairs separated by {@code ;} instead of {@code ,}.
-   * </ul>
-   */
-  public final void setLenient(boolean lenient) {
-    this.lenient = lenient;
-  }
-
-  /** Returns true if this parser is liberal in what it accepts. */
-  public final boolean isLenient() {
-    return lenient;
-  }
-
-  /**
-   * Consumes the next token from the JSON stream and asserts that it is the beginning of a new
-   * array.
-   */
-  public void beginArray() throws IOException {
-    int p = peeked;
-    if (p == PEEKED_NONE) {
-      p = doPeek();
-    }
-    if (p == PEEKED_BEGIN_ARRAY) {
-      push(JsonScope.EMPTY_ARRAY);
-      pathIndices[stackSize - 1] = 0;
-      peeked = PEEKED_NONE;
-    } else {
-      throw new IllegalStateException("Expected BEGIN_ARRAY but was " + peek() + locationString());
-    }
-  }
-
-  /**
-   * Consumes the next token from the JSON stream and asserts that it is the end of the current
-   * array.
+   * Resets this reader to read new JSON stream from {@code in}. Buffers of this reader are
+   * reused, so single instance can read many values without allocating. The previous input
+   * is not closed.
    */
-  public void endArray() throws IOException {
-    int p = peeked;
-    if (p == PEEKED_NONE) {
-      p = doPeek();
-    }
-    if (p == PEEKED_END_ARRAY) {
-      stackSize--;
-      pathIndices[stackSize - 1]++;
-      peeked = PEEKED_NONE;
-    } else {
-      throw new IllegalStateException("Expected END_ARRAY but was " + peek() + locationString());
-    }
-  }
-
-  /**
-   * Consumes the next token from the JSON stream and asserts that it is the beginning of a new
-   * object.
-   */
-  public void beginObject() throws IOException {
-    int p = peeked;
-    if (p == PEEKED_NONE) {
-      p = doPeek();
-    }
-    if (p == PEEKED_BEGIN_OBJECT) {
-      push(JsonScope.EMPTY_OBJECT);
-      peeked = PEEKED_NONE;
-    } else {
-      throw new IllegalStateException("Expected BEGIN_OBJECT but was " + peek() + locationString());
-    }
-  }
-
-  /**
-   * Consumes the next token from the JSON stream and asserts that it is the end of the current
-   * object.
-   */
-  public void endObject() throws IOException {
-    int p = peeked;
-    if (p == PEEKED_NONE) {
-      p = doPeek();
-    }
-    if (p == PEEKED_END_OBJECT) {
-      stackSize--;
-      pathNames[stackSize] = null; // Free the last path name so that it can be garbage collected!
-      pathIndices[stackSize - 1]++;
-      peeked = PEEKED_NONE;
-    } else {
-      throw new IllegalStateException("Expected END_OBJECT but was " + peek() + locationString());
-    }
-  }
-
-  /** Returns true if the current array or object has another element. */
-  public boolean hasNext() throws IOException {
-    int p = peeked;
-    if (p == PEEKED_NONE) {
-      p = doPeek();
+  public void reset(Reader in) {
+    if (in == null) {
+      throw new NullPointerException("in == null");
     }
-    return p != PEEKED_END_OBJECT && p != PEEKED_END_ARRAY;
+    resetState();
+    this.in = in;
   }
 
-  /** Returns the type of the next token without consuming it. */
-  public JsonToken peek() throws IOException {
-    int p = peeked;
-    if (p == PEEKED_NONE) {
-      p = doPeek();
-    }
-
-    switch (p) {
-      case PEEKED_BEGIN_OBJECT:
-        return JsonToken.BEGIN_OBJECT;
-      case PEEKED_END_OBJECT:
-        return JsonToken.END_OBJECT;
-      case PEEKED_BEGIN_ARRAY:
-        return JsonToken.BEGIN_ARRAY;
-      case PEEKED_END_ARRAY:
-        return JsonToken.END_ARRAY;
-      case PEEKED_SINGLE_QUOTED_NAME:
-      case PEEKED_DOUBLE_QUOTED_NAME:
-      case PEEKED_UNQUOTED_NAME:
-        return JsonToken.NAME;
-      case PEEKED_TRUE:
-      case PEEKED_FALSE:
-        return JsonToken.BOOLEAN;
-      case PEEKED_NULL:
-        return JsonToken.NULL;
-      case PEEKED_SINGLE_QUOTED:
-      case PEEKED_DOUBLE_QUOTED:
-      case PEEKED_UNQUOTED:
-      case PEEKED_BUFFERED:
-        return JsonToken.STRING;
-      case PEEKED_LONG:
-      case PEEKED_NUMBER:
-        return JsonToken.NUMBER;
-      case PEEKED_EOF:
-        return JsonToken.END_DOCUMENT;
-      default:
-        throw new AssertionError();
-    }
+  @Override
+  public void detach() {
+    resetState();
+    in = null;
   }
 
   int doPeek() throws IOException {
@@ -531,12 +312,24 @@ public class JsonReader implements Closeable {
         consumeNonExecutePrefix();
       }
       stack[stackSize - 1] = JsonScope.NONEMPTY_DOCUMENT;
+      if (jsonLines) {
+        // JSON Lines without values are empty
+        if (nextNonWhitespace(false) == -1) {
+          return peeked = PEEKED_EOF;
+        }
+        pos--;
+      }
     } else if (peekStack == JsonScope.NONEMPTY_DOCUMENT) {
+      final int line = lineNumber;
       int c = nextNonWhitespace(false);
       if (c == -1) {
         return peeked = PEEKED_EOF;
       } else {
-        checkLenient();
+        if (!jsonLines) {
+          checkLenient();
+        } else if (lineNumber == line) {
+          throw syntaxError("Expected new line between JSON Lines values");
+        }
         pos--;
       }
     } else if (peekStack == JsonScope.CLOSED) {
@@ -788,10 +581,158 @@ public class JsonReader implements Closeable {
       throw new IllegalStateException("Expected a name but was " + peek() + locationString());
     }
     peeked = PEEKED_NONE;
-    pathNames[stackSize - 1] = result;
+    pathName(result);
     return result;
   }
 
+  /** Consumes the next name, and points {@link #nameChars} to its characters. */
+  void readName() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    if (p == PEEKED_DOUBLE_QUOTED_NAME) {
+      readQuotedName('"');
+    } else if (p == PEEKED_SINGLE_QUOTED_NAME) {
+      readQuotedName('\'');
+    } else if (p == PEEKED_UNQUOTED_NAME) {
+      String name = nextUnquotedValue();
+      int length = name.length();
+      if (length > nameBuffer.length) {
+        nameBuffer = new char[length];
+      }
+      name.getChars(0, length, nameBuffer, 0);
+      nameChars = nameBuffer;
+      nameOffset = 0;
+      nameLength = length;
+    } else {
+      throw new IllegalStateException("Expected a name but was " + peek() + locationString());
+    }
+    peeked = PEEKED_NONE;
+    pathNamePending();
+  }
+
+  /**
+   * Reads quoted name. The opening quote should have already been read. This consumes the
+   * closing quote.
+   */
+  private void readQuotedName(char quote) throws IOException {
+    // Fast path - name without escapes is already in buffer, just point to it
+    final int length = quotedLengthInBuffer(quote);
+    if (length >= 0) {
+      nameChars = buffer;
+      nameOffset = pos;
+      nameLength = length;
+      pos += length + 1;
+      return;
+    }
+
+    nameBuffer = copyQuotedValue(quote, nameBuffer);
+    nameChars = nameBuffer;
+    nameOffset = 0;
+    nameLength = copiedLength;
+  }
+
+  /**
+   * Returns length of quoted string starting at {@link #pos}, if whole string is in buffer and
+   * it has no escapes, so it can be used in place, otherwise -1. The opening quote should have
+   * already been read.
+   */
+  private int quotedLengthInBuffer(char quote) {
+    final char[] buffer = this.buffer;
+    final int start = pos;
+    for (int p = start, l = limit; p < l; p++) {
+      char c = buffer[p];
+      if (c == quote) {
+        return p - start;
+      } else if (c == '\\' || c == '\n') {
+        break;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Copies quoted string to {@code chars}, unescaping it. The opening quote should have
+   * already been read. This consumes the closing quote. The number of copied characters is
+   * stored in {@link #copiedLength}.
+   *
+   * @return {@code chars} or its grown copy, holding copied characters
+   */
+  private char[] copyQuotedValue(char quote, char[] chars) throws IOException {
+    // Like nextQuotedValue, this uses locals 'p' and 'l' to save inner-loop field access.
+    char[] buffer = this.buffer;
+    int length = 0;
+    while (true) {
+      int p = pos;
+      int l = limit;
+      while (p < l) {
+        char c = buffer[p++];
+
+        if (c == quote) {
+          pos = p;
+          copiedLength = length;
+          return chars;
+        } else if (c == '\\') {
+          pos = p;
+          c = readEscapeCharacter();
+          p = pos;
+          l = limit;
+        } else if (c == '\n') {
+          lineNumber++;
+          lineStart = p;
+        }
+
+        if (length == chars.length) {
+          chars = Arrays.copyOf(chars, Math.max(length * 2, 16));
+        }
+        chars[length++] = c;
+      }
+
+      pos = p;
+      if (!fillBuffer(1)) {
+        throw syntaxError("Unterminated string");
+      }
+    }
+  }
+
+  /** Consumes the next string value, and points {@link #valueChars} to its characters. */
+  void readString() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    final char quote;
+    if (p == PEEKED_DOUBLE_QUOTED) {
+      quote = '"';
+    } else if (p == PEEKED_SINGLE_QUOTED) {
+      quote = '\'';
+    } else {
+      // Other representations are rare, read them as string
+      setValue(nextString());
+      return;
+    }
+
+    final int length = quotedLengthInBuffer(quote);
+    if (length >= 0) {
+      valueChars = buffer;
+      valueOffset = pos;
+      valueLength = length;
+      pos += length + 1;
+    } else {
+      char[] chars = valueBuffer;
+      if (chars == null) {
+        chars = new char[32];
+      }
+      valueBuffer = chars = copyQuotedValue(quote, chars);
+      valueChars = chars;
+      valueOffset = 0;
+      valueLength = copiedLength;
+    }
+    peeked = PEEKED_NONE;
+    advancePath();
+  }
+
   /**
    * Returns the {@link JsonToken#STRING string} value of the next token, consuming it. If the next
    * token is a number, this method will return its string form.
@@ -822,48 +763,51 @@ public class JsonReader implements Closeable {
       throw new IllegalStateException("Expected a string but was " + peek() + locationString());
     }
     peeked = PEEKED_NONE;
-    pathIndices[stackSize - 1]++;
+    advancePath();
     return result;
   }
 
-  /**
-   * Returns the {@link JsonToken#BOOLEAN boolean} value of the next token, consuming it.
-   *
-   * @throws IllegalStateException if the next token is not a boolean or if this reader is closed.
-   */
-  public boolean nextBoolean() throws IOException {
+  @Override
+  public byte[] nextBase64() throws IOException {
     int p = peeked;
     if (p == PEEKED_NONE) {
       p = doPeek();
     }
-    if (p == PEEKED_TRUE) {
-      peeked = PEEKED_NONE;
-      pathIndices[stackSize - 1]++;
-      return true;
-    } else if (p == PEEKED_FALSE) {
-      peeked = PEEKED_NONE;
-      pathIndices[stackSize - 1]++;
-      return false;
+    if (p != PEEKED_DOUBLE_QUOTED && p != PEEKED_SINGLE_QUOTED) {
+      // Other representations of strings are not decoded in place
+      return decodeBase64(nextString());
     }
-    throw new IllegalStateException("Expected a boolean but was " + peek() + locationString());
-  }
 
-  /**
-   * Consumes the next token from the JSON stream and asserts that it is a literal null.
-   *
-   * @throws IllegalStateException if the next token is not null or if this reader is closed.
-   */
-  public void nextNull() throws IOException {
-    int p = peeked;
-    if (p == PEEKED_NONE) {
-      p = doPeek();
-    }
-    if (p == PEEKED_NULL) {
-      peeked = PEEKED_NONE;
-      pathIndices[stackSize - 1]++;
-    } else {
-      throw new IllegalStateException("Expected null but was " + peek() + locationString());
-    }
+    final char quote = p == PEEKED_DOUBLE_QUOTED ? '"' : '\'';
+    final Base64.Decoder decoder = base64Decoder();
+    // Like nextNonWhitespace, this uses locals 'p' and 'l' to save inner-loop field access.
+    final char[] buffer = this.buffer;
+    do {
+      p = pos;
+      int l = limit;
+      while (p < l) {
+        int c = buffer[p++];
+        if (c == quote) {
+          pos = p;
+          peeked = PEEKED_NONE;
+          advancePath();
+          return finishBase64(decoder);
+        } else if (c == '\\') {
+          pos = p;
+          c = readEscapeCharacter();
+          p = pos;
+          l = limit;
+        }
+        if (!decoder.decode(c)) {
+          pos = p;
+          decoder.finish();
+          throw syntaxError("Invalid Base64 value");
+        }
+      }
+      pos = p;
+    } while (fillBuffer(1));
+    decoder.finish();
+    throw syntaxError("Unterminated string");
   }
 
   /**
@@ -883,33 +827,75 @@ public class JsonReader implements Closeable {
 
     if (p == PEEKED_LONG) {
       peeked = PEEKED_NONE;
-      pathIndices[stackSize - 1]++;
+      advancePath();
       return (double) peekedLong;
     }
 
+    final double result;
     if (p == PEEKED_NUMBER) {
-      peekedString = new String(buffer, pos, peekedNumberLength);
+      result = FastDoubleParser.parse(buffer, pos, peekedNumberLength, false);
       pos += peekedNumberLength;
-    } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED) {
-      peekedString = nextQuotedValue(p == PEEKED_SINGLE_QUOTED ? '\'' : '"');
-    } else if (p == PEEKED_UNQUOTED) {
-      peekedString = nextUnquotedValue();
-    } else if (p != PEEKED_BUFFERED) {
-      throw new IllegalStateException("Expected a double but was " + peek() + locationString());
+    } else {
+      result = Double.parseDouble(nextNumberString(p, "double"));
     }
 
-    peeked = PEEKED_BUFFERED;
-    double result = Double.parseDouble(peekedString); // don't catch this NumberFormatException.
     if (!lenient && (Double.isNaN(result) || Double.isInfinite(result))) {
       throw new MalformedJsonException(
           "JSON forbids NaN and infinities: " + result + locationString());
     }
     peekedString = null;
     peeked = PEEKED_NONE;
-    pathIndices[stackSize - 1]++;
+    advancePath();
+    return result;
+  }
+
+  public float nextFloat() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+
+    if (p == PEEKED_LONG) {
+      peeked = PEEKED_NONE;
+      advancePath();
+      return (float) peekedLong;
+    }
+
+    final float result;
+    if (p == PEEKED_NUMBER) {
+      result = (float) FastDoubleParser.parse(buffer, pos, peekedNumberLength, true);
+      pos += peekedNumberLength;
+    } else {
+      result = Float.parseFloat(nextNumberString(p, "float"));
+    }
+
+    if (!lenient && (Float.isNaN(result) || Float.isInfinite(result))) {
+      throw new MalformedJsonException(
+          "JSON forbids NaN and infinities: " + result + locationString());
+    }
+    peekedString = null;
+    peeked = PEEKED_NONE;
+    advancePath();
     return result;
   }
 
+  /**
+   * Reads number, which is quoted or was buffered, as string. Leaves reader in
+   * {@code PEEKED_BUFFERED} state, so if number can't be parsed, it can be read as string.
+   */
+  private String nextNumberString(int p, String expected) throws IOException {
+    if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED) {
+      peekedString = nextQuotedValue(p == PEEKED_SINGLE_QUOTED ? '\'' : '"');
+    } else if (p == PEEKED_UNQUOTED) {
+      peekedString = nextUnquotedValue();
+    } else if (p != PEEKED_BUFFERED) {
+      throw new IllegalStateException("Expected a " + expected + " but was " + peek()
+          + locationString());
+    }
+    peeked = PEEKED_BUFFERED;
+    return peekedString; // don't catch NumberFormatException of parsing.
+  }
+
   /**
    * Returns the {@link JsonToken#NUMBER long} value of the next token, consuming it. If the next
    * token is a string, this method will attempt to parse it as a long. If the next token's numeric
@@ -927,7 +913,7 @@ public class JsonReader implements Closeable {
 
     if (p == PEEKED_LONG) {
       peeked = PEEKED_NONE;
-      pathIndices[stackSize - 1]++;
+      advancePath();
       return peekedLong;
     }
 
@@ -943,7 +929,7 @@ public class JsonReader implements Closeable {
       try {
         long result = Long.parseLong(peekedString);
         peeked = PEEKED_NONE;
-        pathIndices[stackSize - 1]++;
+        advancePath();
         return result;
       } catch (NumberFormatException ignored) {
         // Fall back to parse as a double below.
@@ -960,7 +946,7 @@ public class JsonReader implements Closeable {
     }
     peekedString = null;
     peeked = PEEKED_NONE;
-    pathIndices[stackSize - 1]++;
+    advancePath();
     return result;
   }
 
@@ -1160,7 +1146,7 @@ public class JsonReader implements Closeable {
         throw new NumberFormatException("Expected an int but was " + peekedLong + locationString());
       }
       peeked = PEEKED_NONE;
-      pathIndices[stackSize - 1]++;
+      advancePath();
       return result;
     }
 
@@ -1176,7 +1162,7 @@ public class JsonReader implements Closeable {
       try {
         result = Integer.parseInt(peekedString);
         peeked = PEEKED_NONE;
-        pathIndices[stackSize - 1]++;
+        advancePath();
         return result;
       } catch (NumberFormatException ignored) {
         // Fall back to parse as a double below.
@@ -1193,7 +1179,7 @@ public class JsonReader implements Closeable {
     }
     peekedString = null;
     peeked = PEEKED_NONE;
-    pathIndices[stackSize - 1]++;
+    advancePath();
     return result;
   }
 
@@ -1202,7 +1188,9 @@ public class JsonReader implements Closeable {
     peeked = PEEKED_NONE;
     stack[0] = JsonScope.CLOSED;
     stackSize = 1;
-    in.close();
+    if (in != null) {
+      in.close();
+    }
   }
 
   /**
@@ -1211,6 +1199,7 @@ public class JsonReader implements Closeable {
    * values.
    */
   public void skipValue() throws IOException {
+    pathNameFromChars();
     int count = 0;
     do {
       int p = peeked;
@@ -1242,18 +1231,8 @@ public class JsonReader implements Closeable {
       peeked = PEEKED_NONE;
     } while (count != 0);
 
-    pathIndices[stackSize - 1]++;
-    pathNames[stackSize - 1] = "null";
-  }
-
-  private void push(int newTop) {
-    if (stackSize == stack.length) {
-      int newLength = stackSize * 2;
-      stack = Arrays.copyOf(stack, newLength);
-      pathIndices = Arrays.copyOf(pathIndices, newLength);
-      pathNames = Arrays.copyOf(pathNames, newLength);
-    }
-    stack[stackSize++] = newTop;
+    advancePath();
+    pathName("null");
   }
 
   /**
@@ -1383,12 +1362,6 @@ public class JsonReader implements Closeable {
     }
   }
 
-  private void checkLenient() throws IOException {
-    if (!lenient) {
-      throw syntaxError("Use JsonReader.setLenient(true) to accept malformed JSON");
-    }
-  }
-
   /**
    * Advances the position until after the next newline character. If the line is terminated by
    * "\r\n", the '\n' must be consumed as whitespace by the caller.
@@ -1426,48 +1399,6 @@ public class JsonReader implements Closeable {
     return false;
   }
 
-  @Override
-  public String toString() {
-    return getClass().getSimpleName() + locationString();
-  }
-
-  String locationString() {
-    int line = lineNumber + 1;
-    int column = pos - lineStart + 1;
-    return " at line " + line + " column " + column + " path " + getPath();
-  }
-
-  /**
-   * Returns a <a href="http://goessner.net/articles/JsonPath/">JsonPath</a> to the current location
-   * in the JSON value.
-   */
-  public String getPath() {
-    StringBuilder result = new StringBuilder().append('$');
-    for (int i = 0, size = stackSize; i < size; i++) {
-      switch (stack[i]) {
-        case JsonScope.EMPTY_ARRAY:
-        case JsonScope.NONEMPTY_ARRAY:
-          result.append('[').append(pathIndices[i]).append(']');
-          break;
-
-        case JsonScope.EMPTY_OBJECT:
-        case JsonScope.DANGLING_NAME:
-        case JsonScope.NONEMPTY_OBJECT:
-          result.append('.');
-          if (pathNames[i] != null) {
-            result.append(pathNames[i]);
-          }
-          break;
-
-        case JsonScope.NONEMPTY_DOCUMENT:
-        case JsonScope.EMPTY_DOCUMENT:
-        case JsonScope.CLOSED:
-          break;
-      }
-    }
-    return result.toString();
-  }
-
   /**
    * Unescapes the character identified by the character or characters that immediately follow a
    * backslash. The backslash '\' should have already been read. This supports both unicode escapes
@@ -1535,14 +1466,6 @@ public class JsonReader implements Closeable {
     }
   }
 
-  /**
-   * Throws a new IO exception with the given message and a context snippet with this reader's
-   * content.
-   */
-  private IOException syntaxError(String message) throws IOException {
-    throw new MalformedJsonException(message + locationString());
-  }
-
   /** Consumes the non-execute prefix if it exists. */
   private void consumeNonExecutePrefix() throws IOException {
     // fast forward through the leading whitespace
@@ -47,6 +47,12 @@ final class JsonScope {
    */
   static final int DANGLING_NAME = 4;
 
+  /**
+   * An object whose most recent element is a key written together with
+   * the name/value separator. The next element must be a value.
+   */
+  static final int DANGLING_NAME_FRAGMENT = 9;
+
   /**
    * An object with at least one name/value pair requires a comma and
    * newline before the next element.
@@ -0,0 +1,376 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+// CHECKSTYLE.OFF
+package net.rsmogura.picoson.gson;
+
+import java.math.BigInteger;
+
+/**
+ * Formats {@code double} and {@code float} to the shortest decimal which reads back to same
+ * value, without creating strings. Uses Schubfach algorithm by Raffaello Giulietti, "The Schubfach
+ * way to render doubles", the same one which is used by {@link Double#toString(double)} since
+ * Java 19.
+ * <br />
+ * Output layout follows {@link Double#toString(double)} - plain notation for magnitudes from
+ * 10<sup>-3</sup> to 10<sup>7</sup> (like {@code 12.5}, or {@code 1.0}), computerized scientific
+ * notation otherwise (like {@code 1.0E-5}). Only digits can differ, as before Java 19
+ * {@code Double.toString} doesn't always return the shortest decimal.
+ */
+final class Schubfach {
+  /** Length of the longest formatted value, like {@code -2.2250738585072014E-308}. */
+  static final int MAX_LENGTH = 32;
+
+  /** Minimal exponent of {@code 10^k} in {@link #G}. */
+  private static final int K_MIN = -324;
+
+  /** Maximal exponent of {@code 10^k} in {@link #G}. */
+  private static final int K_MAX = 292;
+
+  /**
+   * For each {@code k} - the 126 bits approximation {@code g = floor(10^-k * 2^-r) + 1} of
+   * {@code 10^-k}, where {@code r} is such that {@code 2^125 <= 10^-k * 2^-r < 2^126}. Stored as
+   * higher 63 bits, followed by lower 63 bits.
+   */
+  private static final long[] G = new long[(K_MAX - K_MIN + 1) * 2];
+
+  static {
+    final BigInteger mask63 = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+    for (int k = K_MIN; k <= K_MAX; k++) {
+      final BigInteger floor;
+      if (k <= 0) {
+        final BigInteger pow10 = BigInteger.TEN.pow(-k);
+        final int r = pow10.bitLength() - 126;
+        floor = r >= 0 ? pow10.shiftRight(r) : pow10.shiftLeft(-r);
+      } else {
+        final BigInteger pow10 = BigInteger.TEN.pow(k);
+        floor = BigInteger.ONE.shiftLeft(125 + pow10.bitLength()).divide(pow10);
+      }
+      final BigInteger g = floor.add(BigInteger.ONE);
+      G[(k - K_MIN) * 2] = g.shiftRight(63).longValue();
+      G[(k - K_MIN) * 2 + 1] = g.and(mask63).longValue();
+    }
+  }
+
+  // Double constants - precision, minimal exponent, and mask of significand and exponent
+  private static final int DOUBLE_P = 53;
+  private static final int DOUBLE_Q_MIN = -1074;
+  private static final long DOUBLE_C_MIN = 1L << (DOUBLE_P - 1);
+  private static final int DOUBLE_BQ_MASK = 0x7FF;
+  private static final long DOUBLE_T_MASK = DOUBLE_C_MIN - 1;
+  private static final long DOUBLE_C_TINY = 3;
+
+  // Float constants
+  private static final int FLOAT_P = 24;
+  private static final int FLOAT_Q_MIN = -149;
+  private static final int FLOAT_C_MIN = 1 << (FLOAT_P - 1);
+  private static final int FLOAT_BQ_MASK = 0xFF;
+  private static final int FLOAT_T_MASK = FLOAT_C_MIN - 1;
+  private static final int FLOAT_C_TINY = 8;
+
+  private static final long MASK_63 = (1L << 63) - 1;
+  private static final long MASK_32 = (1L << 32) - 1;
+
+  private Schubfach() {
+  }
+
+  /**
+   * Formats {@code value} into {@code buffer} starting at {@code pos}. The caller has to ensure
+   * there's {@link #MAX_LENGTH} bytes available.
+   *
+   * @return position after the last written byte
+   */
+  static int format(double value, byte[] buffer, int pos) {
+    final long bits = Double.doubleToRawLongBits(value);
+    final long t = bits & DOUBLE_T_MASK;
+    final int bq = (int) (bits >>> (DOUBLE_P - 1)) & DOUBLE_BQ_MASK;
+    if (bq == DOUBLE_BQ_MASK) {
+      return special(t != 0, bits < 0, buffer, pos);
+    }
+    if (bits < 0) {
+      buffer[pos++] = '-';
+    }
+    if (bq != 0) {
+      // Normal value, c * 2^q, where q = -mq
+      final int mq = -DOUBLE_Q_MIN + 1 - bq;
+      final long c = DOUBLE_C_MIN | t;
+      if (0 < mq && mq < DOUBLE_P) {
+        // Integer value
+        final long f = c >> mq;
+        if (f << mq == c) {
+          return decimal(f, 0, buffer, pos);
+        }
+      }
+      return toDecimal(-mq, c, 0, buffer, pos);
+    }
+    if (t != 0) {
+      // Subnormal value
+      return t < DOUBLE_C_TINY
+          ? toDecimal(DOUBLE_Q_MIN, 10 * t, -1, buffer, pos)
+          : toDecimal(DOUBLE_Q_MIN, t, 0, buffer, pos);
+    }
+    return zero(buffer, pos);
+  }
+
+  /**
+   * Formats {@code value} into {@code buffer} starting at {@code pos}, using shortest decimal
+   * which reads back to same {@code float}. The caller has to ensure there's
+   * {@link #MAX_LENGTH} bytes available.
+   *
+   * @return position after the last written byte
+   */
+  static int format(float value, byte[] buffer, int pos) {
+    final int bits = Float.floatToRawIntBits(value);
+    final int t = bits & FLOAT_T_MASK;
+    final int bq = (bits >>> (FLOAT_P - 1)) & FLOAT_BQ_MASK;
+    if (bq == FLOAT_BQ_MASK) {
+      return special(t != 0, bits < 0, buffer, pos);
+    }
+    if (bits < 0) {
+      buffer[pos++] = '-';
+    }
+    if (bq != 0) {
+      final int mq = -FLOAT_Q_MIN + 1 - bq;
+      final int c = FLOAT_C_MIN | t;
+      if (0 < mq && mq < FLOAT_P) {
+        final int f = c >> mq;
+        if (f << mq == c) {
+          return decimal(f, 0, buffer, pos);
+        }
+      }
+      return toDecimal(-mq, c, 0, buffer, pos);
+    }
+    if (t != 0) {
+      return t < FLOAT_C_TINY
+          ? toDecimal(FLOAT_Q_MIN, 10 * t, -1, buffer, pos)
+          : toDecimal(FLOAT_Q_MIN, t, 0, buffer, pos);
+    }
+    return zero(buffer, pos);
+  }
+
+  /**
+   * Finds the shortest decimal in rounding interval of double {@code c * 2^q}, and writes it
+   * multiplied by {@code 10^dk}.
+   */
+  private static int toDecimal(int q, long c, int dk, byte[] buffer, int pos) {
+    final int out = (int) c & 0x1;
+    final long cb = c << 2;
+    final long cbr = cb + 2;
+    final long cbl;
+    final int k;
+    if (c != DOUBLE_C_MIN || q == DOUBLE_Q_MIN) {
+      cbl = cb - 2;
+      k = flog10pow2(q);
+    } else {
+      // Closer lower boundary
+      cbl = cb - 1;
+      k = flog10threeQuartersPow2(q);
+    }
+    final int h = q + flog2pow10(-k) + 2;
+    final long g1 = G[(k - K_MIN) * 2];
+    final long g0 = G[(k - K_MIN) * 2 + 1];
+
+    final long vb = rop(g1, g0, cb << h);
+    final long vbl = rop(g1, g0, cbl << h);
+    final long vbr = rop(g1, g0, cbr << h);
+
+    final long s = vb >> 2;
+    if (s >= 100) {
+      // Try one digit less - s' * 10 and t' * 10
+      final long sp10 = 10 * multiplyHigh(s, 115_292_150_460_684_698L << 4);
+      final long tp10 = sp10 + 10;
+      final boolean upin = vbl + out <= sp10 << 2;
+      final boolean wpin = (tp10 << 2) + out <= vbr;
+      if (upin != wpin) {
+        return decimal(upin ? sp10 : tp10, k, buffer, pos);
+      }
+    }
+
+    final long t = s + 1;
+    final boolean uin = vbl + out <= s << 2;
+    final boolean win = (t << 2) + out <= vbr;
+    if (uin != win) {
+      return decimal(uin ? s : t, k + dk, buffer, pos);
+    }
+    // Both are in the interval, choose closer one, or even one if they're equally close
+    final long cmp = vb - ((s + t) << 1);
+    return decimal(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, buffer, pos);
+  }
+
+  /**
+   * Finds the shortest decimal in rounding interval of float {@code c * 2^q}, and writes it
+   * multiplied by {@code 10^dk}.
+   */
+  private static int toDecimal(int q, int c, int dk, byte[] buffer, int pos) {
+    final int out = c & 0x1;
+    final long cb = (long) c << 2;
+    final long cbr = cb + 2;
+    final long cbl;
+    final int k;
+    if (c != FLOAT_C_MIN || q == FLOAT_Q_MIN) {
+      cbl = cb - 2;
+      k = flog10pow2(q);
+    } else {
+      cbl = cb - 1;
+      k = flog10threeQuartersPow2(q);
+    }
+    final int h = q + flog2pow10(-k) + 33;
+    // 64 bits are enough for float
+    final long g = G[(k - K_MIN) * 2] + 1;
+
+    final int vb = rop(g, cb << h);
+    final int vbl = rop(g, cbl << h);
+    final int vbr = rop(g, cbr << h);
+
+    final int s = vb >> 2;
+    if (s >= 100) {
+      final int sp10 = 10 * (int) (s * 1_717_986_919L >>> 34);
+      final int tp10 = sp10 + 10;
+      final boolean upin = vbl + out <= sp10 << 2;
+      final boolean wpin = (tp10 << 2) + out <= vbr;
+      if (upin != wpin) {
+        return decimal(upin ? sp10 : tp10, k, buffer, pos);
+      }
+    }
+
+    final int t = s + 1;
+    final boolean uin = vbl + out <= s << 2;
+    final boolean win = (t << 2) + out <= vbr;
+    if (uin != win) {
+      return decimal(uin ? s : t, k + dk, buffer, pos);
+    }
+    final int cmp = vb - ((s + t) << 1);
+    return decimal(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, buffer, pos);
+  }
+
+  /** Rounds to odd of {@code g * cp}, where g is 126 bits {@code g1 * 2^63 + g0}. */
+  private static long rop(long g1, long g0, long cp) {
+    final long x1 = multiplyHigh(g0, cp);
+    final long y0 = g1 * cp;
+    final long y1 = multiplyHigh(g1, cp);
+    final long z = (y0 >>> 1) + x1;
+    final long vbp = y1 + (z >>> 63);
+    return vbp | ((z & MASK_63) + MASK_63) >>> 63;
+  }
+
+  /** Rounds to odd of {@code g * cp}, for float. */
+  private static int rop(long g, long cp) {
+    final long x1 = multiplyHigh(g, cp);
+    final long vbp = x1 >>> 31;
+    return (int) (vbp | ((x1 & MASK_32) + MASK_32) >>> 32);
+  }
+
+  /** Returns {@code floor(log10(2^e))}, for {@code |e| <= 5456721}. */
+  private static int flog10pow2(int e) {
+    return (int) (e * 661_971_961_083L >> 41);
+  }
+
+  /** Returns {@code floor(log10(3/4 * 2^e))}, for {@code |e| <= 5456721}. */
+  private static int flog10threeQuartersPow2(int e) {
+    return (int) (e * 661_971_961_083L - 274_743_187_321L >> 41);
+  }
+
+  /** Returns {@code floor(log2(10^e))}, for {@code |e| <= 1838394}. */
+  private static int flog2pow10(int e) {
+    return (int) (e * 913_124_641_741L >> 38);
+  }
+
+  /** Higher 64 bits of 128 bits product, {@code Math.multiplyHigh} isn't available in Java 8. */
+  private static long multiplyHigh(long x, long y) {
+    final long x1 = x >> 32;
+    final long x2 = x & 0xFFFFFFFFL;
+    final long y1 = y >> 32;
+    final long y2 = y & 0xFFFFFFFFL;
+    final long z2 = x2 * y2;
+    final long t = x1 * y2 + (z2 >>> 32);
+    long z1 = t & 0xFFFFFFFFL;
+    final long z0 = t >> 32;
+    z1 += x2 * y1;
+    return x1 * y1 + z0 + (z1 >> 32);
+  }
+
+  /**
+   * Writes decimal {@code f * 10^e}, like {@link Double#toString(double)} does.
+   */
+  private static int decimal(long f, int e, byte[] buffer, int pos) {
+    while (f % 10 == 0) {
+      f /= 10;
+      e++;
+    }
+    final int length = Digits.length(f);
+    // Exponent of scientific notation, d.ddd * 10^exponent
+    final int exponent = length + e - 1;
+
+    if (0 <= exponent && exponent < 7) {
+      if (length <= exponent + 1) {
+        // Integer - digits, zeros and ".0"
+        Digits.format(f, buffer, pos + length);
+        pos += length;
+        for (int i = length; i <= exponent; i++) {
+          buffer[pos++] = '0';
+        }
+        buffer[pos++] = '.';
+        buffer[pos++] = '0';
+        return pos;
+      }
+      // Format digits one position further, and move integer part before the point
+      Digits.format(f, buffer, pos + 1 + length);
+      System.arraycopy(buffer, pos + 1, buffer, pos, exponent + 1);
+      buffer[pos + exponent + 1] = '.';
+      return pos + 1 + length;
+    }
+
+    if (-3 <= exponent && exponent < 0) {
+      buffer[pos++] = '0';
+      buffer[pos++] = '.';
+      for (int i = exponent + 1; i < 0; i++) {
+        buffer[pos++] = '0';
+      }
+      Digits.format(f, buffer, pos + length);
+      return pos + length;
+    }
+
+    // Scientific notation
+    Digits.format(f, buffer, pos + 1 + length);
+    buffer[pos] = buffer[pos + 1];
+    buffer[pos + 1] = '.';
+    if (length == 1) {
+      buffer[pos + 2] = '0';
+      pos += 3;
+    } else {
+      pos += 1 + length;
+    }
+    buffer[pos++] = 'E';
+    final int exponentLength = Digits.length(exponent);
+    Digits.format(exponent, buffer, pos + exponentLength);
+    return pos + exponentLength;
+  }
+
+  private static int zero(byte[] buffer, int pos) {
+    buffer[pos++] = '0';
+    buffer[pos++] = '.';
+    buffer[pos++] = '0';
+    return pos;
+  }
+
+  /** Writes NaN or infinity, allowed by lenient writers. */
+  private static int special(boolean nan, boolean negative, byte[] buffer, int pos) {
+    final String value = nan ? "NaN" : negative ? "-Infinity" : "Infinity";
+    for (int i = 0; i < value.length(); i++) {
+      buffer[pos++] = (byte) value.charAt(i);
+    }
+    return pos;
+  }
+}
@@ -0,0 +1,1486 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+// CHECKSTYLE.OFF
+
+package net.rsmogura.picoson.gson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import net.rsmogura.picoson.JsonToken;
+import net.rsmogura.picoson.MalformedJsonException;
+
+/**
+ * Reads a JSON encoded in UTF-8 directly from bytes, without decoding whole input to characters.
+ * Input is read from {@link InputStream}, or from wrapped {@code byte[]} or {@link ByteBuffer}.
+ * <br />
+ * Tokens are lexed on bytes, as all structural characters, literals and numbers are ASCII. Only
+ * string values and names are decoded; strings having only ASCII characters and no escapes are
+ * created directly from read buffer.
+ * <br />
+ * The parsing rules and API are same as of {@link JsonReader}.
+ */
+public class Utf8JsonReader extends AbstractJsonReader {
+  /** Minimal code point for UTF-8 sequence of given length, lower values are overlong. */
+  private static final int[] MIN_CODE_POINTS = {0, 0, 0x80, 0x800, 0x10000};
+
+  /** Size of buffer used for reading stream, and direct byte buffer. */
+  private static final int BUFFER_SIZE = 4096;
+
+  /** The input JSON, or {@code null} if data is read from byte buffer or array. */
+  private InputStream in;
+
+  /** The input JSON read from (direct) byte buffer, or {@code null}. */
+  private ByteBuffer source;
+
+  /**
+   * Read buffer, or wrapped input array. As in {@link JsonReader} it must be at least as long as
+   * the longest token that can be reported as a number.
+   */
+  private byte[] buffer;
+
+  /** Buffer for reading stream or direct byte buffer, kept when reader is reset. */
+  private byte[] readBuffer;
+
+  /** Reusable buffer for decoding strings, which are not plain ASCII. */
+  private char[] stringBuffer = new char[64];
+
+  /** Number of chars decoded by last call to {@link #decodeQuotedValue(char, char[], int)}. */
+  private int decodedLength;
+
+  /** Creates a new instance that reads a UTF-8 encoded JSON stream from {@code in}. */
+  public Utf8JsonReader(InputStream in) {
+    reset(in);
+  }
+
+  /** Creates a new instance that reads UTF-8 encoded JSON from given array. */
+  public Utf8JsonReader(byte[] bytes) {
+    reset(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Creates a new instance that reads UTF-8 encoded JSON from given range of array. The array
+   * is read directly, without copying, and it should not be changed while reading.
+   */
+  public Utf8JsonReader(byte[] bytes, int offset, int length) {
+    reset(bytes, offset, length);
+  }
+
+  /**
+   * Creates a new instance that reads UTF-8 encoded JSON from remaining bytes of given buffer.
+   * Array of heap buffer is read directly, and the content of direct buffer is copied in chunks.
+   * The position of given buffer is not changed.
+   */
+  public Utf8JsonReader(ByteBuffer bytes) {
+    reset(bytes);
+  }
+
+  /**
+   * Resets this reader to read new UTF-8 encoded JSON stream from {@code in}. Buffers of this
+   * reader are reused, so single instance can read many values without allocating. The previous
+   * input is not closed.
+   */
+  public void reset(InputStream in) {
+    if (in == null) {
+      throw new NullPointerException("in == null");
+    }
+    resetState();
+    this.in = in;
+    this.source = null;
+    this.buffer = readBuffer();
+  }
+
+  /** Resets this reader to read UTF-8 encoded JSON from given array. */
+  public void reset(byte[] bytes) {
+    reset(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Resets this reader to read UTF-8 encoded JSON from given range of array.
+   *
+   * @see #Utf8JsonReader(byte[], int, int)
+   */
+  public void reset(byte[] bytes, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > bytes.length) {
+      throw new IndexOutOfBoundsException(
+          "offset " + offset + ", length " + length + ", array length " + bytes.length);
+    }
+    resetState();
+    this.in = null;
+    this.source = null;
+    this.buffer = bytes;
+    this.pos = offset;
+    this.limit = offset + length;
+    this.lineStart = offset;
+    if (hasByteOrderMark(bytes, offset, limit)) {
+      pos += 3;
+      lineStart += 3;
+    }
+  }
+
+  /**
+   * Resets this reader to read UTF-8 encoded JSON from remaining bytes of given buffer.
+   *
+   * @see #Utf8JsonReader(ByteBuffer)
+   */
+  public void reset(ByteBuffer bytes) {
+    if (bytes.hasArray()) {
+      reset(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+    } else {
+      resetState();
+      this.in = null;
+      this.source = bytes.duplicate();
+      this.buffer = readBuffer();
+    }
+  }
+
+  @Override
+  public void detach() {
+    resetState();
+    in = null;
+    source = null;
+    buffer = readBuffer();
+  }
+
+  /** Returns buffer for reading stream, creating it when first needed. */
+  private byte[] readBuffer() {
+    if (readBuffer == null) {
+      readBuffer = new byte[BUFFER_SIZE];
+    }
+    return readBuffer;
+  }
+
+  /** Creates string from ASCII bytes of the buffer. */
+  private String asciiString(int offset, int length) {
+    return new String(buffer, offset, length, StandardCharsets.ISO_8859_1);
+  }
+
+  int doPeek() throws IOException {
+    int peekStack = stack[stackSize - 1];
+    if (peekStack == JsonScope.EMPTY_ARRAY) {
+      stack[stackSize - 1] = JsonScope.NONEMPTY_ARRAY;
+    } else if (peekStack == JsonScope.NONEMPTY_ARRAY) {
+      // Look for a comma before the next element.
+      int c = nextNonWhitespace(true);
+      switch (c) {
+        case ']':
+          return peeked = PEEKED_END_ARRAY;
+        case ';':
+          checkLenient(); // fall-through
+        case ',':
+          break;
+        default:
+          throw syntaxError("Unterminated array");
+      }
+    } else if (peekStack == JsonScope.EMPTY_OBJECT || peekStack == JsonScope.NONEMPTY_OBJECT) {
+      stack[stackSize - 1] = JsonScope.DANGLING_NAME;
+      // Look for a comma before the next element.
+      if (peekStack == JsonScope.NONEMPTY_OBJECT) {
+        int c = nextNonWhitespace(true);
+        switch (c) {
+          case '}':
+            return peeked = PEEKED_END_OBJECT;
+          case ';':
+            checkLenient(); // fall-through
+          case ',':
+            break;
+          default:
+            throw syntaxError("Unterminated object");
+        }
+      }
+      int c = nextNonWhitespace(true);
+      switch (c) {
+        case '"':
+          return peeked = PEEKED_DOUBLE_QUOTED_NAME;
+        case '\'':
+          checkLenient();
+          return peeked = PEEKED_SINGLE_QUOTED_NAME;
+        case '}':
+          if (peekStack != JsonScope.NONEMPTY_OBJECT) {
+            return peeked = PEEKED_END_OBJECT;
+          } else {
+            throw syntaxError("Expected name");
+          }
+        default:
+          checkLenient();
+          pos--; // Don't consume the first character in an unquoted string.
+          if (isLiteral(c)) {
+            return peeked = PEEKED_UNQUOTED_NAME;
+          } else {
+            throw syntaxError("Expected name");
+          }
+      }
+    } else if (peekStack == JsonScope.DANGLING_NAME) {
+      stack[stackSize - 1] = JsonScope.NONEMPTY_OBJECT;
+      // Look for a colon before the value.
+      int c = nextNonWhitespace(true);
+      switch (c) {
+        case ':':
+          break;
+        case '=':
+          checkLenient();
+          if ((pos < limit || fillBuffer(1)) && buffer[pos] == '>') {
+            pos++;
+          }
+          break;
+        default:
+          throw syntaxError("Expected ':'");
+      }
+    } else if (peekStack == JsonScope.EMPTY_DOCUMENT) {
+      if (lenient) {
+        consumeNonExecutePrefix();
+      }
+      stack[stackSize - 1] = JsonScope.NONEMPTY_DOCUMENT;
+      if (jsonLines) {
+        // JSON Lines without values are empty
+        if (nextNonWhitespace(false) == -1) {
+          return peeked = PEEKED_EOF;
+        }
+        pos--;
+      }
+    } else if (peekStack == JsonScope.NONEMPTY_DOCUMENT) {
+      final int line = lineNumber;
+      int c = nextNonWhitespace(false);
+      if (c == -1) {
+        return peeked = PEEKED_EOF;
+      } else {
+        if (!jsonLines) {
+          checkLenient();
+        } else if (lineNumber == line) {
+          throw syntaxError("Expected new line between JSON Lines values");
+        }
+        pos--;
+      }
+    } else if (peekStack == JsonScope.CLOSED) {
+      throw new IllegalStateException("JsonReader is closed");
+    }
+
+    int c = nextNonWhitespace(true);
+    switch (c) {
+      case ']':
+        if (peekStack == JsonScope.EMPTY_ARRAY) {
+          return peeked = PEEKED_END_ARRAY;
+        }
+        // fall-through to handle ",]"
+      case ';':
+      case ',':
+        // In lenient mode, a 0-length literal in an array means 'null'.
+        if (peekStack == JsonScope.EMPTY_ARRAY || peekStack == JsonScope.NONEMPTY_ARRAY) {
+          checkLenient();
+          pos--;
+          return peeked = PEEKED_NULL;
+        } else {
+          throw syntaxError("Unexpected value");
+        }
+      case '\'':
+        checkLenient();
+        return peeked = PEEKED_SINGLE_QUOTED;
+      case '"':
+        return peeked = PEEKED_DOUBLE_QUOTED;
+      case '[':
+        return peeked = PEEKED_BEGIN_ARRAY;
+      case '{':
+        return peeked = PEEKED_BEGIN_OBJECT;
+      default:
+        pos--; // Don't consume the first character in a literal value.
+    }
+
+    int result = peekKeyword();
+    if (result != PEEKED_NONE) {
+      return result;
+    }
+
+    result = peekNumber();
+    if (result != PEEKED_NONE) {
+      return result;
+    }
+
+    if (!isLiteral(buffer[pos])) {
+      throw syntaxError("Expected value");
+    }
+
+    checkLenient();
+    return peeked = PEEKED_UNQUOTED;
+  }
+
+  private int peekKeyword() throws IOException {
+    // Figure out which keyword we're matching against by its first character.
+    int c = buffer[pos];
+    String keyword;
+    String keywordUpper;
+    int peeking;
+    if (c == 't' || c == 'T') {
+      keyword = "true";
+      keywordUpper = "TRUE";
+      peeking = PEEKED_TRUE;
+    } else if (c == 'f' || c == 'F') {
+      keyword = "false";
+      keywordUpper = "FALSE";
+      peeking = PEEKED_FALSE;
+    } else if (c == 'n' || c == 'N') {
+      keyword = "null";
+      keywordUpper = "NULL";
+      peeking = PEEKED_NULL;
+    } else {
+      return PEEKED_NONE;
+    }
+
+    // Confirm that chars [1..length) match the keyword.
+    int length = keyword.length();
+    for (int i = 1; i < length; i++) {
+      if (pos + i >= limit && !fillBuffer(i + 1)) {
+        return PEEKED_NONE;
+      }
+      c = buffer[pos + i];
+      if (c != keyword.charAt(i) && c != keywordUpper.charAt(i)) {
+        return PEEKED_NONE;
+      }
+    }
+
+    if ((pos + length < limit || fillBuffer(length + 1)) && isLiteral(buffer[pos + length])) {
+      return PEEKED_NONE; // Don't match trues, falsey or nullsoft!
+    }
+
+    // We've found the keyword followed either by EOF or by a non-literal character.
+    pos += length;
+    return peeked = peeking;
+  }
+
+  private int peekNumber() throws IOException {
+    // Like nextNonWhitespace, this uses locals 'p' and 'l' to save inner-loop field access.
+    byte[] buffer = this.buffer;
+    int p = pos;
+    int l = limit;
+
+    long value = 0; // Negative to accommodate Long.MIN_VALUE more easily.
+    boolean negative = false;
+    boolean fitsInLong = true;
+    int last = NUMBER_CHAR_NONE;
+
+    int i = 0;
+
+    charactersOfNumber:
+    for (; true; i++) {
+      if (p + i == l) {
+        if (i == buffer.length) {
+          // Though this looks like a well-formed number, it's too long to continue reading. Give up
+          // and let the application handle this as an unquoted literal.
+          return PEEKED_NONE;
+        }
+        if (!fillBuffer(i + 1)) {
+          break;
+        }
+        p = pos;
+        l = limit;
+      }
+
+      int c = buffer[p + i];
+      switch (c) {
+        case '-':
+          if (last == NUMBER_CHAR_NONE) {
+            negative = true;
+            last = NUMBER_CHAR_SIGN;
+            continue;
+          } else if (last == NUMBER_CHAR_EXP_E) {
+            last = NUMBER_CHAR_EXP_SIGN;
+            continue;
+          }
+          return PEEKED_NONE;
+
+        case '+':
+          if (last == NUMBER_CHAR_EXP_E) {
+            last = NUMBER_CHAR_EXP_SIGN;
+            continue;
+          }
+          return PEEKED_NONE;
+
+        case 'e':
+        case 'E':
+          if (last == NUMBER_CHAR_DIGIT || last == NUMBER_CHAR_FRACTION_DIGIT) {
+            last = NUMBER_CHAR_EXP_E;
+            continue;
+          }
+          return PEEKED_NONE;
+
+        case '.':
+          if (last == NUMBER_CHAR_DIGIT) {
+            last = NUMBER_CHAR_DECIMAL;
+            continue;
+          }
+          return PEEKED_NONE;
+
+        default:
+          if (c < '0' || c > '9') {
+            if (!isLiteral(c)) {
+              break charactersOfNumber;
+            }
+            return PEEKED_NONE;
+          }
+          if (last == NUMBER_CHAR_SIGN || last == NUMBER_CHAR_NONE) {
+            value = -(c - '0');
+            last = NUMBER_CHAR_DIGIT;
+          } else if (last == NUMBER_CHAR_DIGIT) {
+            if (value == 0) {
+              return PEEKED_NONE; // Leading '0' prefix is not allowed (since it could be octal).
+            }
+            long newValue = value * 10 - (c - '0');
+            fitsInLong &=
+                value > MIN_INCOMPLETE_INTEGER
+                    || (value == MIN_INCOMPLETE_INTEGER && newValue < value);
+            value = newValue;
+          } else if (last == NUMBER_CHAR_DECIMAL) {
+            last = NUMBER_CHAR_FRACTION_DIGIT;
+          } else if (last == NUMBER_CHAR_EXP_E || last == NUMBER_CHAR_EXP_SIGN) {
+            last = NUMBER_CHAR_EXP_DIGIT;
+          }
+      }
+    }
+
+    // We've read a complete number. Decide if it's a PEEKED_LONG or a PEEKED_NUMBER.
+    if (last == NUMBER_CHAR_DIGIT
+        && fitsInLong
+        && (value != Long.MIN_VALUE || negative)
+        && (value != 0 || false == negative)) {
+      peekedLong = negative ? value : -value;
+      pos += i;
+      return peeked = PEEKED_LONG;
+    } else if (last == NUMBER_CHAR_DIGIT
+        || last == NUMBER_CHAR_FRACTION_DIGIT
+        || last == NUMBER_CHAR_EXP_DIGIT) {
+      peekedNumberLength = i;
+      return peeked = PEEKED_NUMBER;
+    } else {
+      return PEEKED_NONE;
+    }
+  }
+
+  private boolean isLiteral(int c) throws IOException {
+    switch (c) {
+      case '/':
+      case '\\':
+      case ';':
+      case '#':
+      case '=':
+        checkLenient(); // fall-through
+      case '{':
+      case '}':
+      case '[':
+      case ']':
+      case ':':
+      case ',':
+      case ' ':
+      case '\t':
+      case '\f':
+      case '\r':
+      case '\n':
+        return false;
+      default:
+        return true;
+    }
+  }
+
+  /**
+   * Returns the next token, a {@link JsonToken#NAME property name}, and consumes it.
+   *
+   * @throws java.io.IOException if the next token in the stream is not a property name.
+   */
+  public String nextName() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    String result;
+    if (p == PEEKED_UNQUOTED_NAME) {
+      result = nextUnquotedValue();
+    } else if (p == PEEKED_SINGLE_QUOTED_NAME) {
+      result = nextQuotedValue('\'');
+    } else if (p == PEEKED_DOUBLE_QUOTED_NAME) {
+      result = nextQuotedValue('"');
+    } else {
+      throw new IllegalStateException("Expected a name but was " + peek() + locationString());
+    }
+    peeked = PEEKED_NONE;
+    pathName(result);
+    return result;
+  }
+
+  /** Consumes the next name, and decodes it into {@link #nameBuffer}. */
+  void readName() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    if (p == PEEKED_DOUBLE_QUOTED_NAME) {
+      readQuotedName('"');
+    } else if (p == PEEKED_SINGLE_QUOTED_NAME) {
+      readQuotedName('\'');
+    } else if (p == PEEKED_UNQUOTED_NAME) {
+      String name = nextUnquotedValue();
+      int length = name.length();
+      if (length > nameBuffer.length) {
+        nameBuffer = new char[length];
+      }
+      name.getChars(0, length, nameBuffer, 0);
+      nameLength = length;
+    } else {
+      throw new IllegalStateException("Expected a name but was " + peek() + locationString());
+    }
+    nameChars = nameBuffer;
+    nameOffset = 0;
+    peeked = PEEKED_NONE;
+    pathNamePending();
+  }
+
+  /**
+   * Reads quoted name into {@link #nameBuffer}. The opening quote should have already been read.
+   * This consumes the closing quote.
+   */
+  private void readQuotedName(char quote) throws IOException {
+    nameBuffer = readQuotedChars(quote, nameBuffer);
+    nameLength = decodedLength;
+  }
+
+  /**
+   * Reads quoted string into {@code chars}. The opening quote should have already been read.
+   * This consumes the closing quote. The number of read characters is stored in
+   * {@link #decodedLength}.
+   *
+   * @return {@code chars} or its grown copy, holding read characters
+   */
+  private char[] readQuotedChars(char quote, char[] chars) throws IOException {
+    // Fast path - ASCII string without escapes, widen bytes to chars
+    final byte[] buffer = this.buffer;
+    int length = 0;
+    int p = pos;
+    for (int l = limit; p < l; p++) {
+      int c = buffer[p];
+      if (c == quote) {
+        decodedLength = length;
+        pos = p + 1;
+        return chars;
+      } else if (c < 0 || c == '\\' || c == '\n') {
+        break;
+      }
+
+      if (length == chars.length) {
+        chars = Arrays.copyOf(chars, length * 2);
+      }
+      chars[length++] = (char) c;
+    }
+
+    pos = p;
+    return decodeQuotedValue(quote, chars, length);
+  }
+
+  /** Consumes the next string value, and decodes it into {@link #valueBuffer}. */
+  void readString() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    final char quote;
+    if (p == PEEKED_DOUBLE_QUOTED) {
+      quote = '"';
+    } else if (p == PEEKED_SINGLE_QUOTED) {
+      quote = '\'';
+    } else {
+      // Other representations are rare, read them as string
+      setValue(nextString());
+      return;
+    }
+
+    char[] chars = valueBuffer;
+    if (chars == null) {
+      chars = new char[64];
+    }
+    valueBuffer = chars = readQuotedChars(quote, chars);
+    valueChars = chars;
+    valueOffset = 0;
+    valueLength = decodedLength;
+    peeked = PEEKED_NONE;
+    advancePath();
+  }
+
+  /**
+   * Decodes UTF-8 string up to {@code quote}, unescaping any character escape sequences, and
+   * appends it to {@code chars} starting at {@code length}. The opening quote should have already
+   * been read. This consumes the closing quote. The total number of decoded characters is stored
+   * in {@link #decodedLength}.
+   *
+   * @return {@code chars} or its grown copy, holding decoded characters
+   */
+  private char[] decodeQuotedValue(char quote, char[] chars, int length) throws IOException {
+    // Like nextNonWhitespace, this uses locals 'p' and 'l' to save inner-loop field access.
+    final byte[] buffer = this.buffer;
+    while (true) {
+      int p = pos;
+      int l = limit;
+      while (p < l) {
+        int c = buffer[p];
+
+        if (c == quote) {
+          pos = p + 1;
+          decodedLength = length;
+          return chars;
+        }
+
+        // Every byte decodes to at most 2 chars
+        if (length + 2 > chars.length) {
+          chars = Arrays.copyOf(chars, Math.max(chars.length * 2, 16));
+        }
+
+        if (c >= 0) {
+          p++;
+          if (c == '\\') {
+            pos = p;
+            chars[length++] = readEscapeCharacter();
+            p = pos;
+            l = limit;
+            continue;
+          } else if (c == '\n') {
+            lineNumber++;
+            lineStart = p;
+          }
+          chars[length++] = (char) c;
+          continue;
+        }
+
+        // Multi-byte sequence, load it whole
+        final int sequenceLength = utf8SequenceLength(c);
+        if (p + sequenceLength > l) {
+          pos = p;
+          if (!fillBuffer(sequenceLength)) {
+            throw syntaxError("Unterminated string");
+          }
+          p = pos;
+          l = limit;
+        }
+
+        int codePoint = c & (0x7F >> sequenceLength);
+        for (int i = 1; i < sequenceLength; i++) {
+          final int continuation = buffer[p + i];
+          if ((continuation & 0xC0) != 0x80) {
+            pos = p;
+            throw syntaxError("Malformed UTF-8 sequence");
+          }
+          codePoint = (codePoint << 6) | (continuation & 0x3F);
+        }
+
+        if (codePoint < MIN_CODE_POINTS[sequenceLength] || codePoint > Character.MAX_CODE_POINT) {
+          pos = p;
+          throw syntaxError("Malformed UTF-8 sequence");
+        } else if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+          chars[length++] = Character.highSurrogate(codePoint);
+          chars[length++] = Character.lowSurrogate(codePoint);
+        } else {
+          chars[length++] = (char) codePoint;
+        }
+        p += sequenceLength;
+      }
+
+      pos = p;
+      if (!fillBuffer(1)) {
+        throw syntaxError("Unterminated string");
+      }
+    }
+  }
+
+  /** Returns length of UTF-8 sequence starting with given (non ASCII) byte. */
+  private int utf8SequenceLength(int leadingByte) throws IOException {
+    if ((leadingByte & 0xE0) == 0xC0) {
+      return 2;
+    } else if ((leadingByte & 0xF0) == 0xE0) {
+      return 3;
+    } else if ((leadingByte & 0xF8) == 0xF0) {
+      return 4;
+    } else {
+      throw syntaxError("Malformed UTF-8 sequence");
+    }
+  }
+
+  /**
+   * Returns the {@link JsonToken#STRING string} value of the next token, consuming it. If the next
+   * token is a number, this method will return its string form.
+   *
+   * @throws IllegalStateException if the next token is not a string or if this reader is closed.
+   */
+  public String nextString() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    String result;
+    if (p == PEEKED_UNQUOTED) {
+      result = nextUnquotedValue();
+    } else if (p == PEEKED_SINGLE_QUOTED) {
+      result = nextQuotedValue('\'');
+    } else if (p == PEEKED_DOUBLE_QUOTED) {
+      result = nextQuotedValue('"');
+    } else if (p == PEEKED_BUFFERED) {
+      result = peekedString;
+      peekedString = null;
+    } else if (p == PEEKED_LONG) {
+      result = Long.toString(peekedLong);
+    } else if (p == PEEKED_NUMBER) {
+      result = asciiString(pos, peekedNumberLength);
+      pos += peekedNumberLength;
+    } else {
+      throw new IllegalStateException("Expected a string but was " + peek() + locationString());
+    }
+    peeked = PEEKED_NONE;
+    advancePath();
+    return result;
+  }
+
+  @Override
+  public byte[] nextBase64() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+    if (p != PEEKED_DOUBLE_QUOTED && p != PEEKED_SINGLE_QUOTED) {
+      // Other representations of strings are not decoded in place
+      return decodeBase64(nextString());
+    }
+
+    final char quote = p == PEEKED_DOUBLE_QUOTED ? '"' : '\'';
+    final Base64.Decoder decoder = base64Decoder();
+    // Like nextNonWhitespace, this uses locals 'p' and 'l' to save inner-loop field access.
+    final byte[] buffer = this.buffer;
+    do {
+      p = pos;
+      int l = limit;
+      while (p < l) {
+        int c = buffer[p++];
+        if (c == quote) {
+          pos = p;
+          peeked = PEEKED_NONE;
+          advancePath();
+          return finishBase64(decoder);
+        } else if (c == '\\') {
+          pos = p;
+          c = readEscapeCharacter();
+          p = pos;
+          l = limit;
+        }
+        if (!decoder.decode(c)) {
+          pos = p;
+          decoder.finish();
+          throw syntaxError("Invalid Base64 value");
+        }
+      }
+      pos = p;
+    } while (fillBuffer(1));
+    decoder.finish();
+    throw syntaxError("Unterminated string");
+  }
+
+  /**
+   * Returns the {@link JsonToken#NUMBER double} value of the next token, consuming it. If the next
+   * token is a string, this method will attempt to parse it as a double using {@link
+   * Double#parseDouble(String)}.
+   *
+   * @throws IllegalStateException if the next token is not a literal value.
+   * @throws NumberFormatException if the next literal value cannot be parsed as a double, or is
+   *     non-finite.
+   */
+  public double nextDouble() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+
+    if (p == PEEKED_LONG) {
+      peeked = PEEKED_NONE;
+      advancePath();
+      return (double) peekedLong;
+    }
+
+    final double result;
+    if (p == PEEKED_NUMBER) {
+      result = FastDoubleParser.parse(buffer, pos, peekedNumberLength, false);
+      pos += peekedNumberLength;
+    } else {
+      result = Double.parseDouble(nextNumberString(p, "double"));
+    }
+
+    if (!lenient && (Double.isNaN(result) || Double.isInfinite(result))) {
+      throw new MalformedJsonException(
+          "JSON forbids NaN and infinities: " + result + locationString());
+    }
+    peekedString = null;
+    peeked = PEEKED_NONE;
+    advancePath();
+    return result;
+  }
+
+  public float nextFloat() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+
+    if (p == PEEKED_LONG) {
+      peeked = PEEKED_NONE;
+      advancePath();
+      return (float) peekedLong;
+    }
+
+    final float result;
+    if (p == PEEKED_NUMBER) {
+      result = (float) FastDoubleParser.parse(buffer, pos, peekedNumberLength, true);
+      pos += peekedNumberLength;
+    } else {
+      result = Float.parseFloat(nextNumberString(p, "float"));
+    }
+
+    if (!lenient && (Float.isNaN(result) || Float.isInfinite(result))) {
+      throw new MalformedJsonException(
+          "JSON forbids NaN and infinities: " + result + locationString());
+    }
+    peekedString = null;
+    peeked = PEEKED_NONE;
+    advancePath();
+    return result;
+  }
+
+  /**
+   * Reads number, which is quoted or was buffered, as string. Leaves reader in
+   * {@code PEEKED_BUFFERED} state, so if number can't be parsed, it can be read as string.
+   */
+  private String nextNumberString(int p, String expected) throws IOException {
+    if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED) {
+      peekedString = nextQuotedValue(p == PEEKED_SINGLE_QUOTED ? '\'' : '"');
+    } else if (p == PEEKED_UNQUOTED) {
+      peekedString = nextUnquotedValue();
+    } else if (p != PEEKED_BUFFERED) {
+      throw new IllegalStateException("Expected a " + expected + " but was " + peek()
+          + locationString());
+    }
+    peeked = PEEKED_BUFFERED;
+    return peekedString; // don't catch NumberFormatException of parsing.
+  }
+
+  /**
+   * Returns the {@link JsonToken#NUMBER long} value of the next token, consuming it. If the next
+   * token is a string, this method will attempt to parse it as a long. If the next token's numeric
+   * value cannot be exactly represented by a Java {@code long}, this method throws.
+   *
+   * @throws IllegalStateException if the next token is not a literal value.
+   * @throws NumberFormatException if the next literal value cannot be parsed as a number, or
+   *     exactly represented as a long.
+   */
+  public long nextLong() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+
+    if (p == PEEKED_LONG) {
+      peeked = PEEKED_NONE;
+      advancePath();
+      return peekedLong;
+    }
+
+    if (p == PEEKED_NUMBER) {
+      peekedString = asciiString(pos, peekedNumberLength);
+      pos += peekedNumberLength;
+    } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED || p == PEEKED_UNQUOTED) {
+      if (p == PEEKED_UNQUOTED) {
+        peekedString = nextUnquotedValue();
+      } else {
+        peekedString = nextQuotedValue(p == PEEKED_SINGLE_QUOTED ? '\'' : '"');
+      }
+      try {
+        long result = Long.parseLong(peekedString);
+        peeked = PEEKED_NONE;
+        advancePath();
+        return result;
+      } catch (NumberFormatException ignored) {
+        // Fall back to parse as a double below.
+      }
+    } else {
+      throw new IllegalStateException("Expected a long but was " + peek() + locationString());
+    }
+
+    peeked = PEEKED_BUFFERED;
+    double asDouble = Double.parseDouble(peekedString); // don't catch this NumberFormatException.
+    long result = (long) asDouble;
+    if (result != asDouble) { // Make sure no precision was lost casting to 'long'.
+      throw new NumberFormatException("Expected a long but was " + peekedString + locationString());
+    }
+    peekedString = null;
+    peeked = PEEKED_NONE;
+    advancePath();
+    return result;
+  }
+
+  /**
+   * Returns the string up to but not including {@code quote}, unescaping any character escape
+   * sequences encountered along the way. The opening quote should have already been read. This
+   * consumes the closing quote, but does not include it in the returned string.
+   *
+   * @param quote either ' or ".
+   * @throws NumberFormatException if any unicode escape sequences are malformed.
+   */
+  private String nextQuotedValue(char quote) throws IOException {
+    // Fast path - ASCII string without escapes is created directly from buffer
+    final byte[] buffer = this.buffer;
+    final int start = pos;
+    int p = start;
+    for (int l = limit; p < l; p++) {
+      int c = buffer[p];
+      if (c == quote) {
+        pos = p + 1;
+        return new String(buffer, start, p - start, StandardCharsets.ISO_8859_1);
+      } else if (c < 0 || c == '\\' || c == '\n') {
+        break;
+      }
+    }
+
+    // Copy ASCII prefix, and decode the rest
+    final int length = p - start;
+    char[] chars = stringBuffer;
+    if (length + 2 > chars.length) {
+      chars = new char[Math.max(chars.length * 2, length + 2)];
+    }
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) buffer[start + i];
+    }
+    pos = p;
+    chars = decodeQuotedValue(quote, chars, length);
+    stringBuffer = chars;
+    return new String(chars, 0, decodedLength);
+  }
+
+  /** Returns an unquoted value as a string. */
+  @SuppressWarnings("fallthrough")
+  private String nextUnquotedValue() throws IOException {
+    ByteArrayOutputStream builder = null;
+    int i = 0;
+
+    findNonLiteralCharacter:
+    while (true) {
+      for (; pos + i < limit; i++) {
+        switch (buffer[pos + i]) {
+          case '/':
+          case '\\':
+          case ';':
+          case '#':
+          case '=':
+            checkLenient(); // fall-through
+          case '{':
+          case '}':
+          case '[':
+          case ']':
+          case ':':
+          case ',':
+          case ' ':
+          case '\t':
+          case '\f':
+          case '\r':
+          case '\n':
+            break findNonLiteralCharacter;
+        }
+      }
+
+      // Attempt to load the entire literal into the buffer at once.
+      if (i < buffer.length) {
+        if (fillBuffer(i + 1)) {
+          continue;
+        } else {
+          break;
+        }
+      }
+
+      // use a byte stream when the value is too long. This is too long to be a number!
+      if (builder == null) {
+        builder = new ByteArrayOutputStream(Math.max(i, 16));
+      }
+      builder.write(buffer, pos, i);
+      pos += i;
+      i = 0;
+      if (!fillBuffer(1)) {
+        break;
+      }
+    }
+
+    String result;
+    if (builder == null) {
+      result = new String(buffer, pos, i, StandardCharsets.UTF_8);
+    } else {
+      builder.write(buffer, pos, i);
+      result = new String(builder.toByteArray(), StandardCharsets.UTF_8);
+    }
+    pos += i;
+    return result;
+  }
+
+  private void skipQuotedValue(char quote) throws IOException {
+    // Like nextNonWhitespace, this uses locals 'p' and 'l' to save inner-loop field access.
+    byte[] buffer = this.buffer;
+    do {
+      int p = pos;
+      int l = limit;
+      /* the index of the first character not yet appended to the builder. */
+      while (p < l) {
+        int c = buffer[p++];
+        if (c == quote) {
+          pos = p;
+          return;
+        } else if (c == '\\') {
+          pos = p;
+          readEscapeCharacter();
+          p = pos;
+          l = limit;
+        } else if (c == '\n') {
+          lineNumber++;
+          lineStart = p;
+        }
+      }
+      pos = p;
+    } while (fillBuffer(1));
+    throw syntaxError("Unterminated string");
+  }
+
+  private void skipUnquotedValue() throws IOException {
+    do {
+      int i = 0;
+      for (; pos + i < limit; i++) {
+        switch (buffer[pos + i]) {
+          case '/':
+          case '\\':
+          case ';':
+          case '#':
+          case '=':
+            checkLenient(); // fall-through
+          case '{':
+          case '}':
+          case '[':
+          case ']':
+          case ':':
+          case ',':
+          case ' ':
+          case '\t':
+          case '\f':
+          case '\r':
+          case '\n':
+            pos += i;
+            return;
+        }
+      }
+      pos += i;
+    } while (fillBuffer(1));
+  }
+
+  /**
+   * Returns the {@link JsonToken#NUMBER int} value of the next token, consuming it. If the next
+   * token is a string, this method will attempt to parse it as an int. If the next token's numeric
+   * value cannot be exactly represented by a Java {@code int}, this method throws.
+   *
+   * @throws IllegalStateException if the next token is not a literal value.
+   * @throws NumberFormatException if the next literal value cannot be parsed as a number, or
+   *     exactly represented as an int.
+   */
+  public int nextInt() throws IOException {
+    int p = peeked;
+    if (p == PEEKED_NONE) {
+      p = doPeek();
+    }
+
+    int result;
+    if (p == PEEKED_LONG) {
+      result = (int) peekedLong;
+      if (peekedLong != result) { // Make sure no precision was lost casting to 'int'.
+        throw new NumberFormatException("Expected an int but was " + peekedLong + locationString());
+      }
+      peeked = PEEKED_NONE;
+      advancePath();
+      return result;
+    }
+
+    if (p == PEEKED_NUMBER) {
+      peekedString = asciiString(pos, peekedNumberLength);
+      pos += peekedNumberLength;
+    } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_DOUBLE_QUOTED || p == PEEKED_UNQUOTED) {
+      if (p == PEEKED_UNQUOTED) {
+        peekedString = nextUnquotedValue();
+      } else {
+        peekedString = nextQuotedValue(p == PEEKED_SINGLE_QUOTED ? '\'' : '"');
+      }
+      try {
+        result = Integer.parseInt(peekedString);
+        peeked = PEEKED_NONE;
+        advancePath();
+        return result;
+      } catch (NumberFormatException ignored) {
+        // Fall back to parse as a double below.
+      }
+    } else {
+      throw new IllegalStateException("Expected an int but was " + peek() + locationString());
+    }
+
+    peeked = PEEKED_BUFFERED;
+    double asDouble = Double.parseDouble(peekedString); // don't catch this NumberFormatException.
+    result = (int) asDouble;
+    if (result != asDouble) { // Make sure no precision was lost casting to 'int'.
+      throw new NumberFormatException("Expected an int but was " + peekedString + locationString());
+    }
+    peekedString = null;
+    peeked = PEEKED_NONE;
+    advancePath();
+    return result;
+  }
+
+  /** Closes this JSON reader and the underlying {@link java.io.InputStream}, if any. */
+  public void close() throws IOException {
+    peeked = PEEKED_NONE;
+    stack[0] = JsonScope.CLOSED;
+    stackSize = 1;
+    if (in != null) {
+      in.close();
+    }
+  }
+
+  /**
+   * Skips the next value recursively. If it is an object or array, all nested elements are skipped.
+   * This method is intended for use when the JSON token stream contains unrecognized or unhandled
+   * values.
+   */
+  public void skipValue() throws IOException {
+    pathNameFromChars();
+    int count = 0;
+    do {
+      int p = peeked;
+      if (p == PEEKED_NONE) {
+        p = doPeek();
+      }
+
+      if (p == PEEKED_BEGIN_ARRAY) {
+        push(JsonScope.EMPTY_ARRAY);
+        count++;
+      } else if (p == PEEKED_BEGIN_OBJECT) {
+        push(JsonScope.EMPTY_OBJECT);
+        count++;
+      } else if (p == PEEKED_END_ARRAY) {
+        stackSize--;
+        count--;
+      } else if (p == PEEKED_END_OBJECT) {
+        stackSize--;
+        count--;
+      } else if (p == PEEKED_UNQUOTED_NAME || p == PEEKED_UNQUOTED) {
+        skipUnquotedValue();
+      } else if (p == PEEKED_SINGLE_QUOTED || p == PEEKED_SINGLE_QUOTED_NAME) {
+        skipQuotedValue('\'');
+      } else if (p == PEEKED_DOUBLE_QUOTED || p == PEEKED_DOUBLE_QUOTED_NAME) {
+        skipQuotedValue('"');
+      } else if (p == PEEKED_NUMBER) {
+        pos += peekedNumberLength;
+      }
+      peeked = PEEKED_NONE;
+    } while (count != 0);
+
+    advancePath();
+    pathName("null");
+  }
+
+  /**
+   * Returns true once {@code limit - pos >= minimum}. If the data is exhausted before that many
+   * bytes are available, this returns false. Wrapped arrays are never compacted nor refilled.
+   */
+  private boolean fillBuffer(int minimum) throws IOException {
+    if (in == null && source == null) {
+      return false;
+    }
+
+    byte[] buffer = this.buffer;
+    lineStart -= pos;
+    if (limit != pos) {
+      limit -= pos;
+      System.arraycopy(buffer, pos, buffer, 0, limit);
+    } else {
+      limit = 0;
+    }
+
+    pos = 0;
+    int total;
+    while ((total = read(buffer, limit, buffer.length - limit)) != -1) {
+      limit += total;
+
+      // if this is the first read, consume an optional byte order mark (BOM) if it exists
+      if (lineNumber == 0 && lineStart == 0 && pos == 0 && hasByteOrderMark(buffer, 0, limit)) {
+        pos += 3;
+        lineStart += 3;
+        minimum += 3;
+      }
+
+      if (limit >= minimum) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Reads bytes from stream or byte buffer, returns -1 at the end of input. */
+  private int read(byte[] buffer, int offset, int length) throws IOException {
+    if (in != null) {
+      return in.read(buffer, offset, length);
+    }
+
+    final int remaining = source.remaining();
+    if (remaining == 0) {
+      return -1;
+    }
+    length = Math.min(length, remaining);
+    source.get(buffer, offset, length);
+    return length;
+  }
+
+  private static boolean hasByteOrderMark(byte[] buffer, int offset, int limit) {
+    return limit - offset >= 3
+        && buffer[offset] == (byte) 0xEF
+        && buffer[offset + 1] == (byte) 0xBB
+        && buffer[offset + 2] == (byte) 0xBF;
+  }
+
+  /**
+   * Returns the next character in the stream that is neither whitespace nor a part of a comment.
+   * When this returns, the returned character is always at {@code buffer[pos-1]}; this means the
+   * caller can always push back the returned character by decrementing {@code pos}.
+   */
+  private int nextNonWhitespace(boolean throwOnEof) throws IOException {
+    /*
+     * This code uses ugly local variables 'p' and 'l' representing the 'pos'
+     * and 'limit' fields respectively. Using locals rather than fields saves
+     * a few field reads for each whitespace character in a pretty-printed
+     * document, resulting in a 5% speedup. We need to flush 'p' to its field
+     * before any (potentially indirect) call to fillBuffer() and reread both
+     * 'p' and 'l' after any (potentially indirect) call to the same method.
+     */
+    byte[] buffer = this.buffer;
+    int p = pos;
+    int l = limit;
+    while (true) {
+      if (p == l) {
+        pos = p;
+        if (!fillBuffer(1)) {
+          break;
+        }
+        p = pos;
+        l = limit;
+      }
+
+      int c = buffer[p++] & 0xFF;
+      if (c == '\n') {
+        lineNumber++;
+        lineStart = p;
+        continue;
+      } else if (c == ' ' || c == '\r' || c == '\t') {
+        continue;
+      }
+
+      if (c == '/') {
+        pos = p;
+        if (p == l) {
+          pos--; // push back '/' so it's still in the buffer when this method returns
+          boolean charsLoaded = fillBuffer(2);
+          pos++; // consume the '/' again
+          if (!charsLoaded) {
+            return c;
+          }
+        }
+
+        checkLenient();
+        int peek = buffer[pos];
+        switch (peek) {
+          case '*':
+            // skip a /* c-style comment */
+            pos++;
+            if (!skipTo("*/")) {
+              throw syntaxError("Unterminated comment");
+            }
+            p = pos + 2;
+            l = limit;
+            continue;
+
+          case '/':
+            // skip a // end-of-line comment
+            pos++;
+            skipToEndOfLine();
+            p = pos;
+            l = limit;
+            continue;
+
+          default:
+            return c;
+        }
+      } else if (c == '#') {
+        pos = p;
+        /*
+         * Skip a # hash end-of-line comment. The JSON RFC doesn't
+         * specify this behaviour, but it's required to parse
+         * existing documents. See http://b/2571423.
+         */
+        checkLenient();
+        skipToEndOfLine();
+        p = pos;
+        l = limit;
+      } else {
+        pos = p;
+        return c;
+      }
+    }
+    if (throwOnEof) {
+      throw new EOFException("End of input" + locationString());
+    } else {
+      return -1;
+    }
+  }
+
+  /**
+   * Advances the position until after the next newline character. If the line is terminated by
+   * "\r\n", the '\n' must be consumed as whitespace by the caller.
+   */
+  private void skipToEndOfLine() throws IOException {
+    while (pos < limit || fillBuffer(1)) {
+      int c = buffer[pos++];
+      if (c == '\n') {
+        lineNumber++;
+        lineStart = pos;
+        break;
+      } else if (c == '\r') {
+        break;
+      }
+    }
+  }
+
+  /** @param toFind a string to search for. Must not contain a newline. */
+  private boolean skipTo(String toFind) throws IOException {
+    int length = toFind.length();
+    outer:
+    for (; pos + length <= limit || fillBuffer(length); pos++) {
+      if (buffer[pos] == '\n') {
+        lineNumber++;
+        lineStart = pos + 1;
+        continue;
+      }
+      for (int c = 0; c < length; c++) {
+        if (buffer[pos + c] != toFind.charAt(c)) {
+          continue outer;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Unescapes the character identified by the character or characters that immediately follow a
+   * backslash. The backslash '\' should have already been read. This supports both unicode escapes
+   * "u000A" and two-character escapes "\n".
+   *
+   * @throws NumberFormatException if any unicode escape sequences are malformed.
+   */
+  private char readEscapeCharacter() throws IOException {
+    if (pos == limit && !fillBuffer(1)) {
+      throw syntaxError("Unterminated escape sequence");
+    }
+
+    char escaped = (char) buffer[pos++];
+    switch (escaped) {
+      case 'u':
+        if (pos + 4 > limit && !fillBuffer(4)) {
+          throw syntaxError("Unterminated escape sequence");
+        }
+        // Equivalent to Integer.parseInt(stringPool.get(buffer, pos, 4), 16);
+        char result = 0;
+        for (int i = pos, end = i + 4; i < end; i++) {
+          char c = (char) buffer[i];
+          result <<= 4;
+          if (c >= '0' && c <= '9') {
+            result += (c - '0');
+          } else if (c >= 'a' && c <= 'f') {
+            result += (c - 'a' + 10);
+          } else if (c >= 'A' && c <= 'F') {
+            result += (c - 'A' + 10);
+          } else {
+            throw new NumberFormatException("\\u" + asciiString(pos, 4));
+          }
+        }
+        pos += 4;
+        return result;
+
+      case 't':
+        return '\t';
+
+      case 'b':
+        return '\b';
+
+      case 'n':
+        return '\n';
+
+      case 'r':
+        return '\r';
+
+      case 'f':
+        return '\f';
+
+      case '\n':
+        lineNumber++;
+        lineStart = pos;
+        // fall-through
+
+      case '\'':
+      case '"':
+      case '\\':
+      case '/':
+        return escaped;
+      default:
+        // throw error when none of the above cases are matched
+        throw syntaxError("Invalid escape sequence");
+    }
+  }
+
+  /** Consumes the non-execute prefix if it exists. */
+  private void consumeNonExecutePrefix() throws IOException {
+    // fast forward through the leading whitespace
+    nextNonWhitespace(true);
+    pos--;
+
+    int p = pos;
+    if (p + 5 > limit && !fillBuffer(5)) {
+      return;
+    }
+
+    byte[] buf = buffer;
+    if (buf[p] != ')'
+        || buf[p + 1] != ']'
+        || buf[p + 2] != '}'
+        || buf[p + 3] != '\''
+        || buf[p + 4] != '\n') {
+      return; // not a security token!
+    }
+
+    // we consumed a security token!
+    pos += 5;
+  }
+}
+// CHECKSTYLE.ON
\ No newline at end of file
@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+// CHECKSTYLE.OFF
+package net.rsmogura.picoson.gson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import net.rsmogura.picoson.abi.JsonPropertyDescriptor;
+
+/**
+ * Writes a JSON encoded in UTF-8 directly as bytes, without {@link java.io.OutputStreamWriter}.
+ * <br />
+ * Output is encoded into reusable byte buffer, which is written to {@link OutputStream},
+ * {@link WritableByteChannel} or {@link ByteBuffer} when it's full, and on {@link #flush()} or
+ * {@link #close()}. Because of this, writer has to be flushed or closed after writing.
+ * <br />
+ * The writing rules and API are same as of {@link JsonWriter}.
+ */
+public class Utf8JsonWriter extends AbstractJsonWriter {
+  /** Size of default buffer. */
+  private static final int BUFFER_SIZE = 4096;
+
+  /** The longest UTF-8 sequence written by single step of encoding. */
+  private static final int MAX_SEQUENCE_LENGTH = 4;
+
+  /** Output stream, or {@code null}. */
+  private OutputStream out;
+
+  /** Output channel, or {@code null}. */
+  private WritableByteChannel channel;
+
+  /** Output byte buffer, or {@code null}. */
+  private ByteBuffer target;
+
+  private final byte[] buffer;
+  private int count;
+
+  /** Creates a new instance that writes a UTF-8 encoded JSON to {@code out}. */
+  public Utf8JsonWriter(OutputStream out) {
+    this(out, new byte[BUFFER_SIZE]);
+  }
+
+  /**
+   * Creates a new instance that writes a UTF-8 encoded JSON to {@code out}, encoding it into
+   * given buffer, which can be reused after this writer is flushed.
+   */
+  public Utf8JsonWriter(OutputStream out, byte[] buffer) {
+    this.buffer = checkBuffer(buffer);
+    reset(out);
+  }
+
+  /** Creates a new instance that writes a UTF-8 encoded JSON to {@code channel}. */
+  public Utf8JsonWriter(WritableByteChannel channel) {
+    this.buffer = new byte[BUFFER_SIZE];
+    reset(channel);
+  }
+
+  /**
+   * Creates a new instance that puts a UTF-8 encoded JSON into {@code target}, starting at its
+   * position. If there's not enough space remaining in target, flushing fails with
+   * {@link IOException}.
+   */
+  public Utf8JsonWriter(ByteBuffer target) {
+    this.buffer = new byte[BUFFER_SIZE];
+    reset(target);
+  }
+
+  /**
+   * Resets this writer to write new UTF-8 encoded JSON document to {@code out}. Buffer of this
+   * writer is reused. Data not flushed are discarded, and the previous output is not closed.
+   */
+  public void reset(OutputStream out) {
+    if (out == null) {
+      throw new NullPointerException("out == null");
+    }
+    detach();
+    this.out = out;
+  }
+
+  /** Resets this writer to write new UTF-8 encoded JSON document to {@code channel}. */
+  public void reset(WritableByteChannel channel) {
+    if (channel == null) {
+      throw new NullPointerException("channel == null");
+    }
+    detach();
+    this.channel = channel;
+  }
+
+  /** Resets this writer to put new UTF-8 encoded JSON document into {@code target}. */
+  public void reset(ByteBuffer target) {
+    if (target == null) {
+      throw new NullPointerException("target == null");
+    }
+    detach();
+    this.target = target;
+  }
+
+  @Override
+  public void detach() {
+    resetState();
+    out = null;
+    channel = null;
+    target = null;
+    count = 0;
+  }
+
+  private static byte[] checkBuffer(byte[] buffer) {
+    if (buffer.length < MAX_SEQUENCE_LENGTH) {
+      throw new IllegalArgumentException("Buffer too small: " + buffer.length);
+    }
+    return buffer;
+  }
+
+  void write(char c) throws IOException {
+    if (count == buffer.length) {
+      flushBuffer();
+    }
+    buffer[count++] = (byte) c;
+  }
+
+  void write(String value) throws IOException {
+    encode(value, 0, value.length());
+  }
+
+  void string(String value) throws IOException {
+    String[] replacements = htmlSafe ? HTML_SAFE_REPLACEMENT_CHARS : REPLACEMENT_CHARS;
+    write('\"');
+    int last = 0;
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      String replacement;
+      if (c < 128) {
+        replacement = replacements[c];
+        if (replacement == null) {
+          continue;
+        }
+      } else if (c == '\u2028') {
+        replacement = "\\u2028";
+      } else if (c == '\u2029') {
+        replacement = "\\u2029";
+      } else {
+        continue;
+      }
+      if (last < i) {
+        encode(value, last, i);
+      }
+      encode(replacement, 0, replacement.length());
+      last = i + 1;
+    }
+    if (last < length) {
+      encode(value, last, length);
+    }
+    write('\"');
+  }
+
+  void number(long value) throws IOException {
+    final int length = Digits.length(value);
+    if (!ensureCapacity(length)) {
+      // Caller's buffer is too small to format number in place
+      write(Long.toString(value));
+      return;
+    }
+    count += length;
+    Digits.format(value, buffer, count);
+  }
+
+  void number(double value) throws IOException {
+    if (ensureCapacity(Schubfach.MAX_LENGTH)) {
+      count = Schubfach.format(value, buffer, count);
+    } else {
+      write(Double.toString(value));
+    }
+  }
+
+  void number(float value) throws IOException {
+    if (ensureCapacity(Schubfach.MAX_LENGTH)) {
+      count = Schubfach.format(value, buffer, count);
+    } else {
+      write(Float.toString(value));
+    }
+  }
+
+  /**
+   * Flushes buffer if there's less than {@code length} bytes free.
+   *
+   * @return false if buffer is too small to hold {@code length} bytes
+   */
+  private boolean ensureCapacity(int length) throws IOException {
+    if (buffer.length - count < length) {
+      flushBuffer();
+      return buffer.length >= length;
+    }
+    return true;
+  }
+
+  void nameFragment(JsonPropertyDescriptor descriptor) throws IOException {
+    final byte[] fragment = descriptor.getNameFragmentBytes();
+    if (buffer.length - count >= fragment.length) {
+      System.arraycopy(fragment, 0, buffer, count, fragment.length);
+      count += fragment.length;
+      return;
+    }
+
+    // Fragment longer than free space, copy it in chunks
+    int offset = 0;
+    while (offset < fragment.length) {
+      if (count == buffer.length) {
+        flushBuffer();
+      }
+      final int length = Math.min(fragment.length - offset, buffer.length - count);
+      System.arraycopy(fragment, offset, buffer, count, length);
+      count += length;
+      offset += length;
+    }
+  }
+
+  void base64(byte[] value) throws IOException {
+    write('\"');
+    int offset = 0;
+    while (offset < value.length) {
+      if (buffer.length - count < 4) {
+        flushBuffer();
+      }
+      // Whole quanta fitting in free space, or the rest of value
+      final int length = Math.min(value.length - offset, (buffer.length - count) / 4 * 3);
+      count = Base64.encode(value, offset, length, buffer, count);
+      offset += length;
+    }
+    write('\"');
+  }
+
+  /**
+   * Encodes characters of {@code value}, from {@code start} to {@code end} (exclusive), to UTF-8.
+   * Unpaired surrogates are written as {@code '?'}, same as by {@link java.io.OutputStreamWriter}.
+   */
+  private void encode(String value, int start, int end) throws IOException {
+    // Like JsonReader, this uses locals to save inner-loop field access
+    final byte[] buffer = this.buffer;
+    int count = this.count;
+    int i = start;
+    while (i < end) {
+      if (buffer.length - count < MAX_SEQUENCE_LENGTH) {
+        this.count = count;
+        flushBuffer();
+        count = 0;
+      }
+
+      // ASCII fast path
+      int asciiEnd = Math.min(end, i + buffer.length - count);
+      char c;
+      while (i < asciiEnd && (c = value.charAt(i)) < 0x80) {
+        buffer[count++] = (byte) c;
+        i++;
+      }
+      if (i == asciiEnd || buffer.length - count < MAX_SEQUENCE_LENGTH) {
+        continue;
+      }
+
+      c = value.charAt(i++);
+      if (c < 0x800) {
+        buffer[count++] = (byte) (0xC0 | (c >> 6));
+        buffer[count++] = (byte) (0x80 | (c & 0x3F));
+      } else if (!Character.isSurrogate(c)) {
+        buffer[count++] = (byte) (0xE0 | (c >> 12));
+        buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buffer[count++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i < end
+          && Character.isLowSurrogate(value.charAt(i))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(i++));
+        buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else {
+        buffer[count++] = '?';
+      }
+    }
+    this.count = count;
+  }
+
+  /** Writes encoded bytes to the output. */
+  private void flushBuffer() throws IOException {
+    if (count == 0) {
+      return;
+    }
+
+    if (out != null) {
+      out.write(buffer, 0, count);
+    } else if (channel != null) {
+      final ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, count);
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+    } else {
+      if (target.remaining() < count) {
+        throw new IOException("Not enough space in target buffer, required " + count
+            + " but remaining " + target.remaining());
+      }
+      target.put(buffer, 0, count);
+    }
+    count = 0;
+  }
+
+  void flushOut() throws IOException {
+    flushBuffer();
+    if (out != null) {
+      out.flush();
+    }
+  }
+
+  void closeOut() throws IOException {
+    flushBuffer();
+    if (out != null) {
+      out.close();
+    } else if (channel != null) {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+public class JsonPoolTest {
+
+  @Test
+  public void testReaderReused() {
+    final JsonReader first = JsonPool.acquireReader(bytes("{\"a\": [1, 2"));
+    first.beginObject();
+    assertEquals("a", first.nextName());
+    first.beginArray();
+    assertEquals(1, first.nextInt());
+    JsonPool.release(first);
+
+    // Reader left in the middle of document, reads new one from start
+    final JsonReader second = JsonPool.acquireReader(bytes("{\"b\": \"value\"}"));
+    assertSame(first, second);
+    assertEquals("$", second.getPath());
+    second.beginObject();
+    assertEquals("b", second.nextName());
+    assertEquals("value", second.nextString());
+    second.endObject();
+    JsonPool.release(second);
+  }
+
+  @Test
+  public void testCharReaderReused() {
+    final JsonReader first = JsonPool.acquireReader(new StringReader("[true]"));
+    first.setLenient(true);
+    first.beginArray();
+    JsonPool.release(first);
+
+    final JsonReader second = JsonPool.acquireReader(new StringReader("[false]"));
+    assertSame(first, second);
+    assertEquals(false, second.isLenient());
+    second.beginArray();
+    assertEquals(false, second.nextBoolean());
+    second.endArray();
+    JsonPool.release(second);
+  }
+
+  @Test
+  public void testNestedAcquireCreatesReader() {
+    final JsonReader outer = JsonPool.acquireReader(bytes("[1]"));
+    final JsonReader inner = JsonPool.acquireReader(bytes("[2]"));
+    assertNotSame(outer, inner);
+    inner.beginArray();
+    assertEquals(2, inner.nextInt());
+    outer.beginArray();
+    assertEquals(1, outer.nextInt());
+    JsonPool.release(inner);
+    JsonPool.release(outer);
+  }
+
+  @Test
+  public void testResetChangesKindOfInput() {
+    final JsonReader reader = new JsonReader(new StringReader("[1]"));
+    reader.reset(bytes("[2]"));
+    reader.beginArray();
+    assertEquals(2, reader.nextInt());
+
+    reader.reset(new StringReader("[3]"));
+    reader.beginArray();
+    assertEquals(3, reader.nextInt());
+  }
+
+  @Test
+  public void testWriterReused() {
+    final StringWriter firstOut = new StringWriter();
+    final JsonWriter first = JsonPool.acquireWriter(firstOut);
+    first.beginArray().value(1);
+    JsonPool.release(first);
+
+    final StringWriter secondOut = new StringWriter();
+    final JsonWriter second = JsonPool.acquireWriter(secondOut);
+    assertSame(first, second);
+    second.beginObject().name("a").value(2).endObject().flush();
+    JsonPool.release(second);
+    assertEquals("{\"a\":2}", secondOut.toString());
+  }
+
+  @Test
+  public void testUtf8WriterReused() {
+    final ByteArrayOutputStream firstOut = new ByteArrayOutputStream();
+    final JsonWriter first = JsonPool.acquireWriter(firstOut);
+    first.beginArray().value("x").endArray().flush();
+    JsonPool.release(first);
+
+    final ByteArrayOutputStream secondOut = new ByteArrayOutputStream();
+    final JsonWriter second = JsonPool.acquireWriter(secondOut);
+    assertSame(first, second);
+    second.beginArray().value("y").endArray().flush();
+    JsonPool.release(second);
+    assertEquals("[\"x\"]", new String(firstOut.toByteArray(), StandardCharsets.UTF_8));
+    assertEquals("[\"y\"]", new String(secondOut.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  private static byte[] bytes(String json) {
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -16,10 +16,16 @@
 package net.rsmogura.picoson;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doReturn;
 
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import net.rsmogura.picoson.abi.JsonNameTable;
 import net.rsmogura.picoson.gson.JsonReader;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -39,4 +45,143 @@ public class JsonReaderTest {
     NumberFormatException nfe = assertThrows(NumberFormatException.class, () -> jr.nextByte());
     assertTrue(nfe.getMessage().contains("256"), "Expected message contains erroneous value");
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testPathTrackedByDefault() {
+    final net.rsmogura.picoson.JsonReader jr = new net.rsmogura.picoson.JsonReader(
+        "{\"a\": {\"b\": [1, \"x\"]}}".getBytes(StandardCharsets.UTF_8));
+    assertTrue(jr.isTrackPath());
+
+    jr.beginObject();
+    assertEquals("a", jr.nextName());
+    jr.beginObject();
+    assertEquals("b", jr.nextName());
+    jr.beginArray();
+    assertEquals(1, jr.nextInt());
+    assertEquals("$.a.b[1]", jr.getPath());
+
+    final IllegalStateException ise = assertThrows(IllegalStateException.class, jr::nextBoolean);
+    assertTrue(ise.getMessage().contains("$.a.b[1]"), ise.getMessage());
+  }
+
+  @Test
+  public void testPooledPathNotTracked() {
+    final net.rsmogura.picoson.JsonReader jr = JsonPool.acquireReader(
+        "{\"a\": {\"b\": [1, \"x\"]}}".getBytes(StandardCharsets.UTF_8));
+    try {
+      assertFalse(jr.isTrackPath());
+
+      jr.beginObject();
+      assertEquals("a", jr.nextName());
+      jr.beginObject();
+      assertEquals("b", jr.nextName());
+      jr.beginArray();
+      assertEquals(1, jr.nextInt());
+      assertEquals("$.*.*[*]", jr.getPath());
+    } finally {
+      JsonPool.release(jr);
+    }
+  }
+
+  @Test
+  public void testPathTracked() {
+    final net.rsmogura.picoson.JsonReader jr = new net.rsmogura.picoson.JsonReader(
+        new StringReader("{\"a\": {\"b\": [1, \"x\"]}, \"c\": true}"));
+    jr.setTrackPath(true);
+
+    jr.beginObject();
+    assertEquals("a", jr.nextName());
+    jr.beginObject();
+    assertEquals("b", jr.nextName());
+    jr.beginArray();
+    assertEquals(1, jr.nextInt());
+    assertEquals("$.a.b[1]", jr.getPath());
+
+    final IllegalStateException ise = assertThrows(IllegalStateException.class, jr::nextBoolean);
+    assertTrue(ise.getMessage().contains("$.a.b[1]"), ise.getMessage());
+    jr.skipValue();
+    jr.endArray();
+    jr.endObject();
+    assertEquals("c", jr.nextName());
+    assertEquals("$.c", jr.getPath());
+  }
+
+  @Test
+  public void testPathOfHashedNames() {
+    final String json = "{\"a\": {\"b\": 1, \"other\": [2, x]}}";
+    final String known = "b";
+    for (net.rsmogura.picoson.JsonReader jr : new net.rsmogura.picoson.JsonReader[] {
+        new net.rsmogura.picoson.JsonReader(new StringReader(json)),
+        new net.rsmogura.picoson.JsonReader(json.getBytes(StandardCharsets.UTF_8))}) {
+      jr.setTrackPath(true);
+      jr.beginObject();
+      jr.nextNameIndex(new JsonNameTable(new String[] {"a"}));
+      assertEquals("$.a", jr.getPath());
+      jr.beginObject();
+      jr.nextNameHash();
+      assertTrue(jr.isName(known));
+      assertEquals("$.a.b", jr.getPath());
+      assertEquals(1, jr.nextInt());
+
+      jr.nextNameHash();
+      assertFalse(jr.isName(known));
+      final RuntimeException e = assertThrows(RuntimeException.class, jr::skipValue);
+      assertTrue(e.getMessage().contains("$.a.other"), e.getMessage());
+    }
+  }
+
+  @Test
+  public void testTrackPathKeptOnReset() {
+    final net.rsmogura.picoson.JsonReader jr = new net.rsmogura.picoson.JsonReader(
+        new StringReader("[]"));
+    jr.setTrackPath(true);
+    jr.reset("[true]".getBytes(StandardCharsets.UTF_8));
+    assertTrue(jr.isTrackPath());
+    jr.beginArray();
+    assertTrue(jr.nextBoolean());
+    assertEquals("$[1]", jr.getPath());
+  }
+
+  @Test
+  public void testContinueArray() {
+    final net.rsmogura.picoson.JsonReader jr = new net.rsmogura.picoson.JsonReader(
+        " 1, \"x\"]".getBytes(StandardCharsets.UTF_8));
+    jr.setTrackPath(true);
+    jr.continueArray();
+    assertEquals(1, jr.nextInt());
+    assertEquals("x", jr.nextString());
+    assertEquals("$[2]", jr.getPath());
+    jr.endArray();
+
+    assertThrows(IllegalStateException.class, jr::continueArray);
+  }
+
+  @Test
+  public void testNextStringView() {
+    final StringBuilder longValue = new StringBuilder();
+    for (int i = 0; i < 3000; i++) {
+      longValue.append((char) ('a' + i % 26));
+    }
+    final String json = "[\"plain\", \"esc\\naped\", \"\u017c\u00f3\u0142w\", null, 12.5, \""
+        + longValue + "\", \"last\"]";
+
+    for (net.rsmogura.picoson.JsonReader jr : new net.rsmogura.picoson.JsonReader[] {
+        new net.rsmogura.picoson.JsonReader(new StringReader(json)),
+        new net.rsmogura.picoson.JsonReader(json.getBytes(StandardCharsets.UTF_8))}) {
+      jr.beginArray();
+      final CharSequence plain = jr.nextStringView();
+      assertEquals("plain", plain.toString());
+      assertEquals('l', plain.charAt(1));
+      assertEquals("la", plain.subSequence(1, 3).toString());
+      assertTrue("esc\naped".contentEquals(jr.nextStringView()));
+      assertEquals("\u017c\u00f3\u0142w", jr.nextStringView().toString());
+      assertNull(jr.nextStringView());
+      assertEquals("12.5", jr.nextStringView().toString());
+      assertEquals(longValue.toString(), jr.nextStringView().toString());
+      // View is reused
+      assertSame(plain, jr.nextStringView());
+      assertEquals("last", plain.toString());
+      jr.endArray();
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+public class StringCacheTest {
+
+  @Test
+  public void testRepeatedValueShared() {
+    final StringCache cache = new StringCache();
+    final String first = cache.get("status".toCharArray(), 0, 6);
+    final String second = cache.get("xstatusx".toCharArray(), 1, 6);
+    assertEquals("status", first);
+    assertSame(first, second);
+  }
+
+  @Test
+  public void testLongValueNotCached() {
+    final StringCache cache = new StringCache(16, 4);
+    final String first = cache.get("longer".toCharArray(), 0, 6);
+    assertEquals("longer", first);
+    assertNotSame(first, cache.get("longer".toCharArray(), 0, 6));
+  }
+
+  @Test
+  public void testUsedEntryGetsSecondChance() {
+    // Single entry, so all values collide
+    final StringCache cache = new StringCache(1, 32);
+    final String active = cache.get("active".toCharArray(), 0, 6);
+    assertSame(active, cache.get("active".toCharArray(), 0, 6));
+
+    // Used entry is kept on first miss, replaced on second one
+    assertEquals("closed", cache.get("closed".toCharArray(), 0, 6));
+    final String closed = cache.get("closed".toCharArray(), 0, 6);
+    assertNotSame(active, closed);
+    assertSame(closed, cache.get("closed".toCharArray(), 0, 6));
+    assertNotSame(active, cache.get("active".toCharArray(), 0, 6));
+  }
+
+  @Test
+  public void testReaderWithCache() {
+    final String json = "[\"new\", \"n\\u0065w\", null, 7, \"new\"]";
+    for (JsonReader reader : new JsonReader[] {
+        new JsonReader(new StringReader(json)),
+        new JsonReader(json.getBytes(StandardCharsets.UTF_8))}) {
+      reader.setStringCache(new StringCache());
+      reader.beginArray();
+      final String first = reader.nextString();
+      assertEquals("new", first);
+      assertSame(first, reader.nextString());
+      assertNull(reader.nextString());
+      assertEquals("7", reader.nextString());
+      assertSame(first, reader.nextCachedString());
+      reader.endArray();
+    }
+  }
+
+  @Test
+  public void testPooledReaderCacheCleared() {
+    final JsonReader reader = JsonPool.acquireReader(new StringReader("[]"));
+    reader.setStringCache(new StringCache());
+    JsonPool.release(reader);
+    assertNull(JsonPool.acquireReader(new StringReader("[]")).getStringCache());
+  }
+}
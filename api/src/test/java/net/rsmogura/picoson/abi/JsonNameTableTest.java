@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.abi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringReader;
+import net.rsmogura.picoson.JsonReader;
+import org.junit.jupiter.api.Test;
+
+public class JsonNameTableTest {
+  private final JsonNameTable nameTable =
+      new JsonNameTable(new String[] {"userName", "glbvs", "yacxa", "type"});
+
+  @Test
+  public void testIndexOf() {
+    final char[] chars = "-glbvs-yacxa-type-userNam".toCharArray();
+    assertEquals(1, nameTable.indexOf(chars, 1, 5));
+    assertEquals(2, nameTable.indexOf(chars, 7, 5));
+    assertEquals(3, nameTable.indexOf(chars, 13, 4));
+    assertEquals(JsonNameTable.NOT_FOUND, nameTable.indexOf(chars, 18, 7));
+    assertEquals(JsonNameTable.NOT_FOUND, nameTable.indexOf(chars, 0, 0));
+  }
+
+  @Test
+  public void testReaderNameIndex() {
+    // Padding places last name over read buffer boundary (1024 chars)
+    final StringBuilder padding = new StringBuilder();
+    for (int i = 0; i < 979; i++) {
+      padding.append(' ');
+    }
+    final JsonReader reader = new JsonReader(new StringReader("{\"type\": 1, \"t\\u0079pe\": 2,"
+        + " \"other\": 3," + padding + "\"userName\": 4}"));
+
+    reader.beginObject();
+    assertEquals(3, reader.nextNameIndex(nameTable));
+    reader.skipValue();
+    assertEquals(3, reader.nextNameIndex(nameTable));
+    reader.skipValue();
+    assertEquals(JsonNameTable.NOT_FOUND, reader.nextNameIndex(nameTable));
+    assertEquals("other", reader.currentName());
+    reader.skipValue();
+    assertEquals(0, reader.nextNameIndex(nameTable));
+    assertEquals(4, reader.nextInt());
+    reader.endObject();
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.abi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import net.rsmogura.picoson.JsonReader;
+import org.junit.jupiter.api.Test;
+
+public class PicosonAbiUtilsTest {
+
+  /** Hashes are compiled into classes, those values can't change. */
+  @Test
+  public void testHashIsStable() {
+    assertEquals(0x811c9dc5, PicosonAbiUtils.hashString(""));
+    assertEquals(0xe40c292c, PicosonAbiUtils.hashString("a"));
+    assertEquals(0xa1bc9a4f, PicosonAbiUtils.hashString("glbvs"));
+    assertEquals(0xa1bc9a4f, PicosonAbiUtils.hashString("yacxa"));
+  }
+
+  @Test
+  public void testHashCharsMatchesHashString() {
+    final char[] chars = "xuserNamex".toCharArray();
+    assertEquals(PicosonAbiUtils.hashString("userName"),
+        PicosonAbiUtils.hashChars(chars, 1, 8));
+  }
+
+  @Test
+  public void testReaderNameHash() {
+    final JsonReader reader = new JsonReader(
+        new StringReader("{\"userName\": 1, \"user\\u004eame\": 2, 'single': 3}"));
+    reader.beginObject();
+
+    assertEquals(PicosonAbiUtils.hashString("userName"), reader.nextNameHash());
+    assertTrue(reader.isName("userName"));
+    assertFalse(reader.isName("userNam"));
+    assertEquals(1, reader.nextInt());
+
+    // Escaped name
+    assertEquals(PicosonAbiUtils.hashString("userName"), reader.nextNameHash());
+    assertTrue(reader.isName("userName"));
+    assertEquals(2, reader.nextInt());
+
+    reader.setLenient(true);
+    assertEquals(PicosonAbiUtils.hashString("single"), reader.nextNameHash());
+    assertEquals("single", reader.currentName());
+    assertEquals(3, reader.nextInt());
+    reader.endObject();
+  }
+
+  @Test
+  public void testCollectUnknownProperty() {
+    final JsonReader reader = new JsonReader(new StringReader(
+        "{\"a\": {\"b\": [1, 2.5, 1e2, 12345678901234567890]}, \"c\": [true, null, \"s\"]}"));
+    reader.beginObject();
+
+    reader.nextNameHash();
+    final Map<String, Object> collected = PicosonAbiUtils.collectUnknownProperty(null, reader);
+    reader.nextNameHash();
+    assertSame(collected, PicosonAbiUtils.collectUnknownProperty(collected, reader));
+    reader.endObject();
+
+    final Map<String, Object> nested = new HashMap<>();
+    nested.put("b", Arrays.asList(1L, 2.5, 100.0, 12345678901234567890.0));
+    assertEquals(nested, collected.get("a"));
+    assertEquals(Arrays.asList(true, null, "s"), collected.get("c"));
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.gson;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import net.rsmogura.picoson.MalformedJsonException;
+import org.junit.jupiter.api.Test;
+
+public class Base64Test {
+
+  @Test
+  public void testSameAsJdk() {
+    final Random random = new Random(42);
+    final Base64.Decoder decoder = new Base64.Decoder();
+    for (int length = 0; length < 300; length++) {
+      final byte[] value = new byte[length];
+      random.nextBytes(value);
+      final String expected = java.util.Base64.getEncoder().encodeToString(value);
+      assertEquals(expected.length(), Base64.encodedLength(length));
+
+      final byte[] bytes = new byte[expected.length() + 1];
+      assertEquals(bytes.length, Base64.encode(value, 0, length, bytes, 1));
+      assertEquals(expected, new String(bytes, 1, expected.length(), StandardCharsets.US_ASCII));
+
+      final char[] chars = new char[expected.length()];
+      assertEquals(chars.length, Base64.encode(value, 0, length, chars, 0));
+      assertEquals(expected, new String(chars));
+
+      for (int i = 0; i < expected.length(); i++) {
+        assertEquals(true, decoder.decode(expected.charAt(i)));
+      }
+      assertArrayEquals(value, decoder.finish());
+
+      // Without padding
+      final String unpadded = java.util.Base64.getEncoder().withoutPadding().encodeToString(value);
+      for (int i = 0; i < unpadded.length(); i++) {
+        assertEquals(true, decoder.decode(unpadded.charAt(i)));
+      }
+      assertArrayEquals(value, decoder.finish());
+    }
+  }
+
+  @Test
+  public void testInvalid() {
+    final Base64.Decoder decoder = new Base64.Decoder();
+    assertEquals(false, decoder.decode('-'));
+    assertEquals(false, decoder.decode(-1));
+    assertEquals(false, decoder.decode('\u0105'));
+    decoder.finish();
+
+    // Padding after single character of quantum
+    assertEquals(true, decoder.decode('A'));
+    assertEquals(false, decoder.decode('='));
+    decoder.finish();
+
+    // Data after padding
+    assertEquals(true, decoder.decode('A'));
+    assertEquals(true, decoder.decode('A'));
+    assertEquals(true, decoder.decode('='));
+    assertEquals(false, decoder.decode('A'));
+    decoder.finish();
+
+    // Truncated
+    assertEquals(true, decoder.decode('A'));
+    assertNull(decoder.finish());
+    assertEquals(true, decoder.decode('A'));
+    assertEquals(true, decoder.decode('A'));
+    assertEquals(true, decoder.decode('='));
+    assertNull(decoder.finish());
+  }
+
+  @Test
+  public void testReadersAndWriters() throws IOException {
+    final byte[] value = new byte[5000];
+    new Random(42).nextBytes(value);
+    final String encoded = java.util.Base64.getEncoder().encodeToString(value);
+    final String json = "[\"" + encoded + "\",\"AQ\\u003d\\u003d\"]";
+
+    final StringWriter sw = new StringWriter();
+    final JsonWriter writer = new JsonWriter(sw);
+    writer.beginArray().base64Value(value).base64Value(new byte[] {1}).endArray().close();
+    assertEquals("[\"" + encoded + "\",\"AQ==\"]", sw.toString());
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final Utf8JsonWriter utf8Writer = new Utf8JsonWriter(out, new byte[10]);
+    utf8Writer.beginArray().base64Value(value).base64Value(new byte[] {1}).endArray().close();
+    assertEquals(sw.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+    for (AbstractJsonReader reader : new AbstractJsonReader[] {
+        new JsonReader(new StringReader(json)),
+        new Utf8JsonReader(json.getBytes(StandardCharsets.UTF_8))}) {
+      reader.beginArray();
+      assertArrayEquals(value, reader.nextBase64());
+      assertArrayEquals(new byte[] {1}, reader.nextBase64());
+      reader.endArray();
+    }
+
+    for (AbstractJsonReader reader : new AbstractJsonReader[] {
+        new JsonReader(new StringReader("[\"AQ-=\"]")),
+        new Utf8JsonReader("[\"AQ\u00e9=\"]".getBytes(StandardCharsets.UTF_8))}) {
+      reader.beginArray();
+      assertThrows(MalformedJsonException.class, reader::nextBase64);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class DigitsTest {
+
+  @Test
+  public void testSameAsToString() {
+    final Random random = new Random(42);
+    for (long value : new long[] {0, 1, -1, 9, 10, 99, 100, -10, -100, 12345,
+        Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE + 1L, Integer.MIN_VALUE - 1L,
+        Long.MAX_VALUE, Long.MIN_VALUE}) {
+      check(value);
+    }
+    long power = 1;
+    for (int i = 0; i < 19; i++, power *= 10) {
+      check(power);
+      check(power - 1);
+      check(-power);
+      check(1 - power);
+    }
+    for (int i = 0; i < 10000; i++) {
+      check(random.nextLong());
+      check(random.nextInt());
+    }
+  }
+
+  private static void check(long value) {
+    final String expected = Long.toString(value);
+    final int length = Digits.length(value);
+    assertEquals(expected.length(), length);
+
+    final byte[] bytes = new byte[length + 2];
+    Digits.format(value, bytes, length + 1);
+    assertEquals(expected, new String(bytes, 1, length, StandardCharsets.US_ASCII));
+
+    final char[] chars = new char[length + 2];
+    Digits.format(value, chars, length + 1);
+    assertEquals(expected, new String(chars, 1, length));
+  }
+}
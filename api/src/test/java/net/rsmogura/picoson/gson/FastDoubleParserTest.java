@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class FastDoubleParserTest {
+  private static final String[] NUMBERS = {
+      "0", "-0", "0.0", "-0.0", "1", "0.1", "-12.5", "1e10", "1E-10", "1e+5", "123456789012345678",
+      "9007199254740993", "9007199254740992.5", "12345678901234567890123", "0.000000000000000000001",
+      "1.7976931348623157e308", "1.7976931348623159e308", "1e309", "4.9e-324", "2.5e-324",
+      "2.4703282292062327e-324", "2.2250738585072011e-308", "1e-400", "3.4028235e38",
+      "3.4028236e38", "1.4e-45", "7.0e-46", "1.00000017881393432617187499",
+      "1.000000178813934326171875", "0.30000000000000004", "123.456e-7"
+  };
+
+  @Test
+  public void testSameAsJdk() {
+    for (String number : NUMBERS) {
+      check(number);
+    }
+
+    final Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      final double d = Double.longBitsToDouble(random.nextLong());
+      if (!Double.isNaN(d) && !Double.isInfinite(d)) {
+        check(Double.toString(d));
+        check(new BigDecimal(d).toString());
+      }
+      final float f = Float.intBitsToFloat(random.nextInt());
+      if (!Float.isNaN(f) && !Float.isInfinite(f)) {
+        check(Float.toString(f));
+      }
+      check(randomNumber(random));
+    }
+  }
+
+  /**
+   * Numbers exactly halfway between two floats, and next to them, can't be rounded twice.
+   */
+  @Test
+  public void testFloatHalfway() {
+    final Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      final float f = Math.abs(Float.intBitsToFloat(random.nextInt()));
+      if (Float.isNaN(f) || Float.isInfinite(f) || f == Float.MAX_VALUE) {
+        continue;
+      }
+      final BigDecimal halfway = new BigDecimal(f).add(new BigDecimal(Math.nextUp(f)))
+          .divide(BigDecimal.valueOf(2));
+      final BigDecimal epsilon = halfway.ulp();
+      check(halfway.toString());
+      check(halfway.add(epsilon).toString());
+      check(halfway.subtract(epsilon).toString());
+    }
+  }
+
+  @Test
+  public void testReader() throws Exception {
+    final JsonReader reader = new JsonReader(
+        new StringReader("[1.00000017881393432617187499, 0.1, 7, \"2.5\"]"));
+    reader.beginArray();
+    assertEquals(1.0000001f, reader.nextFloat());
+    assertEquals(0.1f, reader.nextFloat());
+    assertEquals(7f, reader.nextFloat());
+    assertEquals(2.5f, reader.nextFloat());
+    reader.endArray();
+  }
+
+  private static String randomNumber(Random random) {
+    final StringBuilder number = new StringBuilder();
+    if (random.nextBoolean()) {
+      number.append('-');
+    }
+    number.append(random.nextInt(10));
+    final int fractionDigits = random.nextInt(30);
+    if (fractionDigits > 0) {
+      number.append('.');
+      for (int i = 0; i < fractionDigits; i++) {
+        number.append(random.nextInt(10));
+      }
+    }
+    if (random.nextBoolean()) {
+      number.append(random.nextBoolean() ? 'e' : 'E').append(random.nextInt(700) - 350);
+    }
+    return number.toString();
+  }
+
+  private static void check(String number) {
+    final char[] chars = ("[" + number + "]").toCharArray();
+    final byte[] bytes = ("[" + number + "]").getBytes(StandardCharsets.US_ASCII);
+    final int length = number.length();
+
+    assertEquals(Double.parseDouble(number), FastDoubleParser.parse(chars, 1, length, false),
+        number);
+    assertEquals(Double.parseDouble(number), FastDoubleParser.parse(bytes, 1, length, false),
+        number);
+    assertEquals(Float.parseFloat(number), (float) FastDoubleParser.parse(chars, 1, length, true),
+        number);
+    assertEquals(Float.parseFloat(number), (float) FastDoubleParser.parse(bytes, 1, length, true),
+        number);
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.gson;
+
+import static net.rsmogura.picoson.gson.Utf8JsonReaderTest.JSON;
+import static net.rsmogura.picoson.gson.Utf8JsonReaderTest.readAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import net.rsmogura.picoson.MalformedJsonException;
+import org.junit.jupiter.api.Test;
+
+/** Reads files mapped in windows of different sizes, so tokens are split between windows. */
+public class MappedJsonReaderTest {
+  private static final int[] WINDOW_SIZES = {1, 7, 64, MappedJsonReader.DEFAULT_WINDOW_SIZE};
+
+  @Test
+  public void testSameAsCharReader() throws IOException {
+    final byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+    final byte[] prefixed = new byte[bytes.length + 3];
+    System.arraycopy(bytes, 0, prefixed, 3, bytes.length);
+    final String expected = readAll(new JsonReader(new StringReader(JSON)));
+
+    final Path file = write(prefixed);
+    try {
+      for (int windowSize : WINDOW_SIZES) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+          channel.position(3);
+          final MappedJsonReader reader = new MappedJsonReader(channel, windowSize);
+          reader.beginObject();
+          assertEquals(3, channel.position());
+          reader.reset(channel, windowSize);
+          // Closing reader closes channel
+          assertEquals(expected, readAll(reader));
+          assertFalse(channel.isOpen());
+        }
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testByteOrderMark() throws IOException {
+    final byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+    final byte[] marked = new byte[bytes.length + 3];
+    marked[0] = (byte) 0xEF;
+    marked[1] = (byte) 0xBB;
+    marked[2] = (byte) 0xBF;
+    System.arraycopy(bytes, 0, marked, 3, bytes.length);
+    final String expected = readAll(new JsonReader(new StringReader(JSON)));
+
+    final Path file = write(marked);
+    try {
+      for (int windowSize : WINDOW_SIZES) {
+        assertEquals(expected,
+            readAll(new MappedJsonReader(FileChannel.open(file), windowSize)));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testTokensLongerThanWindow() throws IOException {
+    final StringBuilder longValue = new StringBuilder();
+    for (int i = 0; i < 3000; i++) {
+      longValue.append((char) ('a' + i % 26));
+    }
+    final String json = "{\"" + longValue + "\": \"" + longValue + "\", \"number\": "
+        + "-1234.56789e-3, \"literal\": true}";
+
+    final Path file = write(json.getBytes(StandardCharsets.UTF_8));
+    try {
+      for (int windowSize : WINDOW_SIZES) {
+        final MappedJsonReader reader = new MappedJsonReader(FileChannel.open(file), windowSize);
+        reader.beginObject();
+        reader.nextNameHash();
+        assertTrue(reader.isName(longValue.toString()));
+        assertEquals(longValue.toString(), reader.nextString());
+        assertEquals("number", reader.nextName());
+        assertEquals(-1234.56789e-3, reader.nextDouble());
+        reader.nextNameHash();
+        assertTrue(reader.isName("literal"));
+        assertTrue(reader.nextBoolean());
+        reader.endObject();
+        reader.close();
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testLocationInLaterWindow() throws IOException {
+    final Path file = write("[1,\n22,\n x]".getBytes(StandardCharsets.UTF_8));
+    try {
+      for (int windowSize : WINDOW_SIZES) {
+        final MappedJsonReader reader = new MappedJsonReader(FileChannel.open(file), windowSize);
+        reader.beginArray();
+        assertEquals(1, reader.nextInt());
+        assertEquals(22, reader.nextInt());
+        final MalformedJsonException e =
+            assertThrows(MalformedJsonException.class, reader::nextInt);
+        assertTrue(e.getMessage().contains("line 3 column 2"), e.getMessage());
+        reader.close();
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static Path write(byte[] bytes) throws IOException {
+    final Path file = Files.createTempFile("picoson", ".json");
+    Files.write(file, bytes);
+    return file;
+  }
+}
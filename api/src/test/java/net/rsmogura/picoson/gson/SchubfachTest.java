@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class SchubfachTest {
+
+  @Test
+  public void testLayout() {
+    assertEquals("0.0", format(0.0));
+    assertEquals("-0.0", format(-0.0));
+    assertEquals("1.0", format(1.0));
+    assertEquals("-12.5", format(-12.5));
+    assertEquals("1234567.0", format(1234567.0));
+    assertEquals("1.0E7", format(1e7));
+    assertEquals("0.001", format(0.001));
+    assertEquals("1.0E-4", format(0.0001));
+    assertEquals("1.0E23", format(1e23));
+    assertEquals("4.9E-324", format(Double.MIN_VALUE));
+    assertEquals("1.7976931348623157E308", format(Double.MAX_VALUE));
+    assertEquals("NaN", format(Double.NaN));
+    assertEquals("-Infinity", format(Double.NEGATIVE_INFINITY));
+
+    assertEquals("0.1", format(0.1f));
+    assertEquals("3.4028235E38", format(Float.MAX_VALUE));
+    assertEquals("1.4E-45", format(Float.MIN_VALUE));
+  }
+
+  @Test
+  public void testShortestRoundTrip() {
+    final Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      final double d = Double.longBitsToDouble(random.nextLong());
+      if (!Double.isNaN(d) && !Double.isInfinite(d)) {
+        final String formatted = format(d);
+        assertEquals(d, Double.parseDouble(formatted), formatted);
+        // Double.toString isn't always the shortest before Java 19
+        assertTrue(digits(formatted) <= digits(Double.toString(d)), formatted);
+      }
+
+      final float f = Float.intBitsToFloat(random.nextInt());
+      if (!Float.isNaN(f) && !Float.isInfinite(f)) {
+        final String formatted = format(f);
+        assertEquals(f, Float.parseFloat(formatted), formatted);
+        assertTrue(digits(formatted) <= digits(Float.toString(f)), formatted);
+      }
+    }
+  }
+
+  private static int digits(String formatted) {
+    final int exponent = formatted.indexOf('E');
+    final String significand = exponent < 0 ? formatted : formatted.substring(0, exponent);
+    return significand.replace("-", "").replace(".", "")
+        .replaceAll("^0+", "").replaceAll("0+$", "").length();
+  }
+
+  private static String format(double value) {
+    final byte[] buffer = new byte[Schubfach.MAX_LENGTH];
+    return new String(buffer, 0, Schubfach.format(value, buffer, 0), StandardCharsets.US_ASCII);
+  }
+
+  private static String format(float value) {
+    final byte[] buffer = new byte[Schubfach.MAX_LENGTH];
+    return new String(buffer, 0, Schubfach.format(value, buffer, 0), StandardCharsets.US_ASCII);
+  }
+}
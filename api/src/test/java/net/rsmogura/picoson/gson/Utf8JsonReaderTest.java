@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import net.rsmogura.picoson.JsonToken;
+import net.rsmogura.picoson.MalformedJsonException;
+import net.rsmogura.picoson.abi.PicosonAbiUtils;
+import org.junit.jupiter.api.Test;
+
+public class Utf8JsonReaderTest {
+  static final String JSON = "{\"ascii\": \"value\", \"p\\u00f3\\u0142\": \"za\u017c\u00f3\u0142\u0107\","
+      + " \"\u017c\u00f3\u0142w\": [1, -2.5e3, true, null, \"\u20ac\\n\ud83d\ude00\"],"
+      + " \"skip\": {\"a\": [\"\u00e9\", {}]}, \"long\": 12345678901234}";
+
+  /** Reads same JSON by char reader and byte readers (with different sources), and compares. */
+  @Test
+  public void testSameAsCharReader() throws IOException {
+    final byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+    final byte[] padded = new byte[bytes.length + 4];
+    System.arraycopy(bytes, 0, padded, 2, bytes.length);
+
+    final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes).flip();
+
+    final String expected = readAll(new JsonReader(new StringReader(JSON)));
+    assertEquals(expected, readAll(new Utf8JsonReader(bytes)));
+    assertEquals(expected, readAll(new Utf8JsonReader(padded, 2, bytes.length)));
+    assertEquals(expected, readAll(new Utf8JsonReader(ByteBuffer.wrap(bytes))));
+    assertEquals(expected, readAll(new Utf8JsonReader(direct)));
+    assertEquals(0, direct.position());
+    assertEquals(expected, readAll(new Utf8JsonReader(new ByteArrayInputStream(bytes))));
+    // Sequences split between reads
+    assertEquals(expected, readAll(new Utf8JsonReader(new OneByteInputStream(bytes))));
+  }
+
+  @Test
+  public void testNameHash() throws IOException {
+    final Utf8JsonReader reader = new Utf8JsonReader(JSON.getBytes(StandardCharsets.UTF_8));
+    reader.beginObject();
+    assertEquals(PicosonAbiUtils.hashString("ascii"), reader.nextNameHash());
+    assertTrue(reader.isName("ascii"));
+    reader.skipValue();
+    assertEquals(PicosonAbiUtils.hashString("p\u00f3\u0142"), reader.nextNameHash());
+    assertTrue(reader.isName("p\u00f3\u0142"));
+    reader.skipValue();
+    assertEquals(PicosonAbiUtils.hashString("\u017c\u00f3\u0142w"), reader.nextNameHash());
+    assertEquals("\u017c\u00f3\u0142w", reader.currentName());
+  }
+
+  @Test
+  public void testByteOrderMark() throws IOException {
+    final byte[] bytes = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, '[', '1', ']'};
+    assertEquals("[1.0,]", readAll(new Utf8JsonReader(bytes)));
+    assertEquals("[1.0,]", readAll(new Utf8JsonReader(new ByteArrayInputStream(bytes))));
+  }
+
+  @Test
+  public void testMalformedUtf8() {
+    final byte[] bytes = {'[', '"', (byte) 0xC3, '"', ']'};
+    final Utf8JsonReader reader = new Utf8JsonReader(bytes);
+    assertThrows(MalformedJsonException.class, () -> readAll(reader));
+
+    // Overlong encoding of '/'
+    final byte[] overlong = {'[', '"', (byte) 0xC0, (byte) 0xAF, '"', ']'};
+    assertThrows(MalformedJsonException.class, () -> readAll(new Utf8JsonReader(overlong)));
+  }
+
+  /** Writes all tokens, to compare results of readers. */
+  static String readAll(AbstractJsonReader reader) throws IOException {
+    final StringBuilder result = new StringBuilder();
+    JsonToken token;
+    while ((token = reader.peek()) != JsonToken.END_DOCUMENT) {
+      switch (token) {
+        case BEGIN_OBJECT:
+          reader.beginObject();
+          result.append('{');
+          break;
+        case END_OBJECT:
+          reader.endObject();
+          result.append('}');
+          break;
+        case BEGIN_ARRAY:
+          reader.beginArray();
+          result.append('[');
+          break;
+        case END_ARRAY:
+          reader.endArray();
+          result.append(']');
+          break;
+        case NAME:
+          result.append(reader.nextName()).append(':');
+          break;
+        case NUMBER:
+          result.append(reader.nextDouble()).append(',');
+          break;
+        case BOOLEAN:
+          result.append(reader.nextBoolean()).append(',');
+          break;
+        case NULL:
+          reader.nextNull();
+          result.append("null,");
+          break;
+        default:
+          result.append(reader.nextString()).append(',');
+      }
+    }
+    reader.close();
+    return result.toString();
+  }
+
+  /** Returns one byte on every read. */
+  private static class OneByteInputStream extends InputStream {
+    private final byte[] bytes;
+    private int pos;
+
+    OneByteInputStream(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public int read() {
+      return pos < bytes.length ? bytes[pos++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (pos == bytes.length) {
+        return -1;
+      }
+      b[off] = bytes[pos++];
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.gson;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import net.rsmogura.picoson.abi.JsonPropertyDescriptor;
+import org.junit.jupiter.api.Test;
+
+public class Utf8JsonWriterTest {
+  /** Strings with 1 to 4 bytes UTF-8 sequences, escapes and unpaired surrogates. */
+  private static final String[] VALUES = {
+      "ascii", "", "quote\" backslash\\ tab\t", "za\u017c\u00f3\u0142\u0107", "\u20ac\u2028\u2029",
+      "emoji \ud83d\ude00", "unpaired \ud83d", "unpaired \ude00 low", "<html>&'="
+  };
+
+  @Test
+  public void testSameAsCharWriter() throws IOException {
+    for (boolean htmlSafe : new boolean[] {false, true}) {
+      final StringWriter chars = new StringWriter();
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      // Small buffer, to flush in the middle of values
+      final ByteArrayOutputStream smallBufferBytes = new ByteArrayOutputStream();
+
+      write(new JsonWriter(chars), htmlSafe);
+      write(new Utf8JsonWriter(bytes), htmlSafe);
+      write(new Utf8JsonWriter(smallBufferBytes, new byte[5]), htmlSafe);
+
+      final byte[] expected = encode(chars.toString());
+      assertArrayEquals(expected, bytes.toByteArray());
+      assertArrayEquals(expected, smallBufferBytes.toByteArray());
+    }
+  }
+
+  @Test
+  public void testChannelAndByteBuffer() throws IOException {
+    final ByteArrayOutputStream channelBytes = new ByteArrayOutputStream();
+    write(new Utf8JsonWriter(Channels.newChannel(channelBytes)), false);
+
+    final ByteBuffer target = ByteBuffer.allocate(1024);
+    write(new Utf8JsonWriter(target), false);
+
+    final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    write(new Utf8JsonWriter(expected), false);
+    assertArrayEquals(expected.toByteArray(), channelBytes.toByteArray());
+    assertArrayEquals(expected.toByteArray(), Arrays.copyOf(target.array(), target.position()));
+  }
+
+  @Test
+  public void testByteBufferOverflow() throws IOException {
+    final Utf8JsonWriter writer = new Utf8JsonWriter(ByteBuffer.allocate(4));
+    writer.beginArray().value("too long").endArray();
+    assertThrows(IOException.class, writer::flush);
+  }
+
+  @Test
+  public void testNotFlushedUntilRequested() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final Utf8JsonWriter writer = new Utf8JsonWriter(bytes);
+    writer.beginArray().value(1).endArray();
+    assertEquals(0, bytes.size());
+    writer.flush();
+    assertEquals("[1]", bytes.toString("UTF-8"));
+  }
+
+  @Test
+  public void testNameFragments() throws IOException {
+    for (String indent : new String[] {"", "  "}) {
+      for (boolean htmlSafe : new boolean[] {false, true}) {
+        for (boolean serializeNulls : new boolean[] {false, true}) {
+          final StringWriter expected = new StringWriter();
+          final StringWriter chars = new StringWriter();
+          final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+          writeNames(new JsonWriter(expected), indent, htmlSafe, serializeNulls, false);
+          writeNames(new JsonWriter(chars), indent, htmlSafe, serializeNulls, true);
+          writeNames(new Utf8JsonWriter(bytes, new byte[5]), indent, htmlSafe, serializeNulls,
+              true);
+
+          assertEquals(expected.toString(), chars.toString());
+          assertArrayEquals(encode(expected.toString()), bytes.toByteArray());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testContinueArray() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final Utf8JsonWriter writer = new Utf8JsonWriter(bytes);
+    writer.continueArray();
+    writer.value(1);
+    writer.beginObject().name("a").value("x").endObject();
+    writer.flush();
+    assertEquals("1,{\"a\":\"x\"}", new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+
+    assertThrows(IllegalStateException.class, writer::continueArray);
+  }
+
+  @Test
+  public void testJsonLines() throws IOException {
+    final StringWriter chars = new StringWriter();
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    for (AbstractJsonWriter writer : new AbstractJsonWriter[] {
+        new JsonWriter(chars), new Utf8JsonWriter(bytes)}) {
+      writer.setJsonLines(true);
+      writer.beginObject().name("a").value(1).endObject();
+      writer.value("x");
+      writer.beginArray().endArray();
+      writer.close();
+    }
+
+    assertEquals("{\"a\":1}\n\"x\"\n[]", chars.toString());
+    assertEquals(chars.toString(), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testNameFragment() {
+    assertEquals("\"name\":", new String(AbstractJsonWriter.nameFragment("name")));
+    assertEquals("\"q\\\"\\u2028\":", new String(AbstractJsonWriter.nameFragment("q\"\u2028")));
+  }
+
+  private static void writeNames(AbstractJsonWriter writer, String indent, boolean htmlSafe,
+      boolean serializeNulls, boolean useDescriptors) throws IOException {
+    writer.setIndent(indent);
+    writer.setHtmlSafe(htmlSafe);
+    writer.setSerializeNulls(serializeNulls);
+    writer.beginObject();
+    for (int i = 0; i < VALUES.length; i++) {
+      if (useDescriptors) {
+        writer.name(new JsonPropertyDescriptor(VALUES[i], "field" + i, i, Object.class, i,
+            Object.class));
+      } else {
+        writer.name(VALUES[i]);
+      }
+      if (i % 3 == 0) {
+        writer.nullValue();
+      } else if (i % 3 == 1) {
+        writer.beginArray().value(i).endArray();
+      } else {
+        writer.value(VALUES[i]);
+      }
+    }
+    writer.endObject();
+    writer.close();
+  }
+
+  private static void write(AbstractJsonWriter writer, boolean htmlSafe) throws IOException {
+    writer.setHtmlSafe(htmlSafe);
+    writer.beginObject();
+    for (int i = 0; i < VALUES.length; i++) {
+      writer.name(VALUES[i]).value(VALUES[VALUES.length - i - 1]);
+    }
+    writer.name("numbers").beginArray().value(1).value(-2.5).value(Long.MIN_VALUE).endArray();
+    writer.name("raw").jsonValue("{\"\u00f3\": true}");
+    writer.name("null").nullValue();
+    writer.endObject();
+    writer.close();
+  }
+
+  /** Encodes string same way as {@link OutputStreamWriter}. */
+  private static byte[] encode(String string) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStreamWriter writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+      writer.write(string);
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Collectors;
+import net.rsmogura.picoson.JsonReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.CompilerControl.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks reading array of random doubles, with values of different magnitudes.
+ */
+@CompilerControl(value = Mode.INLINE)
+@State(Scope.Benchmark)
+public class FloatingPointBenchmarks extends ParsersComparingBenchmark {
+  private static final int SIZE = 1000;
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private byte[] inputJsonBytes;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    final double[] doubles = new double[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      doubles[i] = random.nextDouble() * Math.pow(10, random.nextInt(20) - 10);
+    }
+    inputJsonBytes = Arrays.stream(doubles).mapToObj(Double::toString)
+        .collect(Collectors.joining(",", "[", "]"))
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  @Override
+  public void jackson(Blackhole blackhole) {
+    try {
+      blackhole.consume(objectMapper.readValue(inputJsonBytes, double[].class));
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Benchmark
+  @Override
+  public void picoson(Blackhole blackhole) {
+    JsonReader reader = new JsonReader(inputJsonBytes);
+    reader.beginArray();
+    while (reader.hasNext()) {
+      blackhole.consume(reader.nextDouble());
+    }
+    reader.endArray();
+  }
+
+  /**
+   * Reads same input as floats, rounded once from decimal.
+   */
+  @Benchmark
+  public void picosonFloats(Blackhole blackhole) {
+    JsonReader reader = new JsonReader(inputJsonBytes);
+    reader.beginArray();
+    while (reader.hasNext()) {
+      blackhole.consume(reader.nextFloat());
+    }
+    reader.endArray();
+  }
+
+  @Benchmark
+  @Override
+  public void gson(Blackhole blackhole) {
+    blackhole.consume(new Gson().fromJson(
+        new String(inputJsonBytes, StandardCharsets.UTF_8), double[].class));
+  }
+
+  @Override
+  public void gsonParseOnly(Blackhole blackhole) {
+
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.Random;
+import net.rsmogura.picoson.JsonWriter;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.CompilerControl.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks writing arrays of random doubles and floats, with values of different
+ * magnitudes.
+ */
+@CompilerControl(value = Mode.INLINE)
+@State(Scope.Benchmark)
+public class FloatingPointBenchmarksWrite extends ParsersComparingBenchmark {
+  private static final int SIZE = 1000;
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private double[] doubles;
+  private float[] floats;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    doubles = new double[SIZE];
+    floats = new float[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      doubles[i] = random.nextDouble() * Math.pow(10, random.nextInt(20) - 10);
+      floats[i] = (float) (random.nextFloat() * Math.pow(10, random.nextInt(10) - 5));
+    }
+  }
+
+  @Benchmark
+  @Override
+  public void jackson(Blackhole blackhole) {
+    try {
+      objectMapper.writeValue(new NullOutputStream(), doubles);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Benchmark
+  public void jacksonFloats(Blackhole blackhole) {
+    try {
+      objectMapper.writeValue(new NullOutputStream(), floats);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Benchmark
+  @Override
+  public void picoson(Blackhole blackhole) {
+    JsonWriter writer = new JsonWriter(new NullOutputStream());
+    writer.beginArray();
+    for (double value : doubles) {
+      writer.value(value);
+    }
+    writer.endArray();
+    writer.flush();
+  }
+
+  @Benchmark
+  public void picosonFloats(Blackhole blackhole) {
+    JsonWriter writer = new JsonWriter(new NullOutputStream());
+    writer.beginArray();
+    for (float value : floats) {
+      writer.value(value);
+    }
+    writer.endArray();
+    writer.flush();
+  }
+
+  /**
+   * Writes doubles formatted by {@link Double#toString(double)}, to compare with
+   * {@link #picoson(Blackhole)}.
+   */
+  @Benchmark
+  public void picosonDoubleToString(Blackhole blackhole) {
+    JsonWriter writer = new JsonWriter(new NullOutputStream());
+    writer.beginArray();
+    for (double value : doubles) {
+      writer.jsonValue(Double.toString(value));
+    }
+    writer.endArray();
+    writer.flush();
+  }
+
+  @Benchmark
+  @Override
+  public void gson(Blackhole blackhole) {
+    new Gson().toJson(doubles, double[].class, new OutputStreamWriter(new NullOutputStream()));
+  }
+
+  @Override
+  public void gsonParseOnly(Blackhole blackhole) {
+
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.benchmarks.samples.Shipment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares reading JSON Lines by splitting lines, and creating reader per line, with reading
+ * all lines by single reader, and with reading chunks of lines in parallel. Number of lines is
+ * set by <code>count</code> parameter, and number of threads of parallel read by
+ * <code>parallelism</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonLinesBenchmarks {
+  private static final JsonSupport<Shipment> jsonSupport = Json.jsonSupport(Shipment.class);
+
+  @Param("100000")
+  public int count;
+
+  @Param({"1", "2", "4"})
+  public int parallelism;
+
+  private byte[] json;
+
+  private ForkJoinPool pool;
+
+  @Setup
+  public void setUp() {
+    final StringBuilder lines = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      lines.append("{\"id\": ").append(i)
+          .append(", \"status\": \"shipped\", \"country\": \"PL\", \"carrier\": \"carrier-")
+          .append(i % 100).append("\"}\n");
+    }
+    json = lines.toString().getBytes(StandardCharsets.UTF_8);
+    pool = new ForkJoinPool(parallelism);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public long readerPerLine() throws IOException {
+    long sum = 0;
+    final BufferedReader in = new BufferedReader(
+        new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8));
+    String line;
+    while ((line = in.readLine()) != null) {
+      sum += jsonSupport.read(new JsonReader(line.getBytes(StandardCharsets.UTF_8))).getId();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long streamLines() {
+    return jsonSupport.streamLines(new JsonReader(json)).mapToLong(Shipment::getId).sum();
+  }
+
+  @Benchmark
+  public int readLinesParallel() {
+    return jsonSupport.readLinesParallel(ByteBuffer.wrap(json), pool).size();
+  }
+}
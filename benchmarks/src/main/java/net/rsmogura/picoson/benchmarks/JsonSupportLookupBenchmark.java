@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.abi.JsonSupportRegistry;
+import net.rsmogura.picoson.abi.Names;
+import net.rsmogura.picoson.benchmarks.samples.LargeObject;
+import net.rsmogura.picoson.benchmarks.samples.PartialObject;
+import net.rsmogura.picoson.benchmarks.samples.WideObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks cost of obtaining {@link JsonSupport} by {@link Json#jsonSupport(Class)}, with
+ * all available threads looking up the same classes. Classes belong to
+ * {@link net.rsmogura.picoson.benchmarks.samples.BenchmarksJsonModule}, so
+ * <code>moduleRegistry</code> uses generated module registry, while <code>classValue</code>
+ * looks up registered supports directly. The <code>concurrentHashMap</code> benchmark shows
+ * previous lookup, by cache keyed by class and filled reflectively.
+ */
+@State(Scope.Benchmark)
+@Threads(Threads.MAX)
+public class JsonSupportLookupBenchmark {
+  private static final ConcurrentHashMap<Class<?>, JsonSupport<?>> classToSupport =
+      new ConcurrentHashMap<>();
+
+  private static final Class<?>[] CLASSES = {
+      LargeObject.class, WideObject.class, PartialObject.class
+  };
+
+  @Benchmark
+  public void moduleRegistry(Blackhole blackhole) {
+    for (Class<?> clazz : CLASSES) {
+      blackhole.consume(Json.jsonSupport(clazz));
+    }
+  }
+
+  @Benchmark
+  public void classValue(Blackhole blackhole) {
+    for (Class<?> clazz : CLASSES) {
+      blackhole.consume(JsonSupportRegistry.lookup(clazz));
+    }
+  }
+
+  @Benchmark
+  public void concurrentHashMap(Blackhole blackhole) {
+    for (Class<?> clazz : CLASSES) {
+      blackhole.consume(
+          classToSupport.computeIfAbsent(clazz, JsonSupportLookupBenchmark::findReflectively));
+    }
+  }
+
+  private static JsonSupport<?> findReflectively(Class<?> clazz) {
+    try {
+      final Field jsonSupportHolder = clazz.getDeclaredField(Names.SUPPORT_CLASS_HOLDER);
+      jsonSupportHolder.setAccessible(true);
+      return (JsonSupport<?>) jsonSupportHolder.get(null);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
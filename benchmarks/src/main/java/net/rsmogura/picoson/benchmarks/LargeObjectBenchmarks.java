@@ -60,6 +60,9 @@ public class LargeObjectBenchmarks extends ParsersComparingBenchmark {
     }
   }
 
+  /**
+   * Reads in default configuration, where path isn't tracked inside generated reads.
+   */
   @Benchmark
   public void picoson(Blackhole blackhole) {
     try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
@@ -82,7 +85,34 @@ public class LargeObjectBenchmarks extends ParsersComparingBenchmark {
   public void gsonParseOnly(Blackhole blackhole) {
     try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
       JsonReader reader = new JsonReader(chars);
+      reader.setTrackPath(false);
       reader.skipValue();
     }
   }
+
+  /**
+   * As {@link #gsonParseOnly(Blackhole)}, but with path tracking, which is on by default for
+   * values read by methods of reader.
+   */
+  @Benchmark
+  public void gsonParseOnlyTrackPath(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      JsonReader reader = new JsonReader(chars);
+      reader.skipValue();
+    }
+  }
+
+  /**
+   * As {@link #picoson(Blackhole)}, but with path tracking opted in.
+   */
+  @Benchmark
+  public void picosonTrackPath(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      JsonReader reader = new JsonReader(chars);
+      reader.setTrackPath(true);
+      JsonSupport<LargeObject> jsonSupport = Json.jsonSupport(LargeObject.class);
+      LargeObject userData = jsonSupport.read(reader);
+      blackhole.consume(userData);
+    }
+  }
 }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.JsonWriter;
+import net.rsmogura.picoson.benchmarks.samples.LargeObject;
+import net.rsmogura.picoson.benchmarks.samples.LargeObjectDescriptorsMode;
+import org.apache.commons.io.output.NullWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.CompilerControl.Mode;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares writing large objects with straight-line (unrolled) serializer
+ * and with loop over descriptors.
+ */
+@CompilerControl(value = Mode.INLINE)
+public class LargeObjectBenchmarksWrite extends ParsersComparingBenchmark {
+  private static final JsonSupport<LargeObject> largeObjectSupport =
+      Json.jsonSupport(LargeObject.class);
+
+  private static final JsonSupport<LargeObjectDescriptorsMode> descriptorsModeSupport =
+      Json.jsonSupport(LargeObjectDescriptorsMode.class);
+
+  private static final LargeObject largeObject =
+      largeObjectSupport.read(openInput());
+
+  private static final LargeObjectDescriptorsMode largeObjectDescriptorsMode =
+      descriptorsModeSupport.read(openInput());
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private static JsonReader openInput() {
+    InputStream jsonStream = Thread.currentThread().getContextClassLoader().getResourceAsStream(
+        "net/rsmogura/picoson/benchmarks/largeObject.json");
+    return new JsonReader(new InputStreamReader(jsonStream, StandardCharsets.UTF_8));
+  }
+
+  @Benchmark
+  @Override
+  public void jackson(Blackhole blackhole) {
+    try {
+      objectMapper.writeValue(new NullWriter(), largeObject);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Writes using straight-line serializer (default write mode).
+   */
+  @Benchmark
+  @Override
+  public void picoson(Blackhole blackhole) {
+    largeObjectSupport.write(largeObject, new JsonWriter(new NullWriter()));
+  }
+
+  /**
+   * Writes same object, using loop over descriptors.
+   */
+  @Benchmark
+  public void picosonDescriptors(Blackhole blackhole) {
+    descriptorsModeSupport.write(largeObjectDescriptorsMode, new JsonWriter(new NullWriter()));
+  }
+
+  @Benchmark
+  @Override
+  public void gson(Blackhole blackhole) {
+    new Gson().toJson(largeObject, LargeObject.class, new NullWriter());
+  }
+
+  @Override
+  public void gsonParseOnly(Blackhole blackhole) {
+
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.benchmarks.samples.Shipment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares reading large file (top level array of records) through {@link FileReader}, with
+ * reading file mapped in memory. The file is generated in temporary directory; its size in
+ * megabytes is set by <code>sizeMb</code> parameter, i.e. <code>-p sizeMb=64</code> for quick
+ * run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MappedFileBenchmarks {
+  private static final JsonSupport<Shipment> jsonSupport = Json.jsonSupport(Shipment.class);
+
+  @Param("2048")
+  public int sizeMb;
+
+  private Path file;
+
+  @Setup
+  public void setUp() throws IOException {
+    file = Files.createTempFile("picoson-benchmark", ".json");
+    final long size = sizeMb * 1024L * 1024L;
+    long written = 0;
+    try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      out.write('[');
+      for (long i = 0; written < size; i++) {
+        final String record = (i > 0 ? ",\n" : "") + "{\"id\": " + i
+            + ", \"status\": \"shipped\", \"country\": \"PL\", \"carrier\": \"carrier-"
+            + (i % 100) + "\"}";
+        out.write(record);
+        written += record.length();
+      }
+      out.write(']');
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(file);
+  }
+
+  @Benchmark
+  public long fileReader() throws IOException {
+    try (FileReader in = new FileReader(file.toFile())) {
+      return readAll(new JsonReader(in));
+    }
+  }
+
+  /** Reads UTF-8 bytes from stream, to compare mapping with plain reads of same parser. */
+  @Benchmark
+  public long fileInputStream() throws IOException {
+    try (InputStream in = Files.newInputStream(file)) {
+      return readAll(new JsonReader(in));
+    }
+  }
+
+  @Benchmark
+  public long mappedFile() throws IOException {
+    final JsonReader reader = new JsonReader(FileChannel.open(file, StandardOpenOption.READ));
+    try {
+      return readAll(reader);
+    } finally {
+      reader.close();
+    }
+  }
+
+  /** Reads records one by one, not to keep whole file in memory. */
+  private static long readAll(JsonReader reader) {
+    long sum = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      sum += jsonSupport.read(reader).getId();
+    }
+    reader.endArray();
+    return sum;
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.benchmarks.samples.LargeObject;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures how reading of large top level array of {@link LargeObject} scales with number of
+ * threads, comparing {@link JsonSupport#readCollectionParallel(ByteBuffer, ForkJoinPool)} with
+ * sequential {@link JsonSupport#readCollection(JsonReader, java.util.Collection)}. The size of
+ * array in megabytes is set by <code>sizeMb</code> parameter, and number of threads by
+ * <code>parallelism</code>, i.e. <code>-p sizeMb=64 -p parallelism=1,2,4,8</code>. Whole array,
+ * and read objects, are kept in memory, so default size requires few GB of heap
+ * (<code>-jvmArgs -Xmx8g</code>).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelReadBenchmarks {
+  private static final JsonSupport<LargeObject> jsonSupport = Json.jsonSupport(LargeObject.class);
+
+  @Param("500")
+  public int sizeMb;
+
+  @Param({"1", "2", "4"})
+  public int parallelism;
+
+  private byte[] json;
+
+  private ForkJoinPool pool;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    final byte[] element;
+    try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(
+        "net/rsmogura/picoson/benchmarks/largeObject.json")) {
+      element = IOUtils.toByteArray(in);
+    }
+
+    final long size = sizeMb * 1024L * 1024L;
+    final ByteArrayOutputStream out = new ByteArrayOutputStream((int) size + element.length);
+    out.write('[');
+    for (int i = 0; out.size() < size; i++) {
+      if (i > 0) {
+        out.write(',');
+      }
+      out.write(element);
+    }
+    out.write(']');
+    json = out.toByteArray();
+
+    pool = new ForkJoinPool(parallelism);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public List<LargeObject> sequential() {
+    return jsonSupport.readCollection(new JsonReader(json), null);
+  }
+
+  @Benchmark
+  public List<LargeObject> parallel() {
+    return jsonSupport.readCollectionParallel(ByteBuffer.wrap(json), pool);
+  }
+}
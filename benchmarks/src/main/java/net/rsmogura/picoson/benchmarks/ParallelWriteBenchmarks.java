@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.JsonWriter;
+import net.rsmogura.picoson.benchmarks.samples.Shipment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures how writing of large collection to file scales with number of threads, comparing
+ * {@link JsonSupport#writeCollectionParallel(java.nio.channels.GatheringByteChannel,
+ * java.util.Collection, ForkJoinPool)} with sequential
+ * {@link JsonSupport#writeCollection(JsonWriter, java.util.Collection)}. Number of elements is
+ * set by <code>count</code> parameter, and number of threads by <code>parallelism</code>, i.e.
+ * <code>-p count=1000000 -p parallelism=1,2,4,8</code>. The file is written in temporary
+ * directory, and truncated before each write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelWriteBenchmarks {
+  private static final JsonSupport<Shipment> jsonSupport = Json.jsonSupport(Shipment.class);
+
+  @Param("10000000")
+  public int count;
+
+  @Param({"1", "2", "4"})
+  public int parallelism;
+
+  private List<Shipment> shipments;
+
+  private ForkJoinPool pool;
+
+  private Path file;
+
+  private FileChannel channel;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    shipments = new ArrayList<>(count);
+    final String[] statuses = {"created", "shipped", "delivered"};
+    for (int i = 0; i < count; i++) {
+      final Shipment shipment = new Shipment();
+      shipment.setId(i);
+      shipment.setStatus(statuses[i % statuses.length]);
+      shipment.setCountry(i % 2 == 0 ? "PL" : "DE");
+      shipment.setCarrier("carrier-" + (i % 100));
+      shipments.add(shipment);
+    }
+
+    pool = new ForkJoinPool(parallelism);
+    file = Files.createTempFile("picoson-benchmark", ".json");
+    channel = FileChannel.open(file, StandardOpenOption.WRITE);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    pool.shutdown();
+    channel.close();
+    Files.delete(file);
+  }
+
+  @Setup(Level.Invocation)
+  public void truncate() throws IOException {
+    channel.truncate(0);
+  }
+
+  @Benchmark
+  public long sequential() throws IOException {
+    final JsonWriter writer = new JsonWriter(channel);
+    jsonSupport.writeCollection(writer, shipments);
+    writer.flush();
+    return channel.position();
+  }
+
+  @Benchmark
+  public long parallel() throws IOException {
+    jsonSupport.writeCollectionParallel(channel, shipments, pool);
+    return channel.position();
+  }
+}
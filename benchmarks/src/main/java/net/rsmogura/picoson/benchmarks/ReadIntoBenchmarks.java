@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks;
+
+import java.io.CharArrayReader;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.benchmarks.samples.IngestMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares reading new instance, with reading into reused instance (like in ingest loop,
+ * where message is dropped right after processing). Run with <code>-prof gc</code> to
+ * see allocation rate of both. The <code>parseOnly</code> benchmark shows allocations of
+ * reader itself, which are common for both.
+ */
+@State(Scope.Thread)
+public class ReadIntoBenchmarks {
+  private static final char[] inputJsonChars = ("{"
+      + "\"sequence\": 1234567890123, \"partition\": 7, \"value\": 12.5, \"valid\": true,"
+      + "\"header\": {\"timestamp\": 1602345678901, \"source\": 12, \"priority\": 3},"
+      + "\"codes\": [1, 2, 3, 5, 8, 13, 21, 34]"
+      + "}").toCharArray();
+
+  private static final JsonSupport<IngestMessage> jsonSupport =
+      Json.jsonSupport(IngestMessage.class);
+
+  private IngestMessage message;
+
+  @Setup
+  public void setUp() {
+    message = new IngestMessage();
+  }
+
+  @Benchmark
+  public void parseOnly() {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      new JsonReader(chars).skipValue();
+    }
+  }
+
+  @Benchmark
+  public void read(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      blackhole.consume(jsonSupport.read(new JsonReader(chars)));
+    }
+  }
+
+  @Benchmark
+  public void readInto(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      blackhole.consume(jsonSupport.readInto(message, new JsonReader(chars)));
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks;
+
+import java.io.CharArrayReader;
+import java.nio.charset.StandardCharsets;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonPool;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.benchmarks.samples.IngestMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares creating reader for every small message, with resetting and pooling reader.
+ * Run with <code>-prof gc</code> to see allocation rate.
+ */
+@State(Scope.Thread)
+public class ReaderReuseBenchmarks {
+  private static final String inputJson = "{"
+      + "\"sequence\": 1234567890123, \"partition\": 7, \"value\": 12.5, \"valid\": true,"
+      + "\"header\": {\"timestamp\": 1602345678901, \"source\": 12, \"priority\": 3},"
+      + "\"codes\": [1, 2, 3, 5, 8, 13, 21, 34]"
+      + "}";
+
+  private static final char[] inputJsonChars = inputJson.toCharArray();
+
+  private static final byte[] inputJsonBytes = inputJson.getBytes(StandardCharsets.UTF_8);
+
+  private static final JsonSupport<IngestMessage> jsonSupport =
+      Json.jsonSupport(IngestMessage.class);
+
+  private JsonReader charReader;
+
+  private JsonReader utf8Reader;
+
+  private IngestMessage message;
+
+  @Setup
+  public void setUp() {
+    charReader = new JsonReader(new CharArrayReader(inputJsonChars));
+    utf8Reader = new JsonReader(inputJsonBytes);
+    message = new IngestMessage();
+  }
+
+  @Benchmark
+  public void charsNewReader(Blackhole blackhole) {
+    final JsonReader reader = new JsonReader(new CharArrayReader(inputJsonChars));
+    blackhole.consume(jsonSupport.readInto(message, reader));
+  }
+
+  @Benchmark
+  public void charsResetReader(Blackhole blackhole) {
+    charReader.reset(new CharArrayReader(inputJsonChars));
+    blackhole.consume(jsonSupport.readInto(message, charReader));
+  }
+
+  @Benchmark
+  public void bytesNewReader(Blackhole blackhole) {
+    final JsonReader reader = new JsonReader(inputJsonBytes);
+    blackhole.consume(jsonSupport.readInto(message, reader));
+  }
+
+  @Benchmark
+  public void bytesResetReader(Blackhole blackhole) {
+    utf8Reader.reset(inputJsonBytes);
+    blackhole.consume(jsonSupport.readInto(message, utf8Reader));
+  }
+
+  @Benchmark
+  public void bytesPooledReader(Blackhole blackhole) {
+    final JsonReader reader = JsonPool.acquireReader(inputJsonBytes);
+    try {
+      blackhole.consume(jsonSupport.readInto(message, reader));
+    } finally {
+      JsonPool.release(reader);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.benchmarks.samples.Shipment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares processing array read into collection, with processing elements streamed as they
+ * are read. Streaming keeps only one element reachable at a time.
+ */
+@State(Scope.Thread)
+public class StreamBenchmarks {
+  private static final byte[] inputJsonBytes;
+
+  static {
+    final StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 10_000; i++) {
+      json.append(i > 0 ? "," : "").append("{\"id\": ").append(i)
+          .append(", \"status\": \"shipped\", \"country\": \"PL\", \"carrier\": \"dhl\"}");
+    }
+    inputJsonBytes = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static final JsonSupport<Shipment> jsonSupport = Json.jsonSupport(Shipment.class);
+
+  @Benchmark
+  public long readCollection() {
+    long sum = 0;
+    for (Shipment shipment : jsonSupport.readCollection(new JsonReader(inputJsonBytes),
+        new ArrayList<>())) {
+      sum += shipment.getId();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long stream() {
+    return jsonSupport.stream(new JsonReader(inputJsonBytes))
+        .mapToLong(Shipment::getId)
+        .sum();
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.benchmarks.samples.CachedShipment;
+import net.rsmogura.picoson.benchmarks.samples.Shipment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares reading records with repeated string values, with and without string cache. Run
+ * with <code>-prof gc</code> to see allocation rate.
+ */
+@State(Scope.Thread)
+public class StringCacheBenchmarks {
+  private static final String[] STATUSES = {"created", "shipped", "delivered", "returned"};
+  private static final String[] COUNTRIES = {"PL", "DE", "US", "FR", "GB"};
+  private static final String[] CARRIERS = {"dhl", "ups", "fedex"};
+
+  private static final byte[] inputJsonBytes;
+
+  static {
+    final StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 100; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"id\": ").append(i)
+          .append(", \"status\": \"").append(STATUSES[i % STATUSES.length])
+          .append("\", \"country\": \"").append(COUNTRIES[i % COUNTRIES.length])
+          .append("\", \"carrier\": \"").append(CARRIERS[i % CARRIERS.length])
+          .append("\"}");
+    }
+    inputJsonBytes = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static final JsonSupport<Shipment> shipmentSupport =
+      Json.jsonSupport(Shipment.class);
+
+  private static final JsonSupport<CachedShipment> cachedShipmentSupport =
+      Json.jsonSupport(CachedShipment.class);
+
+  private JsonReader reader;
+
+  @Setup
+  public void setUp() {
+    reader = new JsonReader(inputJsonBytes);
+  }
+
+  @Benchmark
+  public void strings(Blackhole blackhole) {
+    reader.reset(inputJsonBytes);
+    reader.beginArray();
+    while (reader.hasNext()) {
+      blackhole.consume(shipmentSupport.read(reader));
+    }
+    reader.endArray();
+  }
+
+  @Benchmark
+  public void cachedProperties(Blackhole blackhole) {
+    reader.reset(inputJsonBytes);
+    reader.beginArray();
+    while (reader.hasNext()) {
+      blackhole.consume(cachedShipmentSupport.read(reader));
+    }
+    reader.endArray();
+  }
+}
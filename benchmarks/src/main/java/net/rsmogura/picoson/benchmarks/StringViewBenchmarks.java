@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.benchmarks.samples.FilteredEvent;
+import net.rsmogura.picoson.benchmarks.samples.StoredEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares filtering message by values read into strings, with values passed to view
+ * handlers. Run with <code>-prof gc</code> to see allocation rate.
+ */
+@State(Scope.Thread)
+public class StringViewBenchmarks {
+  private static final byte[] inputJsonBytes = ("{"
+      + "\"type\": \"order-cancelled\", \"tenant\": \"acme-corporation\", \"sequence\": 12345"
+      + "}").getBytes(StandardCharsets.UTF_8);
+
+  private static final JsonSupport<FilteredEvent> filteredSupport =
+      Json.jsonSupport(FilteredEvent.class);
+
+  private static final JsonSupport<StoredEvent> storedSupport =
+      Json.jsonSupport(StoredEvent.class);
+
+  private JsonReader reader;
+
+  private FilteredEvent filteredEvent;
+
+  private StoredEvent storedEvent;
+
+  @Setup
+  public void setUp() {
+    reader = new JsonReader(inputJsonBytes);
+    filteredEvent = new FilteredEvent();
+    storedEvent = new StoredEvent();
+  }
+
+  @Benchmark
+  public void strings(Blackhole blackhole) {
+    reader.reset(inputJsonBytes);
+    final StoredEvent event = storedSupport.readInto(storedEvent, reader);
+    blackhole.consume("order".equals(event.getType()) && "acme".equals(event.getTenant()));
+  }
+
+  @Benchmark
+  public void views(Blackhole blackhole) {
+    reader.reset(inputJsonBytes);
+    blackhole.consume(filteredSupport.readInto(filteredEvent, reader).isAccepted());
+  }
+}
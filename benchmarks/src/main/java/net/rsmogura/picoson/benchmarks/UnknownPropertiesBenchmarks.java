@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import java.io.CharArrayReader;
+import java.io.IOException;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.benchmarks.samples.PartialObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.CompilerControl.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks reading object from input where most properties are unknown
+ * ({@link #unknownProperties} of them, with nested objects and arrays), and only
+ * three are declared in class.
+ */
+@CompilerControl(value = Mode.INLINE)
+@State(Scope.Benchmark)
+public class UnknownPropertiesBenchmarks extends ParsersComparingBenchmark {
+  private static final ObjectMapper objectMapper = new ObjectMapper()
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  @Param({"8", "64"})
+  private int unknownProperties;
+
+  private char[] inputJsonChars;
+
+  @Setup
+  public void setUp() {
+    final StringBuilder json = new StringBuilder("{\"id\": 1");
+    for (int i = 0; i < unknownProperties; i++) {
+      json.append(String.format(", \"unknown%03d\": ", i));
+      switch (i % 4) {
+        case 0:
+          json.append("\"value ").append(i).append('"');
+          break;
+        case 1:
+          json.append(i * 31.5);
+          break;
+        case 2:
+          json.append("{\"nested\": {\"id\": ").append(i).append(", \"tags\": [\"a\", \"b\"]}}");
+          break;
+        default:
+          json.append("[1, 2, 3, {\"name\": \"n\"}, null, true]");
+      }
+      if (i == unknownProperties / 2) {
+        json.append(", \"name\": \"name\"");
+      }
+    }
+    inputJsonChars = json.append(", \"active\": true}").toString().toCharArray();
+  }
+
+  @Benchmark
+  @Override
+  public void jackson(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      PartialObject partialObject = objectMapper.readValue(chars, PartialObject.class);
+      blackhole.consume(partialObject);
+    } catch (IOException ioe) {
+      // no-op JMH benchmark can't declare throw
+    }
+  }
+
+  @Benchmark
+  @Override
+  public void picoson(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      JsonReader reader = new JsonReader(chars);
+      JsonSupport<PartialObject> jsonSupport = Json.jsonSupport(PartialObject.class);
+      PartialObject partialObject = jsonSupport.read(reader);
+      blackhole.consume(partialObject);
+    }
+  }
+
+  /**
+   * Reads unknown properties into map, instead of skipping them.
+   */
+  @Benchmark
+  public void picosonCollect(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      JsonReader reader = new JsonReader(chars);
+      JsonSupport<PartialObject.Collecting> jsonSupport =
+          Json.jsonSupport(PartialObject.Collecting.class);
+      PartialObject.Collecting partialObject = jsonSupport.read(reader);
+      blackhole.consume(partialObject);
+    }
+  }
+
+  @Benchmark
+  @Override
+  public void gson(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      PartialObject partialObject = new Gson().fromJson(chars, PartialObject.class);
+      blackhole.consume(partialObject);
+    }
+  }
+
+  @Benchmark
+  @Override
+  public void gsonParseOnly(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      JsonReader reader = new JsonReader(chars);
+      reader.skipValue();
+    }
+  }
+}
@@ -17,8 +17,11 @@ package net.rsmogura.picoson.benchmarks;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
+import java.io.ByteArrayInputStream;
 import java.io.CharArrayReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import net.rsmogura.picoson.JsonReader;
 import net.rsmogura.picoson.JsonSupport;
 import net.rsmogura.picoson.samples.models.UserData;
@@ -44,6 +47,8 @@ public class UserDataBenchmark extends ParsersComparingBenchmark {
 
   private static final char[] inputJsonChars = inputJson.toCharArray();
 
+  private static final byte[] inputJsonBytes = inputJson.getBytes(StandardCharsets.UTF_8);
+
   private static final ObjectMapper objectMapper = new ObjectMapper();
 
   @Override
@@ -85,4 +90,39 @@ public class UserDataBenchmark extends ParsersComparingBenchmark {
       reader.skipValue();
     }
   }
+
+  /**
+   * Reads UTF-8 bytes directly.
+   */
+  @Benchmark
+  public void picosonBytes(Blackhole blackhole) {
+    JsonReader reader = new JsonReader(inputJsonBytes);
+    JsonSupport<UserData> support = UserData.json();
+    UserData userData = support.read(reader);
+    blackhole.consume(userData);
+  }
+
+  /**
+   * Reads UTF-8 bytes from stream directly.
+   */
+  @Benchmark
+  public void picosonInputStream(Blackhole blackhole) {
+    JsonReader reader = new JsonReader(new ByteArrayInputStream(inputJsonBytes));
+    JsonSupport<UserData> support = UserData.json();
+    UserData userData = support.read(reader);
+    blackhole.consume(userData);
+  }
+
+  /**
+   * Reads UTF-8 bytes from stream, decoding them with {@link InputStreamReader}, to compare
+   * with {@link #picosonInputStream(Blackhole)}.
+   */
+  @Benchmark
+  public void picosonInputStreamReader(Blackhole blackhole) {
+    JsonReader reader = new JsonReader(new InputStreamReader(
+        new ByteArrayInputStream(inputJsonBytes), StandardCharsets.UTF_8));
+    JsonSupport<UserData> support = UserData.json();
+    UserData userData = support.read(reader);
+    blackhole.consume(userData);
+  }
 }
@@ -56,6 +56,27 @@ public class UserDataBenchmarksWrite extends ParsersComparingBenchmark {
     userData.jsonWrite(new JsonWriter(new OutputStreamWriter(new NullOutputStream())));
   }
 
+  /**
+   * Writes through {@link OutputStreamWriter}, flushing it, to compare with
+   * {@link #picosonUtf8(Blackhole)}.
+   */
+  @Benchmark
+  public void picosonOutputStreamWriter(Blackhole blackhole) {
+    JsonWriter writer = new JsonWriter(new OutputStreamWriter(new NullOutputStream()));
+    userData.jsonWrite(writer);
+    writer.flush();
+  }
+
+  /**
+   * Encodes UTF-8 directly to output stream.
+   */
+  @Benchmark
+  public void picosonUtf8(Blackhole blackhole) {
+    JsonWriter writer = new JsonWriter(new NullOutputStream());
+    userData.jsonWrite(writer);
+    writer.flush();
+  }
+
   @Benchmark
   @Override
   public void gson(Blackhole blackhole) {
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.JsonWriter;
+import net.rsmogura.picoson.benchmarks.samples.WideObject;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.CompilerControl.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for objects with hundreds of properties. Input contains
+ * only a window of {@link #WINDOW_SIZE} properties, starting at
+ * {@link #firstProperty}, so it can be checked that cost of reading
+ * property doesn't depend on its position.
+ */
+@CompilerControl(value = Mode.INLINE)
+@State(Scope.Benchmark)
+public class WideObjectBenchmarks extends ParsersComparingBenchmark {
+  private static final int WINDOW_SIZE = 16;
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private static final WideObject wideObject = new WideObject();
+
+  @Param({"0", "112", "224"})
+  private int firstProperty;
+
+  private char[] inputJsonChars;
+
+  @Setup
+  public void setUp() {
+    final StringBuilder json = new StringBuilder("{");
+    for (int i = firstProperty; i < firstProperty + WINDOW_SIZE; i++) {
+      if (i > firstProperty) {
+        json.append(',');
+      }
+      json.append(String.format("\"fieldInt%03d\": %d", i, i));
+    }
+    inputJsonChars = json.append('}').toString().toCharArray();
+  }
+
+  @Benchmark
+  @Override
+  public void jackson(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      WideObject wideObject = objectMapper.readValue(chars, WideObject.class);
+      blackhole.consume(wideObject);
+    } catch (IOException ioe) {
+      // no-op JMH benchmark can't declare throw
+    }
+  }
+
+  @Benchmark
+  @Override
+  public void picoson(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      JsonReader reader = new JsonReader(chars);
+      JsonSupport<WideObject> jsonSupport = Json.jsonSupport(WideObject.class);
+      WideObject wideObject = jsonSupport.read(reader);
+      blackhole.consume(wideObject);
+    }
+  }
+
+  @Benchmark
+  @Override
+  public void gson(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      WideObject wideObject = new Gson().fromJson(chars, WideObject.class);
+      blackhole.consume(wideObject);
+    }
+  }
+
+  @Benchmark
+  @Override
+  public void gsonParseOnly(Blackhole blackhole) {
+    try (CharArrayReader chars = new CharArrayReader(inputJsonChars)) {
+      JsonReader reader = new JsonReader(chars);
+      reader.skipValue();
+    }
+  }
+
+  /**
+   * Writes all properties, every one goes through property writer dispatch.
+   */
+  @Benchmark
+  public void picosonWrite(Blackhole blackhole) {
+    JsonSupport<WideObject> jsonSupport = Json.jsonSupport(WideObject.class);
+    jsonSupport.write(wideObject, new JsonWriter(new OutputStreamWriter(new NullOutputStream())));
+  }
+}
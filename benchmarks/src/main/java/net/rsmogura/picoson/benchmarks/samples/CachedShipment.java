@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.benchmarks.samples;
+
+import lombok.Data;
+import net.rsmogura.picoson.annotations.Json;
+import net.rsmogura.picoson.annotations.JsonProperty;
+
+/**
+ * Same record as {@link Shipment}, with low cardinality values read through string cache.
+ */
+@Data
+@Json
+public class CachedShipment {
+  private long id;
+  @JsonProperty(cached = true)
+  private String status;
+  @JsonProperty(cached = true)
+  private String country;
+  @JsonProperty(cached = true)
+  private String carrier;
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks.samples;
+
+import lombok.Data;
+import net.rsmogura.picoson.annotations.Json;
+import net.rsmogura.picoson.annotations.Json.WriteMode;
+
+/**
+ * Same as {@link LargeObject}, but serialized with loop over descriptors, used to
+ * compare write modes.
+ */
+@Data
+@Json(writeMode = WriteMode.DESCRIPTORS)
+public class LargeObjectDescriptorsMode {
+  private String fieldString00;
+  private String fieldString02;
+  private String fieldString03;
+  private String fieldString04;
+  private String fieldString05;
+  private String fieldString06;
+  private String fieldString07;
+  private String fieldString08;
+  private String fieldString09;
+
+  private String fieldString10;
+  private String fieldString12;
+  private String fieldString13;
+  private String fieldString14;
+  private String fieldString15;
+  private String fieldString16;
+  private String fieldString17;
+  private String fieldString18;
+  private String fieldString19;
+
+  private String fieldString20;
+  private String fieldString22;
+  private String fieldString23;
+  private String fieldString24;
+  private String fieldString25;
+  private String fieldString26;
+  private String fieldString27;
+  private String fieldString28;
+  private String fieldString29;
+
+  private String fieldString30;
+  private String fieldString32;
+  private String fieldString33;
+  private String fieldString34;
+  private String fieldString35;
+  private String fieldString36;
+  private String fieldString37;
+  private String fieldString38;
+  private String fieldString39;
+
+  private String fieldString40;
+  private String fieldString42;
+  private String fieldString43;
+  private String fieldString44;
+  private String fieldString45;
+  private String fieldString46;
+  private String fieldString47;
+  private String fieldString48;
+  private String fieldString49;
+
+  private String fieldString50;
+  private String fieldString52;
+  private String fieldString53;
+  private String fieldString54;
+  private String fieldString55;
+  private String fieldString56;
+  private String fieldString57;
+  private String fieldString58;
+  private String fieldString59;
+
+  private String fieldString60;
+  private String fieldString62;
+  private String fieldString63;
+  private String fieldString64;
+  private String fieldString65;
+  private String fieldString66;
+  private String fieldString67;
+  private String fieldString68;
+  private String fieldString69;
+
+  private String fieldString70;
+  private String fieldString72;
+  private String fieldString73;
+  private String fieldString74;
+  private String fieldString75;
+  private String fieldString76;
+  private String fieldString77;
+  private String fieldString78;
+  private String fieldString79;
+
+  private String fieldString80;
+  private String fieldString82;
+  private String fieldString83;
+  private String fieldString84;
+  private String fieldString85;
+  private String fieldString86;
+  private String fieldString87;
+  private String fieldString88;
+  private String fieldString89;
+
+  private String fieldString90;
+  private String fieldString92;
+  private String fieldString93;
+  private String fieldString94;
+  private String fieldString95;
+  private String fieldString96;
+  private String fieldString97;
+  private String fieldString98;
+  private String fieldString99;
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks.samples;
+
+import java.util.Map;
+import lombok.Data;
+import net.rsmogura.picoson.annotations.Json;
+import net.rsmogura.picoson.annotations.Json.UnknownProperties;
+import net.rsmogura.picoson.annotations.JsonUnknownProperties;
+
+/**
+ * Object with few properties, read from input where most of properties are unknown.
+ */
+@Data
+@Json
+public class PartialObject {
+  private long id;
+  private String name;
+  private boolean active;
+
+  /**
+   * Same as {@link PartialObject}, but unknown properties are collected.
+   */
+  @Data
+  @Json(unknownProperties = UnknownProperties.COLLECT)
+  public static class Collecting {
+    private long id;
+    private String name;
+    private boolean active;
+
+    @JsonUnknownProperties
+    private Map<String, Object> unknown;
+  }
+}
@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.benchmarks.samples;
+
+import lombok.Data;
+import net.rsmogura.picoson.annotations.Json;
+
+/**
+ * Object with 240 properties, used to check if cost of property dispatch
+ * depends on position of property in class.
+ */
+@Data
+@Json
+public class WideObject {
+  public static final int PROPERTIES_COUNT = 240;
+
+  private int fieldInt000;
+  private int fieldInt001;
+  private int fieldInt002;
+  private int fieldInt003;
+  private int fieldInt004;
+  private int fieldInt005;
+  private int fieldInt006;
+  private int fieldInt007;
+  private int fieldInt008;
+  private int fieldInt009;
+
+  private int fieldInt010;
+  private int fieldInt011;
+  private int fieldInt012;
+  private int fieldInt013;
+  private int fieldInt014;
+  private int fieldInt015;
+  private int fieldInt016;
+  private int fieldInt017;
+  private int fieldInt018;
+  private int fieldInt019;
+
+  private int fieldInt020;
+  private int fieldInt021;
+  private int fieldInt022;
+  private int fieldInt023;
+  private int fieldInt024;
+  private int fieldInt025;
+  private int fieldInt026;
+  private int fieldInt027;
+  private int fieldInt028;
+  private int fieldInt029;
+
+  private int fieldInt030;
+  private int fieldInt031;
+  private int fieldInt032;
+  private int fieldInt033;
+  private int fieldInt034;
+  private int fieldInt035;
+  private int fieldInt036;
+  private int fieldInt037;
+  private int fieldInt038;
+  private int fieldInt039;
+
+  private int fieldInt040;
+  private int fieldInt041;
+  private int fieldInt042;
+  private int fieldInt043;
+  private int fieldInt044;
+  private int fieldInt045;
+  private int fieldInt046;
+  private int fieldInt047;
+  private int fieldInt048;
+  private int fieldInt049;
+
+  private int fieldInt050;
+  private int fieldInt051;
+  private int fieldInt052;
+  private int fieldInt053;
+  private int fieldInt054;
+  private int fieldInt055;
+  private int fieldInt056;
+  private int fieldInt057;
+  private int fieldInt058;
+  private int fieldInt059;
+
+  private int fieldInt060;
+  private int fieldInt061;
+  private int fieldInt062;
+  private int fieldInt063;
+  private int fieldInt064;
+  private int fieldInt065;
+  private int fieldInt066;
+  private int fieldInt067;
+  private int fieldInt068;
+  private int fieldInt069;
+
+  private int fieldInt070;
+  private int fieldInt071;
+  private int fieldInt072;
+  private int fieldInt073;
+  private int fieldInt074;
+  private int fieldInt075;
+  private int fieldInt076;
+  private int fieldInt077;
+  private int fieldInt078;
+  private int fieldInt079;
+
+  private int fieldInt080;
+  private int fieldInt081;
+  private int fieldInt082;
+  private int fieldInt083;
+  private int fieldInt084;
+  private int fieldInt085;
+  private int fieldInt086;
+  private int fieldInt087;
+  private int fieldInt088;
+  private int fieldInt089;
+
+  private int fieldInt090;
+  private int fieldInt091;
+  private int fieldInt092;
+  private int fieldInt093;
+  private int fieldInt094;
+  private int fieldInt095;
+  private int fieldInt096;
+  private int fieldInt097;
+  private int fieldInt098;
+  private int fieldInt099;
+
+  private int fieldInt100;
+  private int fieldInt101;
+  private int fieldInt102;
+  private int fieldInt103;
+  private int fieldInt104;
+  private int fieldInt105;
+  private int fieldInt106;
+  private int fieldInt107;
+  private int fieldInt108;
+  private int fieldInt109;
+
+  private int fieldInt110;
+  private int fieldInt111;
+  private int fieldInt112;
+  private int fieldInt113;
+  private int fieldInt114;
+  private int fieldInt115;
+  private int fieldInt116;
+  private int fieldInt117;
+  private int fieldInt118;
+  private int fieldInt119;
+
+  private int fieldInt120;
+  private int fieldInt121;
+  private int fieldInt122;
+  private int fieldInt123;
+  private int fieldInt124;
+  private int fieldInt125;
+  private int fieldInt126;
+  private int fieldInt127;
+  private int fieldInt128;
+  private int fieldInt129;
+
+  private int fieldInt130;
+  private int fieldInt131;
+  private int fieldInt132;
+  private int fieldInt133;
+  private int fieldInt134;
+  private int fieldInt135;
+  private int fieldInt136;
+  private int fieldInt137;
+  private int fieldInt138;
+  private int fieldInt139;
+
+  private int fieldInt140;
+  private int fieldInt141;
+  private int fieldInt142;
+  private int fieldInt143;
+  private int fieldInt144;
+  private int fieldInt145;
+  private int fieldInt146;
+  private int fieldInt147;
+  private int fieldInt148;
+  private int fieldInt149;
+
+  private int fieldInt150;
+  private int fieldInt151;
+  private int fieldInt152;
+  private int fieldInt153;
+  private int fieldInt154;
+  private int fieldInt155;
+  private int fieldInt156;
+  private int fieldInt157;
+  private int fieldInt158;
+  private int fieldInt159;
+
+  private int fieldInt160;
+  private int fieldInt161;
+  private int fieldInt162;
+  private int fieldInt163;
+  private int fieldInt164;
+  private int fieldInt165;
+  private int fieldInt166;
+  private int fieldInt167;
+  private int fieldInt168;
+  private int fieldInt169;
+
+  private int fieldInt170;
+  private int fieldInt171;
+  private int fieldInt172;
+  private int fieldInt173;
+  private int fieldInt174;
+  private int fieldInt175;
+  private int fieldInt176;
+  private int fieldInt177;
+  private int fieldInt178;
+  private int fieldInt179;
+
+  private int fieldInt180;
+  private int fieldInt181;
+  private int fieldInt182;
+  private int fieldInt183;
+  private int fieldInt184;
+  private int fieldInt185;
+  private int fieldInt186;
+  private int fieldInt187;
+  private int fieldInt188;
+  private int fieldInt189;
+
+  private int fieldInt190;
+  private int fieldInt191;
+  private int fieldInt192;
+  private int fieldInt193;
+  private int fieldInt194;
+  private int fieldInt195;
+  private int fieldInt196;
+  private int fieldInt197;
+  private int fieldInt198;
+  private int fieldInt199;
+
+  private int fieldInt200;
+  private int fieldInt201;
+  private int fieldInt202;
+  private int fieldInt203;
+  private int fieldInt204;
+  private int fieldInt205;
+  private int fieldInt206;
+  private int fieldInt207;
+  private int fieldInt208;
+  private int fieldInt209;
+
+  private int fieldInt210;
+  private int fieldInt211;
+  private int fieldInt212;
+  private int fieldInt213;
+  private int fieldInt214;
+  private int fieldInt215;
+  private int fieldInt216;
+  private int fieldInt217;
+  private int fieldInt218;
+  private int fieldInt219;
+
+  private int fieldInt220;
+  private int fieldInt221;
+  private int fieldInt222;
+  private int fieldInt223;
+  private int fieldInt224;
+  private int fieldInt225;
+  private int fieldInt226;
+  private int fieldInt227;
+  private int fieldInt228;
+  private int fieldInt229;
+
+  private int fieldInt230;
+  private int fieldInt231;
+  private int fieldInt232;
+  private int fieldInt233;
+  private int fieldInt234;
+  private int fieldInt235;
+  private int fieldInt236;
+  private int fieldInt237;
+  private int fieldInt238;
+  private int fieldInt239;
+}
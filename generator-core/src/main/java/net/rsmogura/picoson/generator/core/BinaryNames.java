@@ -17,6 +17,7 @@ package net.rsmogura.picoson.generator.core;
 
 import static org.objectweb.asm.Type.BOOLEAN_TYPE;
 import static org.objectweb.asm.Type.BYTE_TYPE;
+import static org.objectweb.asm.Type.FLOAT_TYPE;
 import static org.objectweb.asm.Type.INT_TYPE;
 import static org.objectweb.asm.Type.LONG_TYPE;
 import static org.objectweb.asm.Type.SHORT_TYPE;
@@ -27,14 +28,17 @@ import static org.objectweb.asm.Type.getMethodDescriptor;
 import static org.objectweb.asm.Type.getType;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 
+import net.rsmogura.picoson.JsonReadException;
 import net.rsmogura.picoson.JsonReader;
 import net.rsmogura.picoson.JsonSupport;
 import net.rsmogura.picoson.JsonToken;
 import net.rsmogura.picoson.JsonWriter;
 import net.rsmogura.picoson.abi.JsonObjectDescriptor;
 import net.rsmogura.picoson.abi.JsonPropertyDescriptor;
+import net.rsmogura.picoson.abi.JsonSupportRegistry;
 import net.rsmogura.picoson.annotations.Json;
 import org.objectweb.asm.Type;
 
@@ -89,6 +93,9 @@ public final class BinaryNames {
       getType(Object.class)
   );
 
+  /** No arg method, returning Class, like {@link Object#getClass()}. */
+  public static final String CLASS_RETURNING_METHOD = getMethodDescriptor(getType(Class.class));
+
   /** No arg method, returning boolean. */
   public static final String BOOL_RETURNING_METHOD = getMethodDescriptor(BOOLEAN_TYPE);
 
@@ -113,6 +120,23 @@ public final class BinaryNames {
   /** No arg method, returning void. */
   public static final String VOID_METHOD_DESCRIPTOR = "()V";
 
+  /** Descriptor String arg and boolean return. */
+  public static final String STRING_BOOLEAN_METHOD_DESCRIPTOR
+      = getMethodDescriptor(BOOLEAN_TYPE, getType(String.class));
+
+  /** Descriptor for {@link net.rsmogura.picoson.abi.PicosonAbiUtils#unknownProperty}. */
+  public static final String UNKNOWN_PROPERTY_METHOD_DESCRIPTOR
+      = getMethodDescriptor(getType(JsonReadException.class),
+          getType(Class.class), getType(JsonReader.class));
+
+  /** Descriptor for {@link net.rsmogura.picoson.abi.PicosonAbiUtils#collectUnknownProperty}. */
+  public static final String COLLECT_UNKNOWN_PROPERTY_METHOD_DESCRIPTOR
+      = getMethodDescriptor(getType(Map.class), getType(Map.class), getType(JsonReader.class));
+
+  /** Descriptor Object arg and boolean return, like {@link Collection#add(Object)}. */
+  public static final String OBJECT_BOOLEAN_METHOD_DESCRIPTOR
+      = getMethodDescriptor(BOOLEAN_TYPE, getType(Object.class));
+
   /** Descriptor Object arg and Object return */
   public static final String OBJECT_OBJECT_METHOD_DESCRIPTOR
       = getMethodDescriptor(Type.getType(Object.class), Type.getType(Object.class));
@@ -124,10 +148,29 @@ public final class BinaryNames {
   public static final String COLLECTION_RETURNING_METHOD =
       getMethodDescriptor(getType(Collection.class));
 
+  /** No arg method, returning {@link Iterator}. */
+  public static final String ITERATOR_RETURNING_METHOD =
+      getMethodDescriptor(getType(Iterator.class));
+
+  /** Internal name for {@link Iterator}. */
+  public static final String ITERATOR_INTERNAL_NAME = Type.getInternalName(Iterator.class);
+
+  /** Descriptor int arg and Object return, like {@link java.util.List#get(int)}. */
+  public static final String INT_OBJECT_METHOD_DESCRIPTOR =
+      getMethodDescriptor(getType(Object.class), INT_TYPE);
+
   /** No arg method, returning String. */
   public static final String STRING_RETURNING_METHOD =
       getMethodDescriptor(getType(String.class));
 
+  /** Descriptor of {@link JsonReader#nextStringView()}. */
+  public static final String CHAR_SEQUENCE_RETURNING_METHOD =
+      getMethodDescriptor(getType(CharSequence.class));
+
+  /** Descriptor of view handler, method taking {@link CharSequence}. */
+  public static final String CHAR_SEQUENCE_VOID_METHOD_DESCRIPTOR =
+      getMethodDescriptor(VOID_TYPE, getType(CharSequence.class));
+
   public static final String JSON_WRITE_STRING_VALUE =
       getMethodDescriptor(getType(JsonWriter.class), getType(String.class));
 
@@ -137,8 +180,25 @@ public final class BinaryNames {
   public static final String JSON_WRITE_BOOLEAN_VALUE =
       getMethodDescriptor(getType(JsonWriter.class), getType(Boolean.class));
 
+  public static final String JSON_WRITE_INT_VALUE =
+      getMethodDescriptor(getType(JsonWriter.class), INT_TYPE);
+
+  public static final String JSON_WRITE_LONG_VALUE =
+      getMethodDescriptor(getType(JsonWriter.class), LONG_TYPE);
+
+  public static final String JSON_WRITE_FLOAT_VALUE =
+      getMethodDescriptor(getType(JsonWriter.class), FLOAT_TYPE);
+
+  /** Descriptor of {@link JsonWriter#base64Value(byte[])}. */
+  public static final String JSON_WRITE_BASE64_VALUE =
+      getMethodDescriptor(getType(JsonWriter.class), getType(byte[].class));
+
   public static final String JSON_WRITE_NULL_VALUE =
       getMethodDescriptor(getType(JsonWriter.class));
+
+  /** Descriptor of {@link JsonWriter#name(JsonPropertyDescriptor)}. */
+  public static final String JSON_WRITE_NAME_DESCRIPTOR =
+      getMethodDescriptor(getType(JsonWriter.class), getType(JsonPropertyDescriptor.class));
   /**
    * Descriptor for json() & #json().
    */
@@ -147,6 +207,14 @@ public final class BinaryNames {
 
   public static final String JSON_SUPPORT_DESCRIPTOR = getDescriptor(JsonSupport.class);
 
+  /** Internal name for {@link JsonSupportRegistry}. */
+  public static final String JSON_SUPPORT_REGISTRY_NAME =
+      Type.getInternalName(JsonSupportRegistry.class);
+
+  /** Descriptor for {@link JsonSupportRegistry#register(Class, JsonSupport)}. */
+  public static final String JSON_SUPPORT_REGISTER_DESCRIPTOR =
+      getMethodDescriptor(VOID_TYPE, getType(Class.class), getType(JsonSupport.class));
+
   /**
    * Descriptor for {@link JsonObjectDescriptor}
    */
@@ -20,6 +20,7 @@ import static javax.lang.model.type.TypeKind.DECLARED;
 
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
@@ -64,6 +65,8 @@ public class GeneratorUtils {
         return "F";
       case DOUBLE:
         return "D";
+      case ARRAY:
+        return "[" + descriptorFromTypeMirror(((ArrayType) typeMirror).getComponentType());
       default:
       throw new PicosonGeneratorException("Unsupported type " + typeMirror
         + " when mapping to descriptor. This is internal error worth a bug report");
@@ -20,6 +20,7 @@ import static net.rsmogura.picoson.generator.core.BinaryNames.*;
 import static org.objectweb.asm.Opcodes.*;
 
 import net.rsmogura.picoson.abi.JsonObjectDescriptor;
+import net.rsmogura.picoson.abi.JsonSupportRegistry;
 import net.rsmogura.picoson.abi.Names;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.MethodVisitor;
@@ -52,7 +53,9 @@ public class InitializerGenerator extends MethodVisitor {
    * 1. Creating descriptors (right now it's in JavaC tree plugin, but will be moved here). <br />
    * 2. Initialization of JsonSupport class, and storing it in synthetic field
    *    {@link net.rsmogura.picoson.abi.Names#SUPPORT_CLASS_HOLDER} (filed created in other place). <br/>
-   * 3. Initialization of descriptor holder {@link net.rsmogura.picoson.abi.Names#DESCRIPTOR_HOLDER}.
+   * 3. Initialization of descriptor holder {@link net.rsmogura.picoson.abi.Names#DESCRIPTOR_HOLDER}. <br />
+   * 4. Registration of JsonSupport in {@link JsonSupportRegistry}, so it can be obtained
+   *    without reflection.
    */
   protected void generateInitializer() {
     mv.visitTypeInsn(NEW, transformationContext.supportClassInternalName);
@@ -76,6 +79,17 @@ public class InitializerGenerator extends MethodVisitor {
       transformationContext.jsonClassInternalName,
       DESCRIPTOR_HOLDER,
       JSON_OBJECT_DESCRIPTOR);
+    // Register support, when class is fully initialized
+    mv.visitLdcInsn(Type.getObjectType(transformationContext.jsonClassInternalName));
+    mv.visitFieldInsn(GETSTATIC,
+      transformationContext.jsonClassInternalName,
+      SUPPORT_CLASS_HOLDER,
+      JSON_SUPPORT_DESCRIPTOR);
+    mv.visitMethodInsn(INVOKESTATIC,
+      JSON_SUPPORT_REGISTRY_NAME,
+      "register",
+      JSON_SUPPORT_REGISTER_DESCRIPTOR,
+      false);
   }
 
   /**
@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.generator.core;
+
+import static net.rsmogura.picoson.abi.Names.MODULE_REGISTRY_POSTFIX;
+import static net.rsmogura.picoson.abi.Names.SUPPORT_CLASS_HOLDER;
+import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_SUPPORT_DESCRIPTOR;
+import static net.rsmogura.picoson.generator.core.BinaryNames.VOID_METHOD_DESCRIPTOR;
+import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
+import static org.objectweb.asm.ClassWriter.COMPUTE_MAXS;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.IF_ACMPNE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+import static org.objectweb.asm.Type.getMethodDescriptor;
+import static org.objectweb.asm.Type.getType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.abi.JsonModuleRegistry;
+import net.rsmogura.picoson.annotations.Json;
+import net.rsmogura.picoson.annotations.JsonClasses;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates registry of JSON module ({@link JsonModuleRegistry}). The registry maps every JSON
+ * class reachable from module to its support. Reachable classes are the module class itself
+ * (if it's JSON class), classes listed in {@link JsonClasses}, and JSON classes used by
+ * properties of those, transitively.
+ * <br />
+ * Lookup switches over hash of class name, and then compares classes by identity, so it doesn't
+ * use reflection, and doesn't depend on number of classes in module.
+ */
+public class JsonModuleRegistryGenerator {
+  private final TypeElement moduleClass;
+
+  private final Elements elements;
+
+  private final String registryInternalName;
+
+  public JsonModuleRegistryGenerator(TypeElement moduleClass, Elements elements) {
+    this.moduleClass = moduleClass;
+    this.elements = elements;
+    this.registryInternalName = getRegistryBinaryName().replace('.', '/');
+  }
+
+  /** Binary name of generated registry class. */
+  public String getRegistryBinaryName() {
+    return elements.getBinaryName(moduleClass).toString() + MODULE_REGISTRY_POSTFIX;
+  }
+
+  /**
+   * Generates registry class.
+   *
+   * @return bytecode of registry class
+   */
+  public byte[] generate() {
+    final ClassWriter out = new ClassWriter(COMPUTE_MAXS | COMPUTE_FRAMES);
+    out.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, registryInternalName, null,
+        Type.getInternalName(Object.class),
+        new String[] {Type.getInternalName(JsonModuleRegistry.class)});
+    generateConstructor(out);
+    generateLookupMethod(out, collectJsonClasses());
+    out.visitEnd();
+    return out.toByteArray();
+  }
+
+  /**
+   * Collects JSON classes reachable from module, which can be accessed from registry.
+   * Inaccessible (i.e. private) classes are skipped, support of those is still available
+   * through {@link net.rsmogura.picoson.abi.JsonSupportRegistry}.
+   */
+  public List<TypeElement> collectJsonClasses() {
+    final Deque<TypeElement> pending = new ArrayDeque<>();
+    if (isJsonClass(moduleClass)) {
+      pending.add(moduleClass);
+    }
+    for (TypeMirror listed : getListedClasses()) {
+      final TypeElement listedClass = (TypeElement) ((DeclaredType) listed).asElement();
+      if (!isJsonClass(listedClass)) {
+        throw new PicosonGeneratorException("Class " + listedClass.getQualifiedName()
+            + " listed in @JsonClasses of " + moduleClass.getQualifiedName()
+            + " is not JSON class");
+      }
+      pending.add(listedClass);
+    }
+
+    final Set<TypeElement> reachable = new LinkedHashSet<>();
+    while (!pending.isEmpty()) {
+      final TypeElement jsonClass = pending.poll();
+      if (!reachable.add(jsonClass)) {
+        continue;
+      }
+      for (VariableElement field : ElementFilter.fieldsIn(jsonClass.getEnclosedElements())) {
+        if (!field.getModifiers().contains(Modifier.STATIC)) {
+          collectReferencedClasses(field.asType(), pending);
+        }
+      }
+    }
+
+    final List<TypeElement> result = new ArrayList<>();
+    for (TypeElement jsonClass : reachable) {
+      if (isAccessible(jsonClass)) {
+        result.add(jsonClass);
+      }
+    }
+    return result;
+  }
+
+  protected void generateConstructor(ClassWriter out) {
+    final MethodVisitor mv = out.visitMethod(ACC_PUBLIC,
+        "<init>", VOID_METHOD_DESCRIPTOR, null, null);
+    mv.visitVarInsn(ALOAD, 0);
+    mv.visitMethodInsn(INVOKESPECIAL, Type.getInternalName(Object.class),
+        "<init>", VOID_METHOD_DESCRIPTOR, false);
+    mv.visitInsn(RETURN);
+    mv.visitMaxs(-1, -1);
+    mv.visitEnd();
+  }
+
+  /**
+   * Generates lookup method: switch over hash of class name, and identity comparison
+   * of classes with same hash. Matching class returns its support holder field, which
+   * initializes class if needed.
+   */
+  protected void generateLookupMethod(ClassWriter out, List<TypeElement> jsonClasses) {
+    final MethodVisitor mv = out.visitMethod(ACC_PUBLIC, "lookup",
+        getMethodDescriptor(getType(JsonSupport.class), getType(Class.class)), null, null);
+
+    // Keys of lookupswitch has to be sorted
+    final Map<Integer, List<String>> classesByHash = new TreeMap<>();
+    for (TypeElement jsonClass : jsonClasses) {
+      final String binaryName = elements.getBinaryName(jsonClass).toString();
+      classesByHash.computeIfAbsent(binaryName.hashCode(), k -> new ArrayList<>())
+          .add(binaryName.replace('.', '/'));
+    }
+
+    final Label notFound = new Label();
+    final int[] hashes = new int[classesByHash.size()];
+    final Label[] cases = new Label[classesByHash.size()];
+    int caseIndex = 0;
+    for (Integer hash : classesByHash.keySet()) {
+      hashes[caseIndex] = hash;
+      cases[caseIndex++] = new Label();
+    }
+
+    mv.visitVarInsn(ALOAD, 1);
+    mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(Class.class), "getName",
+        getMethodDescriptor(getType(String.class)), false);
+    mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(String.class), "hashCode",
+        BinaryNames.INT_RETURNING_METHOD, false);
+    mv.visitLookupSwitchInsn(notFound, hashes, cases);
+
+    caseIndex = 0;
+    for (List<String> sameHashClasses : classesByHash.values()) {
+      mv.visitLabel(cases[caseIndex++]);
+      for (String jsonClassInternalName : sameHashClasses) {
+        final Label nextClass = new Label();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitLdcInsn(Type.getObjectType(jsonClassInternalName));
+        mv.visitJumpInsn(IF_ACMPNE, nextClass);
+        mv.visitFieldInsn(GETSTATIC, jsonClassInternalName,
+            SUPPORT_CLASS_HOLDER, JSON_SUPPORT_DESCRIPTOR);
+        mv.visitInsn(ARETURN);
+        mv.visitLabel(nextClass);
+      }
+    }
+
+    mv.visitLabel(notFound);
+    mv.visitInsn(ACONST_NULL);
+    mv.visitInsn(ARETURN);
+    mv.visitMaxs(-1, -1);
+    mv.visitEnd();
+  }
+
+  /** Classes listed in {@link JsonClasses} of module. */
+  protected List<TypeMirror> getListedClasses() {
+    final List<TypeMirror> listed = new ArrayList<>();
+    for (AnnotationMirror annotation : moduleClass.getAnnotationMirrors()) {
+      final TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+      if (!annotationType.getQualifiedName().contentEquals(JsonClasses.class.getName())) {
+        continue;
+      }
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+          : annotation.getElementValues().entrySet()) {
+        if (value.getKey().getSimpleName().contentEquals("value")) {
+          for (Object item : (List<?>) value.getValue().getValue()) {
+            listed.add((TypeMirror) ((AnnotationValue) item).getValue());
+          }
+        }
+      }
+    }
+    return listed;
+  }
+
+  /**
+   * Adds JSON classes used by type (including type arguments, and array components)
+   * to pending classes.
+   */
+  protected void collectReferencedClasses(TypeMirror type, Deque<TypeElement> pending) {
+    switch (type.getKind()) {
+      case DECLARED:
+        final DeclaredType declaredType = (DeclaredType) type;
+        final TypeElement typeElement = (TypeElement) declaredType.asElement();
+        if (isJsonClass(typeElement)) {
+          pending.add(typeElement);
+        }
+        for (TypeMirror typeArgument : declaredType.getTypeArguments()) {
+          collectReferencedClasses(typeArgument, pending);
+        }
+        break;
+      case ARRAY:
+        collectReferencedClasses(((ArrayType) type).getComponentType(), pending);
+        break;
+      case WILDCARD:
+        final TypeMirror extendsBound = ((WildcardType) type).getExtendsBound();
+        if (extendsBound != null) {
+          collectReferencedClasses(extendsBound, pending);
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  protected static boolean isJsonClass(TypeElement typeElement) {
+    return typeElement.getAnnotation(Json.class) != null;
+  }
+
+  /**
+   * Checks if class can be accessed from registry, which is placed in package of module.
+   */
+  protected boolean isAccessible(TypeElement jsonClass) {
+    final boolean samePackage =
+        elements.getPackageOf(jsonClass).equals(elements.getPackageOf(moduleClass));
+    for (Element element = jsonClass; element instanceof TypeElement;
+        element = element.getEnclosingElement()) {
+      final Set<Modifier> modifiers = element.getModifiers();
+      if (modifiers.contains(Modifier.PRIVATE)) {
+        return false;
+      }
+      if (!modifiers.contains(Modifier.PUBLIC) && !samePackage) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
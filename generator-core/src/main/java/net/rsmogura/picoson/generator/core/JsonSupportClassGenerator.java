@@ -17,6 +17,7 @@ package net.rsmogura.picoson.generator.core;
 
 import static net.rsmogura.picoson.abi.Names.SUPPORT_CLASS_POSTFIX;
 import static net.rsmogura.picoson.abi.Names.SUPPORT_CLASS_READ_IMPL;
+import static net.rsmogura.picoson.abi.Names.SUPPORT_CLASS_READ_INTO_IMPL;
 import static net.rsmogura.picoson.abi.Names.SUPPORT_CLASS_WRITE_IMPL;
 import static net.rsmogura.picoson.generator.core.BinaryNames.VOID_METHOD_DESCRIPTOR;
 import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
@@ -69,6 +70,7 @@ public class JsonSupportClassGenerator {
         generateClassSignature(), Type.getInternalName(JsonSupport.class), null);
     generateConstructor();
     generateReadMethod();
+    generateReadIntoMethod();
     generateWriteMethod();
     out.visitEnd();
 
@@ -108,6 +110,23 @@ public class JsonSupportClassGenerator {
     mv.visitEnd();
   }
 
+  protected void generateReadIntoMethod() {
+    final Type jsonClassType = getType("L" + ctx.jsonClassInternalName + ";");
+    MethodVisitor mv = out.visitMethod(ACC_PUBLIC, SUPPORT_CLASS_READ_INTO_IMPL,
+        getMethodDescriptor(getType(Object.class), getType(Object.class), getType(JsonReader.class)),
+        null, null);
+    mv.visitVarInsn(ALOAD, 1);
+    mv.visitTypeInsn(CHECKCAST, ctx.jsonClassInternalName);
+    mv.visitVarInsn(ALOAD, 2);
+    mv.visitMethodInsn(INVOKESTATIC, ctx.jsonClassInternalName,
+        Names.GENERATED_DESERIALIZE_INTO_METHOD_NAME,
+        getMethodDescriptor(jsonClassType, jsonClassType, getType(JsonReader.class)),
+        false);
+    mv.visitInsn(ARETURN);
+    mv.visitMaxs(-1, -1);
+    mv.visitEnd();
+  }
+
   protected void generateWriteMethod() {
     //TODO getMethodDescriptor as constant
 
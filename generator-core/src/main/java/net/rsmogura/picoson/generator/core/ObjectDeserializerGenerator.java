@@ -1,56 +1,105 @@
 package net.rsmogura.picoson.generator.core;
 
 import net.rsmogura.picoson.JsonToken;
-import net.rsmogura.picoson.abi.JsonObjectDescriptor;
-import net.rsmogura.picoson.abi.Names;
+import net.rsmogura.picoson.abi.PicosonAbiUtils;
+import net.rsmogura.picoson.annotations.Json.UnknownProperties;
+import net.rsmogura.picoson.annotations.JsonUnknownProperties;
+import net.rsmogura.picoson.generator.core.analyze.FieldProperty;
 import net.rsmogura.picoson.generator.core.analyze.PropertiesCollector;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
-import static net.rsmogura.picoson.abi.Names.DESCRIPTOR_HOLDER;
+import static net.rsmogura.picoson.abi.Names.DEFAULTS_GETTER;
+import static net.rsmogura.picoson.abi.Names.DEFAULTS_HOLDER;
 import static net.rsmogura.picoson.generator.core.BinaryNames.*;
 import static org.objectweb.asm.Opcodes.*;
 
 public class ObjectDeserializerGenerator extends AbstractMethodGenerator {
+  private final UnknownProperties unknownProperties;
+
   public ObjectDeserializerGenerator(
       MethodVisitor mv,
       Type owner,
       Elements elements,
       Types typeUtils,
       PropertiesCollector propertiesCollector) {
+    this(mv, owner, elements, typeUtils, propertiesCollector, UnknownProperties.IGNORE);
+  }
+
+  public ObjectDeserializerGenerator(
+      MethodVisitor mv,
+      Type owner,
+      Elements elements,
+      Types typeUtils,
+      PropertiesCollector propertiesCollector,
+      UnknownProperties unknownProperties) {
     super(mv, owner, elements, typeUtils, propertiesCollector);
+    this.unknownProperties = unknownProperties;
   }
 
   public void generate() {
+    generate(false);
+  }
+
+  /**
+   * Generates read into existing instance (<code>jsonReadInto</code>). Nested objects and
+   * collections already present in instance are reused. Every read property is marked in bit
+   * mask held in local variable, and properties missing in JSON are reset after object is read
+   * to values set by no-argument constructor, so result has same values as from
+   * <code>jsonRead</code>.
+   */
+  public void generateReadInto() {
+    generate(true);
+  }
+
+  protected void generate(final boolean readInto) {
     final Label propertyLoopStart = new Label();
     final Label propertyLoopEnd = new Label();
+    final Label unknownProperty = new Label();
 
-    final int jsonReaderSlot = 0;
-    final int resultObjectSlot = 1;
-    final int propertiesMapSlot = 2;
+    // jsonRead(reader), jsonReadInto(target, reader)
+    final int jsonReaderSlot = readInto ? 1 : 0;
+    final int resultObjectSlot = readInto ? 0 : 1;
 
-    generateNewObject(resultObjectSlot);
-    generateLoadPropertiesMap(propertiesMapSlot);
+    final PropertyReaderGenerator propertyReaderGenerator = new PropertyReaderGenerator(mv,
+      owner, elements, typeUtils, propertiesCollector, resultObjectSlot, jsonReaderSlot, readInto);
+    final int readMaskSlot = readInto ? propertyReaderGenerator.firstUnusedSlot() : -1;
+
+    if (readInto) {
+      generateClearReadMasks(readMaskSlot);
+      generateResetUnknownProperties(resultObjectSlot);
+    } else {
+      generateNewObject(resultObjectSlot);
+    }
 
     generateBeginObject(jsonReaderSlot);
 
     // while ((token = JsonReader.peek()) != JsonToken.END_OBJECT) {
     generateCheckIfEndOfObject(propertyLoopStart, propertyLoopEnd, jsonReaderSlot);
 
-    mv.visitVarInsn(ALOAD, resultObjectSlot);
-
-    //map.get(jsonReader.nextName()), if not found...
-    generateFindPropertyDescriptor(jsonReaderSlot, propertiesMapSlot);
+    // switch (jsonReader.nextNameHash()) { case ...: if (jsonReader.isName("...")) {...} }
+    generateReadNextPropertyHash(jsonReaderSlot);
+    generatePropertyDispatch(jsonReaderSlot, propertyReaderGenerator, readMaskSlot,
+      propertyLoopStart, unknownProperty);
 
-    //#jsonReadProp(propertyDescriptor, jsonReader)
-    generateInvokePropertyReader(jsonReaderSlot);
+    // default:
+    mv.visitLabel(unknownProperty);
+    generateUnknownProperty(jsonReaderSlot, resultObjectSlot);
 
     // } // goto while start
     mv.visitJumpInsn(GOTO, propertyLoopStart);
@@ -60,6 +109,9 @@ public class ObjectDeserializerGenerator extends AbstractMethodGenerator {
     mv.visitMethodInsn(INVOKEVIRTUAL,
       JSON_READER_NAME, "endObject", VOID_METHOD_DESCRIPTOR,
       false);
+    if (readInto) {
+      generateResetMissingProperties(resultObjectSlot, readMaskSlot);
+    }
     mv.visitVarInsn(ALOAD, resultObjectSlot);
     mv.visitInsn(Opcodes.ARETURN);
   }
@@ -72,14 +124,6 @@ public class ObjectDeserializerGenerator extends AbstractMethodGenerator {
     mv.visitVarInsn(ASTORE, resultObjectSlot);
   }
 
-  protected void generateLoadPropertiesMap(int propertiesMapSlot) {
-    mv.visitFieldInsn(GETSTATIC, owner.getInternalName(), DESCRIPTOR_HOLDER, JSON_OBJECT_DESCRIPTOR);
-    mv.visitMethodInsn(INVOKEVIRTUAL,
-      Type.getInternalName(JsonObjectDescriptor.class), "getJsonProperties",
-      Type.getMethodDescriptor(Type.getType(Map.class)),
-      false);
-    mv.visitVarInsn(ASTORE, propertiesMapSlot);
-  }
   protected void generateBeginObject(final int jsonReaderSlot) {
     mv.visitVarInsn(ALOAD, jsonReaderSlot);
     mv.visitMethodInsn(INVOKEVIRTUAL,
@@ -104,29 +148,250 @@ public class ObjectDeserializerGenerator extends AbstractMethodGenerator {
     mv.visitJumpInsn(IF_ACMPEQ, propertyLoopEnd);
   }
 
-  protected void generateReadNextProperty(final int jsonReaderSlot) {
+  protected void generateReadNextPropertyHash(final int jsonReaderSlot) {
     mv.visitVarInsn(ALOAD, jsonReaderSlot);
     mv.visitMethodInsn(INVOKEVIRTUAL,
-      JSON_READER_NAME, "nextName", STRING_RETURNING_METHOD,
+      JSON_READER_NAME, "nextNameHash", INT_RETURNING_METHOD,
       false);
-    // On stack name
+    // On stack name hash
+  }
+
+  /**
+   * Generates switch on property name hash (on stack). Every case compares
+   * name with constant names of properties having this hash, and reads
+   * matched property directly into result object, so no descriptor lookup
+   * nor string allocation is needed.
+   */
+  protected void generatePropertyDispatch(final int jsonReaderSlot,
+                                          final PropertyReaderGenerator propertyReaderGenerator,
+                                          final int readMaskSlot,
+                                          final Label propertyLoopStart,
+                                          final Label unknownProperty) {
+    final TreeMap<Integer, List<FieldProperty>> propertiesByHash = new TreeMap<>();
+    for (FieldProperty fp : propertiesCollector.getJsonProperties().values()) {
+      propertiesByHash
+        .computeIfAbsent(PicosonAbiUtils.hashString(fp.getPropertyName()), h -> new ArrayList<>())
+        .add(fp);
+    }
+
+    final int[] hashes = new int[propertiesByHash.size()];
+    final Label[] hashBlocks = new Label[propertiesByHash.size()];
+    int i = 0;
+    for (Integer hash : propertiesByHash.keySet()) {
+      hashes[i] = hash;
+      hashBlocks[i] = new Label();
+      i++;
+    }
+    mv.visitLookupSwitchInsn(unknownProperty, hashes, hashBlocks);
+
+    i = 0;
+    for (List<FieldProperty> properties : propertiesByHash.values()) {
+      mv.visitLabel(hashBlocks[i++]);
+      for (FieldProperty fp : properties) {
+        final Label nextCandidate = new Label();
+        mv.visitVarInsn(ALOAD, jsonReaderSlot);
+        mv.visitLdcInsn(fp.getPropertyName());
+        mv.visitMethodInsn(INVOKEVIRTUAL,
+          JSON_READER_NAME, "isName", STRING_BOOLEAN_METHOD_DESCRIPTOR,
+          false);
+        mv.visitJumpInsn(IFEQ, nextCandidate);
+
+        propertyReaderGenerator.handleProperty(fp);
+        if (readMaskSlot >= 0) {
+          generateMarkPropertyRead(fp, readMaskSlot);
+        }
+        mv.visitJumpInsn(GOTO, propertyLoopStart);
+
+        mv.visitLabel(nextCandidate);
+      }
+      mv.visitJumpInsn(GOTO, unknownProperty);
+    }
   }
 
-  protected void generateFindPropertyDescriptor(int jsonReaderSlot, int propertiesMapSlot) {
-    mv.visitVarInsn(ALOAD, propertiesMapSlot);
-    generateReadNextProperty(jsonReaderSlot);
-    mv.visitMethodInsn(INVOKEINTERFACE,
-      MAP_INTERNAL_NAME, "get", OBJECT_OBJECT_METHOD_DESCRIPTOR,
-      true);
-    mv.visitTypeInsn(CHECKCAST, JSON_PROPERTY_DESCRIPTOR_NAME);
-    // On stack PropertyDescriptor
+  /** Number of int masks needed to mark read properties. */
+  protected int readMasksCount() {
+    return (propertiesCollector.getJsonProperties().size() + 31) / 32;
   }
 
-  protected void generateInvokePropertyReader(int jsonReaderSlot) {
+  protected void generateClearReadMasks(final int readMaskSlot) {
+    for (int i = 0; i < readMasksCount(); i++) {
+      mv.visitInsn(ICONST_0);
+      mv.visitVarInsn(ISTORE, readMaskSlot + i);
+    }
+  }
+
+  /** mask |= 1 << (readIndex % 32) */
+  protected void generateMarkPropertyRead(final FieldProperty fp, final int readMaskSlot) {
+    final int maskSlot = readMaskSlot + fp.getReadIndex() / 32;
+    mv.visitVarInsn(ILOAD, maskSlot);
+    mv.visitLdcInsn(1 << (fp.getReadIndex() % 32));
+    mv.visitInsn(IOR);
+    mv.visitVarInsn(ISTORE, maskSlot);
+  }
+
+  /**
+   * Resets properties, which were not marked as read, to default values.
+   */
+  protected void generateResetMissingProperties(final int resultObjectSlot,
+                                                final int readMaskSlot) {
+    final int defaultsSlot = readMaskSlot + readMasksCount();
+    final int freshSlot = defaultsSlot + 1;
+    final String ownerName = owner.getInternalName();
+
+    // defaults = Owner.#jsonDefaults(); fresh = null
+    mv.visitMethodInsn(INVOKESTATIC, ownerName, DEFAULTS_GETTER,
+      Type.getMethodDescriptor(owner), false);
+    mv.visitVarInsn(ASTORE, defaultsSlot);
+    mv.visitInsn(ACONST_NULL);
+    mv.visitVarInsn(ASTORE, freshSlot);
+
+    for (FieldProperty fp : propertiesCollector.getJsonProperties().values()) {
+      final TypeMirror propertyType = fp.getFieldElement().asType();
+      final String fieldName = fp.getFieldElement().getSimpleName().toString();
+      final String fieldDescriptor = utils.descriptorFromTypeMirror(propertyType);
+      final Label propertyRead = new Label();
+
+      // if ((mask & bit) == 0) result.field = ...
+      mv.visitVarInsn(ILOAD, readMaskSlot + fp.getReadIndex() / 32);
+      mv.visitLdcInsn(1 << (fp.getReadIndex() % 32));
+      mv.visitInsn(IAND);
+      mv.visitJumpInsn(IFNE, propertyRead);
+
+      if (isImmutable(propertyType)) {
+        // result.field = defaults.field
+        mv.visitVarInsn(ALOAD, resultObjectSlot);
+        mv.visitVarInsn(ALOAD, defaultsSlot);
+        mv.visitFieldInsn(GETFIELD, ownerName, fieldName, fieldDescriptor);
+        mv.visitFieldInsn(PUTFIELD, ownerName, fieldName, fieldDescriptor);
+      } else {
+        // Mutable default can't be shared between instances, so it's taken from new instance
+        // result.field = defaults.field == null ? null
+        //     : (fresh != null ? fresh : (fresh = new Owner())).field
+        final Label defaultNull = new Label();
+        final Label freshCreated = new Label();
+        mv.visitVarInsn(ALOAD, defaultsSlot);
+        mv.visitFieldInsn(GETFIELD, ownerName, fieldName, fieldDescriptor);
+        mv.visitJumpInsn(IFNULL, defaultNull);
+        mv.visitVarInsn(ALOAD, freshSlot);
+        mv.visitJumpInsn(IFNONNULL, freshCreated);
+        generateNewObject(freshSlot);
+        mv.visitLabel(freshCreated);
+        mv.visitVarInsn(ALOAD, resultObjectSlot);
+        mv.visitVarInsn(ALOAD, freshSlot);
+        mv.visitFieldInsn(GETFIELD, ownerName, fieldName, fieldDescriptor);
+        mv.visitFieldInsn(PUTFIELD, ownerName, fieldName, fieldDescriptor);
+        mv.visitJumpInsn(GOTO, propertyRead);
+        mv.visitLabel(defaultNull);
+        mv.visitVarInsn(ALOAD, resultObjectSlot);
+        mv.visitInsn(ACONST_NULL);
+        mv.visitFieldInsn(PUTFIELD, ownerName, fieldName, fieldDescriptor);
+      }
+      mv.visitLabel(propertyRead);
+    }
+  }
+
+  /**
+   * Checks if value of given type can be shared between instances: primitive, boxed primitive,
+   * string or enum.
+   */
+  protected boolean isImmutable(final TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return true;
+    }
+    if (type.getKind() != TypeKind.DECLARED) {
+      return false;
+    }
+    final TypeElement element = (TypeElement) typeUtils.asElement(type);
+    return element.getKind() == ElementKind.ENUM
+        || PropertyAbstractGenerator.BASIC_BOXED_TYPES.contains(
+            element.getQualifiedName().toString());
+  }
+
+  /**
+   * Generates static synthetic method returning cached instance holding default values of
+   * properties, see {@link net.rsmogura.picoson.abi.Names#DEFAULTS_GETTER}. The holder field
+   * is volatile, so the instance is safely published; it may be created more than once by
+   * racing threads, which is harmless.
+   */
+  public void generateDefaultsGetter() {
+    final String ownerName = owner.getInternalName();
+    final String ownerDescriptor = owner.getDescriptor();
+    final Label created = new Label();
+
+    // defaults = Owner.#jsonDefaultsInst
+    mv.visitFieldInsn(GETSTATIC, ownerName, DEFAULTS_HOLDER, ownerDescriptor);
+    mv.visitVarInsn(ASTORE, 0);
+    mv.visitVarInsn(ALOAD, 0);
+    mv.visitJumpInsn(IFNONNULL, created);
+    // if (defaults == null) Owner.#jsonDefaultsInst = defaults = new Owner()
+    generateNewObject(0);
+    mv.visitVarInsn(ALOAD, 0);
+    mv.visitFieldInsn(PUTSTATIC, ownerName, DEFAULTS_HOLDER, ownerDescriptor);
+    mv.visitLabel(created);
+    mv.visitVarInsn(ALOAD, 0);
+    mv.visitInsn(ARETURN);
+  }
+
+  /**
+   * Resets collected unknown properties, so properties from previous read are not kept.
+   */
+  protected void generateResetUnknownProperties(final int resultObjectSlot) {
+    final VariableElement field = propertiesCollector.getUnknownPropertiesField();
+    if (unknownProperties != UnknownProperties.COLLECT || field == null) {
+      return;
+    }
+    mv.visitVarInsn(ALOAD, resultObjectSlot);
+    mv.visitInsn(ACONST_NULL);
+    mv.visitFieldInsn(PUTFIELD, owner.getInternalName(), field.getSimpleName().toString(),
+      Type.getDescriptor(Map.class));
+  }
+
+  protected void generateUnknownProperty(final int jsonReaderSlot, final int resultObjectSlot) {
+    switch (unknownProperties) {
+      case FAIL:
+        // throw PicosonAbiUtils.unknownProperty(Owner.class, jsonReader)
+        mv.visitLdcInsn(owner);
+        mv.visitVarInsn(ALOAD, jsonReaderSlot);
+        mv.visitMethodInsn(INVOKESTATIC,
+          Type.getInternalName(PicosonAbiUtils.class), "unknownProperty",
+          UNKNOWN_PROPERTY_METHOD_DESCRIPTOR,
+          false);
+        mv.visitInsn(ATHROW);
+        break;
+      case COLLECT:
+        generateCollectUnknownProperty(jsonReaderSlot, resultObjectSlot);
+        break;
+      default:
+        // jsonReader.skipValue()
+        mv.visitVarInsn(ALOAD, jsonReaderSlot);
+        mv.visitMethodInsn(INVOKEVIRTUAL,
+          JSON_READER_NAME, "skipValue", VOID_METHOD_DESCRIPTOR,
+          false);
+    }
+  }
+
+  protected void generateCollectUnknownProperty(final int jsonReaderSlot,
+                                                final int resultObjectSlot) {
+    final VariableElement field = propertiesCollector.getUnknownPropertiesField();
+    final TypeMirror mapType = typeUtils.erasure(
+      elements.getTypeElement(Map.class.getName()).asType());
+    if (field == null || !typeUtils.isSameType(typeUtils.erasure(field.asType()), mapType)) {
+      throw new PicosonGeneratorException("Class " + owner.getClassName()
+        + " collecting unknown properties requires field of type " + Map.class.getName()
+        + " annotated with @" + JsonUnknownProperties.class.getSimpleName());
+    }
+
+    // result.field = PicosonAbiUtils.collectUnknownProperty(result.field, jsonReader)
+    final String fieldName = field.getSimpleName().toString();
+    final String fieldDescriptor = Type.getDescriptor(Map.class);
+    mv.visitVarInsn(ALOAD, resultObjectSlot);
+    mv.visitInsn(DUP);
+    mv.visitFieldInsn(GETFIELD, owner.getInternalName(), fieldName, fieldDescriptor);
     mv.visitVarInsn(ALOAD, jsonReaderSlot);
-    mv.visitMethodInsn(INVOKEVIRTUAL,
-      owner.getInternalName(), Names.READ_PROPERTY_NAME, READ_PROPERTY_DESCRIPTOR,
+    mv.visitMethodInsn(INVOKESTATIC,
+      Type.getInternalName(PicosonAbiUtils.class), "collectUnknownProperty",
+      COLLECT_UNKNOWN_PROPERTY_METHOD_DESCRIPTOR,
       false);
-    mv.visitInsn(POP);
+    mv.visitFieldInsn(PUTFIELD, owner.getInternalName(), fieldName, fieldDescriptor);
   }
 }
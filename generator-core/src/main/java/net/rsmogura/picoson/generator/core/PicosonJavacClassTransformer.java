@@ -17,10 +17,12 @@ package net.rsmogura.picoson.generator.core;
 
 import static net.rsmogura.picoson.abi.Names.*;
 import static net.rsmogura.picoson.generator.core.BinaryNames.*;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
 import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
 import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
 import static org.objectweb.asm.Opcodes.ACC_STATIC;
 import static org.objectweb.asm.Opcodes.ACC_SYNTHETIC;
+import static org.objectweb.asm.Opcodes.ACC_VOLATILE;
 import static org.objectweb.asm.Opcodes.ALOAD;
 import static org.objectweb.asm.Opcodes.ARETURN;
 import static org.objectweb.asm.Opcodes.GETSTATIC;
@@ -36,6 +38,9 @@ import net.rsmogura.picoson.JsonReader;
 import net.rsmogura.picoson.JsonSupport;
 import net.rsmogura.picoson.abi.JsonObjectDescriptor;
 import net.rsmogura.picoson.abi.Names;
+import net.rsmogura.picoson.annotations.Json;
+import net.rsmogura.picoson.annotations.Json.UnknownProperties;
+import net.rsmogura.picoson.annotations.Json.WriteMode;
 import net.rsmogura.picoson.generator.core.analyze.PropertiesCollector;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassVisitor;
@@ -173,6 +178,8 @@ public class PicosonJavacClassTransformer extends ClassVisitor {
       generatePropertyReader(thizClassType);
       generatePropertyWriter(thizClassType);
       generateObjectReader(thizClassType);
+      generateObjectReaderInto(thizClassType);
+      generateDefaultsGetter(thizClassType);
       generateObjectWriter(thizClassType);
       generateSupportCode();
 
@@ -197,12 +204,56 @@ public class PicosonJavacClassTransformer extends ClassVisitor {
     );
 
     new ObjectDeserializerGenerator(objectDeserializerMv,
-      Type.getObjectType(this.thizClass), this.elements, this.typeUtils, this.propertiesCollector).generate();
+      Type.getObjectType(this.thizClass), this.elements, this.typeUtils, this.propertiesCollector,
+      getUnknownProperties()).generate();
 
     objectDeserializerMv.visitMaxs(-1, -1);
     objectDeserializerMv.visitEnd();
   }
 
+  protected void generateObjectReaderInto(final Type thizClassType) {
+    final MethodVisitor objectDeserializerMv = cv.visitMethod(
+      ACC_STATIC | ACC_PUBLIC,
+      GENERATED_DESERIALIZE_INTO_METHOD_NAME,
+      Type.getMethodDescriptor(thizClassType, thizClassType, Type.getType(JsonReader.class)),
+      null,
+      null
+    );
+
+    new ObjectDeserializerGenerator(objectDeserializerMv,
+      thizClassType, this.elements, this.typeUtils, this.propertiesCollector,
+      getUnknownProperties()).generateReadInto();
+
+    objectDeserializerMv.visitMaxs(-1, -1);
+    objectDeserializerMv.visitEnd();
+  }
+
+  protected void generateDefaultsGetter(final Type thizClassType) {
+    super.visitField(ACC_PRIVATE | ACC_STATIC | ACC_VOLATILE | ACC_SYNTHETIC,
+      DEFAULTS_HOLDER, thizClassType.getDescriptor(), null, null);
+
+    final MethodVisitor defaultsMv = cv.visitMethod(
+      ACC_STATIC | ACC_SYNTHETIC,
+      DEFAULTS_GETTER,
+      Type.getMethodDescriptor(thizClassType),
+      null,
+      null
+    );
+
+    new ObjectDeserializerGenerator(defaultsMv,
+      thizClassType, this.elements, this.typeUtils, this.propertiesCollector,
+      getUnknownProperties()).generateDefaultsGetter();
+
+    defaultsMv.visitMaxs(-1, -1);
+    defaultsMv.visitEnd();
+  }
+
+  /** Gets handling of unknown properties configured for JSON class. */
+  protected UnknownProperties getUnknownProperties() {
+    final Json json = jsonClass.getAnnotation(Json.class);
+    return json != null ? json.unknownProperties() : UnknownProperties.IGNORE;
+  }
+
   protected void generatePropertyReader(final Type thizClassType) {
     final MethodVisitor propertyRead =
         cv.visitMethod(ACC_PROTECTED, READ_PROPERTY_NAME, READ_PROPERTY_DESCRIPTOR, null, null);
@@ -214,8 +265,15 @@ public class PicosonJavacClassTransformer extends ClassVisitor {
     final MethodVisitor objectSerializerMv = cv.visitMethod(
         ACC_PROTECTED, INSTANCE_SERIALIZE_METHOD_NAME,
         INSTANCE_SERIALIZE_METHOD_DESC, null, null);
-    new ObjectSerializerGenerator(objectSerializerMv, thizClassType, elements, typeUtils,
-        propertiesCollector).generate();
+    final ObjectSerializerGenerator objectSerializerGenerator;
+    if (getWriteMode() == WriteMode.DESCRIPTORS) {
+      objectSerializerGenerator = new ObjectSerializerGenerator(objectSerializerMv,
+          thizClassType, elements, typeUtils, propertiesCollector);
+    } else {
+      objectSerializerGenerator = new UnrolledObjectSerializerGenerator(objectSerializerMv,
+          thizClassType, elements, typeUtils, propertiesCollector);
+    }
+    objectSerializerGenerator.generate();
 
     // TODO Temporary - public entry methods should be controlled by other annotations
     final MethodVisitor jsonWriteMv = cv.visitMethod(
@@ -230,6 +288,12 @@ public class PicosonJavacClassTransformer extends ClassVisitor {
     jsonWriteMv.visitEnd();
   }
 
+  /** Gets write mode configured for JSON class. */
+  protected WriteMode getWriteMode() {
+    final Json json = jsonClass.getAnnotation(Json.class);
+    return json != null ? json.writeMode() : WriteMode.UNROLLED;
+  }
+
   protected void generatePropertyWriter(final Type thizClassType) {
     final MethodVisitor propertyWrite =
         cv.visitMethod(ACC_PROTECTED, WRITE_PROPERTY_NAME, WRITE_PROPERTY_DESCRIPTOR, null, null);
@@ -17,19 +17,17 @@ package net.rsmogura.picoson.generator.core;
 
 import static javax.lang.model.type.TypeKind.ARRAY;
 import static javax.lang.model.type.TypeKind.DECLARED;
-import static org.objectweb.asm.Opcodes.IF_ICMPNE;
-import static org.objectweb.asm.Opcodes.ILOAD;
-import static org.objectweb.asm.Opcodes.ISTORE;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import net.rsmogura.picoson.annotations.Json;
@@ -44,7 +42,6 @@ public abstract class PropertyAbstractGenerator extends AbstractMethodGenerator
   protected static final int PARAM_THIS = 0;
   protected static final int PARAM_DESC = 1;
   protected static final int PARAM_READER_WRITER = 2;
-  protected static final int PARAM_DESCRIPTOR_IDX = 3;
 
   /**
    * The basic boxed types, are types which have a support in reader and
@@ -73,46 +70,126 @@ public abstract class PropertyAbstractGenerator extends AbstractMethodGenerator
 
     Set.class.getName(),
     HashSet.class.getName(),
+    LinkedHashSet.class.getName(),
     TreeSet.class.getName(),
     NavigableSet.class.getName(),
-    ConcurrentHashMap.class.getName()
+    SortedSet.class.getName()
   ));
 
+  /**
+   * Maps collection types from {@link #STANDARD_COLLECTIONS_TYPES} to classes
+   * instantiated when collection is read.
+   */
+  protected static final Map<String, Class<?>> COLLECTIONS_IMPLEMENTATIONS;
+  static {
+    final Map<String, Class<?>> implementations = new HashMap<>();
+    implementations.put(Collection.class.getName(), ArrayList.class);
+    implementations.put(List.class.getName(), ArrayList.class);
+    implementations.put(ArrayList.class.getName(), ArrayList.class);
+    implementations.put(LinkedList.class.getName(), LinkedList.class);
+    // Keep order of elements for sets
+    implementations.put(Set.class.getName(), LinkedHashSet.class);
+    implementations.put(HashSet.class.getName(), HashSet.class);
+    implementations.put(LinkedHashSet.class.getName(), LinkedHashSet.class);
+    implementations.put(TreeSet.class.getName(), TreeSet.class);
+    implementations.put(NavigableSet.class.getName(), TreeSet.class);
+    implementations.put(SortedSet.class.getName(), TreeSet.class);
+    COLLECTIONS_IMPLEMENTATIONS = Collections.unmodifiableMap(implementations);
+  }
+
+  /** Local variable slot holding object which properties are read or written. */
+  protected final int thisSlot;
+
+  /** Local variable slot holding JSON reader or writer. */
+  protected final int readerWriterSlot;
+
   public PropertyAbstractGenerator(MethodVisitor mv, Type owner,
       Elements elements,
       Types typeUtils, PropertiesCollector propertiesCollector) {
+    this(mv, owner, elements, typeUtils, propertiesCollector, PARAM_THIS, PARAM_READER_WRITER);
+  }
+
+  /**
+   * Creates generator, which handles properties with object and reader / writer stored
+   * in given slots. This way property code can be emitted directly into other methods
+   * (like <code>jsonRead</code>), not only into property read / write methods.
+   */
+  public PropertyAbstractGenerator(MethodVisitor mv, Type owner,
+      Elements elements, Types typeUtils, PropertiesCollector propertiesCollector,
+      int thisSlot, int readerWriterSlot) {
     super(mv, owner, elements, typeUtils, propertiesCollector);
+    this.thisSlot = thisSlot;
+    this.readerWriterSlot = readerWriterSlot;
   }
 
   public void generate() {
-    getPropertyId();
-    mv.visitVarInsn(ISTORE, PARAM_DESCRIPTOR_IDX);
-
-    // TODO This is if-else-if block, which is terrible slow, for large number of properties
-    //      This should be changed to BST.
-    for (FieldProperty fp : propertiesCollector.getJsonProperties().values()) {
-      final Label elseBlock = new Label();
-      mv.visitVarInsn(ILOAD, PARAM_DESCRIPTOR_IDX);
-      mv.visitLdcInsn(getPropertyIndexForCompare(fp));
-      mv.visitJumpInsn(IF_ICMPNE, elseBlock);
-
-      // Normal block
-      handleProperty(fp);
-      mv.visitLdcInsn(true);
-      mv.visitInsn(Opcodes.IRETURN);
-
-      // Begin else block. Because we have return in every true-block
-      // no need to generate skip all label, to jump to the end of if-else
-      // tree.
-      mv.visitLabel(elseBlock);
+    final List<FieldProperty> properties =
+        new ArrayList<>(propertiesCollector.getJsonProperties().values());
+    properties.sort(Comparator.comparingInt(this::getPropertyIndexForCompare));
+
+    final Label defaultBlock = new Label();
+    if (!properties.isEmpty()) {
+      getPropertyId();
+      final Label[] propertyBlocks = generatePropertySwitch(properties, defaultBlock);
+
+      for (int i = 0; i < properties.size(); i++) {
+        mv.visitLabel(propertyBlocks[i]);
+        handleProperty(properties.get(i));
+        mv.visitLdcInsn(true);
+        mv.visitInsn(Opcodes.IRETURN);
+      }
     }
-    mv.visitLabel(new Label());
+
+    mv.visitLabel(defaultBlock);
     mv.visitLdcInsn(false);
     mv.visitInsn(Opcodes.IRETURN);
     mv.visitMaxs(0, 0);
     mv.visitEnd();
   }
 
+  /**
+   * Emits switch over property index (which has to be on the stack), jumping
+   * to block of given property.
+   * <br />
+   * Indices assigned by {@link PropertiesCollector} are dense, so typically
+   * this is <code>tableswitch</code>, where dispatch cost doesn't depend on
+   * property position. For sparse indices <code>lookupswitch</code> is used
+   * (JIT compiles it to binary search). The choice is made with same cost
+   * heuristic as javac uses for <code>switch</code> statements.
+   *
+   * @param properties properties sorted by index
+   * @return labels of properties blocks, in order of properties
+   */
+  protected Label[] generatePropertySwitch(List<FieldProperty> properties, Label defaultBlock) {
+    final int count = properties.size();
+    final Label[] propertyBlocks = new Label[count];
+    final int[] keys = new int[count];
+    for (int i = 0; i < count; i++) {
+      propertyBlocks[i] = new Label();
+      keys[i] = getPropertyIndexForCompare(properties.get(i));
+    }
+
+    final int lo = keys[0];
+    final int hi = keys[count - 1];
+    final long tableSpaceCost = 4 + ((long) hi - lo + 1);
+    final long tableTimeCost = 3;
+    final long lookupSpaceCost = 3 + 2 * (long) count;
+    final long lookupTimeCost = count;
+
+    if (tableSpaceCost + 3 * tableTimeCost <= lookupSpaceCost + 3 * lookupTimeCost) {
+      final Label[] table = new Label[hi - lo + 1];
+      Arrays.fill(table, defaultBlock);
+      for (int i = 0; i < count; i++) {
+        table[keys[i] - lo] = propertyBlocks[i];
+      }
+      mv.visitTableSwitchInsn(lo, hi, defaultBlock, table);
+    } else {
+      mv.visitLookupSwitchInsn(defaultBlock, keys, propertyBlocks);
+    }
+
+    return propertyBlocks;
+  }
+
   /**
    * Obtain property id. The property id can differ depending if it's for read or
    * write.
@@ -151,6 +228,8 @@ public abstract class PropertyAbstractGenerator extends AbstractMethodGenerator
       handleReferenceProperty(fieldProperty, declaredType);
     } else if (typeKind.isPrimitive()) {
       handlePrimitiveProperty(fieldProperty, propertyType);
+    } else if (typeKind == ARRAY) {
+      handleArrayProperty(fieldProperty, (ArrayType) propertyType);
     }
   }
 
@@ -184,9 +263,7 @@ public abstract class PropertyAbstractGenerator extends AbstractMethodGenerator
   }
 
   protected boolean isCollection(DeclaredType declaredType) {
-    TypeElement collectionType = elements.getTypeElement(Collection.class.getCanonicalName());
     final Name binaryName = elements.getBinaryName((TypeElement) declaredType.asElement());
-    System.out.println(binaryName);
     if (STANDARD_COLLECTIONS_TYPES.contains(binaryName.toString())) {
       return true;
     } else {
@@ -195,6 +272,52 @@ public abstract class PropertyAbstractGenerator extends AbstractMethodGenerator
     }
   }
 
+  /**
+   * Returns type of elements of collection property. Elements have to be JSON classes
+   * or basic types, so reading and writing of an element can be emitted directly in
+   * collection loop.
+   */
+  protected DeclaredType getCollectionElementType(FieldProperty fieldProperty,
+      DeclaredType collectionType) {
+    final List<? extends TypeMirror> typeArguments = collectionType.getTypeArguments();
+    TypeMirror elementType = typeArguments.size() == 1 ? typeArguments.get(0) : null;
+    if (elementType != null && elementType.getKind() == TypeKind.WILDCARD) {
+      elementType = ((WildcardType) elementType).getExtendsBound();
+    }
+
+    if (elementType == null || elementType.getKind() != DECLARED) {
+      throw new PicosonGeneratorException("Can't determine type of elements of "
+          + collectionType + " for field " + fieldProperty.getPropertyName()
+          + " at class " + fieldProperty.getFieldElement().getEnclosingElement().getSimpleName()
+          + ", collection has to be parametrized with concrete type");
+    }
+
+    final TypeElement elementTypeElement = (TypeElement) ((DeclaredType) elementType).asElement();
+    final String binaryName = elements.getBinaryName(elementTypeElement).toString();
+    if (!BASIC_BOXED_TYPES.contains(binaryName) && !isJsonClass(elementTypeElement)) {
+      throw new PicosonGeneratorException("Unsupported type " + binaryName
+          + " of collection elements for field " + fieldProperty.getPropertyName()
+          + " at class " + fieldProperty.getFieldElement().getEnclosingElement().getSimpleName());
+    }
+    return (DeclaredType) elementType;
+  }
+
+  /**
+   * Returns true if elements of collection are JSON classes, otherwise elements
+   * are basic types.
+   */
+  protected boolean isJsonClassElement(DeclaredType elementType) {
+    return isJsonClass((TypeElement) elementType.asElement());
+  }
+
+  /**
+   * Returns first local variable slot, which is not used by method calling
+   * this generator, so it can be used by generated code (like collection loops).
+   */
+  protected int firstFreeSlot() {
+    return Math.max(PARAM_READER_WRITER, Math.max(thisSlot, readerWriterSlot)) + 1;
+  }
+
   protected abstract void beforeProperty(FieldProperty fieldProperty,
       TypeMirror propoertyType);
 
@@ -212,4 +335,28 @@ public abstract class PropertyAbstractGenerator extends AbstractMethodGenerator
 
   protected abstract void handleCollectionProperty(FieldProperty fieldProperty,
                                                    DeclaredType declaredType);
+
+  /**
+   * Handles array of primitives. Elements are read and written without boxing.
+   */
+  protected abstract void handleArrayProperty(FieldProperty fieldProperty, ArrayType arrayType);
+
+  /**
+   * Checks if array of given type can be read and written.
+   */
+  protected void checkArrayComponent(FieldProperty fieldProperty, ArrayType arrayType) {
+    final TypeKind componentKind = arrayType.getComponentType().getKind();
+    if (!componentKind.isPrimitive() || componentKind == TypeKind.CHAR) {
+      throw new PicosonGeneratorException("Unsupported array type " + arrayType
+          + " for field " + fieldProperty.getPropertyName()
+          + " at class " + fieldProperty.getFieldElement().getEnclosingElement().getSimpleName()
+          + ", only arrays of primitives (except char) are supported");
+    }
+    if (fieldProperty.isBase64() && componentKind != TypeKind.BYTE) {
+      throw new PicosonGeneratorException("Base64 is supported only for byte[], but field "
+          + fieldProperty.getPropertyName()
+          + " at class " + fieldProperty.getFieldElement().getEnclosingElement().getSimpleName()
+          + " is " + arrayType);
+    }
+  }
 }
@@ -17,59 +17,104 @@ package net.rsmogura.picoson.generator.core;
 
 import static net.rsmogura.picoson.generator.core.BinaryNames.BOOL_RETURNING_METHOD;
 import static net.rsmogura.picoson.generator.core.BinaryNames.BYTE_RETURNING_METHOD;
+import static net.rsmogura.picoson.generator.core.BinaryNames.CHAR_SEQUENCE_RETURNING_METHOD;
+import static net.rsmogura.picoson.generator.core.BinaryNames.CLASS_RETURNING_METHOD;
+import static net.rsmogura.picoson.generator.core.BinaryNames.CHAR_SEQUENCE_VOID_METHOD_DESCRIPTOR;
 import static net.rsmogura.picoson.generator.core.BinaryNames.DOUBLE_RETURNING_METHOD;
 import static net.rsmogura.picoson.generator.core.BinaryNames.FLOAT_RETURNING_METHOD;
 import static net.rsmogura.picoson.generator.core.BinaryNames.GET_READ_INDEX_DESCRIPTOR;
 import static net.rsmogura.picoson.generator.core.BinaryNames.INT_RETURNING_METHOD;
 import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_PROPERTY_DESCRIPTOR_NAME;
 import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_READER_NAME;
+import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_TOKEN_DESCRIPTOR;
+import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_TOKEN_INTERNAL_NAME;
+import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_TOKEN_RETURNING_METHOD;
 import static net.rsmogura.picoson.generator.core.BinaryNames.LONG_RETURNING_METHOD;
+import static net.rsmogura.picoson.generator.core.BinaryNames.OBJECT_BOOLEAN_METHOD_DESCRIPTOR;
 import static net.rsmogura.picoson.generator.core.BinaryNames.SHORT_RETURNING_METHOD;
+import static net.rsmogura.picoson.generator.core.BinaryNames.VOID_METHOD_DESCRIPTOR;
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
 import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.IF_ACMPNE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
 import static org.objectweb.asm.Opcodes.INVOKESTATIC;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.POP;
 import static org.objectweb.asm.Opcodes.PUTFIELD;
 import static org.objectweb.asm.Type.getMethodDescriptor;
 import static org.objectweb.asm.Type.getType;
 
-import javax.lang.model.element.Element;
-import javax.lang.model.element.ElementKind;
+import java.util.ArrayList;
+import java.util.Locale;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
-import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
-import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
-import javax.lang.model.type.TypeVariable;
-import javax.lang.model.util.AbstractAnnotationValueVisitor8;
 import javax.lang.model.util.Elements;
-import javax.lang.model.util.SimpleTypeVisitor8;
 import javax.lang.model.util.Types;
-
-import com.google.common.reflect.TypeParameter;
 import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonToken;
 import net.rsmogura.picoson.abi.Names;
 import net.rsmogura.picoson.generator.core.analyze.FieldProperty;
 import net.rsmogura.picoson.generator.core.analyze.PropertiesCollector;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
 
-import java.util.*;
-
 /**
  * Generator for property reader. The property reader is responsible for
  * processing current property from JSON stream.
  */
 public class PropertyReaderGenerator extends PropertyAbstractGenerator {
+  private static final String OBJECT_INTERNAL_NAME = Type.getInternalName(Object.class);
+
+  /**
+   * If true, nested objects and collections already present in fields are reused, and
+   * refilled, in place of creating new ones.
+   */
+  private final boolean reuseValues;
 
   public PropertyReaderGenerator(MethodVisitor mv, Type owner,
       Elements elements, Types typeUtils, PropertiesCollector propertiesCollector) {
     super(mv, owner, elements, typeUtils, propertiesCollector);
+    this.reuseValues = false;
+  }
+
+  public PropertyReaderGenerator(MethodVisitor mv, Type owner,
+      Elements elements, Types typeUtils, PropertiesCollector propertiesCollector,
+      int thisSlot, int readerSlot) {
+    this(mv, owner, elements, typeUtils, propertiesCollector, thisSlot, readerSlot, false);
+  }
+
+  public PropertyReaderGenerator(MethodVisitor mv, Type owner,
+      Elements elements, Types typeUtils, PropertiesCollector propertiesCollector,
+      int thisSlot, int readerSlot, boolean reuseValues) {
+    super(mv, owner, elements, typeUtils, propertiesCollector, thisSlot, readerSlot);
+    this.reuseValues = reuseValues;
+  }
+
+  /**
+   * Returns first local variable slot, which is not used by code of this generator,
+   * nor by method calling it. Collection loops keep collection in {@link #firstFreeSlot()}.
+   */
+  public int firstUnusedSlot() {
+    return firstFreeSlot() + 1;
   }
 
   @Override
   protected void getPropertyId() {
-    // Read index of property, and store it as local, this has been
-    // determined as having big performance impact for reading large objects
+    // Read index of property once, it's used as switch key
     mv.visitVarInsn(ALOAD, PARAM_DESC);
     mv.visitMethodInsn(INVOKEVIRTUAL, JSON_PROPERTY_DESCRIPTOR_NAME,
         "getReadPropertyIndex", GET_READ_INDEX_DESCRIPTOR, false);
@@ -80,6 +125,28 @@ public class PropertyReaderGenerator extends PropertyAbstractGenerator {
     return fp.getReadIndex();
   }
 
+  /**
+   * Reads property, or passes view of its value to view handler, if property has one.
+   */
+  @Override
+  protected void handleProperty(FieldProperty fieldProperty) {
+    final ExecutableElement viewHandler = fieldProperty.getViewHandler();
+    if (viewHandler == null) {
+      super.handleProperty(fieldProperty);
+      return;
+    }
+
+    // this.handler(reader.nextStringView())
+    mv.visitVarInsn(ALOAD, thisSlot);
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_READER_NAME, "nextStringView",
+        CHAR_SEQUENCE_RETURNING_METHOD, false);
+    // Private methods can't be invoked virtually before Java 11
+    final boolean isPrivate = viewHandler.getModifiers().contains(Modifier.PRIVATE);
+    mv.visitMethodInsn(isPrivate ? INVOKESPECIAL : INVOKEVIRTUAL, owner.getInternalName(),
+        viewHandler.getSimpleName().toString(), CHAR_SEQUENCE_VOID_METHOD_DESCRIPTOR, false);
+  }
+
   protected void handlePrimitiveProperty(FieldProperty fieldProperty,
       TypeMirror propertyType) {
     String readerMethodName;
@@ -128,8 +195,8 @@ public class PropertyReaderGenerator extends PropertyAbstractGenerator {
   @Override
   protected void beforeProperty(FieldProperty fieldProperty,
       TypeMirror propoertyType) {
-    mv.visitVarInsn(ALOAD, PARAM_THIS);
-    mv.visitVarInsn(ALOAD, PARAM_READER_WRITER);
+    mv.visitVarInsn(ALOAD, thisSlot);
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
   }
 
   @Override
@@ -150,7 +217,7 @@ public class PropertyReaderGenerator extends PropertyAbstractGenerator {
     final String nextMethodName;
     // For every rule there are exceptions...
     if ("String".equals(typeSimpleName)) {
-      nextMethodName = "nextString";
+      nextMethodName = fieldProperty.isCached() ? "nextCachedString" : "nextString";
     } else if ("Integer".equals(typeSimpleName)) {
       nextMethodName = "nextBoxedInt";
     } else {
@@ -169,6 +236,42 @@ public class PropertyReaderGenerator extends PropertyAbstractGenerator {
 
   @Override
   protected void handleComplexProperty(FieldProperty fieldProperty, DeclaredType declaredType) {
+    if (!reuseValues) {
+      readJsonObject(declaredType);
+      return;
+    }
+
+    // stack: this, reader
+    // value = this.field != null ? Type.jsonReadInto(this.field, reader) : Type.jsonRead(reader)
+    final String declaredTypeInternalName =
+        utils.internalName((TypeElement) declaredType.asElement());
+    final Type declaredTypeType = getType("L" + declaredTypeInternalName + ";");
+    final Label newObject = new Label();
+    final Label end = new Label();
+
+    mv.visitInsn(POP);
+    loadField(fieldProperty, declaredType);
+    mv.visitInsn(DUP);
+    mv.visitJumpInsn(IFNULL, newObject);
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
+    mv.visitMethodInsn(INVOKESTATIC, declaredTypeInternalName,
+        Names.GENERATED_DESERIALIZE_INTO_METHOD_NAME,
+        getMethodDescriptor(declaredTypeType, declaredTypeType, getType(JsonReader.class)),
+        false);
+    mv.visitJumpInsn(GOTO, end);
+
+    mv.visitLabel(newObject);
+    mv.visitInsn(POP);
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
+    readJsonObject(declaredType);
+    mv.visitLabel(end);
+    // stack: this, value
+  }
+
+  /**
+   * Reads new instance of JSON class by its <code>jsonRead</code>, reader has to be on stack.
+   */
+  private void readJsonObject(DeclaredType declaredType) {
     final String declaredTypeInternalName =
         utils.internalName((TypeElement) declaredType.asElement());
     mv.visitMethodInsn(INVOKESTATIC, declaredTypeInternalName,
@@ -180,59 +283,148 @@ public class PropertyReaderGenerator extends PropertyAbstractGenerator {
         false);
   }
 
+  /** Loads value of field holding property. */
+  private void loadField(FieldProperty fieldProperty, TypeMirror propertyType) {
+    mv.visitVarInsn(ALOAD, thisSlot);
+    mv.visitFieldInsn(GETFIELD, owner.getInternalName(),
+        fieldProperty.getFieldElement().getSimpleName().toString(),
+        utils.descriptorFromTypeMirror(propertyType));
+  }
+
+  /**
+   * Reads JSON array into new collection. The loop is specialized for type of elements,
+   * so every element is read by direct call to its <code>jsonRead</code> or by
+   * boxed reader method.
+   * <br />
+   * When values are reused, collection already present in field is cleared and refilled.
+   */
   @Override
   protected void handleCollectionProperty(FieldProperty fieldProperty, DeclaredType declaredType) {
-    extractGenericArgument(fieldProperty, declaredType);
-  }
-
-  protected void extractGenericArgument(FieldProperty fieldProperty, DeclaredType declaredType) {
-    declaredType.accept(new SimpleTypeVisitor8<Void, Map<TypeParameterElement, TypeMirror>>() {
-      @Override
-      public Void visitDeclared(DeclaredType t, Map<TypeParameterElement, TypeMirror> resolveMap) {
-        System.out.println("Visit declared " + t);
-        Element e = t.asElement();
-        List<? extends TypeMirror> typeArguments = t.getTypeArguments();
-
-        Map<TypeParameterElement, TypeMirror> typeParametersMap = new IdentityHashMap<>();
-
-        if (e.getKind() == ElementKind.INTERFACE || e.getKind() == ElementKind.CLASS) {
-          TypeElement typeElement = (TypeElement) e;
-          List<? extends TypeParameterElement> typeParameters = typeElement.getTypeParameters();
-
-          Iterator<? extends TypeMirror> argsI = typeArguments.iterator();
-          Iterator<? extends TypeParameterElement> paramsI = typeParameters.iterator();
-
-          while (argsI.hasNext()) {
-            TypeParameterElement tpe = paramsI.next();
-            TypeMirror tm = argsI.next();
-
-            if (tm.getKind() == TypeKind.TYPEVAR) {
-              TypeVariable typeVar = (TypeVariable) tm;
-              System.out.println("Resolve " + typeVar + " - " + resolveMap.get(typeVar.asElement()));
-              tm = resolveMap.get(typeVar.asElement());
-              if (tm == null) {
-                throw new PicosonGeneratorException("Can't find concrete type for type variable "
-                  + typeVar + " in class " + t + " when processing "
-                  + owner.getClassName() + "." + fieldProperty.getJavaPropertyName() + ". Type argument's can't be generic types");
-              }
-            }
-
-            typeParametersMap.put(tpe, tm);
-          }
-
-          System.out.println(typeParametersMap);
-        }
-
-        if (e.getKind() == ElementKind.INTERFACE) {
-          for (TypeMirror tm : ((TypeElement) e).getInterfaces()) {
-            tm.accept(this, typeParametersMap);
-          }
-        }
-        return null;
-      }
-    }, Collections.emptyMap());
-  }
-  protected void handleArrayProperty(FieldProperty fieldProperty) {
-    // TODO Implement array properties
+    final DeclaredType elementType = getCollectionElementType(fieldProperty, declaredType);
+    final Class<?> implementation = COLLECTIONS_IMPLEMENTATIONS.get(
+        elements.getBinaryName((TypeElement) declaredType.asElement()).toString());
+    final String implementationName = Type.getInternalName(implementation);
+    final int collectionSlot = firstFreeSlot();
+
+    final Label notNull = new Label();
+    final Label end = new Label();
+    final Label loopStart = new Label();
+    final Label loopEnd = new Label();
+
+    // stack: this, reader; reader is loaded from its slot where needed
+    mv.visitInsn(POP);
+    generateIfNull(notNull);
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_READER_NAME, "nextNull", VOID_METHOD_DESCRIPTOR, false);
+    mv.visitInsn(ACONST_NULL);
+    mv.visitJumpInsn(GOTO, end);
+
+    mv.visitLabel(notNull);
+    final Label collectionReady = new Label();
+    if (reuseValues) {
+      // Only collection of same implementation as allocated one is reused, as other ones may be
+      // unmodifiable or shared: if (field != null && field.getClass() == Impl.class) field.clear()
+      final Label otherCollection = new Label();
+      loadField(fieldProperty, declaredType);
+      mv.visitInsn(DUP);
+      mv.visitJumpInsn(IFNULL, otherCollection);
+      mv.visitInsn(DUP);
+      mv.visitMethodInsn(INVOKEVIRTUAL, OBJECT_INTERNAL_NAME, "getClass",
+          CLASS_RETURNING_METHOD, false);
+      mv.visitLdcInsn(getType(implementation));
+      mv.visitJumpInsn(IF_ACMPNE, otherCollection);
+      mv.visitTypeInsn(CHECKCAST, implementationName);
+      mv.visitInsn(DUP);
+      mv.visitVarInsn(ASTORE, collectionSlot);
+      mv.visitMethodInsn(INVOKEVIRTUAL, implementationName, "clear",
+          VOID_METHOD_DESCRIPTOR, false);
+      mv.visitJumpInsn(GOTO, collectionReady);
+      mv.visitLabel(otherCollection);
+      mv.visitInsn(POP);
+    }
+    mv.visitTypeInsn(NEW, implementationName);
+    mv.visitInsn(DUP);
+    if (fieldProperty.getExpectedSize() >= 0 && implementation == ArrayList.class) {
+      // Pre-size list, so it's not grown while elements are added
+      mv.visitLdcInsn(fieldProperty.getExpectedSize());
+      mv.visitMethodInsn(INVOKESPECIAL, implementationName, "<init>", "(I)V", false);
+    } else {
+      mv.visitMethodInsn(INVOKESPECIAL, implementationName, "<init>", "()V", false);
+    }
+    mv.visitVarInsn(ASTORE, collectionSlot);
+    mv.visitLabel(collectionReady);
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_READER_NAME, "beginArray", VOID_METHOD_DESCRIPTOR, false);
+
+    // while (reader.hasNext()) collection.add(readElement)
+    mv.visitLabel(loopStart);
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_READER_NAME, "hasNext", BOOL_RETURNING_METHOD, false);
+    mv.visitJumpInsn(IFEQ, loopEnd);
+    mv.visitVarInsn(ALOAD, collectionSlot);
+    if (isJsonClassElement(elementType)) {
+      final Label elementNotNull = new Label();
+      final Label elementRead = new Label();
+      generateIfNull(elementNotNull);
+      mv.visitVarInsn(ALOAD, readerWriterSlot);
+      mv.visitMethodInsn(INVOKEVIRTUAL, JSON_READER_NAME, "nextNull", VOID_METHOD_DESCRIPTOR, false);
+      mv.visitInsn(ACONST_NULL);
+      mv.visitJumpInsn(GOTO, elementRead);
+      mv.visitLabel(elementNotNull);
+      mv.visitVarInsn(ALOAD, readerWriterSlot);
+      readJsonObject(elementType);
+      mv.visitLabel(elementRead);
+    } else {
+      mv.visitVarInsn(ALOAD, readerWriterSlot);
+      handleBasicReferenceProperty(fieldProperty, elementType);
+    }
+    mv.visitMethodInsn(INVOKEVIRTUAL, implementationName, "add",
+        OBJECT_BOOLEAN_METHOD_DESCRIPTOR, false);
+    mv.visitInsn(POP);
+    mv.visitJumpInsn(GOTO, loopStart);
+
+    mv.visitLabel(loopEnd);
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_READER_NAME, "endArray", VOID_METHOD_DESCRIPTOR, false);
+    mv.visitVarInsn(ALOAD, collectionSlot);
+    mv.visitLabel(end);
+    // stack: this, collection
+  }
+
+  /**
+   * Checks if next token is null, if not jumps to given label.
+   */
+  private void generateIfNull(Label notNull) {
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_READER_NAME, "peek", JSON_TOKEN_RETURNING_METHOD, false);
+    mv.visitFieldInsn(GETSTATIC, JSON_TOKEN_INTERNAL_NAME, JsonToken.NULL.name(),
+        JSON_TOKEN_DESCRIPTOR);
+    mv.visitJumpInsn(IF_ACMPNE, notNull);
+  }
+
+  /**
+   * Reads array of primitives by reader method specialized for type of elements, which
+   * reads elements into reusable primitive buffer, without boxing.
+   */
+  @Override
+  protected void handleArrayProperty(FieldProperty fieldProperty, ArrayType arrayType) {
+    checkArrayComponent(fieldProperty, arrayType);
+    final TypeMirror componentType = arrayType.getComponentType();
+
+    final String nextMethodName;
+    if (fieldProperty.isBase64()) {
+      nextMethodName = "nextBase64";
+    } else {
+      // nextIntArray, nextDoubleArray, ...
+      final String kindName = componentType.getKind().name();
+      nextMethodName = "next" + kindName.charAt(0) + kindName.substring(1).toLowerCase(Locale.ROOT)
+          + "Array";
+    }
+
+    // The reader is on stack put by beforeProperty
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_READER_NAME,
+        nextMethodName,
+        utils.methodDescriptorFromTypeMirror(arrayType),
+        false);
   }
 }
@@ -15,32 +15,56 @@
 
 package net.rsmogura.picoson.generator.core;
 
+import static net.rsmogura.picoson.generator.core.BinaryNames.BOOL_RETURNING_METHOD;
 import static net.rsmogura.picoson.generator.core.BinaryNames.GET_READ_INDEX_DESCRIPTOR;
 import static net.rsmogura.picoson.generator.core.BinaryNames.INSTANCE_SERIALIZE_METHOD_DESC;
+import static net.rsmogura.picoson.generator.core.BinaryNames.INT_OBJECT_METHOD_DESCRIPTOR;
+import static net.rsmogura.picoson.generator.core.BinaryNames.INT_RETURNING_METHOD;
+import static net.rsmogura.picoson.generator.core.BinaryNames.ITERATOR_INTERNAL_NAME;
+import static net.rsmogura.picoson.generator.core.BinaryNames.ITERATOR_RETURNING_METHOD;
 import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_PROPERTY_DESCRIPTOR_NAME;
 import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_WRITER_NAME;
+import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_WRITER_RETURNING_METHOD;
+import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_WRITE_BASE64_VALUE;
 import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_WRITE_BOOLEAN_VALUE;
+import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_WRITE_FLOAT_VALUE;
+import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_WRITE_INT_VALUE;
+import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_WRITE_LONG_VALUE;
+import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_WRITE_NAME_DESCRIPTOR;
 import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_WRITE_NULL_VALUE;
 import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_WRITE_NUMBER_VALUE;
 import static net.rsmogura.picoson.generator.core.BinaryNames.JSON_WRITE_STRING_VALUE;
-import static net.rsmogura.picoson.generator.core.BinaryNames.STRING_RETURNING_METHOD;
+import static net.rsmogura.picoson.generator.core.BinaryNames.OBJECT_RETURNING_METHOD;
+import static org.objectweb.asm.Opcodes.AALOAD;
 import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARRAYLENGTH;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
 import static org.objectweb.asm.Opcodes.DUP;
-import static org.objectweb.asm.Opcodes.F2D;
 import static org.objectweb.asm.Opcodes.GETFIELD;
 import static org.objectweb.asm.Opcodes.GOTO;
-import static org.objectweb.asm.Opcodes.I2L;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFNONNULL;
 import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.IALOAD;
+import static org.objectweb.asm.Opcodes.IF_ICMPGE;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.ISTORE;
 import static org.objectweb.asm.Opcodes.POP;
 import static org.objectweb.asm.Opcodes.SWAP;
 import static org.objectweb.asm.Type.BOOLEAN_TYPE;
 import static org.objectweb.asm.Type.DOUBLE_TYPE;
-import static org.objectweb.asm.Type.LONG_TYPE;
 import static org.objectweb.asm.Type.getMethodDescriptor;
 import static org.objectweb.asm.Type.getType;
 
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
@@ -55,16 +79,40 @@ import org.objectweb.asm.Type;
 
 public class PropertyWriterGenerator extends PropertyAbstractGenerator{
 
+  /**
+   * Local variable slot holding array of property descriptors (see
+   * {@link net.rsmogura.picoson.abi.JsonObjectDescriptor#getProperties()}), or -1 if
+   * descriptor of property is passed as method parameter.
+   */
+  private final int descriptorsSlot;
+
+  /** Properties in order of descriptors array. */
+  private final List<FieldProperty> descriptorsOrder;
+
   public PropertyWriterGenerator(MethodVisitor mv, Type owner,
       Elements elements,
       Types typeUtils, PropertiesCollector propertiesCollector) {
     super(mv, owner, elements, typeUtils, propertiesCollector);
+    this.descriptorsSlot = -1;
+    this.descriptorsOrder = null;
+  }
+
+  /**
+   * Creates generator writing properties with object, writer and array of property
+   * descriptors stored in given slots.
+   */
+  public PropertyWriterGenerator(MethodVisitor mv, Type owner,
+      Elements elements, Types typeUtils, PropertiesCollector propertiesCollector,
+      int thisSlot, int writerSlot, int descriptorsSlot) {
+    super(mv, owner, elements, typeUtils, propertiesCollector, thisSlot, writerSlot);
+    this.descriptorsSlot = descriptorsSlot;
+    // Descriptors are built in same order, see JsonDescriptorsGenerator
+    this.descriptorsOrder = new ArrayList<>(propertiesCollector.getJsonProperties().values());
   }
 
   @Override
   protected void getPropertyId() {
-    // Read index of property, and store it as local, this has been
-    // determined as having big performance impact for reading large objects
+    // Read index of property once, it's used as switch key
     mv.visitVarInsn(ALOAD, PARAM_DESC);
     mv.visitMethodInsn(INVOKEVIRTUAL, JSON_PROPERTY_DESCRIPTOR_NAME,
         "getWritePropertyIndex", GET_READ_INDEX_DESCRIPTOR, false);
@@ -79,38 +127,23 @@ public class PropertyWriterGenerator extends PropertyAbstractGenerator{
   protected void handlePrimitiveProperty(FieldProperty fieldProperty, TypeMirror propertyType) {
     final String writeMethodDesc;
 
-    // Right now JsonWriter has only long version of value, so 32bit integers
-    // has to be casted to long.
-    // Same story for floats
-    boolean castIntToLong = false;
-    boolean castFloatToDouble = false;
-
-    // TODO Remove casting by adding floats / ints to reader
-
     // I really don't like this switch for primitives
     switch (propertyType.getKind()) {
       case BYTE:
-        writeMethodDesc = getMethodDescriptor(getType(JsonWriter.class), LONG_TYPE);
-        castIntToLong = true;
-        break;
       case SHORT:
-        writeMethodDesc = getMethodDescriptor(getType(JsonWriter.class), LONG_TYPE);
-        castIntToLong = true;
-        break;
       case INT:
-        // TODO Extract method descriptors to constants
-        writeMethodDesc = getMethodDescriptor(getType(JsonWriter.class), LONG_TYPE);
-        castIntToLong = true;
+        // Smaller integers are already int on stack
+        writeMethodDesc = JSON_WRITE_INT_VALUE;
         break;
       case BOOLEAN:
         writeMethodDesc = getMethodDescriptor(getType(JsonWriter.class), BOOLEAN_TYPE);
         break;
       case LONG:
-        writeMethodDesc = getMethodDescriptor(getType(JsonWriter.class), LONG_TYPE);
+        writeMethodDesc = JSON_WRITE_LONG_VALUE;
         break;
       case FLOAT:
-        writeMethodDesc = getMethodDescriptor(getType(JsonWriter.class), DOUBLE_TYPE);
-        castFloatToDouble = true;
+        // Written as float, so it's not widened to double with all its digits
+        writeMethodDesc = JSON_WRITE_FLOAT_VALUE;
         break;
       case DOUBLE:
         writeMethodDesc = getMethodDescriptor(getType(JsonWriter.class), DOUBLE_TYPE);
@@ -121,15 +154,9 @@ public class PropertyWriterGenerator extends PropertyAbstractGenerator{
             + fieldProperty.getPropertyName() + " in " + owner);
     }
 
-    if (castIntToLong) {
-      mv.visitInsn(I2L);
-    }
-    if (castFloatToDouble) {
-      mv.visitInsn(F2D);
-    }
-
     mv.visitMethodInsn(INVOKEVIRTUAL, JSON_WRITER_NAME,
         "value", writeMethodDesc, false);
+    mv.visitInsn(POP); // Remove JsonWriter - result from calling value
   }
 
   @Override
@@ -139,7 +166,7 @@ public class PropertyWriterGenerator extends PropertyAbstractGenerator{
     this.writePropertyName(fieldProperty); // After it JsonWriter on stack
 
     // Put value of property
-    mv.visitVarInsn(ALOAD, PARAM_THIS);
+    mv.visitVarInsn(ALOAD, thisSlot);
     mv.visitFieldInsn(GETFIELD, owner.getInternalName(),
         fieldProperty.getFieldElement().getSimpleName().toString(),
         utils.descriptorFromTypeMirror(propoertyType));
@@ -178,6 +205,7 @@ public class PropertyWriterGenerator extends PropertyAbstractGenerator{
     // Call a method with appropriate signature
     mv.visitMethodInsn(INVOKEVIRTUAL, JSON_WRITER_NAME, "value",
         valueMethodSignature, false);
+    mv.visitInsn(POP); // Remove JsonWriter - result from calling value
   }
 
   @Override
@@ -210,9 +238,163 @@ public class PropertyWriterGenerator extends PropertyAbstractGenerator{
     mv.visitLabel(endIf);
   }
 
+  /**
+   * Writes collection as JSON array. The loop is specialized for type of elements,
+   * so every element is written by direct call to its <code>#jsonWrite</code> or by
+   * value method of writer. Elements of <code>ArrayList</code> are accessed by index,
+   * other collections are iterated.
+   */
   @Override
   protected void handleCollectionProperty(FieldProperty fieldProperty, DeclaredType declaredType) {
+    final DeclaredType elementType = getCollectionElementType(fieldProperty, declaredType);
+    final TypeElement collectionElement = (TypeElement) declaredType.asElement();
+    final String collectionName = utils.internalName(collectionElement);
+    final boolean collectionInterface = collectionElement.getKind() == ElementKind.INTERFACE;
+    final String elementName = utils.internalName((TypeElement) elementType.asElement());
+    final int collectionSlot = firstFreeSlot();
+
+    final Label notNull = new Label();
+    final Label end = new Label();
+    final Label loopStart = new Label();
+    final Label loopEnd = new Label();
+
+    // On stack JSON writer, field value
+    mv.visitInsn(DUP);
+    mv.visitJumpInsn(IFNONNULL, notNull);
+    mv.visitInsn(POP);
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_WRITER_NAME,
+        "nullValue", JSON_WRITE_NULL_VALUE, false);
+    mv.visitInsn(POP);
+    mv.visitJumpInsn(GOTO, end);
+
+    mv.visitLabel(notNull);
+    mv.visitVarInsn(ASTORE, collectionSlot);
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_WRITER_NAME,
+        "beginArray", JSON_WRITER_RETURNING_METHOD, false);
+    mv.visitInsn(POP);
+
+    if (ArrayList.class.getName().equals(elements.getBinaryName(collectionElement).toString())) {
+      // for (int i = 0, size = list.size(); i < size; i++) write(list.get(i))
+      final int indexSlot = collectionSlot + 1;
+      final int sizeSlot = collectionSlot + 2;
+      mv.visitInsn(ICONST_0);
+      mv.visitVarInsn(ISTORE, indexSlot);
+      mv.visitVarInsn(ALOAD, collectionSlot);
+      mv.visitMethodInsn(INVOKEVIRTUAL, collectionName, "size", INT_RETURNING_METHOD, false);
+      mv.visitVarInsn(ISTORE, sizeSlot);
+
+      mv.visitLabel(loopStart);
+      mv.visitVarInsn(ILOAD, indexSlot);
+      mv.visitVarInsn(ILOAD, sizeSlot);
+      mv.visitJumpInsn(IF_ICMPGE, loopEnd);
+      mv.visitVarInsn(ALOAD, readerWriterSlot);
+      mv.visitVarInsn(ALOAD, collectionSlot);
+      mv.visitVarInsn(ILOAD, indexSlot);
+      mv.visitMethodInsn(INVOKEVIRTUAL, collectionName, "get", INT_OBJECT_METHOD_DESCRIPTOR, false);
+      mv.visitTypeInsn(CHECKCAST, elementName);
+      writeCollectionElement(fieldProperty, elementType);
+      mv.visitIincInsn(indexSlot, 1);
+      mv.visitJumpInsn(GOTO, loopStart);
+    } else {
+      // for (Iterator it = collection.iterator(); it.hasNext(); ) write(it.next())
+      final int iteratorSlot = collectionSlot + 1;
+      mv.visitVarInsn(ALOAD, collectionSlot);
+      mv.visitMethodInsn(collectionInterface ? INVOKEINTERFACE : INVOKEVIRTUAL, collectionName,
+          "iterator", ITERATOR_RETURNING_METHOD, collectionInterface);
+      mv.visitVarInsn(ASTORE, iteratorSlot);
+
+      mv.visitLabel(loopStart);
+      mv.visitVarInsn(ALOAD, iteratorSlot);
+      mv.visitMethodInsn(INVOKEINTERFACE, ITERATOR_INTERNAL_NAME,
+          "hasNext", BOOL_RETURNING_METHOD, true);
+      mv.visitJumpInsn(IFEQ, loopEnd);
+      mv.visitVarInsn(ALOAD, readerWriterSlot);
+      mv.visitVarInsn(ALOAD, iteratorSlot);
+      mv.visitMethodInsn(INVOKEINTERFACE, ITERATOR_INTERNAL_NAME,
+          "next", OBJECT_RETURNING_METHOD, true);
+      mv.visitTypeInsn(CHECKCAST, elementName);
+      writeCollectionElement(fieldProperty, elementType);
+      mv.visitJumpInsn(GOTO, loopStart);
+    }
+
+    mv.visitLabel(loopEnd);
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_WRITER_NAME,
+        "endArray", JSON_WRITER_RETURNING_METHOD, false);
+    mv.visitInsn(POP);
+    mv.visitLabel(end);
+  }
+
+  /**
+   * Writes array of primitives, by loop calling primitive <code>value</code> method
+   * for every element, so elements are not boxed.
+   */
+  @Override
+  protected void handleArrayProperty(FieldProperty fieldProperty, ArrayType arrayType) {
+    checkArrayComponent(fieldProperty, arrayType);
+    // On stack JSON writer, field value
+    if (fieldProperty.isBase64()) {
+      mv.visitMethodInsn(INVOKEVIRTUAL, JSON_WRITER_NAME,
+          "base64Value", JSON_WRITE_BASE64_VALUE, false);
+      mv.visitInsn(POP); // Remove JsonWriter - result from calling base64Value
+      return;
+    }
+
+    final TypeMirror componentType = arrayType.getComponentType();
+    final int arraySlot = firstFreeSlot();
+    final int indexSlot = arraySlot + 1;
+    final Label notNull = new Label();
+    final Label end = new Label();
+    final Label loopStart = new Label();
+    final Label loopEnd = new Label();
+
+    mv.visitInsn(DUP);
+    mv.visitJumpInsn(IFNONNULL, notNull);
+    mv.visitInsn(POP);
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_WRITER_NAME,
+        "nullValue", JSON_WRITE_NULL_VALUE, false);
+    mv.visitInsn(POP);
+    mv.visitJumpInsn(GOTO, end);
+
+    mv.visitLabel(notNull);
+    mv.visitVarInsn(ASTORE, arraySlot);
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_WRITER_NAME,
+        "beginArray", JSON_WRITER_RETURNING_METHOD, false);
+    mv.visitInsn(POP);
+
+    // for (int i = 0; i < array.length; i++) writer.value(array[i])
+    mv.visitInsn(ICONST_0);
+    mv.visitVarInsn(ISTORE, indexSlot);
+    mv.visitLabel(loopStart);
+    mv.visitVarInsn(ILOAD, indexSlot);
+    mv.visitVarInsn(ALOAD, arraySlot);
+    mv.visitInsn(ARRAYLENGTH);
+    mv.visitJumpInsn(IF_ICMPGE, loopEnd);
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
+    mv.visitVarInsn(ALOAD, arraySlot);
+    mv.visitVarInsn(ILOAD, indexSlot);
+    mv.visitInsn(Type.getType(utils.descriptorFromTypeMirror(componentType)).getOpcode(IALOAD));
+    handlePrimitiveProperty(fieldProperty, componentType);
+    mv.visitIincInsn(indexSlot, 1);
+    mv.visitJumpInsn(GOTO, loopStart);
 
+    mv.visitLabel(loopEnd);
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
+    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_WRITER_NAME,
+        "endArray", JSON_WRITER_RETURNING_METHOD, false);
+    mv.visitInsn(POP);
+    mv.visitLabel(end);
+  }
+
+  /**
+   * Writes element of collection, on stack JSON writer and element.
+   */
+  private void writeCollectionElement(FieldProperty fieldProperty, DeclaredType elementType) {
+    if (isJsonClassElement(elementType)) {
+      handleComplexProperty(fieldProperty, elementType);
+    } else {
+      handleBasicReferenceProperty(fieldProperty, elementType);
+    }
   }
 
   private TypeMirror getStringType() {
@@ -224,17 +406,22 @@ public class PropertyWriterGenerator extends PropertyAbstractGenerator{
   }
 
   /**
-   * Writes property name to output JSON. On stack will be {@link JsonWriter}
+   * Writes property name to output JSON, using name pre-encoded in property
+   * descriptor. On stack will be {@link JsonWriter}
    * @param fieldProperty
    */
   protected void writePropertyName(FieldProperty fieldProperty) {
-    mv.visitVarInsn(ALOAD, PARAM_READER_WRITER);
-    mv.visitVarInsn(ALOAD, PARAM_DESC);
-    mv.visitMethodInsn(INVOKEVIRTUAL, JSON_PROPERTY_DESCRIPTOR_NAME,
-        "getJsonPropertyName", STRING_RETURNING_METHOD, false);
-    // On stack writer, property name
+    mv.visitVarInsn(ALOAD, readerWriterSlot);
+    if (descriptorsSlot >= 0) {
+      mv.visitVarInsn(ALOAD, descriptorsSlot);
+      mv.visitLdcInsn(descriptorsOrder.indexOf(fieldProperty));
+      mv.visitInsn(AALOAD);
+    } else {
+      mv.visitVarInsn(ALOAD, PARAM_DESC);
+    }
+    // On stack writer, property descriptor
     mv.visitMethodInsn(INVOKEVIRTUAL, JSON_WRITER_NAME,
-        "name", JSON_WRITE_STRING_VALUE, false);
+        "name", JSON_WRITE_NAME_DESCRIPTOR, false);
     // On stack writer
   }
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.generator.core;
+
+import static org.objectweb.asm.Opcodes.RETURN;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import net.rsmogura.picoson.annotations.Json.WriteMode;
+import net.rsmogura.picoson.generator.core.analyze.FieldProperty;
+import net.rsmogura.picoson.generator.core.analyze.PropertiesCollector;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates serialization method as straight-line code (see {@link WriteMode#UNROLLED}).
+ * Properties are written in order of write indices, with direct field access, so there's
+ * no loop over descriptors and no property dispatch. Names are written from fragments
+ * pre-encoded in property descriptors.
+ */
+public class UnrolledObjectSerializerGenerator extends ObjectSerializerGenerator {
+  private static final int THIS_SLOT = 0;
+  private static final int WRITER_SLOT = 1;
+  private static final int DESCRIPTORS_SLOT = 2;
+
+  public UnrolledObjectSerializerGenerator(MethodVisitor mv, Type owner,
+      Elements elements,
+      Types typeUtils,
+      PropertiesCollector propertiesCollector) {
+    super(mv, owner, elements, typeUtils, propertiesCollector);
+  }
+
+  @Override
+  public void generate() {
+    final List<FieldProperty> properties =
+        new ArrayList<>(propertiesCollector.getJsonProperties().values());
+    properties.sort(Comparator.comparingInt(FieldProperty::getWriteIndex));
+
+    final PropertyWriterGenerator propertyWriterGenerator = new PropertyWriterGenerator(mv,
+        owner, elements, typeUtils, propertiesCollector, THIS_SLOT, WRITER_SLOT, DESCRIPTORS_SLOT);
+
+    generateBeginObject();
+    if (!properties.isEmpty()) {
+      generatePropertiesDescriptorIterator(DESCRIPTORS_SLOT);
+    }
+    for (FieldProperty fp : properties) {
+      propertyWriterGenerator.handleProperty(fp);
+    }
+    generateEndObject();
+
+    mv.visitInsn(RETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+}
@@ -15,6 +15,7 @@
 
 package net.rsmogura.picoson.generator.core.analyze;
 
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.VariableElement;
 
 /**
@@ -25,6 +26,10 @@ public class FieldProperty {
   private VariableElement fieldElement;
   private int readIndex = -1;
   private int writeIndex = -1;
+  private int expectedSize = -1;
+  private boolean base64;
+  private ExecutableElement viewHandler;
+  private boolean cached;
 
   public String getPropertyName() {
     return propertyName;
@@ -61,4 +66,40 @@ public class FieldProperty {
   public void setWriteIndex(int writeIndex) {
     this.writeIndex = writeIndex;
   }
+
+  public int getExpectedSize() {
+    return expectedSize;
+  }
+
+  public void setExpectedSize(int expectedSize) {
+    this.expectedSize = expectedSize;
+  }
+
+  public boolean isBase64() {
+    return base64;
+  }
+
+  public void setBase64(boolean base64) {
+    this.base64 = base64;
+  }
+
+  /**
+   * Returns name of method receiving view of string value, or null if value is stored in field.
+   */
+  public ExecutableElement getViewHandler() {
+    return viewHandler;
+  }
+
+  public void setViewHandler(ExecutableElement viewHandler) {
+    this.viewHandler = viewHandler;
+  }
+
+  /** Returns true if string values are read through string cache. */
+  public boolean isCached() {
+    return cached;
+  }
+
+  public void setCached(boolean cached) {
+    this.cached = cached;
+  }
 }
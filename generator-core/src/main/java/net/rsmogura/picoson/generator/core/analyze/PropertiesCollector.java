@@ -16,20 +16,31 @@
 package net.rsmogura.picoson.generator.core.analyze;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Set;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.tools.Diagnostic;
 import net.rsmogura.picoson.annotations.JsonProperty;
+import net.rsmogura.picoson.annotations.JsonUnknownProperties;
 
 public class PropertiesCollector {
 
   private final ProcessingEnvironment processingEnv;
 
-  private final HashMap<String, FieldProperty> jsonProperties = new HashMap<>();
+  /** Properties in declaration order. */
+  private final HashMap<String, FieldProperty> jsonProperties = new LinkedHashMap<>();
+
+  /** Field marked with {@link JsonUnknownProperties}, or null. */
+  private VariableElement unknownPropertiesField;
 
   private int currentReadIndex;
   private int currentWriteIndex;
@@ -53,6 +64,10 @@ public class PropertiesCollector {
     return jsonProperties;
   }
 
+  public VariableElement getUnknownPropertiesField() {
+    return unknownPropertiesField;
+  }
+
   protected void processElement(Element element) {
     if (!validateElement(element)) {
       // Element not valid
@@ -65,6 +80,11 @@ public class PropertiesCollector {
   }
 
   protected void processField(VariableElement varElement) {
+    if (varElement.getAnnotation(JsonUnknownProperties.class) != null) {
+      this.unknownPropertiesField = varElement;
+      return;
+    }
+
     FieldProperty fieldProperty = new FieldProperty();
 
     JsonProperty annotation = varElement.getAnnotation(JsonProperty.class);
@@ -73,6 +93,24 @@ public class PropertiesCollector {
     } else {
       fieldProperty.setPropertyName(varElement.getSimpleName().toString());
     }
+    if (annotation != null) {
+      fieldProperty.setExpectedSize(annotation.expectedSize());
+      fieldProperty.setBase64(annotation.base64());
+      if (!annotation.viewHandler().isEmpty()) {
+        final ExecutableElement viewHandler =
+            findViewHandler(varElement, annotation.viewHandler());
+        if (viewHandler == null) {
+          return;
+        }
+        fieldProperty.setViewHandler(viewHandler);
+      }
+      if (annotation.cached()) {
+        if (!validateCached(varElement)) {
+          return;
+        }
+        fieldProperty.setCached(true);
+      }
+    }
     fieldProperty.setFieldElement(varElement);
     fieldProperty.setReadIndex(this.currentReadIndex++);
     fieldProperty.setWriteIndex(this.currentWriteIndex++);
@@ -80,6 +118,62 @@ public class PropertiesCollector {
     this.jsonProperties.put(fieldProperty.getPropertyName(), fieldProperty);
   }
 
+  /**
+   * Finds view handler of string field - instance void method of its class, or inherited one,
+   * taking {@link CharSequence}, prints error if there's no such method.
+   *
+   * @return the handler method, or null if it's not valid
+   */
+  protected ExecutableElement findViewHandler(VariableElement varElement, String handler) {
+    final TypeElement classElement = (TypeElement) varElement.getEnclosingElement();
+    final String fieldType = varElement.asType().toString();
+    final ExecutableElement method = ElementFilter.methodsIn(
+        this.processingEnv.getElementUtils().getAllMembers(classElement))
+        .stream()
+        .filter(m -> m.getSimpleName().contentEquals(handler)
+            && !m.getModifiers().contains(Modifier.STATIC)
+            && m.getParameters().size() == 1
+            && CharSequence.class.getName().equals(m.getParameters().get(0).asType().toString()))
+        .findFirst()
+        .orElse(null);
+
+    String error = null;
+    if (!String.class.getName().equals(fieldType)
+        && !CharSequence.class.getName().equals(fieldType)) {
+      error = "View handler can be used only with String property";
+    } else if (method == null) {
+      error = "No method " + handler + "(CharSequence) for view handler";
+    } else if (method.getReturnType().getKind() != TypeKind.VOID) {
+      error = "View handler " + handler + "(CharSequence) has to return void";
+    }
+
+    if (error != null) {
+      this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          String.format("%s: %s in %s", error,
+              varElement.getSimpleName(), classElement.getSimpleName()));
+      return null;
+    }
+    return method;
+  }
+
+  /**
+   * Checks if cached field is string or collection of strings, prints error if not.
+   */
+  protected boolean validateCached(VariableElement varElement) {
+    TypeMirror type = varElement.asType();
+    if (type.getKind() == TypeKind.DECLARED
+        && ((DeclaredType) type).getTypeArguments().size() == 1) {
+      type = ((DeclaredType) type).getTypeArguments().get(0);
+    }
+    if (!String.class.getName().equals(type.toString())) {
+      this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          String.format("Only String properties can be cached: %s in %s",
+              varElement.getSimpleName(), varElement.getEnclosingElement().getSimpleName()));
+      return false;
+    }
+    return true;
+  }
+
   /**
    * Validates element, prints information if required.
    *
@@ -24,6 +24,7 @@ import static org.mockito.Mockito.when;
 import java.util.EnumSet;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
@@ -49,6 +50,9 @@ class GeneratorUtilsTest {
   @Mock
   DeclaredType testDeclaredType;
 
+  @Mock
+  ArrayType testArrayType;
+
   @Mock
   TypeElement testTypeElement;
 
@@ -93,6 +97,19 @@ class GeneratorUtilsTest {
     verifyKindAgainstSignature("D", TypeKind.DOUBLE);
   }
 
+  @Test
+  void descriptorFromArrayTypeMirror() {
+    when(testArrayType.getKind()).thenReturn(TypeKind.ARRAY);
+    when(testArrayType.getComponentType()).thenReturn(typeMirror);
+
+    when(typeMirror.getKind()).thenReturn(TypeKind.DOUBLE);
+    assertEquals("[D", generatorUtils.descriptorFromTypeMirror(testArrayType));
+
+    when(typeMirror.getKind()).thenReturn(TypeKind.DECLARED);
+    assertEquals("[Ltest/binaryName/Test$Name;",
+        generatorUtils.descriptorFromTypeMirror(testArrayType));
+  }
+
   private void verifyKindAgainstSignature(String expectedSignature, TypeKind kind) {
     when(typeMirror.getKind()).thenReturn(kind);
     assertEquals(expectedSignature, generatorUtils.descriptorFromTypeMirror(typeMirror));
@@ -106,6 +123,7 @@ class GeneratorUtilsTest {
   void descriptorFromTypeMirror_Throws() {
     final EnumSet<TypeKind> toCheckKinds = EnumSet.allOf(TypeKind.class);
     toCheckKinds.remove(TypeKind.DECLARED);
+    toCheckKinds.remove(TypeKind.ARRAY);
     toCheckKinds.removeIf(TypeKind::isPrimitive);
 
     toCheckKinds.forEach(kind -> {
@@ -16,21 +16,28 @@
 package net.rsmogura.picoson.generator.core;
 
 import static javax.lang.model.type.TypeKind.DECLARED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
 
+import java.util.ArrayList;
+import java.util.List;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
+import net.rsmogura.picoson.generator.core.analyze.FieldProperty;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
 
@@ -75,8 +82,9 @@ class PropertyReaderGeneratorTest {
     when(types.erasure(declaredType)).thenReturn(declaredType);
     when(elements.getBinaryName(declaredTypeElement)).thenReturn(binaryName);
 
+    final FieldProperty fieldProperty = new FieldProperty();
     when(declaredTypeElementSimpleName.toString()).thenReturn("Long");
-    readerGenerator.handleBasicReferenceProperty(null, declaredType);
+    readerGenerator.handleBasicReferenceProperty(fieldProperty, declaredType);
     verify(mv).visitMethodInsn(INVOKEVIRTUAL, "net/rsmogura/picoson/JsonReader",
         "nextBoxedLong", "()Lmy/test/Type$AtTest;", false);
     // Note the signature for read method is build from declared type, so it
@@ -84,13 +92,49 @@ class PropertyReaderGeneratorTest {
 
     // "Special cases"
     when(declaredTypeElementSimpleName.toString()).thenReturn("String");
-    readerGenerator.handleBasicReferenceProperty(null, declaredType);
+    readerGenerator.handleBasicReferenceProperty(fieldProperty, declaredType);
     verify(mv).visitMethodInsn(INVOKEVIRTUAL, "net/rsmogura/picoson/JsonReader",
         "nextString", "()Lmy/test/Type$AtTest;", false);
 
+    fieldProperty.setCached(true);
+    readerGenerator.handleBasicReferenceProperty(fieldProperty, declaredType);
+    verify(mv).visitMethodInsn(INVOKEVIRTUAL, "net/rsmogura/picoson/JsonReader",
+        "nextCachedString", "()Lmy/test/Type$AtTest;", false);
+    fieldProperty.setCached(false);
+
     when(declaredTypeElementSimpleName.toString()).thenReturn("Integer");
-    readerGenerator.handleBasicReferenceProperty(null, declaredType);
+    readerGenerator.handleBasicReferenceProperty(fieldProperty, declaredType);
     verify(mv).visitMethodInsn(INVOKEVIRTUAL, "net/rsmogura/picoson/JsonReader",
         "nextBoxedInt", "()Lmy/test/Type$AtTest;", false);
   }
-}
\ No newline at end of file
+
+  @Test
+  void generatePropertySwitchDenseIndices() {
+    final List<FieldProperty> properties = properties(0, 1, 2, 3, 5);
+    final Label defaultBlock = new Label();
+    final Label[] blocks = readerGenerator.generatePropertySwitch(properties, defaultBlock);
+
+    assertEquals(properties.size(), blocks.length);
+    verify(mv).visitTableSwitchInsn(0, 5, defaultBlock,
+        blocks[0], blocks[1], blocks[2], blocks[3], defaultBlock, blocks[4]);
+  }
+
+  @Test
+  void generatePropertySwitchSparseIndices() {
+    final List<FieldProperty> properties = properties(0, 100, 1000);
+    final Label defaultBlock = new Label();
+    final Label[] blocks = readerGenerator.generatePropertySwitch(properties, defaultBlock);
+
+    verify(mv).visitLookupSwitchInsn(same(defaultBlock), any(int[].class), same(blocks));
+  }
+
+  private static List<FieldProperty> properties(int... readIndices) {
+    final List<FieldProperty> properties = new ArrayList<>();
+    for (int readIndex : readIndices) {
+      final FieldProperty fieldProperty = new FieldProperty();
+      fieldProperty.setReadIndex(readIndex);
+      properties.add(fieldProperty);
+    }
+    return properties;
+  }
+}
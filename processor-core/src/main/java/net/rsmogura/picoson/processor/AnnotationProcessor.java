@@ -22,9 +22,28 @@ import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
 import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import net.rsmogura.picoson.abi.JsonModuleRegistry;
+import net.rsmogura.picoson.annotations.JsonModule;
+import net.rsmogura.picoson.generator.core.JsonModuleRegistryGenerator;
+import net.rsmogura.picoson.generator.core.PicosonGeneratorException;
 
 /**
  * Entry class for processing annotations.
@@ -33,6 +52,9 @@ import java.util.Set;
 public class AnnotationProcessor extends AbstractProcessor {
   private JavacProcessingEnvironment javacProcessingEnv;
 
+  /** Binary names of module registries generated in all rounds. */
+  private final List<String> moduleRegistries = new ArrayList<>();
+
   @Override
   public synchronized void init(ProcessingEnvironment processingEnv) {
     super.init(processingEnv);
@@ -43,9 +65,87 @@ public class AnnotationProcessor extends AbstractProcessor {
   }
 
   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element module : roundEnv.getElementsAnnotatedWith(JsonModule.class)) {
+      generateModuleRegistry((TypeElement) module);
+    }
+
+    if (roundEnv.processingOver() && !moduleRegistries.isEmpty()) {
+      writeModuleRegistriesServices();
+    }
     return true;
   }
 
+  /**
+   * Generates registry of JSON classes reachable from module.
+   */
+  protected void generateModuleRegistry(TypeElement module) {
+    final JsonModuleRegistryGenerator generator =
+        new JsonModuleRegistryGenerator(module, processingEnv.getElementUtils());
+    try {
+      final byte[] registryClass = generator.generate();
+      final JavaFileObject classFile = processingEnv.getFiler()
+          .createClassFile(generator.getRegistryBinaryName(), module);
+      try (OutputStream out = classFile.openOutputStream()) {
+        out.write(registryClass);
+      }
+      moduleRegistries.add(generator.getRegistryBinaryName());
+    } catch (IOException | PicosonGeneratorException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Can't generate registry of JSON module: " + e.getMessage(), module);
+    }
+  }
+
+  /**
+   * Registers generated module registries as services, so those can be found by
+   * {@link java.util.ServiceLoader}. Registries already listed in services file of class output
+   * (like ones from previous incremental compilation) are kept.
+   */
+  protected void writeModuleRegistriesServices() {
+    final String servicesFile = "META-INF/services/" + JsonModuleRegistry.class.getName();
+    final Set<String> registries = new TreeSet<>(readExistingServices(servicesFile));
+    registries.addAll(moduleRegistries);
+    try {
+      final FileObject services = processingEnv.getFiler().createResource(
+          StandardLocation.CLASS_OUTPUT, "", servicesFile);
+      try (Writer out = new OutputStreamWriter(services.openOutputStream(),
+          StandardCharsets.UTF_8)) {
+        for (String moduleRegistry : registries) {
+          out.write(moduleRegistry);
+          out.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Can't register JSON modules: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads services listed in given file of class output, returns empty list if there's no such
+   * file.
+   */
+  protected List<String> readExistingServices(String servicesFile) {
+    final List<String> services = new ArrayList<>();
+    try {
+      final FileObject existing = processingEnv.getFiler().getResource(
+          StandardLocation.CLASS_OUTPUT, "", servicesFile);
+      try (BufferedReader in = new BufferedReader(new InputStreamReader(
+          existing.openInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = in.readLine()) != null) {
+          final int comment = line.indexOf('#');
+          final String service = (comment >= 0 ? line.substring(0, comment) : line).trim();
+          if (!service.isEmpty()) {
+            services.add(service);
+          }
+        }
+      }
+    } catch (IOException e) {
+      // No services registered before
+    }
+    return services;
+  }
+
   protected void addClassTransformationHandlers(JavacProcessingEnvironment javacProcessingEnv) {
     final JavacTask currentTask = getJavacTaskInstance();
     final JavaFileManager fileManager = javacProcessingEnv.getContext().get(JavaFileManager.class);
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import net.rsmogura.picoson.abi.JsonModuleRegistry;
+import net.rsmogura.picoson.abi.Names;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compiles JSON modules using {@link AnnotationProcessor}, and checks registered services.
+ */
+class ModuleRegistryServicesTest {
+
+  @Test
+  void existingServicesKept() throws Exception {
+    final Path output = Files.createTempDirectory("picoson-processor");
+    final Path services = output.resolve("META-INF/services/" + JsonModuleRegistry.class.getName());
+    Files.createDirectories(services.getParent());
+    Files.write(services, Arrays.asList("# Registered before", "test.Other"),
+        StandardCharsets.UTF_8);
+
+    final List<String> errors = ProcessorCompiler.compile(output, "test.Module",
+        "package test;\n"
+            + "import net.rsmogura.picoson.annotations.JsonModule;\n"
+            + "@JsonModule\n"
+            + "public class Module {\n"
+            + "}\n");
+
+    assertTrue(errors.isEmpty(), errors.toString());
+    assertEquals(Arrays.asList("test.Module" + Names.MODULE_REGISTRY_POSTFIX, "test.Other"),
+        Files.readAllLines(services, StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.processor;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compiles JSON classes with view handlers using {@link AnnotationProcessor}.
+ */
+class ViewHandlerValidationTest {
+
+  @Test
+  void nonVoidHandlerRejected() throws Exception {
+    final List<String> errors = compile("test.NonVoidHandler",
+        "package test;\n"
+            + "import net.rsmogura.picoson.annotations.Json;\n"
+            + "import net.rsmogura.picoson.annotations.JsonProperty;\n"
+            + "@Json\n"
+            + "public class NonVoidHandler {\n"
+            + "  @JsonProperty(viewHandler = \"onValue\")\n"
+            + "  private String value;\n"
+            + "  int onValue(CharSequence view) { return view.length(); }\n"
+            + "}\n");
+
+    assertFalse(errors.isEmpty());
+    assertTrue(errors.get(0).contains("has to return void"), errors.get(0));
+  }
+
+  @Test
+  void inheritedHandlerAccepted() throws Exception {
+    final List<String> errors = compile("test.InheritedHandler",
+        "package test;\n"
+            + "import net.rsmogura.picoson.annotations.Json;\n"
+            + "import net.rsmogura.picoson.annotations.JsonProperty;\n"
+            + "@Json\n"
+            + "public class InheritedHandler extends HandlerBase {\n"
+            + "  @JsonProperty(viewHandler = \"onValue\")\n"
+            + "  private String value;\n"
+            + "}\n"
+            + "class HandlerBase {\n"
+            + "  protected void onValue(CharSequence view) { }\n"
+            + "}\n");
+
+    assertTrue(errors.isEmpty(), errors.toString());
+  }
+
+  private static List<String> compile(String className, String source) throws Exception {
+    return ProcessorCompiler.compile(Files.createTempDirectory("picoson-processor"),
+        className, source);
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import net.rsmogura.picoson.annotations.Json;
+import net.rsmogura.picoson.annotations.JsonProperty;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.StringCache;
+import org.junit.jupiter.api.Test;
+
+public class CachedStringsTest {
+  private static final JsonSupport<Order> SUPPORT =
+      net.rsmogura.picoson.Json.jsonSupport(Order.class);
+
+  private static final String JSON =
+      "{\"status\": \"shipped\", \"country\": \"PL\", \"tags\": [\"gift\", \"gift\"]}";
+
+  @Test
+  public void testCachedPropertiesShared() {
+    final Order first = SUPPORT.read(new JsonReader(new StringReader(JSON)));
+    final Order second = SUPPORT.read(new JsonReader(new StringReader(JSON)));
+
+    assertEquals("shipped", first.status);
+    assertSame(first.status, second.status);
+    assertEquals(Arrays.asList("gift", "gift"), first.tags);
+    assertSame(first.tags.get(0), second.tags.get(1));
+    // Not cached property
+    assertEquals("PL", first.country);
+    assertNotSame(first.country, second.country);
+  }
+
+  @Test
+  public void testReaderCache() {
+    final StringCache cache = new StringCache();
+    final JsonReader firstReader = new JsonReader(new StringReader(JSON));
+    firstReader.setStringCache(cache);
+    final Order first = SUPPORT.read(firstReader);
+    final JsonReader secondReader = new JsonReader(new StringReader(JSON));
+    secondReader.setStringCache(cache);
+    final Order second = SUPPORT.read(secondReader);
+
+    // Reader cache applies to all properties
+    assertSame(first.country, second.country);
+    assertSame(first.status, second.status);
+  }
+
+  @Json
+  public static class Order {
+    @JsonProperty(cached = true)
+    private String status;
+
+    private String country;
+
+    @JsonProperty(cached = true)
+    private List<String> tags;
+  }
+}
@@ -6,6 +6,8 @@ import net.rsmogura.picoson.JsonReader;
 import net.rsmogura.picoson.JsonSupport;
 import net.rsmogura.picoson.JsonWriter;
 import net.rsmogura.picoson.annotations.Json;
+import net.rsmogura.picoson.annotations.Json.WriteMode;
+import net.rsmogura.picoson.annotations.JsonProperty;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -13,11 +15,16 @@ import java.io.CharArrayReader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class CollectionTest {
@@ -47,11 +54,83 @@ public class CollectionTest {
     jsonSupport.writeCollection(new JsonWriter(sw), accounts);
 
     assertEquals("[" +
-      "{\"id\":1,\"userId\":\"a\"},"+
-      "{\"id\":2,\"userId\":\"b\"}" +
+      "{\"userId\":\"a\",\"id\":1},"+
+      "{\"userId\":\"b\",\"id\":2}" +
       "]", sw.toString());
   }
 
+  private static final String MULTI_OBJECT_JSON = "{" +
+    "\"userAccountsList\":[{\"userId\":\"a\",\"id\":1},null,{\"userId\":\"b\",\"id\":2}]," +
+    "\"ids\":[3,null,1]," +
+    "\"tags\":[\"x\",\"y\"]," +
+    "\"sortedTags\":[\"x\",\"y\"]," +
+    "\"accounts\":[{\"userId\":\"c\",\"id\":3}]," +
+    "\"nested\":[{\"userAccountsList\":[{\"userId\":\"d\",\"id\":4}]," +
+      "\"ids\":null,\"tags\":null,\"sortedTags\":null,\"accounts\":null,\"nested\":null}]" +
+    "}";
+
+  @Test
+  public void testReadCollectionProperties() {
+    MultiObject result = net.rsmogura.picoson.Json.jsonSupport(MultiObject.class)
+      .read(new JsonReader(new StringReader(MULTI_OBJECT_JSON)));
+
+    assertSame(ArrayList.class, result.userAccountsList.getClass());
+    assertEquals(3, result.userAccountsList.size());
+    assertEquals("a", result.userAccountsList.get(0).userId);
+    assertNull(result.userAccountsList.get(1));
+    assertEquals(2, result.userAccountsList.get(2).id);
+
+    assertEquals(Arrays.asList(3, null, 1), result.ids);
+
+    assertSame(LinkedHashSet.class, result.tags.getClass());
+    assertEquals(Arrays.asList("x", "y"), new ArrayList<>(result.tags));
+    assertEquals(Arrays.asList("x", "y"), new ArrayList<>(result.sortedTags));
+
+    assertEquals(1, result.accounts.size());
+    final UserAccount account = result.accounts.iterator().next();
+    assertEquals("c", account.userId);
+
+    assertEquals(1, result.nested.size());
+    final MultiObject nested = result.nested.get(0);
+    assertEquals("d", nested.userAccountsList.get(0).userId);
+    assertNull(nested.ids);
+    assertNull(nested.tags);
+    assertNull(nested.nested);
+  }
+
+  @Test
+  public void testWriteCollectionProperties() {
+    JsonSupport<MultiObject> jsonSupport = net.rsmogura.picoson.Json.jsonSupport(MultiObject.class);
+    MultiObject multiObject = jsonSupport.read(new JsonReader(new StringReader(MULTI_OBJECT_JSON)));
+
+    StringWriter sw = new StringWriter();
+    jsonSupport.write(multiObject, new JsonWriter(sw));
+    assertEquals(MULTI_OBJECT_JSON, sw.toString());
+  }
+
+  @Test
+  public void testCollectionPropertiesDescriptorsWriteMode() {
+    JsonSupport<DescriptorsMultiObject> jsonSupport =
+      net.rsmogura.picoson.Json.jsonSupport(DescriptorsMultiObject.class);
+    DescriptorsMultiObject multiObject = new DescriptorsMultiObject();
+    multiObject.userAccountsList = new ArrayList<>(Arrays.asList(
+      new UserAccount("a", 1), new UserAccount("b", 2)));
+    multiObject.tags = new TreeSet<>(Arrays.asList("y", "x"));
+
+    StringWriter sw = new StringWriter();
+    jsonSupport.write(multiObject, new JsonWriter(sw));
+    final String json = sw.toString();
+    assertEquals("{" +
+      "\"userAccountsList\":[{\"userId\":\"a\",\"id\":1},{\"userId\":\"b\",\"id\":2}]," +
+      "\"tags\":[\"x\",\"y\"]" +
+      "}", json);
+
+    DescriptorsMultiObject result = jsonSupport.read(new JsonReader(new StringReader(json)));
+    assertEquals(2, result.userAccountsList.size());
+    assertEquals("b", result.userAccountsList.get(1).userId);
+    assertEquals(multiObject.tags, result.tags);
+  }
+
   @Json
   @NoArgsConstructor
   @AllArgsConstructor
@@ -64,9 +143,27 @@ public class CollectionTest {
   public static class MultiObject {
     private List<UserAccount> userAccountsList;
 
+    @JsonProperty(expectedSize = 16)
+    private ArrayList<Integer> ids;
+
+    private Set<String> tags;
+
+    private TreeSet<String> sortedTags;
+
+    private Collection<? extends UserAccount> accounts;
+
+    private List<MultiObject> nested;
+
     //private AccountsList accountsList;
   }
 
+  @Json(writeMode = WriteMode.DESCRIPTORS)
+  public static class DescriptorsMultiObject {
+    private ArrayList<UserAccount> userAccountsList;
+
+    private Set<String> tags;
+  }
+
   public static class AccountsList extends LinkedList<UserAccount> {
 
   }
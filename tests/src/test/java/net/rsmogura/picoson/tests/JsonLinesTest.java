@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import net.rsmogura.picoson.JsonPool;
+import net.rsmogura.picoson.JsonReadException;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.JsonWriter;
+import net.rsmogura.picoson.MalformedJsonException;
+import net.rsmogura.picoson.annotations.Json;
+import org.junit.jupiter.api.Test;
+
+public class JsonLinesTest {
+  private static final JsonSupport<Record> SUPPORT =
+      net.rsmogura.picoson.Json.jsonSupport(Record.class);
+
+  @Test
+  public void testStreamLines() {
+    final String json = "{\"id\": 1, \"message\": \"a\\nb\"}\r\n\n{\"id\": 2}\n  {\"id\": 3}\n";
+    final JsonReader reader = new JsonReader(new StringReader(json));
+    assertEquals(Arrays.asList(1, 2, 3), SUPPORT.streamLines(reader)
+        .map(record -> record.id)
+        .collect(Collectors.toList()));
+    assertTrue(reader.isJsonLines());
+
+    final JsonReader utf8Reader = new JsonReader(json.getBytes(StandardCharsets.UTF_8));
+    assertEquals("a\nb", SUPPORT.streamLines(utf8Reader).findFirst().get().message);
+  }
+
+  @Test
+  public void testMultipleValuesRequireJsonLines() {
+    final JsonReader reader = new JsonReader(new StringReader("{\"id\": 1}\n{\"id\": 2}"));
+    SUPPORT.read(reader);
+    assertThrows(MalformedJsonException.class, reader::peek);
+  }
+
+  @Test
+  public void testValuesOnSameLine() {
+    final String json = "{\"id\": 1} {\"id\": 2}\n";
+    final RuntimeException chars = assertThrows(RuntimeException.class,
+        () -> SUPPORT.streamLines(new JsonReader(new StringReader(json))).count());
+    assertTrue(chars.getMessage().contains("Expected new line"), chars.getMessage());
+
+    final RuntimeException bytes = assertThrows(RuntimeException.class,
+        () -> SUPPORT.streamLines(new JsonReader(json.getBytes(StandardCharsets.UTF_8))).count());
+    assertTrue(bytes.getMessage().contains("Expected new line"), bytes.getMessage());
+
+    // Carriage return alone doesn't separate lines
+    assertThrows(RuntimeException.class, () -> SUPPORT.readLinesParallel(
+        "{\"id\": 1}\r{\"id\": 2}".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testNullLine() {
+    final JsonReader reader = new JsonReader(new StringReader("{\"id\": 1}\nnull\n"));
+    assertThrows(JsonReadException.class, () -> SUPPORT.streamLines(reader).count());
+  }
+
+  @Test
+  public void testWriteLines() {
+    final StringWriter out = new StringWriter();
+    final JsonWriter writer = JsonPool.acquireWriter(out);
+    SUPPORT.writeLines(writer, Arrays.asList(Record.of(1, "a\nb"), Record.of(2, null)));
+    SUPPORT.writeLine(Record.of(3, "c"), writer);
+    writer.flush();
+    JsonPool.release(writer);
+
+    assertEquals("{\"id\":1,\"message\":\"a\\nb\"}\n{\"id\":2,\"message\":null}\n"
+        + "{\"id\":3,\"message\":\"c\"}", out.toString());
+    assertEquals(3, SUPPORT.streamLines(new JsonReader(new StringReader(out.toString())))
+        .count());
+
+    // Writer given back to pool doesn't write lines
+    final JsonWriter pooled = JsonPool.acquireWriter(new StringWriter());
+    assertEquals(false, pooled.isJsonLines());
+    JsonPool.release(pooled);
+  }
+
+  @Test
+  public void testReadLinesParallel() {
+    final StringBuilder json = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      json.append("{\"id\": ").append(i).append(", \"message\": \"line\\n").append(i)
+          .append("\"}\n");
+    }
+    final ByteBuffer bytes = ByteBuffer.wrap(json.toString().getBytes(StandardCharsets.UTF_8));
+
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      final List<Record> records = SUPPORT.readLinesParallel(bytes, pool);
+      assertEquals(20000, records.size());
+      for (int i = 0; i < records.size(); i++) {
+        assertEquals(i, records.get(i).id);
+        assertEquals("line\n" + i, records.get(i).message);
+      }
+      assertEquals(0, bytes.position());
+
+      json.append("{\"id\": 1} {");
+      assertThrows(RuntimeException.class, () -> SUPPORT.readLinesParallel(
+          ByteBuffer.wrap(json.toString().getBytes(StandardCharsets.UTF_8)), pool));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testReadLinesParallelSmallInput() {
+    assertEquals(new ArrayList<>(), SUPPORT.readLinesParallel(new byte[0]));
+    assertEquals(new ArrayList<>(), SUPPORT.readLinesParallel(
+        "\n \r\n".getBytes(StandardCharsets.UTF_8)));
+    assertEquals(2, SUPPORT.readLinesParallel(
+        "{\"id\": 1}\n{\"id\": 2}".getBytes(StandardCharsets.UTF_8)).size());
+  }
+
+  @Json
+  public static class Record {
+    private int id;
+    private String message;
+
+    static Record of(int id, String message) {
+      final Record record = new Record();
+      record.id = id;
+      record.message = message;
+      return record;
+    }
+  }
+}
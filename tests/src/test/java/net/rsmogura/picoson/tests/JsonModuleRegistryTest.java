@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.abi.JsonModuleRegistry;
+import net.rsmogura.picoson.abi.JsonSupportRegistry;
+import net.rsmogura.picoson.abi.Names;
+import net.rsmogura.picoson.samples.models.JsonModule1;
+import net.rsmogura.picoson.samples.models.UserData;
+import net.rsmogura.picoson.tests.CollectionTest.MultiObject;
+import net.rsmogura.picoson.tests.CollectionTest.UserAccount;
+import net.rsmogura.picoson.tests.ReferencedTypes.InnerRef;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class JsonModuleRegistryTest {
+  private static final Map<String, JsonModuleRegistry> REGISTRIES = new HashMap<>();
+
+  @BeforeAll
+  public static void loadRegistries() {
+    for (JsonModuleRegistry registry : ServiceLoader.load(JsonModuleRegistry.class)) {
+      REGISTRIES.put(registry.getClass().getName(), registry);
+    }
+  }
+
+  @Test
+  public void testRegistriesGeneratedForModules() {
+    assertNotNull(registryOf(TestsJsonModule.class));
+    assertNotNull(registryOf(JsonModule1.class));
+  }
+
+  @Test
+  public void testReachableClassesRegistered() throws Exception {
+    final JsonModuleRegistry registry = registryOf(TestsJsonModule.class);
+    for (Class<?> jsonClass : new Class<?>[] {ReferencedTypes.class, InnerRef.class,
+        BaseTypes.class, MultiObject.class, UserAccount.class}) {
+      assertSame(jsonClass.getField(Names.SUPPORT_CLASS_HOLDER).get(null),
+          registry.lookup(jsonClass), jsonClass.getName());
+    }
+
+    assertSame(UserData.class.getField(Names.SUPPORT_CLASS_HOLDER).get(null),
+        registryOf(JsonModule1.class).lookup(UserData.class));
+  }
+
+  @Test
+  public void testOtherClassesNotRegistered() {
+    final JsonModuleRegistry registry = registryOf(TestsJsonModule.class);
+    assertNull(registry.lookup(SampleData.class));
+    assertNull(registry.lookup(String.class));
+    assertNull(registryOf(JsonModule1.class).lookup(BaseTypes.class));
+  }
+
+  @Test
+  public void testJsonConsultsModules() {
+    assertSame(registryOf(TestsJsonModule.class).lookup(ReferencedTypes.class),
+        JsonSupportRegistry.lookupModules(ReferencedTypes.class));
+    assertSame(JsonSupportRegistry.lookupModules(ReferencedTypes.class),
+        Json.jsonSupport(ReferencedTypes.class));
+    assertEquals(JsonSupportRegistry.lookup(InnerRef.class), Json.jsonSupport(InnerRef.class));
+  }
+
+  private static JsonModuleRegistry registryOf(Class<?> module) {
+    return REGISTRIES.get(module.getName() + Names.MODULE_REGISTRY_POSTFIX);
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.abi.Names;
+import net.rsmogura.picoson.tests.SampleData.NotSupposedToBeJsoned;
+import org.junit.jupiter.api.Test;
+
+public class JsonSupportRegistryTest {
+
+  @Test
+  public void testSupportRegisteredByInitializer() throws Exception {
+    final JsonSupport<?> support = Json.jsonSupport(BaseTypes.class);
+    assertSame(BaseTypes.class.getField(Names.SUPPORT_CLASS_HOLDER).get(null), support);
+    assertSame(support, Json.jsonSupport(BaseTypes.class));
+  }
+
+  /**
+   * Class which is not initialized before lookup, is initialized by it, concurrently
+   * by many threads.
+   */
+  @Test
+  public void testLookupInitializesClass() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Callable<JsonSupport<NotInitialized>>> lookups = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        lookups.add(() -> Json.jsonSupport(NotInitialized.class));
+      }
+      final List<Future<JsonSupport<NotInitialized>>> results = executor.invokeAll(lookups);
+      final Object expected = NotInitialized.class.getField(Names.SUPPORT_CLASS_HOLDER).get(null);
+      for (Future<JsonSupport<NotInitialized>> result : results) {
+        assertSame(expected, result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testNotJsonClass() {
+    assertThrows(IllegalArgumentException.class,
+        () -> Json.jsonSupport(NotSupposedToBeJsoned.class));
+  }
+
+  @net.rsmogura.picoson.annotations.Json
+  public static class NotInitialized {
+    private String value;
+  }
+}
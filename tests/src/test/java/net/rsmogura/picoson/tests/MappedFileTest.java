@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import net.rsmogura.picoson.annotations.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import org.junit.jupiter.api.Test;
+
+public class MappedFileTest {
+  private static final JsonSupport<Entry> SUPPORT =
+      net.rsmogura.picoson.Json.jsonSupport(Entry.class);
+
+  @Test
+  public void testReadCollectionFromMappedFile() throws IOException {
+    final StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) {
+      json.append(i > 0 ? ",\n" : "").append("{\"id\": ").append(i)
+          .append(", \"name\": \"entry-").append(i).append("\"}");
+    }
+    json.append(']');
+
+    final Path file = Files.createTempFile("picoson", ".json");
+    try {
+      Files.write(file, json.toString().getBytes(StandardCharsets.UTF_8));
+      final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+      final JsonReader reader = new JsonReader(channel);
+      final List<Entry> entries = SUPPORT.readCollection(reader, new ArrayList<>());
+      reader.close();
+
+      assertFalse(channel.isOpen());
+      assertEquals(1000, entries.size());
+      assertEquals(999, entries.get(999).id);
+      assertEquals("entry-500", entries.get(500).name);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Json
+  public static class Entry {
+    private long id;
+    private String name;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests matching of property names in generated readers.
+ */
+public class NameDispatchTest {
+  private JsonSupport<HashCollisions> jsonSupport = Json.jsonSupport(HashCollisions.class);
+
+  @Test
+  public void testCollidingNames() {
+    HashCollisions read = jsonSupport.read(new JsonReader(
+        new StringReader("{\"yacxa\": 2, \"glbvs\": 1, \"other\": \"o\"}")));
+
+    assertEquals(1, read.getFirst());
+    assertEquals(2, read.getSecond());
+    assertEquals("o", read.getOther());
+  }
+
+  @Test
+  public void testEscapedName() {
+    HashCollisions read = jsonSupport.read(new JsonReader(
+        new StringReader("{\"\\u0067lbvs\": 1, \"oth\\u0065r\": \"o\"}")));
+
+    assertEquals(1, read.getFirst());
+    assertEquals("o", read.getOther());
+  }
+
+  @Test
+  public void testUnknownPropertySkipped() {
+    HashCollisions read = jsonSupport.read(new JsonReader(new StringReader(
+        "{\"glbvs\": 1, \"unknown\": {\"yacxa\": [2, {\"other\": \"x\"}]}, \"other\": \"o\"}")));
+
+    assertEquals(1, read.getFirst());
+    assertEquals(0, read.getSecond());
+    assertEquals("o", read.getOther());
+  }
+
+  @Test
+  public void testMatchedNameInPath() {
+    final String json = "{\"other\": \"o\", \"glbvs\": true}";
+
+    final JsonReader charsReader = new JsonReader(new StringReader(json));
+    charsReader.setTrackPath(true);
+    final RuntimeException chars = assertThrows(RuntimeException.class,
+        () -> jsonSupport.read(charsReader));
+    assertTrue(chars.getMessage().contains("$.glbvs"), chars.getMessage());
+
+    final JsonReader bytesReader = new JsonReader(json.getBytes(StandardCharsets.UTF_8));
+    bytesReader.setTrackPath(true);
+    final RuntimeException bytes = assertThrows(RuntimeException.class,
+        () -> jsonSupport.read(bytesReader));
+    assertTrue(bytes.getMessage().contains("$.glbvs"), bytes.getMessage());
+  }
+
+  @Test
+  public void testPathNotTrackedInGeneratedRead() {
+    final String json = "[{}, {\"glbvs\": true}]";
+    final JsonReader reader = new JsonReader(json.getBytes(StandardCharsets.UTF_8));
+    reader.beginArray();
+    jsonSupport.read(reader);
+    assertEquals("$[1]", reader.getPath());
+
+    final RuntimeException e = assertThrows(RuntimeException.class,
+        () -> jsonSupport.read(reader));
+    assertTrue(e.getMessage().contains("$[1].*"), e.getMessage());
+  }
+}
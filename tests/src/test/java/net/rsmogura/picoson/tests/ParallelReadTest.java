@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import net.rsmogura.picoson.JsonReadException;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.MalformedJsonException;
+import net.rsmogura.picoson.annotations.Json;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ParallelReadTest {
+  private static final JsonSupport<Item> SUPPORT =
+      net.rsmogura.picoson.Json.jsonSupport(Item.class);
+
+  private static ForkJoinPool pool;
+
+  @BeforeAll
+  public static void createPool() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterAll
+  public static void shutdownPool() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void testReadsLikeSequentialReader() {
+    final StringBuilder json = new StringBuilder(" [\n");
+    for (int i = 0; i < 20000; i++) {
+      json.append(i > 0 ? ",\n" : "")
+          .append("{\"id\": ").append(i)
+          // Structural characters in strings, and escaped quotes, aren't boundaries
+          .append(", \"name\": \"a, \\\"b\\\"] }, [c\\\\\"")
+          .append(", \"values\": [").append(i).append(", 1, 2]}");
+    }
+    final String text = json.append("\n] ").toString();
+    final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+    final List<Item> sequential = SUPPORT.readCollection(
+        new JsonReader(new StringReader(text)), null);
+    final List<Item> parallel = SUPPORT.readCollectionParallel(ByteBuffer.wrap(bytes), pool);
+
+    assertEquals(20000, parallel.size());
+    for (int i = 0; i < parallel.size(); i++) {
+      assertEquals(i, parallel.get(i).id);
+      assertEquals(sequential.get(i).name, parallel.get(i).name);
+      assertArrayEquals(sequential.get(i).values, parallel.get(i).values);
+    }
+    assertEquals("a, \"b\"] }, [c\\", parallel.get(0).name);
+  }
+
+  @Test
+  public void testBufferPositionNotChanged() {
+    final ByteBuffer json = ByteBuffer.wrap("xx[{\"id\": 1}, {\"id\": 2}]".getBytes(
+        StandardCharsets.UTF_8));
+    json.position(2);
+
+    final List<Item> items = SUPPORT.readCollectionParallel(json, pool);
+    assertEquals(2, items.size());
+    assertEquals(2, items.get(1).id);
+    assertEquals(2, json.position());
+  }
+
+  @Test
+  public void testByteOrderMark() {
+    assertEquals(1, SUPPORT.readCollectionParallel(bytes("\uFEFF[{\"id\": 1}]")).size());
+  }
+
+  @Test
+  public void testNullAndEmptyArray() {
+    assertTrue(SUPPORT.readCollectionParallel(bytes(" null ")).isEmpty());
+    assertTrue(SUPPORT.readCollectionParallel(bytes(" [ ] ")).isEmpty());
+  }
+
+  @Test
+  public void testMalformedArray() {
+    assertThrows(MalformedJsonException.class, () -> SUPPORT.readCollectionParallel(
+        bytes("[{\"id\": 1}")));
+    assertThrows(MalformedJsonException.class, () -> SUPPORT.readCollectionParallel(
+        bytes("[{\"id\": 1}} ")));
+    assertThrows(MalformedJsonException.class, () -> SUPPORT.readCollectionParallel(
+        bytes("[{\"id\": 1}] []")));
+    assertThrows(MalformedJsonException.class, () -> SUPPORT.readCollectionParallel(
+        bytes("[{\"id\": 1} {\"id\": 2}]")));
+    // Elements are checked by readers
+    assertThrows(JsonReadException.class, () -> SUPPORT.readCollectionParallel(
+        bytes("[{\"id\": 1},]")));
+    assertThrows(MalformedJsonException.class, () -> SUPPORT.readCollectionParallel(
+        bytes("[{\"id\": 1}, {\"id\": x}]")));
+  }
+
+  private static byte[] bytes(String json) {
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Json
+  public static class Item {
+    private int id;
+    private String name;
+    private int[] values;
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.JsonWriter;
+import net.rsmogura.picoson.annotations.Json;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ParallelWriteTest {
+  private static final JsonSupport<Item> SUPPORT =
+      net.rsmogura.picoson.Json.jsonSupport(Item.class);
+
+  private static ForkJoinPool pool;
+
+  @BeforeAll
+  public static void createPool() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterAll
+  public static void shutdownPool() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void testWritesLikeSequentialWriter() {
+    final List<Item> items = new ArrayList<>();
+    for (int i = 0; i < 20000; i++) {
+      items.add(Item.of(i, "item \"" + i + "\" \u0142"));
+    }
+
+    final PartialChannel channel = new PartialChannel();
+    SUPPORT.writeCollectionParallel(channel, items, pool);
+
+    assertEquals(sequential(items), channel.toString());
+    assertTrue(channel.writes > 1);
+  }
+
+  @Test
+  public void testNotRandomAccessCollection() {
+    final LinkedHashSet<Item> items = new LinkedHashSet<>();
+    for (int i = 0; i < 1000; i++) {
+      items.add(Item.of(i, null));
+    }
+
+    final PartialChannel channel = new PartialChannel();
+    SUPPORT.writeCollectionParallel(channel, items, pool);
+    assertEquals(sequential(items), channel.toString());
+  }
+
+  @Test
+  public void testSmallEmptyAndNullCollection() {
+    final PartialChannel channel = new PartialChannel();
+    SUPPORT.writeCollectionParallel(channel, Collections.singletonList(Item.of(1, "a")));
+    assertEquals("[{\"id\":1,\"name\":\"a\"}]", channel.toString());
+
+    final PartialChannel empty = new PartialChannel();
+    SUPPORT.writeCollectionParallel(empty, Collections.emptyList(), pool);
+    assertEquals("[]", empty.toString());
+
+    final PartialChannel none = new PartialChannel();
+    SUPPORT.writeCollectionParallel(none, null, pool);
+    assertEquals("", none.toString());
+  }
+
+  private static String sequential(Iterable<Item> items) {
+    final StringWriter out = new StringWriter();
+    final JsonWriter writer = new JsonWriter(out);
+    writer.beginArray();
+    for (Item item : items) {
+      SUPPORT.write(item, writer);
+    }
+    writer.endArray();
+    writer.flush();
+    return out.toString();
+  }
+
+  @Json
+  public static class Item {
+    private int id;
+    private String name;
+
+    static Item of(int id, String name) {
+      final Item item = new Item();
+      item.id = id;
+      item.name = name;
+      return item;
+    }
+  }
+
+  /** Channel accepting at most 1000 bytes per write. */
+  static class PartialChannel implements GatheringByteChannel {
+    private ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private int writes;
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+      writes++;
+      long written = 0;
+      for (int i = offset; i < offset + length && written < 1000; i++) {
+        while (srcs[i].hasRemaining() && written < 1000) {
+          out.write(srcs[i].get());
+          written++;
+        }
+      }
+      return written;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs) {
+      return write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      return (int) write(new ByteBuffer[] {src});
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    @Override
+    public String toString() {
+      return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.JsonWriter;
+import org.junit.jupiter.api.Test;
+
+public class PrimitiveArraysTest {
+  private static final String JSON = "{"
+      + "\"ints\":[1,-2,2147483647],"
+      + "\"longs\":[9223372036854775807,-1],"
+      + "\"shorts\":[-32768,32767],"
+      + "\"bytes\":[-128,0,127],"
+      + "\"doubles\":[1.5,-0.1,1.0E-7],"
+      + "\"floats\":[0.1,3.4028235E38],"
+      + "\"booleans\":[true,false],"
+      + "\"data\":\"AQID/w==\""
+      + "}";
+
+  private static final JsonSupport<PrimitiveArrays> SUPPORT =
+      Json.jsonSupport(PrimitiveArrays.class);
+
+  @Test
+  public void testRead() {
+    final PrimitiveArrays read = SUPPORT.read(new JsonReader(new StringReader(JSON)));
+
+    assertArrayEquals(new int[] {1, -2, Integer.MAX_VALUE}, read.getInts());
+    assertArrayEquals(new long[] {Long.MAX_VALUE, -1}, read.getLongs());
+    assertArrayEquals(new short[] {Short.MIN_VALUE, Short.MAX_VALUE}, read.getShorts());
+    assertArrayEquals(new byte[] {Byte.MIN_VALUE, 0, Byte.MAX_VALUE}, read.getBytes());
+    assertArrayEquals(new double[] {1.5, -0.1, 1.0E-7}, read.getDoubles());
+    assertArrayEquals(new float[] {0.1f, Float.MAX_VALUE}, read.getFloats());
+    assertArrayEquals(new boolean[] {true, false}, read.getBooleans());
+    assertArrayEquals(new byte[] {1, 2, 3, -1}, read.getData());
+  }
+
+  @Test
+  public void testWrite() {
+    final PrimitiveArrays read = SUPPORT.read(new JsonReader(new StringReader(JSON)));
+
+    final StringWriter sw = new StringWriter();
+    SUPPORT.write(read, new JsonWriter(sw));
+    assertEquals(JSON, sw.toString());
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final JsonWriter utf8Writer = new JsonWriter(out);
+    SUPPORT.write(read, utf8Writer);
+    utf8Writer.flush();
+    assertEquals(JSON, new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testNullAndEmpty() {
+    final PrimitiveArrays read = SUPPORT.read(new JsonReader(new StringReader(
+        "{\"ints\":[],\"doubles\":null,\"data\":\"\"}")));
+    assertArrayEquals(new int[0], read.getInts());
+    assertNull(read.getDoubles());
+    assertArrayEquals(new byte[0], read.getData());
+
+    final StringWriter sw = new StringWriter();
+    SUPPORT.write(read, new JsonWriter(sw));
+    assertEquals("{\"ints\":[],\"longs\":null,\"shorts\":null,\"bytes\":null,"
+        + "\"doubles\":null,\"floats\":null,\"booleans\":null,\"data\":\"\"}", sw.toString());
+  }
+
+  /**
+   * Arrays larger than reader and writer buffers, so elements and Base64 value span
+   * many buffer fills.
+   */
+  @Test
+  public void testLargeArrays() {
+    final Random random = new Random(42);
+    final PrimitiveArrays arrays = new PrimitiveArrays();
+    arrays.setDoubles(random.doubles(10000).toArray());
+    arrays.setInts(random.ints(10000).toArray());
+    final byte[] data = new byte[100001];
+    random.nextBytes(data);
+    arrays.setData(data);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final JsonWriter writer = new JsonWriter(out);
+    SUPPORT.write(arrays, writer);
+    writer.flush();
+    final String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+    assertEquals(true, json.contains("\"data\":\"" + Base64.getEncoder().encodeToString(data) + "\""));
+
+    for (JsonReader reader : new JsonReader[] {
+        new JsonReader(new StringReader(json)), new JsonReader(out.toByteArray())}) {
+      final PrimitiveArrays read = SUPPORT.read(reader);
+      assertArrayEquals(arrays.getDoubles(), read.getDoubles());
+      assertArrayEquals(arrays.getInts(), read.getInts());
+      assertArrayEquals(data, read.getData());
+    }
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import net.rsmogura.picoson.annotations.Json;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import org.junit.jupiter.api.Test;
+
+public class ReadIntoTest {
+  private static final JsonSupport<Message> SUPPORT =
+      net.rsmogura.picoson.Json.jsonSupport(Message.class);
+
+  private static final String FULL_MESSAGE = "{"
+      + "\"id\": 2, \"value\": 1.5, \"active\": true, \"name\": \"second\","
+      + "\"header\": {\"timestamp\": 20, \"source\": \"b\"},"
+      + "\"codes\": [4, 5],"
+      + "\"tags\": [\"y\"],"
+      + "\"history\": [{\"timestamp\": 30, \"source\": \"c\"}]"
+      + "}";
+
+  @Test
+  public void testReadIntoReusesInstances() {
+    final Message target = SUPPORT.read(reader("{"
+        + "\"id\": 1, \"value\": 0.5, \"name\": \"first\","
+        + "\"header\": {\"timestamp\": 10, \"source\": \"a\"},"
+        + "\"codes\": [1, 2, 3],"
+        + "\"tags\": [\"x\"],"
+        + "\"history\": []"
+        + "}"));
+    final Header header = target.header;
+    final List<Integer> codes = target.codes;
+    final Set<String> tags = target.tags;
+    final List<Header> history = target.history;
+
+    assertSame(target, SUPPORT.readInto(target, reader(FULL_MESSAGE)));
+
+    assertEquals(2, target.id);
+    assertEquals(1.5, target.value);
+    assertEquals(true, target.active);
+    assertEquals("second", target.name);
+    assertSame(header, target.header);
+    assertEquals(20, header.timestamp);
+    assertEquals("b", header.source);
+    assertSame(codes, target.codes);
+    assertEquals(Arrays.asList(4, 5), codes);
+    assertSame(tags, target.tags);
+    assertEquals(Collections.singleton("y"), tags);
+    assertSame(history, target.history);
+    assertEquals(1, history.size());
+    assertEquals(30, history.get(0).timestamp);
+  }
+
+  @Test
+  public void testReadIntoKeepsImplementationOfCollection() {
+    final Message target = new Message();
+    target.tags = new LinkedHashSet<>(Arrays.asList("a", "b"));
+    target.codes = new ArrayList<>(Arrays.asList(7, 8));
+    final Set<String> tags = target.tags;
+
+    SUPPORT.readInto(target, reader("{\"tags\": [\"c\", \"a\"], \"codes\": null}"));
+
+    assertSame(tags, target.tags);
+    assertEquals(Arrays.asList("c", "a"), new ArrayList<>(tags));
+    assertNull(target.codes);
+  }
+
+  @Test
+  public void testReadIntoReplacesOtherCollections() {
+    final Message target = new Message();
+    target.codes = Collections.emptyList();
+    final List<Header> history = new LinkedList<>();
+    target.history = history;
+
+    SUPPORT.readInto(target, reader(FULL_MESSAGE));
+
+    assertEquals(ArrayList.class, target.codes.getClass());
+    assertEquals(Arrays.asList(4, 5), target.codes);
+    assertNotSame(history, target.history);
+    assertTrue(history.isEmpty());
+    assertEquals(1, target.history.size());
+  }
+
+  @Test
+  public void testReadIntoResetsMissingProperties() {
+    final Message target = SUPPORT.read(reader(FULL_MESSAGE));
+
+    SUPPORT.readInto(target, reader("{\"id\": 3}"));
+
+    assertEquals(3, target.id);
+    assertEquals(0.0, target.value);
+    assertFalse(target.active);
+    assertNull(target.name);
+    assertNull(target.header);
+    assertNull(target.codes);
+    assertNull(target.tags);
+    assertNull(target.history);
+  }
+
+  @Test
+  public void testReadIntoResetsMissingPropertiesToInitializers() {
+    final JsonSupport<Settings> support = net.rsmogura.picoson.Json.jsonSupport(Settings.class);
+    final Settings first = support.read(reader(
+        "{\"retries\": 5, \"mode\": \"safe\", \"hosts\": [\"x\"], \"name\": \"n\"}"));
+    final Settings second = support.read(reader("{\"hosts\": []}"));
+
+    support.readInto(first, reader("{\"name\": \"m\"}"));
+    support.readInto(second, reader("{}"));
+
+    assertEquals(3, first.retries);
+    assertEquals("fast", first.mode);
+    assertEquals(Collections.singletonList("a"), first.hosts);
+    assertEquals("m", first.name);
+    assertEquals(Collections.singletonList("a"), second.hosts);
+    assertNotSame(first.hosts, second.hosts);
+    assertNull(second.name);
+  }
+
+  @Test
+  public void testReadIntoCreatesMissingNestedObjects() {
+    final Message target = new Message();
+
+    SUPPORT.readInto(target, reader(FULL_MESSAGE));
+
+    assertNotNull(target.header);
+    assertEquals(20, target.header.timestamp);
+    assertEquals(Arrays.asList(4, 5), target.codes);
+    assertEquals(1, target.history.size());
+  }
+
+  @Test
+  public void testReadIntoNullTarget() {
+    final Message result = SUPPORT.readInto(null, reader(FULL_MESSAGE));
+
+    assertNotNull(result);
+    assertEquals(2, result.id);
+    assertEquals("b", result.header.source);
+  }
+
+  private static JsonReader reader(String json) {
+    return new JsonReader(new StringReader(json));
+  }
+
+  @Json
+  public static class Message {
+    private long id;
+    private double value;
+    private boolean active;
+    private String name;
+    private Header header;
+    private List<Integer> codes;
+    private Set<String> tags;
+    private List<Header> history;
+  }
+
+  @Json
+  public static class Settings {
+    private int retries = 3;
+    private String mode = "fast";
+    private List<String> hosts = new ArrayList<>(Collections.singletonList("a"));
+    private String name;
+  }
+
+  @Json
+  public static class Header {
+    private long timestamp;
+    private String source;
+  }
+}
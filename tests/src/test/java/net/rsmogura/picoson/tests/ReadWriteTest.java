@@ -62,6 +62,26 @@ public class ReadWriteTest {
     }
   }
 
+  /**
+   * Floats are written with digits of float, not of float widened to double.
+   */
+  @Test
+  public void testFloatWrittenAsFloat() {
+    final ReadWriteTestModel model = prepareSampleModel();
+    model.setFloatField(0.1f);
+    model.setFloatBField(0.2f);
+    model.setDoubleField(0.3);
+
+    final CharArrayWriter writeBuff = new CharArrayWriter();
+    net.rsmogura.picoson.Json.jsonSupport(ReadWriteTestModel.class)
+        .write(model, new JsonWriter(writeBuff));
+    final String s = writeBuff.toString();
+
+    assertTrue(s.contains("\"floatField\":0.1,"), s);
+    assertTrue(s.contains("\"floatBField\":0.2,"), s);
+    assertTrue(s.contains("\"doubleField\":0.3,"), s);
+  }
+
   protected void testReadWriteCheck() {
     final ReadWriteTestModel srcModel = prepareSampleModel();
     final ReadWriteTestModel toSerializeData = srcModel.clone();
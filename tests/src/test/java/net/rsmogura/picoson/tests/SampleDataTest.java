@@ -16,6 +16,7 @@
 package net.rsmogura.picoson.tests;
 
 import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayOutputStream;
 import java.io.CharArrayWriter;
 import java.io.OutputStream;
 import java.util.HashSet;
@@ -55,6 +56,20 @@ public class SampleDataTest {
         assertEquals(826281, read.getType());
     }
 
+    /** Tests read of UTF-8 bytes, without decoding to characters first. */
+    @Test
+    public void testReadBytes() throws Exception {
+        InputStream userJson = Thread.currentThread().getContextClassLoader()
+                .getResourceAsStream("net/rsmogura/picoson/tests/user-data-simple.json");
+        JsonReader reader = new JsonReader(userJson);
+        SampleData read = sampleDataJsonSupport.read(reader);
+
+        assertEquals("rado", read.getUserName());
+        assertEquals("SHA256:123", read.getPasswordHash());
+        assertEquals(true, read.isActive());
+        assertEquals(826281, read.getType());
+    }
+
     @Test
     public void testWrite() throws Exception {
         CharArrayWriter out = new CharArrayWriter();
@@ -66,6 +81,22 @@ public class SampleDataTest {
         writer.close();
     }
 
+    /** Tests write of UTF-8 bytes, and reads them back. */
+    @Test
+    public void testWriteBytes() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(out);
+        SampleData sampleData = new SampleData();
+        sampleData.setUserName("u\u017cytkownik");
+        sampleData.setType(-1);
+        sampleDataJsonSupport.write(sampleData, writer);
+        writer.flush();
+
+        SampleData read = sampleDataJsonSupport.read(new JsonReader(out.toByteArray()));
+        assertEquals("u\u017cytkownik", read.getUserName());
+        assertEquals(-1, read.getType());
+    }
+
     @Test
     public void testNestedClassRead() throws Exception {
         InputStream userJson = Thread.currentThread().getContextClassLoader()
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import net.rsmogura.picoson.annotations.Json;
+import net.rsmogura.picoson.JsonReadException;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import org.junit.jupiter.api.Test;
+
+public class StreamTest {
+  private static final JsonSupport<Item> SUPPORT =
+      net.rsmogura.picoson.Json.jsonSupport(Item.class);
+
+  @Test
+  public void testStream() {
+    final List<Integer> ids = SUPPORT.stream(reader("[{\"id\": 1}, {\"id\": 2}, {\"id\": 3}]"))
+        .map(item -> item.id)
+        .collect(Collectors.toList());
+    assertEquals(Arrays.asList(1, 2, 3), ids);
+  }
+
+  @Test
+  public void testElementsReadLazily() {
+    final JsonReader reader = reader("{\"items\": [{\"id\": 1}, {\"id\": 2}], \"after\": true}");
+    reader.beginObject();
+    assertEquals("items", reader.nextName());
+
+    final Iterator<Item> iterator = SUPPORT.iterator(reader);
+    assertTrue(iterator.hasNext());
+    assertEquals(1, iterator.next().id);
+    // Second element isn't read yet
+    assertEquals("$.items[1]", reader.getPath());
+    assertEquals(2, iterator.next().id);
+    assertFalse(iterator.hasNext());
+
+    // Reader is positioned after array
+    assertEquals("after", reader.nextName());
+    assertTrue(reader.nextBoolean());
+    reader.endObject();
+  }
+
+  @Test
+  public void testNullAndEmptyArray() {
+    assertEquals(0, SUPPORT.stream(reader("null")).count());
+    assertEquals(0, SUPPORT.stream(reader("[]")).count());
+  }
+
+  @Test
+  public void testNullElement() {
+    final Iterator<Item> iterator = SUPPORT.iterator(reader("[{\"id\": 1}, null]"));
+    iterator.next();
+    assertThrows(JsonReadException.class, iterator::next);
+  }
+
+  @Test
+  public void testCharacteristicsAndParallel() {
+    final Spliterator<Item> spliterator = SUPPORT.spliterator(reader("[]"));
+    assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED));
+    assertTrue(spliterator.hasCharacteristics(Spliterator.NONNULL));
+
+    final StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 5000; i++) {
+      json.append(i > 0 ? "," : "").append("{\"id\": ").append(i).append('}');
+    }
+    final List<Integer> ids = SUPPORT.stream(reader(json.append(']').toString()))
+        .parallel()
+        .map(item -> item.id)
+        .collect(Collectors.toList());
+    assertEquals(5000, ids.size());
+    assertEquals(4999, (int) ids.get(4999));
+  }
+
+  private static JsonReader reader(String json) {
+    return new JsonReader(new StringReader(json));
+  }
+
+  @Json
+  public static class Item {
+    private int id;
+  }
+}
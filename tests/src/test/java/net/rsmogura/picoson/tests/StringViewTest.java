@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import net.rsmogura.picoson.annotations.Json;
+import net.rsmogura.picoson.annotations.JsonProperty;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonSupport;
+import org.junit.jupiter.api.Test;
+
+public class StringViewTest {
+  private static final JsonSupport<Event> SUPPORT =
+      net.rsmogura.picoson.Json.jsonSupport(Event.class);
+
+  @Test
+  public void testViewPassedToHandler() {
+    final String json = "{\"type\": \"order\", \"source\": \"shop\", \"payload\": \"p\"}";
+    for (JsonReader reader : readers(json)) {
+      final Event event = SUPPORT.read(reader);
+      assertTrue(event.accepted);
+      assertEquals(4, event.sourceLength);
+      assertEquals("p", event.payload);
+      // Values passed to handlers are not stored
+      assertNull(event.type);
+      assertNull(event.source);
+    }
+  }
+
+  @Test
+  public void testEscapedValue() {
+    final String json = "{\"type\": \"ord\\u0065r\", \"source\": \"\\u0161\\\"\"}";
+    for (JsonReader reader : readers(json)) {
+      final Event event = SUPPORT.read(reader);
+      assertTrue(event.accepted);
+      assertEquals(2, event.sourceLength);
+    }
+  }
+
+  @Test
+  public void testNullAndRejectedValue() {
+    final String json = "{\"type\": \"other\", \"source\": null}";
+    for (JsonReader reader : readers(json)) {
+      final Event event = SUPPORT.read(reader);
+      assertFalse(event.accepted);
+      assertEquals(-1, event.sourceLength);
+    }
+  }
+
+  @Test
+  public void testViewHandlerWithReadInto() {
+    final Event event = new Event();
+    // Handler is called when property is read, missing properties are reset after that
+    SUPPORT.readInto(event, readers("{\"accepted\": false, \"type\": \"order\"}")[0]);
+    assertTrue(event.accepted);
+    assertEquals(0, event.sourceLength);
+  }
+
+  private static JsonReader[] readers(String json) {
+    return new JsonReader[] {
+        new JsonReader(new StringReader(json)),
+        new JsonReader(json.getBytes(StandardCharsets.UTF_8))
+    };
+  }
+
+  @Json
+  public static class Event {
+    @JsonProperty(viewHandler = "onType")
+    private String type;
+
+    @JsonProperty(viewHandler = "onSource")
+    private String source;
+
+    private String payload;
+
+    private boolean accepted;
+
+    private int sourceLength;
+
+    private void onType(CharSequence type) {
+      accepted = type != null && "order".contentEquals(type);
+    }
+
+    public void onSource(CharSequence source) {
+      sourceLength = source != null ? source.length() : -1;
+    }
+  }
+}
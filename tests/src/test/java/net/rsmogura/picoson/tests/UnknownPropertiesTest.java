@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import lombok.Data;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonReadException;
+import net.rsmogura.picoson.JsonReader;
+import net.rsmogura.picoson.JsonWriter;
+import net.rsmogura.picoson.annotations.Json.UnknownProperties;
+import net.rsmogura.picoson.annotations.JsonUnknownProperties;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests handling of properties not declared in class.
+ */
+public class UnknownPropertiesTest {
+  private static final String JSON =
+      "{\"unknown\": [1, {\"a\": null}], \"name\": \"n\", \"other\": true}";
+
+  @Test
+  public void testFail() {
+    JsonReadException e = assertThrows(JsonReadException.class,
+        () -> Json.jsonSupport(Failing.class).read(new JsonReader(new StringReader(JSON))));
+
+    assertTrue(e.getMessage().contains("unknown"), "Expected message contains property name");
+  }
+
+  @Test
+  public void testCollect() {
+    Collecting read = Json.jsonSupport(Collecting.class)
+        .read(new JsonReader(new StringReader(JSON)));
+
+    assertEquals("n", read.getName());
+    assertEquals(Arrays.asList("unknown", "other"),
+        Arrays.asList(read.getUnknown().keySet().toArray()));
+    assertEquals(Arrays.asList(1L, Collections.singletonMap("a", null)),
+        read.getUnknown().get("unknown"));
+    assertEquals(true, read.getUnknown().get("other"));
+  }
+
+  @Test
+  public void testCollectNothing() {
+    Collecting read = Json.jsonSupport(Collecting.class)
+        .read(new JsonReader(new StringReader("{\"name\": \"n\"}")));
+
+    assertEquals("n", read.getName());
+    assertNull(read.getUnknown());
+
+    // Collected properties are not written
+    read.setUnknown(Collections.singletonMap("other", true));
+    StringWriter out = new StringWriter();
+    Json.jsonSupport(Collecting.class).write(read, new JsonWriter(out));
+    assertEquals("{\"name\":\"n\"}", out.toString());
+  }
+
+  @net.rsmogura.picoson.annotations.Json(unknownProperties = UnknownProperties.FAIL)
+  @Data
+  public static class Failing {
+    private String name;
+  }
+
+  @net.rsmogura.picoson.annotations.Json(unknownProperties = UnknownProperties.COLLECT)
+  @Data
+  public static class Collecting {
+    private String name;
+
+    @JsonUnknownProperties
+    private Map<String, Object> unknown;
+  }
+}
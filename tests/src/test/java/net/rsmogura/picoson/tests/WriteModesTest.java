@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.rsmogura.picoson.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+import lombok.Data;
+import net.rsmogura.picoson.Json;
+import net.rsmogura.picoson.JsonSupport;
+import net.rsmogura.picoson.JsonWriter;
+import net.rsmogura.picoson.annotations.Json.WriteMode;
+import net.rsmogura.picoson.annotations.JsonProperty;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that both write modes give same output.
+ */
+public class WriteModesTest {
+
+  @Test
+  public void testSameOutput() {
+    Unrolled unrolled = new Unrolled();
+    unrolled.setName("a\"b");
+    unrolled.setCount(3);
+    unrolled.setRatio(0.5);
+    unrolled.setReference(new SampleData());
+    unrolled.getReference().setUserName("user");
+
+    Descriptors descriptors = new Descriptors();
+    descriptors.setName("a\"b");
+    descriptors.setCount(3);
+    descriptors.setRatio(0.5);
+    descriptors.setReference(unrolled.getReference());
+
+    final String expected = "{\"name\":\"a\\\"b\",\"count\":3,\"ratio\":0.5,\"flag\":null,"
+        + "\"reference\":{\"userName\":\"user\",\"password-hash\":null,\"type\":0,"
+        + "\"active\":false},\"empty\":null}";
+    assertEquals(expected, write(Json.jsonSupport(Unrolled.class), unrolled));
+    assertEquals(expected, write(Json.jsonSupport(Descriptors.class), descriptors));
+  }
+
+  private static <T> String write(JsonSupport<T> jsonSupport, T value) {
+    StringWriter out = new StringWriter();
+    jsonSupport.write(value, new JsonWriter(out));
+    return out.toString();
+  }
+
+  @net.rsmogura.picoson.annotations.Json
+  @Data
+  public static class Unrolled {
+    private String name;
+    private int count;
+    private double ratio;
+    private Boolean flag;
+    private SampleData reference;
+    @JsonProperty("empty")
+    private SampleData emptyReference;
+  }
+
+  @net.rsmogura.picoson.annotations.Json(writeMode = WriteMode.DESCRIPTORS)
+  @Data
+  public static class Descriptors {
+    private String name;
+    private int count;
+    private double ratio;
+    private Boolean flag;
+    private SampleData reference;
+    @JsonProperty("empty")
+    private SampleData emptyReference;
+  }
+}